@@ -0,0 +1,61 @@
+package com.comp2042;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single daemon thread that writes files behind the game, so that the
+ * JavaFX thread never waits for the disk.
+ * <p>
+ * Tasks run one at a time in the order they were queued. What is still
+ * queued when the JVM exits is written by a shutdown hook, and
+ * {@link #drain()} waits for it on demand (e.g. in tests).
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class BackgroundWriter {
+
+    /** Longest {@link #drain()} waits for queued writes. */
+    private static final long DRAIN_TIMEOUT_SECONDS = 5;
+
+    private final String name;
+    private final ExecutorService executor;
+
+    /**
+     * Starts the writer thread, named {@code <name>-writer}, and registers
+     * its shutdown hook.
+     *
+     * @param name what the writer writes, e.g. {@code replay}
+     */
+    public BackgroundWriter(String name) {
+        this.name = name;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(this::drain, name + "-flush"));
+    }
+
+    /**
+     * Queues a write.
+     *
+     * @param task write to run on the writer thread
+     */
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Waits until every write queued so far has finished.
+     */
+    public void drain() {
+        try {
+            executor.submit(() -> { }).get(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            System.out.println("The " + name + " writer did not finish: " + e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.comp2042;
 
+import com.comp2042.logic.bricks.Brick;
+
+import java.util.List;
+
 /**
  * Core abstraction for the Tetris board logic.
  * <p>
@@ -26,10 +30,15 @@ public interface Board {
     boolean createNewBrick();
 
     /**
-     * @return current board matrix including all fixed bricks
+     * @return current board matrix including all fixed bricks, which the caller may write to
      */
     int[][] getBoardMatrix();
 
+    /**
+     * @return current board matrix including all fixed bricks, for reading only
+     */
+    int[][] readBoardMatrix();
+
     /**
      * @return snapshot of the current view-related state (brick, ghost, hold, next)
      */
@@ -47,6 +56,16 @@ public interface Board {
      */
     ClearRow clearRows();
 
+    /**
+     * Pushes garbage rows in from the bottom of the board, each filled
+     * except for one hole column (versus mode).
+     *
+     * @param rows       number of garbage rows
+     * @param holeColumn the empty column of every garbage row
+     * @return {@code true} if filled cells were pushed off the top
+     */
+    boolean addGarbage(int rows, int holeColumn);
+
     /**
      * @return score model associated with this board
      */
@@ -61,4 +80,24 @@ public interface Board {
      * New feature: allow holding/swapping the current brick
      * */
     void holdCurrentBrick();
+
+    /**
+     * @return bricks queued after the active one, in spawn order (may be empty)
+     */
+    List<Brick> getUpcomingBricks();
+
+    /**
+     * @return 64-bit Zobrist hash of the board cells, active brick and hold slot
+     */
+    long getZobristHash();
+
+    /**
+     * Creates an independent copy of the full game state (cells, active
+     * brick, hold slot, upcoming bricks and score) for simulations.
+     * Implementations should share unchanged data with the copy rather
+     * than copying it eagerly.
+     *
+     * @return board that evolves independently of this one
+     */
+    Board fork();
 }
@@ -0,0 +1,25 @@
+package com.comp2042;
+
+import com.comp2042.logic.bricks.BrickType;
+
+/**
+ * Plain copy of everything a {@link SimpleBoard} needs to continue a game:
+ * the fixed cells, the active brick with its rotation and position, the
+ * hold slot and the score. The upcoming bricks belong to the brick
+ * generator and are saved separately.
+ *
+ * @param cells    copy of the board matrix, {@code cells[row][column]}
+ * @param brick    type of the active brick
+ * @param rotation rotation index of the active brick
+ * @param x        column of the active brick's shape matrix
+ * @param y        row of the active brick's shape matrix
+ * @param hold     type of the held brick, or {@code null} if the slot is empty
+ * @param holdUsed {@code true} if hold was already used for the active brick
+ * @param score    current score
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public record BoardState(int[][] cells, BrickType brick, int rotation, int x, int y,
+                         BrickType hold, boolean holdUsed, int score) {
+}
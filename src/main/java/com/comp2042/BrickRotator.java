@@ -39,6 +39,13 @@ public class BrickRotator {
         return brick.getShapeMatrix().get(currentShape);
     }
 
+    /**
+     * @return index of the current rotation state
+     */
+    public int getCurrentShapeIndex() {
+        return currentShape;
+    }
+
     /**
      * Sets the current rotation index
      *
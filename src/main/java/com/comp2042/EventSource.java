@@ -6,8 +6,9 @@ package com.comp2042;
  * <ul>
  *     <li>{@link #USER} - triggered by a key press from the player</li>
  *     <li>{@link #THREAD} - triggered by the automatic game timer</li>
+ *     <li>{@link #BOT} - issued by an automated player</li>
  * </ul>
  */
 public enum EventSource {
-    USER, THREAD
+    USER, THREAD, BOT
 }
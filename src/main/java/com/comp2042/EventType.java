@@ -13,5 +13,9 @@ public enum EventType {
     /** Move the active brick one cell to the right. */
     RIGHT,
     /** Rotate the active brick . */
-    ROTATE
+    ROTATE,
+    /** Drop the active brick to the bottom and lock it. */
+    HARD_DROP,
+    /** Move the active brick to the hold slot (or swap with the held one). */
+    HOLD
 }
@@ -1,11 +1,21 @@
 package com.comp2042;
 
+import com.comp2042.logic.bricks.RandomBrickGenerator;
+import com.comp2042.replay.ReplayHeader;
+import com.comp2042.replay.ReplayRecorder;
+import com.comp2042.save.SaveFile;
+import com.comp2042.save.SavedGame;
+import com.comp2042.stats.GameMetrics;
+import com.comp2042.stats.StatsCounter;
+import com.comp2042.stats.StatsStore;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.util.Duration;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * Coordinates user input, board updates, and game loop timing for the Tetris game.
  * <p>
@@ -13,13 +23,39 @@ import javafx.util.Duration;
  * between the game logic ({@link Board}) and the user interface ({@link GuiController}).
  * It handles all game events including movement, rotation, hard drop and timer modes,
  * score updates and game-over transitions
+ * <p>
+ * Every game is recorded as a binary replay (see {@link ReplayRecorder}):
+ * each game starts from a fresh seed, which is stored in the replay header
+ * together with every input event.
+ * <p>
+ * Games in progress are autosaved every few seconds (see {@link SaveFile})
+ * and when the player leaves through the menu or closes the window, so
+ * they can be resumed from the start screen. The state is captured on the
+ * JavaFX thread, which only copies the board; encoding and writing happen
+ * on a background thread.
+ * <p>
+ * The statistics of every game played from its start (pieces, line
+ * clears, inputs, duration) are counted as it runs and written to the
+ * {@link StatsStore} when it ends.
+ * <p>
+ * Live counters and timings (inputs, pieces, engine steps, drawing) go to
+ * {@link GameMetrics}, which the controller publishes over JMX.
  *
  * @author Chan Michelle
- * @version 1.0
+ * @version 1.4
  */
 public class GameController implements InputEventListener {
 
-    private final Board board;
+    private static final int BOARD_WIDTH = 10;
+    private static final int BOARD_HEIGHT = 25;
+
+    private static final Duration AUTOSAVE_INTERVAL = Duration.seconds(5);
+
+    private final SimpleBoard board;
+    private final RandomBrickGenerator brickGenerator;
+    private ReplayRecorder recorder;
+    private StatsCounter stats;
+    private final GameMetrics metrics = GameMetrics.defaultMetrics();
     private final GuiController viewGuiController;
     private IntegerProperty timeRemaining = new SimpleIntegerProperty(-1);
 
@@ -27,6 +63,14 @@ public class GameController implements InputEventListener {
     private Timeline countdown;
     private String leaderboardFile;
 
+    private final SaveFile saveFile = SaveFile.defaultFile();
+    private Timeline autosave;
+
+    /** Hash, score and time of the last save, to skip saving an unchanged game. */
+    private long savedHash;
+    private int savedScore = -1;
+    private int savedTime;
+
     /**
      * Creates a normal (non-timed) game controller.
      *
@@ -34,7 +78,6 @@ public class GameController implements InputEventListener {
      */
     public GameController(GuiController guiController) {
         this(guiController, -1);
-        leaderboardFile = "normal";
     }
 
     /**
@@ -44,18 +87,46 @@ public class GameController implements InputEventListener {
      * @param timeLimitSeconds  time limit in seconds, or a negative value for no time limit
      */
     public GameController(GuiController guiController, int timeLimitSeconds) {
+        this(guiController, timeLimitSeconds, null);
+    }
+
+    /**
+     * Resumes a saved game. Resumed games are not recorded as replays or
+     * statistics, since those describe a game from its first brick.
+     *
+     * @param guiController GUI controller used to render the game state
+     * @param saved         game to resume
+     */
+    public GameController(GuiController guiController, SavedGame saved) {
+        this(guiController, saved.timeRemaining(), saved);
+    }
+
+    private GameController(GuiController guiController, int timeLimitSeconds, SavedGame saved) {
         this.viewGuiController = guiController;
-        this.board = new SimpleBoard(10, 25);
+        this.brickGenerator = new RandomBrickGenerator(1, ThreadLocalRandom.current().nextLong());
+        this.board = new SimpleBoard(BOARD_WIDTH, BOARD_HEIGHT, brickGenerator);
         this.timeRemaining.set(timeLimitSeconds);
 
-        boolean gameOverOnStart = board.createNewBrick();
+        boolean gameOverOnStart;
+        if (saved == null) {
+            this.leaderboardFile = (timeLimitSeconds > 0) ? "time_" + timeLimitSeconds : "normal";
+            startRecording();
+            gameOverOnStart = board.createNewBrick();
+        } else {
+            this.leaderboardFile = saved.mode();
+            saved.restoreInto(board, brickGenerator);
+            gameOverOnStart = false;
+        }
+
+        LeaderboardManager.preload(leaderboardFile + ".txt");
+        metrics.register();
+        metrics.gameStarted(board.getScore().scoreProperty().get());
 
         guiController.setGameController(this);
         guiController.setEventListener(this);
-        guiController.initGameView(board.getBoardMatrix(), board.getViewData());
+        guiController.initGameView(board.readBoardMatrix(), viewData());
 
         if (timeLimitSeconds > 0) {
-            leaderboardFile = "time_" + timeLimitSeconds;
             guiController.bindTime(timeRemaining);
             guiController.enableTimerDisplay();
             startCountdown();
@@ -63,6 +134,8 @@ public class GameController implements InputEventListener {
 
         if (gameOverOnStart) {
             handleGameOver();
+        } else {
+            startAutosave();
         }
     }
 
@@ -81,8 +154,7 @@ public class GameController implements InputEventListener {
 
             if (timeRemainingSeconds <= 0) {
                 timeRemaining.set(0);
-                gameEnded = true;
-                viewGuiController.gameOver();
+                handleGameOver();
                 return;
             }
 
@@ -94,15 +166,19 @@ public class GameController implements InputEventListener {
     }
 
     /**
-     * Adds score and updates GUI if any rows were cleared.
+     * Counts the placed piece, then adds score and updates GUI if any rows were cleared.
      *
      * @param clearRow result of the row-clear operation
      */
     private void applyCLearRow (ClearRow clearRow) {
+        if (stats != null) {
+            stats.piece((clearRow == null) ? 0 : clearRow.linesRemoved());
+        }
         if (clearRow != null && clearRow.linesRemoved() > 0) {
             board.getScore().add(clearRow.scoreBonus());
             viewGuiController.updateScore(board.getScore().scoreProperty().get());
         }
+        metrics.piece((clearRow == null) ? 0 : clearRow.linesRemoved(), getScore());
     }
 
     /**
@@ -113,61 +189,219 @@ public class GameController implements InputEventListener {
             return;
         }
         gameEnded = true;
+        metrics.gameEnded();
+        finishRecording();
+        discardSave();
         viewGuiController.gameOver();
     }
 
+    // Save and resume
+
+    private void startAutosave() {
+        if (autosave == null) {
+            autosave = new Timeline(new KeyFrame(AUTOSAVE_INTERVAL, e -> saveGame()));
+            autosave.setCycleCount(Timeline.INDEFINITE);
+        }
+        autosave.play();
+    }
+
+    /**
+     * Captures the game and queues it for writing, unless nothing changed
+     * since the last save. Capturing copies the board; everything else
+     * happens on the save writer thread.
+     */
+    private void saveGame() {
+        if (gameEnded) {
+            return;
+        }
+        long hash = board.getZobristHash();
+        if (hash == savedHash && getScore() == savedScore && timeRemaining.get() == savedTime) {
+            return;
+        }
+        savedHash = hash;
+        savedScore = getScore();
+        savedTime = timeRemaining.get();
+        saveFile.save(SavedGame.capture(leaderboardFile, timeRemaining.get(), board, brickGenerator));
+    }
+
+    private void discardSave() {
+        if (autosave != null) {
+            autosave.stop();
+        }
+        savedScore = -1;
+        saveFile.delete();
+    }
+
+    /**
+     * Saves the game and stops its timers, for when the player leaves a
+     * game in progress (returning to the start screen or closing the
+     * window). A finished game is not saved. The replay of the game is
+     * closed as unfinished.
+     */
+    public void suspend() {
+        saveGame();
+        if (autosave != null) {
+            autosave.stop();
+        }
+        if (countdown != null) {
+            countdown.stop();
+        }
+        metrics.gameEnded();
+        closeReplay();
+    }
+
+    // Replay recording
+
+    private void startRecording() {
+        ReplayHeader header = ReplayHeader.of(leaderboardFile, brickGenerator.getSeed(), BOARD_WIDTH, BOARD_HEIGHT,
+                brickGenerator.getPreviewSize(), System.currentTimeMillis());
+        recorder = ReplayRecorder.start(ReplayRecorder.DEFAULT_DIRECTORY, header);
+        stats = new StatsCounter(leaderboardFile, brickGenerator.getSeed());
+    }
+
+    private void finishRecording() {
+        if (recorder != null) {
+            recorder.finish(getScore());
+        }
+        if (stats != null) {
+            StatsStore.defaultStore().record(stats.finish(getScore()));
+            stats = null;
+        }
+    }
+
+    private void record(EventType type, MoveEvent event) {
+        EventSource source = (event == null) ? EventSource.USER : event.getEventSource();
+        if (recorder != null) {
+            recorder.record(type, source);
+        }
+        if (source != EventSource.THREAD) {
+            metrics.input();
+            if (stats != null) {
+                stats.key();
+            }
+        }
+    }
+
+    /**
+     * Builds the view of the active brick, counting it.
+     */
+    private ViewData viewData() {
+        metrics.viewData();
+        return board.getViewData();
+    }
+
+    /**
+     * Redraws the settled cells, timing it.
+     */
+    private void refreshBackground() {
+        long start = System.nanoTime();
+        viewGuiController.refreshGameBackground(board.readBoardMatrix());
+        metrics.boardDrawn(System.nanoTime() - start);
+    }
+
+    /**
+     * Closes the replay of a game that is being left unfinished (e.g. when
+     * returning to the start screen or closing the window).
+     */
+    public void closeReplay() {
+        if (recorder != null) {
+            recorder.close();
+        }
+        // An unfinished game has no statistics
+        stats = null;
+    }
+
     @Override
     public DownData onDownEvent(MoveEvent event) {
+        long start = System.nanoTime();
+        record(EventType.DOWN, event);
         boolean moved = board.moveBrickDown();
         ClearRow clearRow = null;
+        boolean gameOver = false;
 
         if (!moved) {
             board.mergeBrickToBackground();
             clearRow = board.clearRows();
             applyCLearRow(clearRow);
+            gameOver = board.createNewBrick();
+        }
+        DownData downData = new DownData(clearRow, viewData());
+        metrics.tick(System.nanoTime() - start);
 
-            boolean gameOver = board.createNewBrick();
-            if (gameOver) {
-                handleGameOver();
-            }
-
-            viewGuiController.refreshGameBackground(board.getBoardMatrix());
+        // Ending the game writes files and changes screens; it is not part of the tick
+        if (gameOver) {
+            handleGameOver();
         }
-        return new DownData(clearRow, board.getViewData());
+        if (!moved) {
+            refreshBackground();
+        }
+        return downData;
     }
 
     @Override
     public ViewData onLeftEvent(MoveEvent event) {
+        long start = System.nanoTime();
+        record(EventType.LEFT, event);
         board.moveBrickLeft();
-        return board.getViewData();
+        ViewData viewData = viewData();
+        metrics.tick(System.nanoTime() - start);
+        return viewData;
     }
 
     @Override
     public ViewData onRightEvent(MoveEvent event) {
+        long start = System.nanoTime();
+        record(EventType.RIGHT, event);
         board.moveBrickRight();
-        return board.getViewData();
+        ViewData viewData = viewData();
+        metrics.tick(System.nanoTime() - start);
+        return viewData;
     }
 
     @Override
     public ViewData onRotateEvent(MoveEvent event) {
+        long start = System.nanoTime();
+        record(EventType.ROTATE, event);
         board.rotateLeftBrick();
-        return board.getViewData();
+        ViewData viewData = viewData();
+        metrics.tick(System.nanoTime() - start);
+        return viewData;
     }
 
     @Override
     public void onHoldEvent() {
+        long start = System.nanoTime();
+        record(EventType.HOLD, null);
         board.holdCurrentBrick();
+        metrics.tick(System.nanoTime() - start);
     }
 
+    /**
+     * Starts a new game on a fresh brick sequence. The unfinished game's
+     * replay is closed and a new one is started, and its save is deleted.
+     */
     @Override
     public void createNewGame() {
+        closeReplay();
+        discardSave();
+        brickGenerator.reset(ThreadLocalRandom.current().nextLong());
         board.newGame();
         gameEnded = false;
-        viewGuiController.refreshGameBackground(board.getBoardMatrix());
+
+        startRecording();
+        metrics.gameStarted(getScore());
+        if (board.createNewBrick()) {
+            handleGameOver();
+        } else {
+            startAutosave();
+        }
+        refreshBackground();
     }
 
     @Override
     public ViewData onHardDropEvent() {
+        long start = System.nanoTime();
+        record(EventType.HARD_DROP, null);
         while (board.moveBrickDown()) {
             // keep dropping until collision
         }
@@ -177,12 +411,24 @@ public class GameController implements InputEventListener {
         applyCLearRow(clear);
 
         boolean gameOver = board.createNewBrick();
+        ViewData viewData = viewData();
+        metrics.tick(System.nanoTime() - start);
+
         if (gameOver) {
             handleGameOver();
         }
+        refreshBackground();
+        return viewData;
+    }
 
-        viewGuiController.refreshGameBackground(board.getBoardMatrix());
-        return board.getViewData();
+    /**
+     * Exposes the underlying board so that external players (e.g. bots)
+     * can read the current state before sending input events.
+     *
+     * @return board driven by this controller
+     */
+    public Board getBoard() {
+        return board;
     }
 
     /**
@@ -1,5 +1,11 @@
 package com.comp2042;
 
+import com.comp2042.ai.BeamSearchBot;
+import com.comp2042.ai.HeuristicEvaluator;
+import com.comp2042.ai.HintEngine;
+import com.comp2042.ai.PieceShapes;
+import com.comp2042.ai.Placement;
+import com.comp2042.stats.GameMetrics;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
@@ -41,6 +47,7 @@ import java.util.ResourceBundle;
  *     <li>Renders the board background, active brick, ghost piece, hold brick and next preview.</li>
  *     <li>Manages pause/resume, in-game menu overlay and timer label.</li>
  *     <li>Displays game over-panel and opens the leaderboard window.</li>
+ *     <li>Optionally shows a hint outline at the bot's best placement (H key).</li>
  * </ul>
  * <p>
  * This controller is wired to {@code gameLayout.fxml}.
@@ -50,6 +57,11 @@ public class GuiController implements Initializable {
     private static final int BRICK_SIZE = 30;
     private static final double GHOST_ALPHA = 0.3;
 
+    /** Hint search settings: kept small so hints arrive well within one fall step. */
+    private static final int HINT_BEAM_WIDTH = 32;
+    private static final int HINT_DEPTH = 2;
+    private static final long HINT_BUDGET_MILLIS = 30;
+
     // FXML-Injected nodes
 
     @FXML
@@ -61,6 +73,9 @@ public class GuiController implements Initializable {
     @FXML
     private Pane ghostPanel;
 
+    @FXML
+    private Pane hintPanel;
+
     @FXML
     private GridPane holdPanel;
 
@@ -106,6 +121,11 @@ public class GuiController implements Initializable {
     private final BooleanProperty isGameOver = new SimpleBooleanProperty();
     private ActionEvent event;
 
+    // Hint state (hint engine is created the first time hints are switched on)
+    private HintEngine hintEngine;
+    private boolean hintEnabled;
+    private long hintStateHash;
+
     // FXML Event Handlers
 
     @FXML
@@ -115,6 +135,9 @@ public class GuiController implements Initializable {
 
     @FXML
     private void exitButtonClicked() {
+        if (gameController != null) {
+            gameController.suspend();
+        }
         System.exit(0);
     }
 
@@ -135,6 +158,7 @@ public class GuiController implements Initializable {
         StackPane.setAlignment(gamePanel, Pos.TOP_LEFT);
         StackPane.setAlignment(brickPanel, Pos.TOP_LEFT);
         StackPane.setAlignment(ghostPanel, Pos.TOP_LEFT);
+        StackPane.setAlignment(hintPanel, Pos.TOP_LEFT);
 
         setupKeyboardHandling();
 
@@ -255,6 +279,11 @@ public class GuiController implements Initializable {
                 keyEvent.consume();
                 break;
 
+            case H:
+                toggleHint();
+                keyEvent.consume();
+                break;
+
             case C:
                 if (eventListener != null) {
                     eventListener.onHoldEvent();
@@ -349,7 +378,11 @@ public class GuiController implements Initializable {
 
     // Colour helpers
 
-    private Paint getFillColor(int i) {
+    /**
+     * @param i brick colour id (0 = empty)
+     * @return fill colour for that id; also used by {@link ReplayViewerController}
+     */
+    static Paint getFillColor(int i) {
         switch (i) {
             case 0:
                 return Color.TRANSPARENT;
@@ -367,6 +400,8 @@ public class GuiController implements Initializable {
                 return Color.BEIGE;
             case 7:
                 return Color.BURLYWOOD;
+            case SimpleBoard.GARBAGE:
+                return Color.DIMGRAY;
             default:
                 return Color.WHITE;
         }
@@ -381,7 +416,8 @@ public class GuiController implements Initializable {
     /**
      * Main UI refresh for the active brick,ghost, hold and next preview.
      * <p>
-     * If the game is paused, this method does nothing
+     * If the game is paused, this method does nothing. The time it takes
+     * is reported to {@link GameMetrics}.
      *
      * @param brick {@link ViewData} describing current game state
      */
@@ -390,6 +426,7 @@ public class GuiController implements Initializable {
             return;
         }
 
+        long start = System.nanoTime();
         drawActiveBrick(brick);
         drawGhostBrick(brick);
         refreshHoldPiece(brick.getHoldShape());
@@ -398,6 +435,90 @@ public class GuiController implements Initializable {
         if (scoreLabel != null && gameController != null) {
             scoreLabel.setText("Score: " + gameController.getScore());
         }
+        GameMetrics.defaultMetrics().brickDrawn(System.nanoTime() - start);
+        requestHint();
+    }
+
+    // Hint
+
+    private void toggleHint() {
+        hintEnabled = !hintEnabled;
+        if (hintEnabled) {
+            requestHint();
+        } else {
+            clearHint();
+        }
+    }
+
+    /**
+     * Starts a background search for the current state, superseding any
+     * search still running. Inputs that did not change the state (e.g. a
+     * blocked move) keep the hint that is already shown.
+     */
+    private void requestHint() {
+        if (!hintEnabled || gameController == null || isGameOver.get()) {
+            return;
+        }
+        Board board = gameController.getBoard();
+        long hash = board.getZobristHash();
+        if (hash == hintStateHash && !hintPanel.getChildren().isEmpty()) {
+            return;
+        }
+        hintStateHash = hash;
+
+        if (hintEngine == null) {
+            BeamSearchBot bot = new BeamSearchBot(new HeuristicEvaluator(), HINT_BEAM_WIDTH, HINT_DEPTH,
+                    HINT_BUDGET_MILLIS, HintEngine.searchPool());
+            hintEngine = new HintEngine(bot, Platform::runLater);
+        }
+        hintEngine.request(board, this::drawHint);
+    }
+
+    private void clearHint() {
+        if (hintEngine != null) {
+            hintEngine.cancel();
+        }
+        hintStateHash = 0L;
+        if (hintPanel != null) {
+            hintPanel.getChildren().clear();
+        }
+    }
+
+    /**
+     * Draws an outline of the brick at the hinted placement. Runs on the
+     * JavaFX thread, only for the latest hint request.
+     */
+    private void drawHint(Placement placement) {
+        hintPanel.getChildren().clear();
+        if (!hintEnabled) {
+            return;
+        }
+
+        PieceShapes shapes = PieceShapes.of(placement.type());
+        for (int r = 0; r < PieceShapes.SIZE; r++) {
+            int mask = shapes.rowMask(placement.rotation(), r);
+            for (int c = 0; c < PieceShapes.SIZE; c++) {
+                if ((mask & (1 << c)) == 0) continue;
+
+                Rectangle rectangle = new Rectangle(BRICK_SIZE, BRICK_SIZE);
+                rectangle.setFill(Color.TRANSPARENT);
+                rectangle.setArcHeight(9);
+                rectangle.setArcWidth(9);
+                rectangle.setStroke(getFillColor(placement.type().id()));
+                rectangle.setStrokeWidth(2);
+                rectangle.setStrokeType(StrokeType.INSIDE);
+                rectangle.getStrokeDashArray().setAll(6.0, 4.0);
+
+                rectangle.setLayoutX(c * BRICK_SIZE);
+                rectangle.setLayoutY(r * BRICK_SIZE);
+
+                hintPanel.getChildren().add(rectangle);
+            }
+        }
+
+        double paddingOffset = 5;
+        hintPanel.setTranslateX(placement.x() * BRICK_SIZE + paddingOffset);
+        hintPanel.setTranslateY((placement.y() - 2) * BRICK_SIZE);
     }
 
     /**
@@ -606,6 +727,7 @@ public class GuiController implements Initializable {
         timeLine.stop();
         gameOverPanel.setVisible(true);
         isGameOver.set(true);
+        clearHint();
 
         Platform.runLater(() -> {
             javafx.scene.control.TextInputDialog dialog = new javafx.scene.control.TextInputDialog("Player");
@@ -616,20 +738,29 @@ public class GuiController implements Initializable {
             String name = dialog.showAndWait().orElse("Unknown");
 
             String filename = gameController.getLeaderboardFile() + ".txt";
-            LeaderboardManager.saveScore(filename, name, gameController.getScore());
+            int score = gameController.getScore();
+            // Opening the leaderboard may still read it from disk; do that off this thread
+            LeaderboardManager.saveScoreAsync(filename, name, score)
+                    .thenRun(() -> Platform.runLater(() -> showLeaderboard(score)));
 
-            showLeaderboard();
             showGameOverMenu();
         });
     }
 
-    private void showLeaderboard() {
+    /**
+     * Opens the leaderboard of the current mode together with where the
+     * finished game ranks among all games played.
+     *
+     * @param score final score of the game
+     */
+    private void showLeaderboard(int score) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getClassLoader().getResource("leaderboard.fxml"));
             Parent root = loader.load();
 
             LeaderboardController controller = loader.getController();
             controller.loadLeaderboard(gameController.getLeaderboardFile());
+            controller.showStanding(gameController.getLeaderboardFile(), score);
 
             Stage stage = new Stage();
             stage.setTitle("Leaderboard");
@@ -658,13 +789,14 @@ public class GuiController implements Initializable {
         }
 
         holdPanel.getChildren().clear();
+        clearHint();
 
         gamePanel.requestFocus();
         timeLine.play();
 
         isPause.set(false);
         isGameOver.set(false);
-        gameController.createNewGame();
+        refreshBrick(gameController.getBoard().getViewData());
     }
 
     /**
@@ -675,7 +807,13 @@ public class GuiController implements Initializable {
      */
     public void setGameController(GameController controller) {
         this.gameController = controller;
-        Platform.runLater(() -> gamePanel.requestFocus());
+        Platform.runLater(() -> {
+            gamePanel.requestFocus();
+            // Closing the window saves the game like leaving through the menu
+            if (rootPane.getScene() != null && rootPane.getScene().getWindow() != null) {
+                rootPane.getScene().getWindow().setOnCloseRequest(e -> controller.suspend());
+            }
+        });
     }
 
     /**
@@ -720,11 +858,19 @@ public class GuiController implements Initializable {
 
     @FXML
     private void menuHome() {
+        if (gameController != null) {
+            gameController.suspend();
+        }
+        if (hintEngine != null) {
+            hintEngine.shutdown();
+            hintEngine = null;
+        }
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getClassLoader().getResource("startScreen.fxml"));
             Parent root = loader.load();
 
             Stage stage = (Stage) rootPane.getScene().getWindow();
+            stage.setOnCloseRequest(null);
             StartController startController = loader.getController();
             startController.setPrimaryStage(stage);
 
@@ -0,0 +1,193 @@
+package com.comp2042;
+
+/**
+ * Runs the game rules on a {@link Board} without any JavaFX view.
+ * <p>
+ * HeadlessGame applies the same rules as {@link GameController}
+ * (locking, row clearing, scoring, spawning and game over) but has no
+ * timeline or GUI. It is used by bots, tools and tests that need to play
+ * complete games as fast as possible.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public class HeadlessGame implements InputEventListener {
+
+    private final Board board;
+    private boolean gameOver;
+    private int linesCleared;
+    private int piecesPlaced;
+
+    /**
+     * Creates a headless game on the given board and spawns the first brick.
+     *
+     * @param board board holding the game state
+     */
+    public HeadlessGame(Board board) {
+        this.board = board;
+        this.gameOver = board.createNewBrick();
+    }
+
+    private HeadlessGame(Board board, boolean gameOver, int linesCleared, int piecesPlaced) {
+        this.board = board;
+        this.gameOver = gameOver;
+        this.linesCleared = linesCleared;
+        this.piecesPlaced = piecesPlaced;
+    }
+
+    /**
+     * Forks this game, e.g. to play out a rollout without touching the
+     * real game. The board is forked with {@link Board#fork()}, so the
+     * copy is cheap and the two games evolve independently.
+     *
+     * @return independent copy of this game
+     */
+    public HeadlessGame fork() {
+        return new HeadlessGame(board.fork(), gameOver, linesCleared, piecesPlaced);
+    }
+
+    /**
+     * Locks the active brick, clears rows, scores them and spawns the next brick.
+     *
+     * @return the row-clear result
+     */
+    private ClearRow lockBrick() {
+        board.mergeBrickToBackground();
+        ClearRow clearRow = board.clearRows();
+
+        if (clearRow.linesRemoved() > 0) {
+            board.getScore().add(clearRow.scoreBonus());
+            linesCleared += clearRow.linesRemoved();
+        }
+        piecesPlaced++;
+
+        if (board.createNewBrick()) {
+            gameOver = true;
+        }
+        return clearRow;
+    }
+
+    /**
+     * Applies one input without building any {@link ViewData}. This is the
+     * fast path for simulations that do not render every step, such as
+     * replay playback.
+     *
+     * @param type input to apply; ignored once the game is over
+     */
+    public void apply(EventType type) {
+        if (gameOver) {
+            return;
+        }
+        switch (type) {
+            case DOWN:
+                if (!board.moveBrickDown()) {
+                    lockBrick();
+                }
+                break;
+            case LEFT:
+                board.moveBrickLeft();
+                break;
+            case RIGHT:
+                board.moveBrickRight();
+                break;
+            case ROTATE:
+                board.rotateLeftBrick();
+                break;
+            case HARD_DROP:
+                while (board.moveBrickDown()) {
+                    // keep dropping until collision
+                }
+                lockBrick();
+                break;
+            case HOLD:
+                board.holdCurrentBrick();
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public DownData onDownEvent(MoveEvent event) {
+        if (gameOver) {
+            return new DownData(null, board.getViewData());
+        }
+        ClearRow clearRow = null;
+        if (!board.moveBrickDown()) {
+            clearRow = lockBrick();
+        }
+        return new DownData(clearRow, board.getViewData());
+    }
+
+    @Override
+    public ViewData onLeftEvent(MoveEvent event) {
+        apply(EventType.LEFT);
+        return board.getViewData();
+    }
+
+    @Override
+    public ViewData onRightEvent(MoveEvent event) {
+        apply(EventType.RIGHT);
+        return board.getViewData();
+    }
+
+    @Override
+    public ViewData onRotateEvent(MoveEvent event) {
+        apply(EventType.ROTATE);
+        return board.getViewData();
+    }
+
+    @Override
+    public ViewData onHardDropEvent() {
+        apply(EventType.HARD_DROP);
+        return board.getViewData();
+    }
+
+    @Override
+    public void onHoldEvent() {
+        apply(EventType.HOLD);
+    }
+
+    @Override
+    public void createNewGame() {
+        board.newGame();
+        gameOver = board.createNewBrick();
+        linesCleared = 0;
+        piecesPlaced = 0;
+    }
+
+    /**
+     * @return board driven by this game
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * @return {@code true} once a new brick could not be spawned
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * @return total number of rows cleared in this game
+     */
+    public int getLinesCleared() {
+        return linesCleared;
+    }
+
+    /**
+     * @return number of bricks locked into the board in this game
+     */
+    public int getPiecesPlaced() {
+        return piecesPlaced;
+    }
+
+    /**
+     * @return current score
+     */
+    public int getScore() {
+        return board.getScore().scoreProperty().get();
+    }
+}
@@ -83,4 +83,35 @@ public interface InputEventListener {
      * </ul>
      */
     void createNewGame();
+
+    /**
+     * Dispatches an event to the matching handler method. Used by code that
+     * replays or generates events rather than reacting to key presses.
+     *
+     * @param event event to dispatch
+     */
+    default void handle(MoveEvent event) {
+        switch (event.getEventType()) {
+            case DOWN:
+                onDownEvent(event);
+                break;
+            case LEFT:
+                onLeftEvent(event);
+                break;
+            case RIGHT:
+                onRightEvent(event);
+                break;
+            case ROTATE:
+                onRotateEvent(event);
+                break;
+            case HARD_DROP:
+                onHardDropEvent();
+                break;
+            case HOLD:
+                onHoldEvent();
+                break;
+            default:
+                break;
+        }
+    }
 }
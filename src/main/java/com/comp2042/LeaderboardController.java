@@ -1,46 +1,428 @@
 package com.comp2042;
 
+import com.comp2042.leaderboard.ScoreEntry;
+import com.comp2042.leaderboard.ScoreHistory;
+import com.comp2042.leaderboard.ScoreQuery;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
-import javafx.scene.layout.VBox;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
+import javafx.util.StringConverter;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
+/**
+ * Controller for the leaderboard window ({@code leaderboard.fxml}).
+ * <p>
+ * The window lists every score of a mode, not only the top ten, in a
+ * {@link TableView}. The table is virtualized: it only asks for the rows
+ * it shows, and the rows are read page by page from a
+ * {@link ScoreHistory}, so the full history of a million games opens as
+ * quickly as a short one. Changing the mode, date range or order opens a
+ * new history on a background thread, and pages are read there too: rows
+ * whose page has not arrived yet show as loading, so scrolling never
+ * waits for the disk.
+ * <p>
+ * The window listens to its leaderboard (see
+ * {@link LeaderboardManager#addListener}), so scores saved by this or any
+ * other game instance show up while it is open, at the same scroll
+ * position.
+ *
+ * @author Chan Michelle
+ * @version 1.3
+ */
 public class LeaderboardController {
 
+    private static final String[] MODES = {"normal", "time_60", "time_120", "time_180"};
+
+    private static final String[] RANGES = {"All time", "Today", "Last 7 days", "Last 30 days"};
+
+    /** Rows read from the history at a time. */
+    private static final int PAGE_SIZE = 100;
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+            .withZone(ZoneId.systemDefault());
+
+    @FXML private ComboBox<String> modeBox;
+    @FXML private ComboBox<String> rangeBox;
+    @FXML private ComboBox<ScoreQuery.Order> orderBox;
+
+    @FXML private TableView<ScoreEntry> scoreTable;
+    @FXML private TableColumn<ScoreEntry, Number> rankColumn;
+    @FXML private TableColumn<ScoreEntry, String> nameColumn;
+    @FXML private TableColumn<ScoreEntry, Number> scoreColumn;
+    @FXML private TableColumn<ScoreEntry, String> dateColumn;
+
+    @FXML private Label statusLabel;
+    @FXML private Label standingLabel;
+
+    private ScoreHistory history;
+
+    /** Rows of {@link #history} shown in the table. */
+    private PagedEntries entries;
+
+    /** Incremented on every reload, so that a slower earlier load is dropped. */
+    private int generation;
+
+    /** Leaderboard whose changes are being listened to. */
+    private String listenedFile;
+
+    /** Set while a live refresh is queued, so that a burst of changes reloads once. */
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    /** Called on whichever thread changed the leaderboard. */
+    private final Runnable changeListener = () -> {
+        if (refreshQueued.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                refreshQueued.set(false);
+                if (history != null) {
+                    load(false);
+                }
+            });
+        }
+    };
+
     @FXML
-    private VBox scoreList;
+    private void initialize() {
+        modeBox.getItems().setAll(MODES);
+        modeBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(String mode) {
+                return (mode == null) ? "" : modeName(mode);
+            }
+
+            @Override
+            public String fromString(String text) {
+                return text;
+            }
+        });
+        rangeBox.getItems().setAll(RANGES);
+        rangeBox.setValue(RANGES[0]);
+        orderBox.getItems().setAll(ScoreQuery.Order.values());
+        orderBox.setValue(ScoreQuery.Order.BEST_FIRST);
+        orderBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(ScoreQuery.Order order) {
+                return (order == ScoreQuery.Order.NEWEST_FIRST) ? "Newest first" : "Best first";
+            }
+
+            @Override
+            public ScoreQuery.Order fromString(String text) {
+                return ScoreQuery.Order.valueOf(text);
+            }
+        });
+
+        // Rank among all games of the mode, whatever the order and range of the table
+        rankColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(PagedEntries.isLoading(cell.getValue())
+                ? null : LeaderboardManager.rank(modeBox.getValue() + ".txt", cell.getValue().score())));
+        nameColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().name()));
+        scoreColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(
+                PagedEntries.isLoading(cell.getValue()) ? null : cell.getValue().score()));
+        dateColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(PagedEntries.isLoading(cell.getValue())
+                ? "" : DATE.format(Instant.ofEpochMilli(cell.getValue().time()))));
+        scoreTable.setPlaceholder(new Label("No scores yet!"));
+
+        modeBox.valueProperty().addListener((observable, oldValue, newValue) -> reload());
+        rangeBox.valueProperty().addListener((observable, oldValue, newValue) -> reload());
+        orderBox.valueProperty().addListener((observable, oldValue, newValue) -> reload());
+
+        // Release the snapshot file and stop listening however the window is closed
+        scoreTable.sceneProperty().addListener((observable, oldScene, scene) -> {
+            if (scene != null) {
+                scene.windowProperty().addListener((o, oldWindow, window) -> {
+                    if (window != null) {
+                        window.addEventHandler(WindowEvent.WINDOW_HIDDEN, event -> closeHistory());
+                    }
+                });
+            }
+        });
+    }
 
     @FXML
     private void closeWindow() {
-        Stage stage = (Stage) scoreList.getScene().getWindow();
+        closeHistory();
+        Stage stage = (Stage) scoreTable.getScene().getWindow();
         stage.close();
     }
 
+    /**
+     * Shows the leaderboard of a mode.
+     *
+     * @param mode leaderboard name (e.g. {@code normal} or {@code time_60})
+     */
     public void loadLeaderboard(String mode) {
+        if (mode.equals(modeBox.getValue())) {
+            reload();
+        } else {
+            modeBox.setValue(mode);
+        }
+    }
+
+    /**
+     * Adds the standing of a finished game among every game recorded on
+     * the leaderboard, below the table.
+     *
+     * @param mode  leaderboard name (e.g. {@code normal} or {@code time_60})
+     * @param score final score of the game, already saved
+     */
+    public void showStanding(String mode, int score) {
         String filename = mode + ".txt";
+        long games = LeaderboardManager.gamesPlayed(filename);
+        if (games == 0) {
+            return;
+        }
+        long rank = LeaderboardManager.rank(filename, score);
+        double percentile = LeaderboardManager.percentile(filename, score);
+
+        standingLabel.setText(String.format("Your score: rank %d of %d games (better than %.1f%%)",
+                rank, games, percentile));
+        standingLabel.setVisible(true);
+        standingLabel.setManaged(true);
+    }
 
-        List<String> scores = LeaderboardManager.loadScores(filename);
+    private void reload() {
+        load(true);
+    }
 
-        scoreList.getChildren().clear();
+    /**
+     * Opens the history for the current choices on a background thread
+     * and shows it when it is ready.
+     *
+     * @param fromTop {@code true} to scroll to the first row, {@code false}
+     *                to keep the position (for a live refresh)
+     */
+    private void load(boolean fromTop) {
+        String mode = modeBox.getValue();
+        if (mode == null) {
+            return;
+        }
+        ScoreQuery query = ScoreQuery.all(orderBox.getValue()).since(rangeStart(rangeBox.getValue()));
+        int current = ++generation;
+        statusLabel.setText("Loading...");
+
+        Thread.ofVirtual().name("leaderboard-query").start(() -> {
+            ScoreHistory opened;
+            try {
+                opened = LeaderboardManager.history(mode + ".txt", query);
+            } catch (IOException e) {
+                System.out.println("Error loading leaderboard: " + e.getMessage());
+                Platform.runLater(() -> statusLabel.setText("Could not load leaderboard"));
+                return;
+            }
+            Platform.runLater(() -> show(current, mode, opened, fromTop));
+        });
+    }
 
-        if (scores.isEmpty()) {
-            scoreList.getChildren().add(new Label("No scores yet!"));
+    private void show(int loadGeneration, String mode, ScoreHistory opened, boolean fromTop) {
+        if (loadGeneration != generation) {
+            close(opened);
             return;
         }
+        closeHistory();
+        history = opened;
+        listen(mode + ".txt");
+        entries = new PagedEntries(opened, this::pageLoaded);
+        scoreTable.setItems(FXCollections.observableList(entries));
+        if (fromTop) {
+            scoreTable.scrollTo(0);
+        }
+        statusLabel.setText(String.format("%,d %s", opened.size(), (opened.size() == 1) ? "score" : "scores"));
+    }
 
-        int rank = 1;
-        for (String entry : scores) {
-            String[] parts = entry.split(",");
-            String name = parts[0];
-            String score = parts[1];
+    /**
+     * Redraws the table once a page of its rows has arrived.
+     */
+    private void pageLoaded(PagedEntries loaded) {
+        if (loaded == entries) {
+            scoreTable.refresh();
+        }
+    }
 
-            Label label = new Label(rank + "." + name + " - " + score);
-            label.setStyle("-fx-font-size: 18px; -fx-text-fill: white;");
-            scoreList.getChildren().add(label);
+    private void closeHistory() {
+        listen(null);
+        if (entries != null) {
+            entries.close();
+            entries = null;
+        }
+        if (history != null) {
+            close(history);
+            history = null;
+        }
+    }
+
+    /**
+     * Moves the change listener to another leaderboard.
+     *
+     * @param filename leaderboard to listen to, or {@code null} for none
+     */
+    private void listen(String filename) {
+        if (listenedFile != null) {
+            LeaderboardManager.removeListener(listenedFile, changeListener);
+        }
+        listenedFile = filename;
+        if (filename != null) {
+            LeaderboardManager.addListener(filename, changeListener);
+        }
+    }
+
+    private static void close(ScoreHistory opened) {
+        try {
+            opened.close();
+        } catch (IOException e) {
+            System.out.println("Error closing leaderboard: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return start of a date range in epoch millis
+     */
+    private static long rangeStart(String range) {
+        LocalDate today = LocalDate.now();
+        LocalDate start = switch (range) {
+            case "Today" -> today;
+            case "Last 7 days" -> today.minusDays(6);
+            case "Last 30 days" -> today.minusDays(29);
+            default -> null;
+        };
+        return (start == null) ? Long.MIN_VALUE
+                : start.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String modeName(String mode) {
+        return mode.startsWith("time_") ? mode.substring(5) + " seconds" : "Normal";
+    }
+
+    /**
+     * Read-only list over a history for the table. Rows are read a page at
+     * a time on a background thread and the most recently used pages are
+     * kept. Until its page arrives a row is {@link #LOADING}. Apart from
+     * the reads, used on the JavaFX thread only.
+     */
+    private static final class PagedEntries extends AbstractList<ScoreEntry> {
+
+        private static final int CACHED_PAGES = 16;
+
+        private static final ScoreEntry UNAVAILABLE = new ScoreEntry("?", 0, 0, -1);
+
+        /** Stands in for a row whose page is still being read. */
+        private static final ScoreEntry LOADING = new ScoreEntry("Loading...", 0, 0, -1);
+
+        private final ScoreHistory history;
+        private final int size;
+        private final Consumer<PagedEntries> onPageLoaded;
+
+        private final Map<Integer, List<ScoreEntry>> pages = new LinkedHashMap<>(CACHED_PAGES, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<ScoreEntry>> eldest) {
+                return size() > CACHED_PAGES;
+            }
+        };
+
+        /**
+         * Pages asked for but not read yet, most recent first. Pages
+         * scrolled past long ago are dropped, so that dragging the scroll
+         * bar does not queue a read of every page on the way.
+         */
+        private final Deque<Integer> wanted = new ArrayDeque<>();
+        private boolean reading;
+        private volatile boolean closed;
+
+        private PagedEntries(ScoreHistory history, Consumer<PagedEntries> onPageLoaded) {
+            this.history = history;
+            this.size = history.size();
+            this.onPageLoaded = onPageLoaded;
+        }
+
+        static boolean isLoading(ScoreEntry entry) {
+            return entry == LOADING;
+        }
+
+        @Override
+        public ScoreEntry get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            int page = index / PAGE_SIZE;
+            List<ScoreEntry> entries = pages.get(page);
+            if (entries == null) {
+                request(page);
+                return LOADING;
+            }
+            int offset = index - page * PAGE_SIZE;
+            return (offset < entries.size()) ? entries.get(offset) : UNAVAILABLE;
+        }
+
+        private void request(int page) {
+            if (!wanted.contains(page)) {
+                wanted.addFirst(page);
+                if (wanted.size() > CACHED_PAGES) {
+                    wanted.removeLast();
+                }
+            }
+            readNext();
+        }
+
+        private void readNext() {
+            if (reading || closed || wanted.isEmpty()) {
+                return;
+            }
+            reading = true;
+            int page = wanted.peekFirst();
+            Thread.ofVirtual().name("leaderboard-query").start(() -> {
+                List<ScoreEntry> read;
+                try {
+                    read = history.page(page * PAGE_SIZE, PAGE_SIZE);
+                } catch (IOException e) {
+                    read = null;
+                    if (!closed) {
+                        System.out.println("Error reading leaderboard: " + e.getMessage());
+                    }
+                }
+                List<ScoreEntry> entries = (read == null) ? List.of() : read;
+                Platform.runLater(() -> pageRead(page, entries));
+            });
+        }
+
+        private void pageRead(int page, List<ScoreEntry> entries) {
+            reading = false;
+            if (closed) {
+                return;
+            }
+            wanted.remove(page);
+            // A page that could not be read shows as unavailable rather than being read again
+            pages.put(page, entries);
+            onPageLoaded.accept(this);
+            readNext();
+        }
+
+        /**
+         * Stops reading pages, before the history is closed.
+         */
+        void close() {
+            closed = true;
+        }
 
-            rank++;
+        @Override
+        public int size() {
+            return size;
         }
     }
 }
@@ -1,18 +1,48 @@
 package com.comp2042;
 
+import com.comp2042.leaderboard.LeaderboardStore;
+import com.comp2042.leaderboard.LeaderboardWatcher;
+import com.comp2042.leaderboard.ScoreEntry;
+import com.comp2042.leaderboard.ScoreHistory;
+import com.comp2042.leaderboard.ScoreQuery;
+
 import java.io.IOException;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages saving and loading leaderboard scores.
- * <p>Scores are stored in plain text files under a base directory.
- * (default: {@code src/main/resources/}). Each score entry is recorded as:</p>
+ * <p>Each leaderboard is a {@link LeaderboardStore}: the full score
+ * history in a crash-safe snapshot and append-only log under a base
+ * directory (default: {@code src/main/resources/}), with its top entries
+ * cached in memory. A leaderboard is read from disk the first
+ * time it is used; after that adding a score costs O(log K) in memory,
+ * the record is written by a background thread, and loading costs
+ * nothing.</p>
+ *
+ * <p>Leaderboards are named by their old text file name, e.g.
+ * {@code normal.txt}, and stored as {@code normal.dat} and
+ * {@code normal.log}. An existing text leaderboard of the form</p>
  *
  * <pre>
  * playerName, score
  * </pre>
  *
+ * <p>is imported the first time its binary files are missing.</p>
+
+ * <p>Several game instances may share the leaderboard directory. Once a
+ * leaderboard is open, a {@link LeaderboardWatcher} watches the directory
+ * and, when another instance appends a score, reads just the new records
+ * into the cached store. Listeners added with {@link #addListener} (such
+ * as open leaderboard windows) are then told, so scores of other
+ * instances appear live without polling.</p>
+ *
+ * <p>Besides the top entries, every game ever recorded can be ranked:
+ * {@link #rank} and {@link #percentile} answer from a score histogram in
+ * logarithmic time.</p>
+ *
  * <p>Refactored for COMP2042 to:</p>
  * <ul>
  *     <li>Improve clarity and error handling</li>
@@ -27,6 +57,15 @@ public class LeaderboardManager {
     /** Base file path where leaderboard files are stored */
     private static String BASE_PATH = "src/main/resources/";
 
+    /** Extension of the binary leaderboard files. */
+    private static final String STORE_EXTENSION = ".dat";
+
+    /** Open leaderboards, keyed by file name. */
+    private static final Map<String, LeaderboardStore> STORES = new ConcurrentHashMap<>();
+
+    /** Watches {@link #BASE_PATH} once a leaderboard is open; guarded by {@link #STORES}. */
+    private static LeaderboardWatcher watcher;
+
     /**
      * Allows test cases to inject a custom file path.
      *
@@ -37,47 +76,166 @@ public class LeaderboardManager {
             throw new IllegalArgumentException("Base path must not be empty");
         }
         BASE_PATH = basePath.endsWith("/") ? basePath : basePath + "/";
+        clearCacheForTesting();
+    }
+
+    /**
+     * Finishes pending writes and forgets every cached leaderboard so that
+     * the next use reads it from disk again.
+     */
+    static void clearCacheForTesting() {
+        LeaderboardStore.drain();
+        synchronized (STORES) {
+            if (watcher != null) {
+                watcher.close();
+                watcher = null;
+            }
+            STORES.clear();
+        }
+    }
+
+    /**
+     * Loads a leaderboard on a background virtual thread, so that saving
+     * at the end of a game does not wait for the first read.
+     *
+     * @param filename leaderboard file name
+     */
+    public static void preload(String filename) {
+        Thread.ofVirtual().name("leaderboard-preload").start(() -> topScores(filename));
     }
 
     /**
      * Saves a new score into the leaderboard file
      * <p>
      * The leaderboard is sorted from highest to lowest score
-     * and only the top 10 scores are retained.
+     * and only the top 10 scores are shown; every score is kept in the
+     * history. The new score is visible
+     * to {@link #loadScores} at once; the file is written in the background.
      * @param filename leaderboard file name
      * @param name     player name
      * @param score    player score
      */
     public static void saveScore(String filename, String name, int score) {
         try {
-            Path path = Paths.get(BASE_PATH + filename);
-            List<String> lines = new ArrayList<>();
+            store(filename).add(name, score, System.currentTimeMillis());
+        } catch (IOException e) {
+            System.out.println("Error saving leaderboard: " + e.getMessage());
+        }
+    }
 
-            // Load existing scores if file exists
-            if (Files.exists(path)) {
-                lines.addAll(Files.readAllLines(path));
-            }
+    /**
+     * Saves a new score like {@link #saveScore}, on a background virtual
+     * thread. If the leaderboard has not been read yet (e.g. its
+     * {@link #preload} is still running), that thread waits for it, so
+     * the JavaFX thread never does.
+     *
+     * @param filename leaderboard file name
+     * @param name     player name
+     * @param score    player score
+     * @return completes once the score is visible to {@link #loadScores}
+     */
+    public static CompletableFuture<Void> saveScoreAsync(String filename, String name, int score) {
+        return CompletableFuture.runAsync(() -> saveScore(filename, name, score),
+                task -> Thread.ofVirtual().name("leaderboard-save").start(task));
+    }
 
-            // Add new score
-            lines.add(name + "," + score);
+    /**
+     * Returns the entries of a leaderboard, best first.
+     *
+     * @param filename leaderboard file name
+     * @return cached, unmodifiable list of entries; empty if the leaderboard does not exist
+     */
+    public static List<ScoreEntry> topScores(String filename) {
+        try {
+            return store(filename).top();
+        } catch (IOException e) {
+            System.out.println("Error loading leaderboard: " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
 
-            // Sort high -> low
-            lines.sort((a,b) -> {
-                int scoreA = Integer.parseInt(a.split(",")[1].trim());
-                int scoreB = Integer.parseInt(b.split(",")[1].trim());
-                return Integer.compare(scoreB, scoreA);
-            });
+    /**
+     * Ranks a score against every game ever recorded on a leaderboard.
+     *
+     * @param filename leaderboard file name
+     * @param score    score to rank
+     * @return 1-based rank (equal scores share a rank), or 0 if the leaderboard cannot be read
+     */
+    public static long rank(String filename, int score) {
+        try {
+            return store(filename).rank(score);
+        } catch (IOException e) {
+            System.out.println("Error loading leaderboard: " + e.getMessage());
+            return 0;
+        }
+    }
 
-            // Keep top 10 only
-            if (lines.size() > 10) {
-                lines=lines.subList(0, 10);
-            }
+    /**
+     * Returns the share of recorded games that a score beat.
+     *
+     * @param filename leaderboard file name
+     * @param score    score to compare
+     * @return percentage (0 to 100) of recorded games with a lower score
+     */
+    public static double percentile(String filename, int score) {
+        try {
+            return store(filename).percentile(score);
+        } catch (IOException e) {
+            System.out.println("Error loading leaderboard: " + e.getMessage());
+            return 0;
+        }
+    }
 
-            // Save updated list
-            Files.write(path, lines);
+    /**
+     * @param filename leaderboard file name
+     * @return number of games recorded on the leaderboard
+     */
+    public static long gamesPlayed(String filename) {
+        try {
+            return store(filename).size();
+        } catch (IOException e) {
+            System.out.println("Error loading leaderboard: " + e.getMessage());
+            return 0;
+        }
+    }
 
+    /**
+     * Opens a paged view of every score recorded on a leaderboard. May
+     * scan the leaderboard, so call it off the JavaFX thread.
+     *
+     * @param filename leaderboard file name
+     * @param query    order and date range
+     * @return view to be closed by the caller
+     * @throws IOException if the leaderboard cannot be read
+     */
+    public static ScoreHistory history(String filename, ScoreQuery query) throws IOException {
+        return store(filename).history(query);
+    }
+
+    /**
+     * Adds a listener told whenever a leaderboard changes, whether through
+     * this instance or another one sharing the directory. It is called on
+     * a background thread.
+     *
+     * @param filename leaderboard file name
+     * @param listener listener to add
+     */
+    public static void addListener(String filename, Runnable listener) {
+        try {
+            store(filename).addListener(listener);
         } catch (IOException e) {
-            System.out.println("Error saving leaderboard: " + e.getMessage());
+            System.out.println("Error loading leaderboard: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param filename leaderboard file name
+     * @param listener listener to remove
+     */
+    public static void removeListener(String filename, Runnable listener) {
+        LeaderboardStore store = STORES.get(filename);
+        if (store != null) {
+            store.removeListener(listener);
         }
     }
 
@@ -85,19 +243,102 @@ public class LeaderboardManager {
      * Loads scores from the given leaderboard file.
      *
      * @param filename leaderboard file name
-     * @return list of stored scores, or empty list if file does not exist
+     * @return list of stored scores as {@code name,score}, or empty list if file does not exist
      */
     public static List<String> loadScores(String filename) {
-        try {
-            Path path = Paths.get(BASE_PATH + filename);
+        List<String> lines = new ArrayList<>();
+        for (ScoreEntry entry : topScores(filename)) {
+            lines.add(entry.name() + "," + entry.score());
+        }
+        return lines;
+    }
 
-            if (!Files.exists(path)) {
-                return Collections.emptyList();
+    /**
+     * Returns the open store for a leaderboard, opening it on first use.
+     */
+    private static LeaderboardStore store(String filename) throws IOException {
+        LeaderboardStore store = STORES.get(filename);
+        if (store != null) {
+            return store;
+        }
+        synchronized (STORES) {
+            store = STORES.get(filename);
+            if (store == null) {
+                store = open(filename);
+                STORES.put(filename, store);
+                watch();
             }
-            return Files.readAllLines(path);
+            return store;
+        }
+    }
 
+    /**
+     * Starts watching the leaderboard directory, if not already done.
+     * Must hold the lock on {@link #STORES}.
+     */
+    private static void watch() {
+        if (watcher != null) {
+            return;
+        }
+        try {
+            Path directory = Paths.get(BASE_PATH);
+            Files.createDirectories(directory);
+            watcher = LeaderboardWatcher.start(directory, LeaderboardManager::filesChanged);
         } catch (IOException e) {
-            return Collections.emptyList();
+            // Still usable: other instances' scores then appear after the next save
+            System.out.println("Could not watch leaderboards: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads what another instance added to the changed leaderboard files.
+     * Runs on the watcher thread.
+     *
+     * @param file changed file, or {@code null} if any may have changed
+     */
+    private static void filesChanged(Path file) {
+        for (LeaderboardStore store : STORES.values()) {
+            Path snapshot = store.getFile();
+            if (file == null || file.getFileName().equals(snapshot.getFileName())
+                    || file.getFileName().equals(LeaderboardStore.logFile(snapshot).getFileName())) {
+                try {
+                    store.refresh();
+                } catch (IOException e) {
+                    System.out.println("Error refreshing leaderboard: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static LeaderboardStore open(String filename) throws IOException {
+        Path textFile = Paths.get(BASE_PATH + filename);
+        String baseName = filename.endsWith(".txt") ? filename.substring(0, filename.length() - 4) : filename;
+        Path storeFile = Paths.get(BASE_PATH + baseName + STORE_EXTENSION);
+
+        boolean importText = !Files.exists(storeFile) && !Files.exists(LeaderboardStore.logFile(storeFile))
+                && Files.isRegularFile(textFile);
+        LeaderboardStore store = LeaderboardStore.open(storeFile, LeaderboardStore.DEFAULT_CAPACITY);
+        if (importText) {
+            importTextFile(textFile, store);
+        }
+        return store;
+    }
+
+    /**
+     * Adds the scores of an old {@code name,score} text leaderboard, in file order.
+     */
+    private static void importTextFile(Path textFile, LeaderboardStore store) throws IOException {
+        long time = Files.getLastModifiedTime(textFile).toMillis();
+        for (String line : Files.readAllLines(textFile)) {
+            int comma = line.lastIndexOf(',');
+            if (comma < 0) {
+                continue;
+            }
+            try {
+                store.add(line.substring(0, comma), Integer.parseInt(line.substring(comma + 1).trim()), time);
+            } catch (NumberFormatException e) {
+                System.out.println("Skipping leaderboard line: " + line);
+            }
         }
     }
 }
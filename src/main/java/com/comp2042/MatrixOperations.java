@@ -126,14 +126,23 @@ public final class MatrixOperations {
         }
 
         int linesCleared = clearedRows.size();
-        int scoreBonus = 50 * linesCleared * linesCleared;
-        return new ClearRow(linesCleared, newMatrix, scoreBonus);
+        return new ClearRow(linesCleared, newMatrix, scoreBonus(linesCleared));
+    }
+
+    /**
+     * Score awarded for clearing rows with a single brick.
+     *
+     * @param linesCleared number of rows removed together
+     * @return score bonus
+     */
+    static int scoreBonus(int linesCleared) {
+        return 50 * linesCleared * linesCleared;
     }
 
     /**
      * Determines if a row is completely filled.
      */
-    private static boolean isRowFull(int[] row) {
+    static boolean isRowFull(int[] row) {
         for (int value : row) {
             if (value == 0) {
                 return false;
@@ -142,6 +151,18 @@ public final class MatrixOperations {
         return true;
     }
 
+    /**
+     * Determines if a row has no filled cell.
+     */
+    static boolean isRowEmpty(int[] row) {
+        for (int value : row) {
+            if (value != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Creates a deep copy of a list of matrices
      *
@@ -0,0 +1,262 @@
+package com.comp2042;
+
+import com.comp2042.replay.Replay;
+import com.comp2042.replay.ReplayFormat;
+import com.comp2042.replay.ReplayPlayer;
+import com.comp2042.replay.ReplayRecorder;
+import javafx.animation.AnimationTimer;
+import javafx.fxml.FXML;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.scene.paint.Color;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.util.StringConverter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Controller for the replay viewer window ({@code replayViewer.fxml}).
+ * <p>
+ * Playback is driven by an {@link AnimationTimer}: on every frame the
+ * playback clock advances by the elapsed time multiplied by the chosen
+ * speed (1x to 100x), the {@link ReplayPlayer} applies however many events
+ * fall into that span without rendering them, and the board is drawn
+ * once. Dragging the timeline seeks through the player's keyframes, so
+ * scrubbing is equally cheap at any point of a long game.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public class ReplayViewerController {
+
+    private static final int CELL_SIZE = 25;
+
+    /** Top rows hidden in the game view as well. */
+    private static final int HIDDEN_ROWS = 2;
+
+    private static final Integer[] SPEEDS = {1, 2, 5, 10, 25, 50, 100};
+
+    @FXML
+    private Canvas boardCanvas;
+
+    @FXML
+    private Slider timeline;
+
+    @FXML
+    private ComboBox<Integer> speedBox;
+
+    @FXML
+    private Button playButton;
+
+    @FXML
+    private Label infoLabel;
+
+    @FXML
+    private Label timeLabel;
+
+    private ReplayPlayer player;
+    private boolean playing;
+    private double playTick;
+    private long lastFrameNanos;
+    private boolean dirty;
+
+    /** Set while the timer moves the slider, so that it is not taken as a seek. */
+    private boolean updatingTimeline;
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            onFrame(now);
+        }
+    };
+
+    @FXML
+    private void initialize() {
+        speedBox.getItems().setAll(SPEEDS);
+        speedBox.setValue(1);
+        speedBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(Integer speed) {
+                return (speed == null) ? "" : speed + "x";
+            }
+
+            @Override
+            public Integer fromString(String text) {
+                return Integer.valueOf(text.replace("x", "").trim());
+            }
+        });
+
+        timeline.valueProperty().addListener((observable, oldValue, newValue) -> {
+            if (!updatingTimeline && player != null) {
+                playTick = newValue.doubleValue();
+                player.seek((long) playTick);
+                dirty = true;
+            }
+        });
+
+        timer.start();
+    }
+
+    /**
+     * Loads a replay and shows its first frame.
+     *
+     * @param file replay file
+     * @throws IOException if the file cannot be read
+     */
+    public void open(Path file) throws IOException {
+        Replay replay = Replay.read(file);
+        player = new ReplayPlayer(replay);
+        playing = false;
+        playTick = 0;
+        playButton.setText("Play");
+
+        updatingTimeline = true;
+        timeline.setMax(Math.max(1, replay.durationMillis()));
+        timeline.setValue(0);
+        updatingTimeline = false;
+
+        infoLabel.setText(String.format("%s - %d events - %s%s",
+                replay.header().mode(),
+                player.eventCount(),
+                replay.isFinished() ? "final score " + replay.finalScore() : "unfinished",
+                player.matchesRecording() ? "" : " (does not match recording)"));
+        player.seekToEvent(0);
+        dirty = true;
+    }
+
+    @FXML
+    private void openReplay() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Open replay");
+        chooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("Replays", "*" + ReplayFormat.EXTENSION));
+        if (Files.isDirectory(ReplayRecorder.DEFAULT_DIRECTORY)) {
+            chooser.setInitialDirectory(ReplayRecorder.DEFAULT_DIRECTORY.toFile());
+        }
+
+        File file = chooser.showOpenDialog(boardCanvas.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        try {
+            open(file.toPath());
+        } catch (IOException | IllegalArgumentException e) {
+            infoLabel.setText("Could not open replay: " + e.getMessage());
+        }
+    }
+
+    @FXML
+    private void togglePlay() {
+        if (player == null) {
+            return;
+        }
+        if (!playing && playTick >= player.getReplay().durationMillis()) {
+            // Restart from the beginning once the end was reached
+            playTick = 0;
+            player.seekToEvent(0);
+        }
+        playing = !playing;
+        lastFrameNanos = 0;
+        playButton.setText(playing ? "Pause" : "Play");
+    }
+
+    @FXML
+    private void closeWindow() {
+        timer.stop();
+        Stage stage = (Stage) boardCanvas.getScene().getWindow();
+        stage.close();
+    }
+
+    /**
+     * Stops the frame timer; called when the window is closed.
+     */
+    public void stop() {
+        timer.stop();
+    }
+
+    private void onFrame(long now) {
+        if (player == null) {
+            return;
+        }
+        if (playing) {
+            if (lastFrameNanos != 0) {
+                double speed = (speedBox.getValue() == null) ? 1 : speedBox.getValue();
+                playTick += (now - lastFrameNanos) / 1_000_000.0 * speed;
+            }
+            lastFrameNanos = now;
+
+            long duration = player.getReplay().durationMillis();
+            if (playTick >= duration) {
+                playTick = duration;
+                playing = false;
+                playButton.setText("Play");
+            }
+            // Applies every event up to the new time; none of them is drawn
+            player.seek((long) playTick);
+
+            updatingTimeline = true;
+            timeline.setValue(playTick);
+            updatingTimeline = false;
+            dirty = true;
+        }
+
+        if (dirty) {
+            render();
+            dirty = false;
+        }
+    }
+
+    private void render() {
+        HeadlessGame game = player.getGame();
+        Board board = game.getBoard();
+        int[][] matrix = board.readBoardMatrix();
+        ViewData view = board.getViewData();
+
+        GraphicsContext g = boardCanvas.getGraphicsContext2D();
+        g.setFill(Color.BLACK);
+        g.fillRect(0, 0, boardCanvas.getWidth(), boardCanvas.getHeight());
+
+        for (int r = HIDDEN_ROWS; r < matrix.length; r++) {
+            for (int c = 0; c < matrix[r].length; c++) {
+                if (matrix[r][c] != 0) {
+                    drawCell(g, c, r, matrix[r][c]);
+                }
+            }
+        }
+
+        if (!game.isGameOver()) {
+            int[][] brick = view.getBrickData();
+            for (int r = 0; r < brick.length; r++) {
+                for (int c = 0; c < brick[r].length; c++) {
+                    if (brick[r][c] != 0 && view.getyPosition() + r >= HIDDEN_ROWS) {
+                        drawCell(g, view.getxPosition() + c, view.getyPosition() + r, brick[r][c]);
+                    }
+                }
+            }
+        }
+
+        long tick = (long) playTick;
+        timeLabel.setText(formatTime(tick) + " / " + formatTime(player.getReplay().durationMillis())
+                + "   Score: " + game.getScore() + (game.isGameOver() ? "   GAME OVER" : ""));
+    }
+
+    private void drawCell(GraphicsContext g, int column, int row, int colour) {
+        double x = column * CELL_SIZE;
+        double y = (row - HIDDEN_ROWS) * CELL_SIZE;
+        g.setFill(GuiController.getFillColor(colour));
+        g.fillRoundRect(x + 1, y + 1, CELL_SIZE - 2, CELL_SIZE - 2, 6, 6);
+    }
+
+    private static String formatTime(long millis) {
+        long seconds = millis / 1000;
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+}
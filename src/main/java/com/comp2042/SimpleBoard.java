@@ -2,9 +2,12 @@ package com.comp2042;
 
 import com.comp2042.logic.bricks.Brick;
 import com.comp2042.logic.bricks.BrickGenerator;
+import com.comp2042.logic.bricks.BrickType;
 import com.comp2042.logic.bricks.RandomBrickGenerator;
 
 import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Core model representing the Tetris game board.
@@ -18,6 +21,10 @@ import java.awt.Point;
  *     <li> Ghost piece calculations</li>
  *     <li> Next-brick preview</li>
  *     <li> Hold/swap brick functionality</li>
+ *     <li> Incremental Zobrist hashing of the game state</li>
+ *     <li> Cheap copy-on-write forks for simulations</li>
+ *     <li> Garbage rows sent by a versus opponent</li>
+ *     <li> Reusable snapshots for rolling a game back</li>
  * </ul>
  *
  * <p>
@@ -26,11 +33,14 @@ import java.awt.Point;
  * preserving original gameplay behaviour.
  *
  * @author Chan Michelle
- * @version 1.2
+ * @version 1.6
  */
 
 public class SimpleBoard implements Board {
 
+    /** Colour id of the cells of garbage rows. */
+    public static final int GARBAGE = 8;
+
     // FIELDS
 
     /** Width of the board in cells.*/
@@ -51,6 +61,13 @@ public class SimpleBoard implements Board {
     /** Static background grid of placed bricks */
     private int[][] boardMatrix;
 
+    /**
+     * {@code rowOwned[r]} is {@code true} when row {@code r} of
+     * {@link #boardMatrix} is not shared with any fork and may be written
+     * in place. Shared rows are copied on their first write.
+     */
+    private boolean[] rowOwned;
+
     /** The active falling brick. */
     private Brick currentBrick;
 
@@ -69,6 +86,21 @@ public class SimpleBoard implements Board {
     /** Prevents holding twice during one turn. */
     private boolean holdUsedThisTurn = false;
 
+    /** Colour id of the active brick, cached for hashing. */
+    private int currentBrickId;
+
+    /** Zobrist hash of the filled cells of {@link #boardMatrix}. */
+    private long boardHash;
+
+    /**
+     * Set when rows were shifted by {@link #addGarbage}, which moves every
+     * cell key; {@link #boardHash} is then recomputed on its next read.
+     */
+    private boolean boardHashStale;
+
+    /** Zobrist hash of the active brick state and the hold slot. */
+    private long pieceHash;
+
     // CONSTRUCTORS
 
     /**
@@ -92,11 +124,64 @@ public class SimpleBoard implements Board {
         this.width = width;
         this.height = height;
         this.boardMatrix = new int[height][width];
+        this.rowOwned = ownedRows(height);
         this.brickGenerator = brickGenerator;
         this.rotator = new BrickRotator();
         this.score = new Score();
     }
 
+    /**
+     * Creates a fork of another board. Rows are shared with the source
+     * and both boards copy a row before writing to it.
+     *
+     * @param source board to fork
+     */
+    private SimpleBoard(SimpleBoard source) {
+        this.width = source.width;
+        this.height = source.height;
+        this.brickGenerator = source.brickGenerator.fork();
+        this.rotator = new BrickRotator();
+        this.score = new Score();
+        this.score.add(source.score.scoreProperty().get());
+
+        // Only the row references are copied; from now on neither board owns any row
+        this.boardMatrix = source.boardMatrix.clone();
+        this.rowOwned = new boolean[height];
+        Arrays.fill(source.rowOwned, false);
+
+        this.currentBrick = source.currentBrick;
+        if (currentBrick != null) {
+            rotator.setBrick(currentBrick);
+            rotator.setCurrentShape(source.rotator.getCurrentShapeIndex());
+        }
+        this.currentShape = source.currentShape;
+        this.offset = (source.offset == null) ? null : new Point(source.offset);
+        this.nextBrickPreview = source.nextBrickPreview;
+        this.holdBrick = source.holdBrick;
+        this.holdUsedThisTurn = source.holdUsedThisTurn;
+        this.currentBrickId = source.currentBrickId;
+        this.boardHash = source.boardHash;
+        this.boardHashStale = source.boardHashStale;
+        this.pieceHash = source.pieceHash;
+    }
+
+    private static boolean[] ownedRows(int height) {
+        boolean[] owned = new boolean[height];
+        Arrays.fill(owned, true);
+        return owned;
+    }
+
+    /**
+     * Returns a row that may be written, copying it first if it is shared with a fork.
+     */
+    private int[] writableRow(int r) {
+        if (!rowOwned[r]) {
+            boardMatrix[r] = boardMatrix[r].clone();
+            rowOwned[r] = true;
+        }
+        return boardMatrix[r];
+    }
+
     // HOLD / SWAP SYSTEM
     /** Hold or swap the current brick.
      * <p>
@@ -125,12 +210,14 @@ public class SimpleBoard implements Board {
 
             rotator.setBrick(currentBrick);
             currentShape = rotator.getCurrentShape();
+            currentBrickId = BrickType.of(currentShape).id();
 
             // Standard spawn position for swapped piece
             offset = new Point (width / 2 - 2, 0);
         }
 
         holdUsedThisTurn = true;
+        rehashPiece();
     }
 
     // BRICK CREATION AND SPAWNING
@@ -145,6 +232,7 @@ public class SimpleBoard implements Board {
         currentBrick = brickGenerator.getBrick();
         rotator.setBrick(currentBrick);
         currentShape = rotator.getCurrentShape();
+        currentBrickId = BrickType.of(currentShape).id();
 
        // Next brick preview
         Brick next = brickGenerator.getNextBrick();
@@ -153,6 +241,7 @@ public class SimpleBoard implements Board {
         // Center horizontally
         offset = new Point(width / 2 - currentShape[0].length / 2, 0);
         holdUsedThisTurn = false;
+        rehashPiece();
 
 
         // Check spawn collision
@@ -173,6 +262,7 @@ public class SimpleBoard implements Board {
     public boolean moveBrickDown() {
         if (canPlace(offset.x, offset.y + 1, currentShape)) {
             offset.translate(0,1);
+            pieceHash ^= ZobristKeys.y(offset.y - 1) ^ ZobristKeys.y(offset.y);
             return true;
         }
         return false;
@@ -186,6 +276,7 @@ public class SimpleBoard implements Board {
     public boolean moveBrickLeft() {
         if (canPlace(offset.x - 1, offset.y, currentShape)) {
             offset.translate(-1,0);
+            pieceHash ^= ZobristKeys.x(offset.x + 1) ^ ZobristKeys.x(offset.x);
             return true;
         }
         return false;
@@ -199,6 +290,7 @@ public class SimpleBoard implements Board {
     public boolean moveBrickRight() {
         if (canPlace(offset.x + 1, offset.y, currentShape)) {
             offset.translate(1,0);
+            pieceHash ^= ZobristKeys.x(offset.x - 1) ^ ZobristKeys.x(offset.x);
             return true;
         }
         return false;
@@ -217,6 +309,8 @@ public class SimpleBoard implements Board {
         int[][] rotatedShape = next.getShape();
 
         if (canPlace(offset.x, offset.y, rotatedShape)) {
+            pieceHash ^= ZobristKeys.piece(currentBrickId, rotator.getCurrentShapeIndex())
+                    ^ ZobristKeys.piece(currentBrickId, next.getPosition());
             rotator.setCurrentShape(next.getPosition());
             currentShape = rotatedShape;
             return true;
@@ -329,13 +423,17 @@ public class SimpleBoard implements Board {
         for (int r = 0; r < currentShape.length; r++) {
             for (int c = 0; c < currentShape[r].length; c++) {
 
-                if (currentShape[r][c] != 0) continue;
+                if (currentShape[r][c] == 0) continue;
 
                 int bx = offset.x + c;
                 int by = offset.y + r;
 
                 if (by >= 0 && by < height && bx >= 0 && bx < width) {
-                    boardMatrix[by][bx] = currentShape[r][c];
+                    int[] row = writableRow(by);
+                    if (row[bx] == 0) {
+                        boardHash ^= ZobristKeys.cell(by, bx);
+                    }
+                    row[bx] = currentShape[r][c];
                 }
             }
         }
@@ -343,30 +441,341 @@ public class SimpleBoard implements Board {
 
     /**
      * Clears complete rows and shifts above rows downward.
+     * <p>
+     * Rows are moved by reference rather than copied, so a clear never
+     * copies cell data and rows shared with a fork stay shared.
+     *
      * @return ClearRow object describing how many lines were removed and the score bonus.
      */
 
     @Override
     public ClearRow clearRows() {
-        ClearRow clear = MatrixOperations.checkRemoving(boardMatrix);
-        boardMatrix = clear.newMatrix();
-        return clear;
+        int[][] rows = new int[height][];
+        boolean[] owned = new boolean[height];
+        int write = height - 1;
+        for (int read = height - 1; read >= 0; read--) {
+            if (!MatrixOperations.isRowFull(boardMatrix[read])) {
+                rows[write] = boardMatrix[read];
+                owned[write] = rowOwned[read];
+                write--;
+            }
+        }
+        int linesRemoved = write + 1;
+        if (linesRemoved == 0) {
+            return new ClearRow(0, boardMatrix, 0);
+        }
+        for (; write >= 0; write--) {
+            rows[write] = new int[width];
+            owned[write] = true;
+        }
+        boardMatrix = rows;
+        rowOwned = owned;
+
+        // Every row above a cleared row moves, so all of their cell keys change
+        boardHash = ZobristKeys.hashBoard(boardMatrix);
+        boardHashStale = false;
+        return new ClearRow(linesRemoved, boardMatrix, MatrixOperations.scoreBonus(linesRemoved));
+    }
+
+    /**
+     * Pushes garbage rows in from the bottom, as sent by a versus opponent.
+     * Every garbage row is filled except for one hole column. Call it
+     * between locking a brick and spawning the next one.
+     * <p>
+     * Only row references move: the array of rows shifts up by
+     * {@code rows} entries and the rows pushed off the top are reused as
+     * the garbage rows, so the cells written are those of the garbage
+     * rows alone and the rest of the board is never copied. The board hash
+     * is recomputed lazily on its next read.
+     *
+     * @param rows       number of garbage rows (more than the board height is capped)
+     * @param holeColumn the empty column of every garbage row
+     * @return {@code true} if filled cells were pushed off the top (the player tops out)
+     * @throws IllegalArgumentException if the hole column is outside the board
+     */
+    @Override
+    public boolean addGarbage(int rows, int holeColumn) {
+        if (holeColumn < 0 || holeColumn >= width) {
+            throw new IllegalArgumentException("Hole column " + holeColumn + " is outside the board");
+        }
+        rows = Math.min(rows, height);
+        if (rows <= 0) {
+            return false;
+        }
+
+        boolean toppedOut = false;
+        int[][] pushedOut = new int[rows][];
+        boolean[] pushedOwned = new boolean[rows];
+        for (int r = 0; r < rows; r++) {
+            toppedOut |= !MatrixOperations.isRowEmpty(boardMatrix[r]);
+            pushedOut[r] = boardMatrix[r];
+            pushedOwned[r] = rowOwned[r];
+        }
+
+        System.arraycopy(boardMatrix, rows, boardMatrix, 0, height - rows);
+        System.arraycopy(rowOwned, rows, rowOwned, 0, height - rows);
+
+        for (int i = 0; i < rows; i++) {
+            // A row shared with a fork must not be overwritten
+            int[] row = pushedOwned[i] ? pushedOut[i] : new int[width];
+            Arrays.fill(row, GARBAGE);
+            row[holeColumn] = 0;
+            boardMatrix[height - rows + i] = row;
+            rowOwned[height - rows + i] = true;
+        }
+        boardHashStale = true;
+        return toppedOut;
     }
 
     // ----------------------
     // ACCESSORS
     // ----------------------
 
+    /**
+     * Returns the live board matrix for writing. Any row still shared with
+     * a fork is copied first, and the board hash is recomputed the next
+     * time it is read. To draw or inspect the board, use
+     * {@link #readBoardMatrix()}, which copies nothing.
+     */
     @Override
     public int[][] getBoardMatrix() {
+        for (int r = 0; r < height; r++) {
+            writableRow(r);
+        }
+        boardHashStale = true;
         return boardMatrix;
     }
 
+    /**
+     * Returns the board matrix for reading. Rows may be shared with forks,
+     * so they must not be written.
+     */
+    @Override
+    public int[][] readBoardMatrix() {
+        return boardMatrix;
+    }
+
+    /**
+     * Forks this board. The fork starts with the same cells, active brick,
+     * hold slot, upcoming bricks and score, and then evolves independently.
+     * <p>
+     * Board rows are shared between the two boards until one of them writes
+     * to a row, so a fork costs one array of row references rather than a
+     * copy of every cell. This makes it cheap to run many simulations from
+     * the same position.
+     *
+     * @return independent copy of this board
+     */
+    @Override
+    public SimpleBoard fork() {
+        return new SimpleBoard(this);
+    }
+
     @Override
     public Score getScore() {
         return score;
     }
 
+    @Override
+    public List<Brick> getUpcomingBricks() {
+        return brickGenerator.getUpcomingBricks();
+    }
+
+    /**
+     * Returns the Zobrist hash of the full game state: filled cells, the
+     * active brick's type, rotation and position, and the hold slot.
+     * <p>
+     * The hash is maintained incrementally by every move, merge and clear.
+     * Cells written directly through {@link #getBoardMatrix()} are hashed
+     * again on the next read, so write them before reading the hash.
+     *
+     * @return 64-bit state hash
+     */
+    @Override
+    public long getZobristHash() {
+        return getBoardHash() ^ pieceHash;
+    }
+
+    /**
+     * @return Zobrist hash of the filled cells only
+     */
+    public long getBoardHash() {
+        if (boardHashStale) {
+            boardHash = ZobristKeys.hashBoard(boardMatrix);
+            boardHashStale = false;
+        }
+        return boardHash;
+    }
+
+    /**
+     * Recomputes the active brick / hold part of the hash.
+     */
+    private void rehashPiece() {
+        long hash = ZobristKeys.x(offset.x) ^ ZobristKeys.y(offset.y);
+        if (currentBrickId != 0) {
+            hash ^= ZobristKeys.piece(currentBrickId, rotator.getCurrentShapeIndex());
+        }
+        if (holdBrick != null) {
+            hash ^= ZobristKeys.hold(BrickType.of(holdBrick).id());
+        }
+        if (holdUsedThisTurn) {
+            hash ^= ZobristKeys.holdUsed();
+        }
+        pieceHash = hash;
+    }
+
+    //--------------------------
+    // SAVE / RESTORE
+    //--------------------------
+
+    /**
+     * Copies the state needed to continue this game later.
+     *
+     * @return independent copy of the board state
+     */
+    public BoardState captureState() {
+        int[][] cells = new int[height][];
+        for (int r = 0; r < height; r++) {
+            cells[r] = boardMatrix[r].clone();
+        }
+        return new BoardState(cells, BrickType.fromId(currentBrickId), rotator.getCurrentShapeIndex(),
+                offset.x, offset.y, BrickType.of(holdBrick), holdUsedThisTurn, score.scoreProperty().get());
+    }
+
+    /**
+     * Continues a game from a captured state. The brick generator must
+     * already be restored, since the next-brick preview is read from it.
+     *
+     * @param state state to restore; its cells must match this board's size
+     * @throws IllegalArgumentException if the state does not fit this board
+     */
+    public void restoreState(BoardState state) {
+        if (state.cells().length != height || state.cells()[0].length != width) {
+            throw new IllegalArgumentException("Saved board is " + state.cells()[0].length + "x"
+                    + state.cells().length + ", expected " + width + "x" + height);
+        }
+        boardMatrix = new int[height][];
+        for (int r = 0; r < height; r++) {
+            boardMatrix[r] = state.cells()[r].clone();
+        }
+        rowOwned = ownedRows(height);
+        boardHash = ZobristKeys.hashBoard(boardMatrix);
+        boardHashStale = false;
+
+        currentBrick = state.brick().create();
+        rotator.setBrick(currentBrick);
+        rotator.setCurrentShape(state.rotation());
+        currentShape = rotator.getCurrentShape();
+        currentBrickId = state.brick().id();
+        offset = new Point(state.x(), state.y());
+
+        Brick next = brickGenerator.getNextBrick();
+        nextBrickPreview = (next != null) ? next.getShapeMatrix().get(0) : null;
+
+        holdBrick = (state.hold() == null) ? null : state.hold().create();
+        holdUsedThisTurn = state.holdUsed();
+
+        score.reset();
+        score.add(state.score());
+        rehashPiece();
+    }
+
+    /**
+     * Reusable in-memory copy of a board, for saving and restoring a game
+     * every tick (e.g. for rollback in online play). Unlike
+     * {@link BoardState} it is not meant to be stored: it shares rows
+     * with the board copy-on-write, so saving or restoring copies row
+     * references rather than cells, and writing a snapshot again reuses
+     * its arrays.
+     */
+    public static final class Snapshot {
+        private final int[][] rows;
+        private final BrickGenerator.Snapshot generator;
+        private Brick currentBrick;
+        private int rotation;
+        private int[][] currentShape;
+        private int currentBrickId;
+        private int x;
+        private int y;
+        private int[][] nextBrickPreview;
+        private Brick holdBrick;
+        private boolean holdUsed;
+        private long boardHash;
+        private boolean boardHashStale;
+        private long pieceHash;
+        private int score;
+
+        private Snapshot(int height, BrickGenerator.Snapshot generator) {
+            this.rows = new int[height][];
+            this.generator = generator;
+        }
+    }
+
+    /**
+     * @return an empty snapshot sized for this board
+     */
+    public Snapshot newSnapshot() {
+        return new Snapshot(height, brickGenerator.newSnapshot());
+    }
+
+    /**
+     * Saves the whole game, including the brick generator, into a snapshot.
+     * From now on the board and the snapshot share every row, and the
+     * board copies a row before its next write to it.
+     *
+     * @param snapshot snapshot of this board to overwrite, from {@link #newSnapshot()}
+     */
+    public void saveTo(Snapshot snapshot) {
+        System.arraycopy(boardMatrix, 0, snapshot.rows, 0, height);
+        Arrays.fill(rowOwned, false);
+        snapshot.generator.save();
+
+        snapshot.currentBrick = currentBrick;
+        snapshot.rotation = rotator.getCurrentShapeIndex();
+        snapshot.currentShape = currentShape;
+        snapshot.currentBrickId = currentBrickId;
+        snapshot.x = (offset == null) ? 0 : offset.x;
+        snapshot.y = (offset == null) ? 0 : offset.y;
+        snapshot.nextBrickPreview = nextBrickPreview;
+        snapshot.holdBrick = holdBrick;
+        snapshot.holdUsed = holdUsedThisTurn;
+        snapshot.boardHash = boardHash;
+        snapshot.boardHashStale = boardHashStale;
+        snapshot.pieceHash = pieceHash;
+        snapshot.score = score.scoreProperty().get();
+    }
+
+    /**
+     * Puts the game back to the state saved in a snapshot. The snapshot
+     * keeps its rows, so it can be restored again.
+     *
+     * @param snapshot snapshot written by {@link #saveTo} on this board
+     */
+    public void restoreFrom(Snapshot snapshot) {
+        System.arraycopy(snapshot.rows, 0, boardMatrix, 0, height);
+        Arrays.fill(rowOwned, false);
+        snapshot.generator.restore();
+
+        currentBrick = snapshot.currentBrick;
+        if (currentBrick != null) {
+            rotator.setBrick(currentBrick);
+            rotator.setCurrentShape(snapshot.rotation);
+        }
+        currentShape = snapshot.currentShape;
+        currentBrickId = snapshot.currentBrickId;
+        if (offset == null) {
+            offset = new Point();
+        }
+        offset.setLocation(snapshot.x, snapshot.y);
+        nextBrickPreview = snapshot.nextBrickPreview;
+        holdBrick = snapshot.holdBrick;
+        holdUsedThisTurn = snapshot.holdUsed;
+        boardHash = snapshot.boardHash;
+        boardHashStale = snapshot.boardHashStale;
+        pieceHash = snapshot.pieceHash;
+        score.scoreProperty().set(snapshot.score);
+    }
+
     //--------------------------
     //GAME RESET
     //--------------------------
@@ -377,10 +786,16 @@ public class SimpleBoard implements Board {
     @Override
     public void newGame() {
         boardMatrix = new int[height][width];
+        rowOwned = ownedRows(height);
+        boardHash = 0L;
+        boardHashStale = false;
         score.reset();
 
          // Reset hold system
         holdBrick = null;
         holdUsedThisTurn = false;
+        if (offset != null) {
+            rehashPiece();
+        }
     }
 }
\ No newline at end of file
@@ -1,14 +1,22 @@
 package com.comp2042;
 
+import com.comp2042.net.VersusConnection;
+import com.comp2042.net.VersusProtocol;
+import com.comp2042.save.SaveFile;
+import com.comp2042.save.SavedGame;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.TextInputDialog;
 import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 
+import java.net.InetSocketAddress;
 import java.net.URL;
+import java.util.Optional;
 
 public class StartController {
 
@@ -16,6 +24,8 @@ public class StartController {
 
     @FXML private StackPane themePreview;
 
+    @FXML private Button resumeButton;
+
     public void setPrimaryStage(Stage stage) {
         this.primaryStage = stage;
     }
@@ -42,6 +52,39 @@ public class StartController {
         }
     }
 
+    @FXML
+    private void resumeGame() {
+        SaveFile saveFile = SaveFile.defaultFile();
+        SavedGame saved;
+        try {
+            saved = saveFile.load();
+        } catch (Exception e) {
+            System.out.println("Could not load saved game: " + e.getMessage());
+            saveFile.delete();
+            resumeButton.setVisible(false);
+            resumeButton.setManaged(false);
+            return;
+        }
+
+        try {
+            URL gameURL = getClass().getClassLoader().getResource("gameLayout.fxml");
+            FXMLLoader loader = new FXMLLoader(gameURL);
+
+            Parent gameRoot = loader.load();
+
+            GuiController guiController = loader.getController();
+            guiController.applyTheme(ThemeManager.getCurrentTheme());
+            GameController gameController = new GameController(guiController, saved);
+            guiController.setGameController(gameController);
+
+            primaryStage.setScene(new Scene(gameRoot));
+            primaryStage.show();
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
     @FXML
     private void showInstructions() {
         try {
@@ -58,6 +101,69 @@ public class StartController {
         }
     }
 
+    @FXML
+    private void showReplays() {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getClassLoader().getResource("replayViewer.fxml"));
+            Parent root = loader.load();
+            ReplayViewerController controller = loader.getController();
+
+            Stage stage = new Stage();
+            stage.setTitle("Replays");
+            stage.setScene(new Scene(root));
+            stage.setResizable(false);
+            stage.setOnHidden(e -> controller.stop());
+            stage.show();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    @FXML
+    private void startVersus() {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getClassLoader().getResource("versus.fxml"));
+            Parent root = loader.load();
+            VersusController controller = loader.getController();
+
+            primaryStage.setScene(new Scene(root));
+            primaryStage.show();
+            controller.start();
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    @FXML
+    private void startOnlineVersus() {
+        TextInputDialog dialog = new TextInputDialog("localhost:" + VersusProtocol.DEFAULT_PORT);
+        dialog.setTitle("Online versus");
+        dialog.setHeaderText("Address of the versus relay");
+        Optional<String> address = dialog.showAndWait();
+        if (address.isEmpty() || address.get().isBlank()) {
+            return;
+        }
+        try {
+            String text = address.get().trim();
+            int colon = text.lastIndexOf(':');
+            String host = (colon < 0) ? text : text.substring(0, colon);
+            int port = (colon < 0) ? VersusProtocol.DEFAULT_PORT : Integer.parseInt(text.substring(colon + 1));
+            VersusConnection connection = VersusConnection.connect(new InetSocketAddress(host, port));
+
+            FXMLLoader loader = new FXMLLoader(getClass().getClassLoader().getResource("versus.fxml"));
+            Parent root = loader.load();
+            VersusController controller = loader.getController();
+
+            primaryStage.setScene(new Scene(root));
+            primaryStage.show();
+            controller.startOnline(connection);
+
+        } catch (Exception e) {
+            System.out.println("Could not start online versus: " + e.getMessage());
+        }
+    }
+
     @FXML
     private void chooseTimeMode(ActionEvent event) {
         try {
@@ -78,6 +184,11 @@ public class StartController {
     @FXML
     private void initialize() {
         updateThemePreview();
+
+        // Only offer to resume when a game was left unfinished
+        boolean canResume = SaveFile.defaultFile().exists();
+        resumeButton.setVisible(canResume);
+        resumeButton.setManaged(canResume);
     }
 
     @FXML
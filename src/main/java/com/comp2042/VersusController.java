@@ -0,0 +1,360 @@
+package com.comp2042;
+
+import com.comp2042.net.OnlineVersus;
+import com.comp2042.net.VersusConnection;
+import com.comp2042.net.VersusMessage;
+import javafx.animation.AnimationTimer;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Label;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Controller for the local two-player versus screen ({@code versus.fxml}).
+ * <p>
+ * Both players share one keyboard and one {@link VersusGame}; a single
+ * gravity timeline moves both bricks down. Inputs and gravity only change
+ * the model and mark the screen dirty, and an {@link AnimationTimer} draws
+ * both boards in the same frame pulse, so however many keys are pressed
+ * between two frames, each board is drawn once per frame.
+ * <p>
+ * In an online match ({@link #startOnline}) the left board is the local
+ * player's and the right board mirrors the opponent through an
+ * {@link OnlineVersus}. Every frame first takes in whatever arrived from
+ * the network without waiting for it, then draws.
+ *
+ * @author Chan Michelle
+ * @version 1.1
+ */
+public class VersusController {
+
+    private static final int BOARD_WIDTH = 10;
+    private static final int BOARD_HEIGHT = 25;
+
+    private static final int CELL_SIZE = 25;
+
+    /** Top rows hidden in the game view as well. */
+    private static final int HIDDEN_ROWS = 2;
+
+    @FXML
+    private VBox rootPane;
+
+    @FXML
+    private Canvas leftCanvas;
+
+    @FXML
+    private Canvas rightCanvas;
+
+    @FXML
+    private Label leftLabel;
+
+    @FXML
+    private Label rightLabel;
+
+    @FXML
+    private Label statusLabel;
+
+    @FXML
+    private Label leftTitle;
+
+    @FXML
+    private Label rightTitle;
+
+    @FXML
+    private Label keysLabel;
+
+    @FXML
+    private Label hintLabel;
+
+    private VersusGame game;
+
+    /** Connection of an online match, and the match once the relay has started it. */
+    private VersusConnection connection;
+    private OnlineVersus online;
+
+    /** Player drawn on the left and on the right. */
+    private int leftPlayer = 0;
+    private int rightPlayer = 1;
+
+    private Timeline gravity;
+    private boolean paused;
+    private boolean dirty = true;
+
+    private final AnimationTimer renderer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if (connection != null) {
+                dirty |= receive();
+            }
+            if (dirty && game != null) {
+                render();
+                dirty = false;
+            }
+        }
+    };
+
+    @FXML
+    private void initialize() {
+        rootPane.setOnKeyPressed(this::handleKeyPressed);
+
+        gravity = new Timeline(new KeyFrame(Duration.millis(400), e -> {
+            if (online != null) {
+                online.tick();
+            } else if (game != null) {
+                game.tick();
+            }
+            dirty = true;
+        }));
+        gravity.setCycleCount(Timeline.INDEFINITE);
+        renderer.start();
+    }
+
+    /**
+     * Starts a local match on one keyboard; call once the scene is shown.
+     */
+    public void start() {
+        game = new VersusGame(BOARD_WIDTH, BOARD_HEIGHT, ThreadLocalRandom.current().nextLong());
+        gravity.play();
+        rootPane.requestFocus();
+    }
+
+    /**
+     * Waits for an opponent on a relay connection and then plays online;
+     * call once the scene is shown.
+     *
+     * @param connection connection to the relay
+     */
+    public void startOnline(VersusConnection connection) {
+        this.connection = connection;
+        leftTitle.setText("YOU");
+        rightTitle.setText("OPPONENT");
+        keysLabel.setText("Arrows or A/D move, UP or W rotate, DOWN or S down, SPACE/ENTER drop, C/SHIFT hold");
+        hintLabel.setText("ESC leave");
+        statusLabel.setText("Waiting for an opponent...");
+        rootPane.requestFocus();
+    }
+
+    /**
+     * Takes in what arrived from the relay. Never blocks.
+     *
+     * @return {@code true} if the screen must be redrawn
+     */
+    private boolean receive() {
+        if (online != null) {
+            return online.update();
+        }
+        VersusMessage message = connection.poll();
+        if (message instanceof VersusMessage.Start start) {
+            online = new OnlineVersus(connection, start, BOARD_WIDTH, BOARD_HEIGHT);
+            game = online.getGame();
+            leftPlayer = online.getLocalPlayer();
+            rightPlayer = online.getRemotePlayer();
+            gravity.play();
+            return true;
+        }
+        if (!connection.isOpen()) {
+            statusLabel.setText("Could not reach the versus relay");
+            connection = null;
+        }
+        return false;
+    }
+
+    private void handleKeyPressed(KeyEvent event) {
+        KeyCode code = event.getCode();
+        switch (code) {
+            case ESCAPE -> menuHome();
+            case P -> {
+                if (online == null) {
+                    togglePause();
+                }
+            }
+            case N -> {
+                if (online == null) {
+                    rematch();
+                }
+            }
+            default -> {
+                if (game == null || paused || game.isOver()) {
+                    return;
+                }
+                EventType type;
+                int player;
+                switch (code) {
+                    case A -> { player = 0; type = EventType.LEFT; }
+                    case D -> { player = 0; type = EventType.RIGHT; }
+                    case W -> { player = 0; type = EventType.ROTATE; }
+                    case S -> { player = 0; type = EventType.DOWN; }
+                    case SPACE -> { player = 0; type = EventType.HARD_DROP; }
+                    case C -> { player = 0; type = EventType.HOLD; }
+                    case LEFT -> { player = 1; type = EventType.LEFT; }
+                    case RIGHT -> { player = 1; type = EventType.RIGHT; }
+                    case UP -> { player = 1; type = EventType.ROTATE; }
+                    case DOWN -> { player = 1; type = EventType.DOWN; }
+                    case ENTER -> { player = 1; type = EventType.HARD_DROP; }
+                    case SHIFT -> { player = 1; type = EventType.HOLD; }
+                    default -> {
+                        return;
+                    }
+                }
+                if (online != null) {
+                    // Both key sets play the local board
+                    online.input(type, EventSource.USER);
+                } else {
+                    game.apply(player, type);
+                }
+                dirty = true;
+            }
+        }
+        event.consume();
+    }
+
+    private void togglePause() {
+        if (game == null || game.isOver()) {
+            return;
+        }
+        paused = !paused;
+        if (paused) {
+            gravity.pause();
+        } else {
+            gravity.play();
+        }
+        dirty = true;
+    }
+
+    private void rematch() {
+        if (game == null) {
+            return;
+        }
+        game.newMatch(ThreadLocalRandom.current().nextLong());
+        paused = false;
+        gravity.playFromStart();
+        dirty = true;
+    }
+
+    /**
+     * Stops the gravity and frame timers and leaves an online match.
+     */
+    public void stop() {
+        gravity.stop();
+        renderer.stop();
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    private void menuHome() {
+        stop();
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getClassLoader().getResource("startScreen.fxml"));
+            Parent root = loader.load();
+
+            Stage stage = (Stage) rootPane.getScene().getWindow();
+            StartController startController = loader.getController();
+            startController.setPrimaryStage(stage);
+
+            stage.setScene(new Scene(root));
+            stage.show();
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Rendering
+
+    private void render() {
+        if (game.isOver()) {
+            gravity.stop();
+            statusLabel.setText(result());
+        } else if (online != null && online.isDesynced()) {
+            statusLabel.setText("Opponent's board is out of sync");
+        } else {
+            statusLabel.setText(paused ? "Paused" : "");
+        }
+        drawBoard(leftCanvas, leftPlayer);
+        drawBoard(rightCanvas, rightPlayer);
+        leftLabel.setText(describe(leftPlayer));
+        rightLabel.setText(describe(rightPlayer));
+    }
+
+    private String result() {
+        if (online == null) {
+            return "Player " + (game.getWinner() + 1) + " wins! Press N for a rematch";
+        }
+        if (online.hasOpponentLeft() && !game.isToppedOut(online.getRemotePlayer())) {
+            return "Your opponent left. You win!";
+        }
+        return (game.getWinner() == online.getLocalPlayer()) ? "You win!" : "You lose!";
+    }
+
+    private String describe(int player) {
+        return String.format("Score %d   Lines %d   Sent %d   Incoming %d", game.getScore(player),
+                game.getLinesCleared(player), game.getLinesSent(player), game.getPendingGarbage(player));
+    }
+
+    private void drawBoard(Canvas canvas, int player) {
+        Board board = game.getBoard(player);
+        int[][] matrix = board.readBoardMatrix();
+
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.setFill(Color.BLACK);
+        g.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+        for (int r = HIDDEN_ROWS; r < matrix.length; r++) {
+            for (int c = 0; c < matrix[r].length; c++) {
+                if (matrix[r][c] != 0) {
+                    drawCell(g, c, r, matrix[r][c]);
+                }
+            }
+        }
+
+        if (game.isToppedOut(player)) {
+            g.setFill(Color.rgb(0, 0, 0, 0.6));
+            g.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            g.setFill(Color.RED);
+            g.setFont(Font.font(28));
+            g.setTextAlign(TextAlignment.CENTER);
+            g.fillText("TOPPED OUT", canvas.getWidth() / 2, canvas.getHeight() / 2);
+            return;
+        }
+
+        ViewData view = board.getViewData();
+        int[][] brick = view.getBrickData();
+        for (int r = 0; r < brick.length; r++) {
+            for (int c = 0; c < brick[r].length; c++) {
+                if (brick[r][c] != 0 && view.getyPosition() + r >= HIDDEN_ROWS) {
+                    drawCell(g, view.getxPosition() + c, view.getyPosition() + r, brick[r][c]);
+                }
+            }
+        }
+
+        // Garbage waiting to come in, as a bar along the left edge
+        int pending = Math.min(game.getPendingGarbage(player), BOARD_HEIGHT - HIDDEN_ROWS);
+        if (pending > 0) {
+            g.setFill(Color.RED);
+            g.fillRect(0, canvas.getHeight() - pending * CELL_SIZE, 3, pending * CELL_SIZE);
+        }
+    }
+
+    private void drawCell(GraphicsContext g, int column, int row, int colour) {
+        double x = column * CELL_SIZE;
+        double y = (row - HIDDEN_ROWS) * CELL_SIZE;
+        g.setFill(GuiController.getFillColor(colour));
+        g.fillRoundRect(x + 1, y + 1, CELL_SIZE - 2, CELL_SIZE - 2, 6, 6);
+    }
+}
@@ -0,0 +1,454 @@
+package com.comp2042;
+
+import com.comp2042.logic.bricks.RandomBrickGenerator;
+
+/**
+ * Rules of a two-player versus match, without any JavaFX view.
+ * <p>
+ * Both players get the same brick sequence. Clearing two or more rows at
+ * once sends garbage rows to the opponent (a double sends one, a triple
+ * two and a tetris four). Garbage waits until the receiver locks a brick
+ * that clears nothing, and is then pushed in from the bottom of their
+ * board with {@link Board#addGarbage}; rows cleared before that cancel
+ * waiting garbage first. A player whose board tops out loses.
+ * <p>
+ * In an online match the opponent's board is a mirror driven by the
+ * opponent's inputs (see {@link #setRemote}). Its garbage is not computed
+ * here: the garbage it sends arrives through {@link #receiveGarbage}, and
+ * the garbage it takes is announced with {@link #announceGarbage} before
+ * the input that locks the brick. A {@link Listener} hears about the
+ * local player's garbage so that it can be sent on.
+ * <p>
+ * The whole match can be saved into a reusable {@link Snapshot} and
+ * restored from it, cheaply enough to do every tick for rollback.
+ * <p>
+ * Not thread-safe; all calls must come from the thread that drives the match.
+ *
+ * @author Chan Michelle
+ * @version 1.2
+ */
+public class VersusGame {
+
+    /** Number of players in a match. */
+    public static final int PLAYERS = 2;
+
+    /** Garbage rows sent for clearing 0 to 4 rows at once. */
+    private static final int[] ATTACK = {0, 0, 1, 2, 4};
+
+    /**
+     * Hears the garbage exchanged by the local players of a match, for
+     * passing it on to a remote opponent.
+     */
+    public interface Listener {
+
+        /**
+         * Called when a player sends garbage to a remote opponent.
+         *
+         * @param player sending player
+         * @param rows   garbage rows sent
+         */
+        void garbageSent(int player, int rows);
+
+        /**
+         * Called when garbage is pushed onto a player's board, after the
+         * brick is locked and before the next one spawns.
+         *
+         * @param player     receiving player
+         * @param rows       garbage rows pushed in
+         * @param holeColumn the empty column of the rows
+         */
+        void garbageTaken(int player, int rows, int holeColumn);
+    }
+
+    private final int width;
+    private final SimpleBoard[] boards = new SimpleBoard[PLAYERS];
+    private final RandomBrickGenerator[] generators = new RandomBrickGenerator[PLAYERS];
+
+    /** SplitMix64 state of each player's garbage hole columns, so that it can be saved in a snapshot. */
+    private final long[] holeState = new long[PLAYERS];
+
+    private final int[] pendingGarbage = new int[PLAYERS];
+    private final int[] linesCleared = new int[PLAYERS];
+    private final int[] linesSent = new int[PLAYERS];
+    private final boolean[] toppedOut = new boolean[PLAYERS];
+    private final int[] piecesPlaced = new int[PLAYERS];
+
+    private final boolean[] remote = new boolean[PLAYERS];
+    private final int[] announcedRows = new int[PLAYERS];
+    private final int[] announcedHole = new int[PLAYERS];
+    private Listener listener;
+
+    private int winner;
+    private boolean over;
+
+    /**
+     * Creates a match and spawns both players' first bricks.
+     *
+     * @param width  board width in cells
+     * @param height board height in cells
+     * @param seed   seed of the brick sequence and of the garbage holes
+     */
+    public VersusGame(int width, int height, long seed) {
+        this.width = width;
+        for (int p = 0; p < PLAYERS; p++) {
+            generators[p] = new RandomBrickGenerator(1, seed);
+            boards[p] = new SimpleBoard(width, height, generators[p]);
+        }
+        start(seed);
+    }
+
+    /**
+     * Starts a new match on a fresh brick sequence (a rematch).
+     *
+     * @param seed seed of the brick sequence and of the garbage holes
+     */
+    public void newMatch(long seed) {
+        for (int p = 0; p < PLAYERS; p++) {
+            generators[p].reset(seed);
+            boards[p].newGame();
+        }
+        start(seed);
+    }
+
+    private void start(long seed) {
+        winner = -1;
+        over = false;
+        for (int p = 0; p < PLAYERS; p++) {
+            holeState[p] = seed + p + 1;
+            pendingGarbage[p] = 0;
+            linesCleared[p] = 0;
+            linesSent[p] = 0;
+            toppedOut[p] = false;
+            piecesPlaced[p] = 0;
+            announcedRows[p] = 0;
+        }
+        for (int p = 0; p < PLAYERS; p++) {
+            if (boards[p].createNewBrick()) {
+                lose(p);
+            }
+        }
+    }
+
+    /**
+     * Marks a player as remote: their board mirrors another game instance
+     * and their garbage is reported by that instance.
+     *
+     * @param player player index
+     */
+    public void setRemote(int player) {
+        remote[player] = true;
+    }
+
+    /**
+     * @param listener receives the local players' garbage, or {@code null}
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Queues garbage sent by a remote opponent for a local player; it is
+     * pushed in, or cancelled by clears, like garbage sent locally.
+     *
+     * @param player receiving local player
+     * @param rows   garbage rows
+     */
+    public void receiveGarbage(int player, int rows) {
+        pendingGarbage[player] += rows;
+        linesSent[opponent(player)] += rows;
+    }
+
+    /**
+     * Announces the garbage a remote player took on their next lock. It is
+     * pushed onto the mirror board when that lock is applied.
+     *
+     * @param player     remote player
+     * @param rows       garbage rows
+     * @param holeColumn the empty column of the rows
+     */
+    public void announceGarbage(int player, int rows, int holeColumn) {
+        announcedRows[player] = rows;
+        announcedHole[player] = holeColumn;
+    }
+
+    /**
+     * Applies one input of one player.
+     *
+     * @param player player index (0 or 1)
+     * @param type   input to apply; ignored once the match is over
+     */
+    public void apply(int player, EventType type) {
+        if (over) {
+            return;
+        }
+        SimpleBoard board = boards[player];
+        switch (type) {
+            case DOWN:
+                if (!board.moveBrickDown()) {
+                    lockBrick(player);
+                }
+                break;
+            case LEFT:
+                board.moveBrickLeft();
+                break;
+            case RIGHT:
+                board.moveBrickRight();
+                break;
+            case ROTATE:
+                board.rotateLeftBrick();
+                break;
+            case HARD_DROP:
+                while (board.moveBrickDown()) {
+                    // keep dropping until collision
+                }
+                lockBrick(player);
+                break;
+            case HOLD:
+                board.holdCurrentBrick();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Moves both players' bricks down one row, as gravity.
+     */
+    public void tick() {
+        for (int p = 0; p < PLAYERS; p++) {
+            apply(p, EventType.DOWN);
+        }
+    }
+
+    /**
+     * Locks a player's brick, clears and scores rows, exchanges garbage
+     * and spawns the next brick.
+     */
+    private void lockBrick(int player) {
+        SimpleBoard board = boards[player];
+        board.mergeBrickToBackground();
+        ClearRow clearRow = board.clearRows();
+        int lines = clearRow.linesRemoved();
+
+        boolean blocked = false;
+        if (lines > 0) {
+            board.getScore().add(clearRow.scoreBonus());
+            linesCleared[player] += lines;
+        }
+        if (remote[player]) {
+            // The remote instance already decided this lock's garbage
+            if (lines == 0 && announcedRows[player] > 0) {
+                blocked = board.addGarbage(announcedRows[player], announcedHole[player]);
+            }
+            announcedRows[player] = 0;
+        } else if (lines > 0) {
+            // Cleared rows cancel garbage on the way before any is sent
+            int attack = ATTACK[Math.min(lines, 4)];
+            int cancelled = Math.min(attack, pendingGarbage[player]);
+            pendingGarbage[player] -= cancelled;
+            attack -= cancelled;
+            if (attack > 0) {
+                linesSent[player] += attack;
+                if (remote[opponent(player)]) {
+                    if (listener != null) {
+                        listener.garbageSent(player, attack);
+                    }
+                } else {
+                    pendingGarbage[opponent(player)] += attack;
+                }
+            }
+        } else if (pendingGarbage[player] > 0) {
+            int rows = pendingGarbage[player];
+            int hole = nextHole(player);
+            blocked = board.addGarbage(rows, hole);
+            pendingGarbage[player] = 0;
+            if (listener != null) {
+                listener.garbageTaken(player, rows, hole);
+            }
+        }
+        piecesPlaced[player]++;
+
+        if (blocked || board.createNewBrick()) {
+            lose(player);
+        }
+    }
+
+    /**
+     * Picks the hole column of a player's next garbage.
+     */
+    private int nextHole(int player) {
+        holeState[player] += 0x9E3779B97F4A7C15L;
+        long z = holeState[player];
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= (z >>> 31);
+        return (int) Math.floorMod(z, (long) width);
+    }
+
+    /**
+     * Ends the match as lost by a player, e.g. one who left an online match.
+     *
+     * @param player conceding player
+     */
+    public void concede(int player) {
+        if (!over) {
+            over = true;
+            winner = opponent(player);
+        }
+    }
+
+    private void lose(int player) {
+        toppedOut[player] = true;
+        if (!over) {
+            over = true;
+            winner = opponent(player);
+        }
+    }
+
+    private static int opponent(int player) {
+        return 1 - player;
+    }
+
+    /**
+     * Reusable copy of a whole match: both boards with their brick
+     * generators, the garbage in flight and the result. See
+     * {@link SimpleBoard.Snapshot}.
+     */
+    public static final class Snapshot {
+        private final SimpleBoard.Snapshot[] boards = new SimpleBoard.Snapshot[PLAYERS];
+        private final int[] pendingGarbage = new int[PLAYERS];
+        private final int[] linesCleared = new int[PLAYERS];
+        private final int[] linesSent = new int[PLAYERS];
+        private final boolean[] toppedOut = new boolean[PLAYERS];
+        private final int[] piecesPlaced = new int[PLAYERS];
+        private final int[] announcedRows = new int[PLAYERS];
+        private final int[] announcedHole = new int[PLAYERS];
+        private final long[] holeState = new long[PLAYERS];
+        private int winner;
+        private boolean over;
+    }
+
+    /**
+     * @return an empty snapshot sized for this match
+     */
+    public Snapshot newSnapshot() {
+        Snapshot snapshot = new Snapshot();
+        for (int p = 0; p < PLAYERS; p++) {
+            snapshot.boards[p] = boards[p].newSnapshot();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Saves the match into a snapshot without allocating.
+     *
+     * @param snapshot snapshot of this match to overwrite, from {@link #newSnapshot()}
+     */
+    public void saveTo(Snapshot snapshot) {
+        for (int p = 0; p < PLAYERS; p++) {
+            boards[p].saveTo(snapshot.boards[p]);
+        }
+        System.arraycopy(pendingGarbage, 0, snapshot.pendingGarbage, 0, PLAYERS);
+        System.arraycopy(linesCleared, 0, snapshot.linesCleared, 0, PLAYERS);
+        System.arraycopy(linesSent, 0, snapshot.linesSent, 0, PLAYERS);
+        System.arraycopy(toppedOut, 0, snapshot.toppedOut, 0, PLAYERS);
+        System.arraycopy(piecesPlaced, 0, snapshot.piecesPlaced, 0, PLAYERS);
+        System.arraycopy(announcedRows, 0, snapshot.announcedRows, 0, PLAYERS);
+        System.arraycopy(announcedHole, 0, snapshot.announcedHole, 0, PLAYERS);
+        System.arraycopy(holeState, 0, snapshot.holeState, 0, PLAYERS);
+        snapshot.winner = winner;
+        snapshot.over = over;
+    }
+
+    /**
+     * Puts the match back to the state saved in a snapshot. The snapshot
+     * can be restored again.
+     *
+     * @param snapshot snapshot written by {@link #saveTo} on this match
+     */
+    public void restoreFrom(Snapshot snapshot) {
+        for (int p = 0; p < PLAYERS; p++) {
+            boards[p].restoreFrom(snapshot.boards[p]);
+        }
+        System.arraycopy(snapshot.pendingGarbage, 0, pendingGarbage, 0, PLAYERS);
+        System.arraycopy(snapshot.linesCleared, 0, linesCleared, 0, PLAYERS);
+        System.arraycopy(snapshot.linesSent, 0, linesSent, 0, PLAYERS);
+        System.arraycopy(snapshot.toppedOut, 0, toppedOut, 0, PLAYERS);
+        System.arraycopy(snapshot.piecesPlaced, 0, piecesPlaced, 0, PLAYERS);
+        System.arraycopy(snapshot.announcedRows, 0, announcedRows, 0, PLAYERS);
+        System.arraycopy(snapshot.announcedHole, 0, announcedHole, 0, PLAYERS);
+        System.arraycopy(snapshot.holeState, 0, holeState, 0, PLAYERS);
+        winner = snapshot.winner;
+        over = snapshot.over;
+    }
+
+    /**
+     * @param player player index
+     * @return the player's board
+     */
+    public SimpleBoard getBoard(int player) {
+        return boards[player];
+    }
+
+    /**
+     * @param player player index
+     * @return garbage rows waiting to be pushed onto the player's board
+     */
+    public int getPendingGarbage(int player) {
+        return pendingGarbage[player];
+    }
+
+    /**
+     * @param player player index
+     * @return rows the player has cleared in this match
+     */
+    public int getLinesCleared(int player) {
+        return linesCleared[player];
+    }
+
+    /**
+     * @param player player index
+     * @return garbage rows the player has sent to the opponent
+     */
+    public int getLinesSent(int player) {
+        return linesSent[player];
+    }
+
+    /**
+     * @param player player index
+     * @return bricks the player has locked in this match
+     */
+    public int getPiecesPlaced(int player) {
+        return piecesPlaced[player];
+    }
+
+    /**
+     * @param player player index
+     * @return current score of the player
+     */
+    public int getScore(int player) {
+        return boards[player].getScore().scoreProperty().get();
+    }
+
+    /**
+     * @param player player index
+     * @return {@code true} if the player's board has topped out
+     */
+    public boolean isToppedOut(int player) {
+        return toppedOut[player];
+    }
+
+    /**
+     * @return {@code true} once either player has topped out
+     */
+    public boolean isOver() {
+        return over;
+    }
+
+    /**
+     * @return index of the winning player, or {@code -1} while the match is running
+     */
+    public int getWinner() {
+        return winner;
+    }
+}
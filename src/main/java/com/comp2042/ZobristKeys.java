@@ -0,0 +1,129 @@
+package com.comp2042;
+
+/**
+ * Random 64-bit keys for Zobrist hashing of game states.
+ * <p>
+ * A state's hash is the XOR of one key per feature: every filled board
+ * cell, plus the active brick's type, rotation, column and row and the
+ * hold slot. Because XOR is its own inverse, a move only needs to XOR
+ * out the old key and XOR in the new one.
+ * <p>
+ * Keys are derived from a fixed seed, so every board and every process
+ * produces the same hash for the same state. This lets bots share one
+ * transposition table between threads and compare hashes across runs.
+ * Only cell occupancy is hashed, not colour, so boards that differ only
+ * in brick colours hash to the same value.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class ZobristKeys {
+
+    private static final long SEED = 0x2042_C0FF_EE15_600DL;
+
+    /** Separate salts keep the key families from overlapping. */
+    private static final long CELL_SALT = 0x100000000L;
+    private static final long PIECE_SALT = 0x200000000L;
+    private static final long X_SALT = 0x300000000L;
+    private static final long Y_SALT = 0x400000000L;
+    private static final long HOLD_SALT = 0x500000000L;
+    private static final long HOLD_USED_KEY = mix(0x600000000L);
+
+    /** Most common board sizes are served from this table. */
+    private static final int TABLE_ROWS = 64;
+    private static final int TABLE_COLS = 32;
+    private static final long[] CELL_TABLE = new long[TABLE_ROWS * TABLE_COLS];
+
+    static {
+        for (int r = 0; r < TABLE_ROWS; r++) {
+            for (int c = 0; c < TABLE_COLS; c++) {
+                CELL_TABLE[r * TABLE_COLS + c] = mix(CELL_SALT + ((long) r << 16) + c);
+            }
+        }
+    }
+
+    /** Prevent instantiation of this utility class */
+    private ZobristKeys() {
+    }
+
+    /**
+     * SplitMix64 finaliser: turns an index into a well-distributed key.
+     */
+    private static long mix(long index) {
+        long z = SEED + index * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @param row board row
+     * @param col board column
+     * @return key for a filled cell at that position
+     */
+    public static long cell(int row, int col) {
+        if (row < TABLE_ROWS && col < TABLE_COLS) {
+            return CELL_TABLE[row * TABLE_COLS + col];
+        }
+        return mix(CELL_SALT + ((long) row << 16) + col);
+    }
+
+    /**
+     * @param brickId  colour id of the active brick (1-7)
+     * @param rotation rotation index
+     * @return key for the active brick's type and rotation
+     */
+    public static long piece(int brickId, int rotation) {
+        return mix(PIECE_SALT + ((long) brickId << 8) + rotation);
+    }
+
+    /**
+     * @param x column of the active brick (may be negative)
+     * @return key for that column
+     */
+    public static long x(int x) {
+        return mix(X_SALT + x);
+    }
+
+    /**
+     * @param y row of the active brick (may be negative)
+     * @return key for that row
+     */
+    public static long y(int y) {
+        return mix(Y_SALT + y);
+    }
+
+    /**
+     * @param brickId colour id of the held brick, or 0 when the hold slot is empty
+     * @return key for the hold slot
+     */
+    public static long hold(int brickId) {
+        return brickId == 0 ? 0L : mix(HOLD_SALT + brickId);
+    }
+
+    /**
+     * @return key toggled while hold has already been used this turn
+     */
+    public static long holdUsed() {
+        return HOLD_USED_KEY;
+    }
+
+    /**
+     * Hashes the occupancy of a whole board matrix from scratch.
+     *
+     * @param matrix board matrix ({@code [row][column]})
+     * @return XOR of the keys of every filled cell
+     */
+    public static long hashBoard(int[][] matrix) {
+        long hash = 0L;
+        for (int r = 0; r < matrix.length; r++) {
+            int[] row = matrix[r];
+            for (int c = 0; c < row.length; c++) {
+                if (row[c] != 0) {
+                    hash ^= cell(r, c);
+                }
+            }
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,271 @@
+package com.comp2042.ai;
+
+import com.comp2042.logic.bricks.BrickType;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chooses placements with a beam search over the known brick queue.
+ * <p>
+ * At each depth every board in the beam is expanded with all reachable
+ * placements of the next brick, the children are scored by an
+ * {@link Evaluator}, and only the best {@code beamWidth} survive to the
+ * next depth. The search looks as many bricks ahead as the queue allows
+ * (capped at {@code maxDepth}) and returns the first move on the path to
+ * the best final board.
+ * <p>
+ * Expanding a depth is split recursively across a {@link ForkJoinPool},
+ * so idle workers steal the remaining halves of the beam. Each move has a
+ * time budget: a depth that does not finish in time is discarded and the
+ * result of the last complete depth is used. Depth 1 is always finished
+ * so a move is returned even with a zero budget.
+ * <p>
+ * Different move orders often lead to the same board. Every child board
+ * is looked up by its Zobrist hash in a shared {@link TranspositionTable};
+ * a transposition that is no better than one already seen at the same
+ * depth is dropped, so the beam is not filled with duplicates. A bot runs
+ * one search at a time, so use one bot per game.
+ *
+ * @author Chan Michelle
+ * @version 1.1
+ */
+public class BeamSearchBot {
+
+    /** Default number of boards kept at each depth. */
+    public static final int DEFAULT_BEAM_WIDTH = 64;
+
+    /** Default maximum number of bricks searched ahead. */
+    public static final int DEFAULT_MAX_DEPTH = 3;
+
+    /** Default time budget per move in milliseconds. */
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 50;
+
+    /** Beam nodes handled by one task before it stops splitting. */
+    private static final int SPLIT_THRESHOLD = 2;
+
+    /** Default number of transposition table entries. */
+    private static final int TABLE_SIZE = 1 << 16;
+
+    /** Mixed into board hashes so that equal boards at different depths do not collide. */
+    private static final long DEPTH_KEY = 0x9E3779B97F4A7C15L;
+
+    private static final Comparator<Node> BEST_FIRST = Comparator.comparingDouble((Node n) -> n.value).reversed();
+
+    private final Evaluator evaluator;
+    private final int beamWidth;
+    private final int maxDepth;
+    private final long timeBudgetNanos;
+    private final ForkJoinPool pool;
+    private final TranspositionTable table = new TranspositionTable(TABLE_SIZE);
+
+    /**
+     * Creates a bot with default settings on the common fork-join pool.
+     *
+     * @param evaluator board evaluator
+     */
+    public BeamSearchBot(Evaluator evaluator) {
+        this(evaluator, DEFAULT_BEAM_WIDTH, DEFAULT_MAX_DEPTH, DEFAULT_TIME_BUDGET_MILLIS, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a fully configured bot.
+     *
+     * @param evaluator        board evaluator
+     * @param beamWidth        boards kept at each depth
+     * @param maxDepth         maximum number of bricks searched (at least 1)
+     * @param timeBudgetMillis time budget per move in milliseconds
+     * @param pool             pool used to expand the beam
+     */
+    public BeamSearchBot(Evaluator evaluator, int beamWidth, int maxDepth, long timeBudgetMillis, ForkJoinPool pool) {
+        if (beamWidth < 1 || maxDepth < 1) {
+            throw new IllegalArgumentException("Beam width and depth must be at least 1");
+        }
+        this.evaluator = evaluator;
+        this.beamWidth = beamWidth;
+        this.maxDepth = maxDepth;
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeBudgetMillis));
+        this.pool = pool;
+    }
+
+    /**
+     * Result of a single search.
+     *
+     * @param placement best placement for the first brick, or {@code null} if none exists
+     * @param value     evaluation of the best final board
+     * @param depth     number of bricks that were fully searched
+     * @param nodes     number of boards evaluated
+     */
+    public record SearchResult(Placement placement, double value, int depth, long nodes) {
+    }
+
+    /**
+     * Searches from the spawn position of the first brick.
+     *
+     * @param board  current board
+     * @param pieces active brick followed by the known queue
+     * @return search result
+     */
+    public SearchResult search(BitBoard board, List<BrickType> pieces) {
+        return search(board, pieces, 0, MoveGenerator.spawnX(board.width()), 0);
+    }
+
+    /**
+     * Searches from the current position of the active brick.
+     *
+     * @param board    current board (without the active brick)
+     * @param pieces   active brick followed by the known queue
+     * @param rotation current rotation of the active brick
+     * @param x        current column of the active brick
+     * @param y        current row of the active brick
+     * @return search result
+     */
+    public SearchResult search(BitBoard board, List<BrickType> pieces, int rotation, int x, int y) {
+        if (pieces.isEmpty()) {
+            return new SearchResult(null, Double.NEGATIVE_INFINITY, 0, 0);
+        }
+        long deadline = System.nanoTime() + timeBudgetNanos;
+        table.newSearch();
+
+        // Depth 1: always completed, starting from the active brick's position
+        List<Node> beam = new ArrayList<>();
+        for (Placement placement : MoveGenerator.generate(board, pieces.get(0), rotation, x, y)) {
+            beam.add(child(null, board, placement));
+        }
+        long nodes = beam.size();
+        if (beam.isEmpty()) {
+            return new SearchResult(null, Double.NEGATIVE_INFINITY, 0, 0);
+        }
+        beam = prune(beam);
+        int depth = 1;
+
+        int limit = Math.min(maxDepth, pieces.size());
+        while (depth < limit && System.nanoTime() < deadline) {
+            List<Node> children = pool.invoke(new ExpandTask(beam, 0, beam.size(), pieces.get(depth), depth + 1, deadline));
+            if (children == null || children.isEmpty()) {
+                // Out of time, or every line of play tops out: keep the last complete depth
+                break;
+            }
+            nodes += children.size();
+            beam = prune(children);
+            depth++;
+        }
+
+        Node best = beam.get(0);
+        return new SearchResult(best.firstMove, best.value, depth, nodes);
+    }
+
+    private List<Node> prune(List<Node> nodes) {
+        nodes.sort(BEST_FIRST);
+        return (nodes.size() > beamWidth) ? new ArrayList<>(nodes.subList(0, beamWidth)) : nodes;
+    }
+
+    private Node child(Node parent, BitBoard board, Placement placement) {
+        BitBoard next = board.place(PieceShapes.of(placement.type()), placement.rotation(), placement.x(), placement.y());
+        int lines = ((parent == null) ? 0 : parent.lines) + next.linesCleared();
+        Placement firstMove = (parent == null) ? placement : parent.firstMove;
+        return new Node(next, evaluator.evaluate(next, lines), lines, firstMove);
+    }
+
+    /**
+     * Records a child board in the transposition table.
+     *
+     * @return {@code false} if the same board was already reached at this
+     *         depth with an equal or better value
+     */
+    private boolean isNewOrBetter(Node node, int depth) {
+        long key = node.board.hash() ^ (depth * DEPTH_KEY);
+        long seen = table.get(key);
+        if (seen != TranspositionTable.NOT_FOUND && TranspositionTable.value(seen) >= (float) node.value) {
+            return false;
+        }
+        table.put(key, table.pack((float) node.value, depth));
+        return true;
+    }
+
+    /**
+     * A board in the beam together with the move that started its line of play.
+     */
+    private static final class Node {
+        final BitBoard board;
+        final double value;
+        final int lines;
+        final Placement firstMove;
+
+        Node(BitBoard board, double value, int lines, Placement firstMove) {
+            this.board = board;
+            this.value = value;
+            this.lines = lines;
+            this.firstMove = firstMove;
+        }
+    }
+
+    /**
+     * Expands a slice of the beam, splitting it in half until it is small.
+     * Returns {@code null} if the deadline passed, which abandons the depth.
+     */
+    private final class ExpandTask extends RecursiveTask<List<Node>> {
+        // Tasks are never serialized; ForkJoinTask is Serializable only by inheritance
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Node> beam;
+        private final int from;
+        private final int to;
+        private final BrickType piece;
+        private final int depth;
+        private final long deadline;
+
+        ExpandTask(List<Node> beam, int from, int to, BrickType piece, int depth, long deadline) {
+            this.beam = beam;
+            this.from = from;
+            this.to = to;
+            this.piece = piece;
+            this.depth = depth;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected List<Node> compute() {
+            if (System.nanoTime() >= deadline) {
+                return null;
+            }
+            if (to - from <= SPLIT_THRESHOLD) {
+                List<Node> children = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    Node parent = beam.get(i);
+                    for (Placement placement : MoveGenerator.generate(parent.board, piece)) {
+                        Node node = child(parent, parent.board, placement);
+                        if (isNewOrBetter(node, depth)) {
+                            children.add(node);
+                        }
+                    }
+                }
+                return children;
+            }
+
+            int mid = (from + to) >>> 1;
+            ExpandTask left = new ExpandTask(beam, from, mid, piece, depth, deadline);
+            left.fork();
+            List<Node> right = new ExpandTask(beam, mid, to, piece, depth, deadline).compute();
+            List<Node> leftResult = left.join();
+            if (leftResult == null || right == null) {
+                return null;
+            }
+            leftResult.addAll(right);
+            return leftResult;
+        }
+    }
+
+    /**
+     * @return evaluator used to score boards
+     */
+    public Evaluator getEvaluator() {
+        return evaluator;
+    }
+}
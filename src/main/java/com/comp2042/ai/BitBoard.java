@@ -0,0 +1,219 @@
+package com.comp2042.ai;
+
+import com.comp2042.ZobristKeys;
+
+/**
+ * Compact, immutable board representation used by the bots.
+ * <p>
+ * Each row is stored as an {@code int} bitmask where bit {@code c} means
+ * column {@code c} is filled, so collision checks and line clears work on
+ * whole rows at once. Cell colours are not kept because the search only
+ * cares about occupancy. Placing a brick returns a new board and leaves
+ * this one untouched, which lets parallel searchers share boards freely.
+ * <p>
+ * Each board carries the same occupancy Zobrist hash as
+ * {@link com.comp2042.SimpleBoard#getBoardHash()}, updated incrementally
+ * when a brick is placed.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class BitBoard {
+
+    private final int width;
+    private final int[] rows;
+    private final int fullRow;
+    private final int linesCleared;
+    private final long hash;
+
+    private BitBoard(int width, int[] rows, int linesCleared, long hash) {
+        this.width = width;
+        this.rows = rows;
+        this.fullRow = (1 << width) - 1;
+        this.linesCleared = linesCleared;
+        this.hash = hash;
+    }
+
+    private BitBoard(int width, int[] rows) {
+        this(width, rows, 0, hashRows(rows));
+    }
+
+    /**
+     * Creates an empty board.
+     *
+     * @param width  board width in cells (at most 30)
+     * @param height board height in cells
+     */
+    public BitBoard(int width, int height) {
+        this(checkWidth(width), new int[height], 0, 0L);
+    }
+
+    private static int checkWidth(int width) {
+        if (width < 1 || width > 30) {
+            throw new IllegalArgumentException("Board width must be between 1 and 30");
+        }
+        return width;
+    }
+
+    /**
+     * Converts a board matrix ({@code [row][column]}, non-zero = filled).
+     *
+     * @param matrix board matrix, e.g. from {@link com.comp2042.Board#getBoardMatrix()}
+     * @return equivalent bit board
+     */
+    public static BitBoard fromMatrix(int[][] matrix) {
+        int width = checkWidth(matrix[0].length);
+        int[] rows = new int[matrix.length];
+        for (int r = 0; r < matrix.length; r++) {
+            int mask = 0;
+            for (int c = 0; c < width; c++) {
+                if (matrix[r][c] != 0) {
+                    mask |= 1 << c;
+                }
+            }
+            rows[r] = mask;
+        }
+        return new BitBoard(width, rows);
+    }
+
+    /**
+     * Creates a board from raw row masks (row 0 is the top).
+     *
+     * @param width board width in cells
+     * @param rows  row bitmasks; the array is copied
+     * @return new bit board
+     */
+    public static BitBoard ofRows(int width, int[] rows) {
+        return new BitBoard(checkWidth(width), rows.clone());
+    }
+
+    private static long hashRows(int[] rows) {
+        long hash = 0L;
+        for (int r = 0; r < rows.length; r++) {
+            for (int bits = rows[r]; bits != 0; bits &= bits - 1) {
+                hash ^= ZobristKeys.cell(r, Integer.numberOfTrailingZeros(bits));
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Shifts a 4-wide shape row mask to board column {@code x}.
+     */
+    static int shift(int mask, int x) {
+        return (x >= 0) ? mask << x : mask >>> -x;
+    }
+
+    /**
+     * Checks whether a brick rotation fits at the given position.
+     *
+     * @param piece    brick shapes
+     * @param rotation rotation index
+     * @param x        left column of the 4x4 shape matrix
+     * @param y        top row of the 4x4 shape matrix
+     * @return {@code true} if every filled cell is inside the board and empty
+     */
+    public boolean fits(PieceShapes piece, int rotation, int x, int y) {
+        if (x + piece.minCol(rotation) < 0 || x + piece.maxCol(rotation) >= width) {
+            return false;
+        }
+        for (int r = 0; r < PieceShapes.SIZE; r++) {
+            int mask = piece.rowMask(rotation, r);
+            if (mask == 0) continue;
+
+            int by = y + r;
+            if (by < 0 || by >= rows.length || (rows[by] & shift(mask, x)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Locks a brick into a copy of this board and clears any full rows.
+     * <p>
+     * The caller must have checked the position with {@link #fits}.
+     *
+     * @param piece    brick shapes
+     * @param rotation rotation index
+     * @param x        left column of the 4x4 shape matrix
+     * @param y        top row of the 4x4 shape matrix
+     * @return new board; {@link #linesCleared()} reports the rows removed
+     */
+    public BitBoard place(PieceShapes piece, int rotation, int x, int y) {
+        int[] next = rows.clone();
+        long nextHash = hash;
+        for (int r = 0; r < PieceShapes.SIZE; r++) {
+            int mask = piece.rowMask(rotation, r);
+            if (mask == 0) continue;
+
+            int placed = shift(mask, x);
+            next[y + r] |= placed;
+            for (int bits = placed; bits != 0; bits &= bits - 1) {
+                nextHash ^= ZobristKeys.cell(y + r, Integer.numberOfTrailingZeros(bits));
+            }
+        }
+
+        // Compact non-full rows towards the bottom
+        int cleared = 0;
+        int write = next.length - 1;
+        for (int read = next.length - 1; read >= 0; read--) {
+            if (next[read] == fullRow) {
+                cleared++;
+            } else {
+                next[write--] = next[read];
+            }
+        }
+        while (write >= 0) {
+            next[write--] = 0;
+        }
+        if (cleared > 0) {
+            // Rows above the clear moved, so their cell keys all changed
+            nextHash = hashRows(next);
+        }
+        return new BitBoard(width, next, cleared, nextHash);
+    }
+
+    /**
+     * @return Zobrist hash of the filled cells
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * @return number of rows cleared by the placement that produced this board
+     */
+    public int linesCleared() {
+        return linesCleared;
+    }
+
+    /**
+     * @param r row index (0 is the top)
+     * @return bitmask of the filled cells in that row
+     */
+    public int row(int r) {
+        return rows[r];
+    }
+
+    /**
+     * @return board width in cells
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * @return board height in cells
+     */
+    public int height() {
+        return rows.length;
+    }
+
+    /**
+     * @return bitmask of a completely filled row
+     */
+    public int fullRow() {
+        return fullRow;
+    }
+}
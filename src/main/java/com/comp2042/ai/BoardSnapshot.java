@@ -0,0 +1,70 @@
+package com.comp2042.ai;
+
+import com.comp2042.Board;
+import com.comp2042.ViewData;
+import com.comp2042.logic.bricks.Brick;
+import com.comp2042.logic.bricks.BrickType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable copy of everything a search needs from a live {@link Board}.
+ * <p>
+ * Taking a snapshot is cheap (one pass over the board matrix) and the
+ * result shares nothing with the board, so it can be handed to another
+ * thread while the game keeps running.
+ *
+ * @param board    filled cells, without the active brick
+ * @param pieces   active brick followed by the known queue
+ * @param rotation current rotation of the active brick
+ * @param x        current column of the active brick
+ * @param y        current row of the active brick
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public record BoardSnapshot(BitBoard board, List<BrickType> pieces, int rotation, int x, int y) {
+
+    public BoardSnapshot {
+        pieces = List.copyOf(pieces);
+    }
+
+    /**
+     * Captures the current state of a board. Must be called on the thread
+     * that owns the board (the JavaFX thread for the GUI game).
+     *
+     * @param board board to read (not modified)
+     * @return snapshot, or {@code null} if the active brick is not recognised
+     */
+    public static BoardSnapshot of(Board board) {
+        ViewData view = board.getViewData();
+        int[][] shape = view.getBrickData();
+        BrickType type = BrickType.of(shape);
+        if (type == null) {
+            return null;
+        }
+        int rotation = PieceShapes.of(type).rotationOf(shape);
+        if (rotation < 0) {
+            return null;
+        }
+
+        List<BrickType> pieces = new ArrayList<>();
+        pieces.add(type);
+        for (Brick upcoming : board.getUpcomingBricks()) {
+            pieces.add(BrickType.of(upcoming));
+        }
+        return new BoardSnapshot(BitBoard.fromMatrix(board.readBoardMatrix()), pieces,
+                rotation, view.getxPosition(), view.getyPosition());
+    }
+
+    /**
+     * Searches this snapshot from the active brick's current position.
+     *
+     * @param bot search to run
+     * @return search result
+     */
+    public BeamSearchBot.SearchResult search(BeamSearchBot bot) {
+        return bot.search(board, pieces, rotation, x, y);
+    }
+}
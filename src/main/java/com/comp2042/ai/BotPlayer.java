@@ -0,0 +1,98 @@
+package com.comp2042.ai;
+
+import com.comp2042.Board;
+import com.comp2042.EventSource;
+import com.comp2042.EventType;
+import com.comp2042.HeadlessGame;
+import com.comp2042.InputEventListener;
+import com.comp2042.MoveEvent;
+
+import java.util.List;
+
+/**
+ * Plays the game by sending input events chosen by a {@link BeamSearchBot}.
+ * <p>
+ * The player reads the board and active brick, searches for the best
+ * placement and then sends the moves to an {@link InputEventListener},
+ * finishing with a hard drop. The listener can be a {@link HeadlessGame}
+ * for fast simulation or a {@link com.comp2042.GameController} to play
+ * inside the GUI (in that case call {@link #playMove} on the JavaFX thread).
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public class BotPlayer {
+
+    private final BeamSearchBot bot;
+
+    /**
+     * @param bot search used to choose placements
+     */
+    public BotPlayer(BeamSearchBot bot) {
+        this.bot = bot;
+    }
+
+    /**
+     * Works out the moves that bring the active brick to the best placement.
+     *
+     * @param board board to read (not modified)
+     * @return moves to send before the final hard drop, or {@code null} if no placement was found
+     */
+    public List<EventType> planMove(Board board) {
+        BoardSnapshot snapshot = BoardSnapshot.of(board);
+        if (snapshot == null) {
+            return null;
+        }
+        BeamSearchBot.SearchResult result = snapshot.search(bot);
+        if (result.placement() == null) {
+            return null;
+        }
+        return MoveGenerator.findPath(snapshot.board(), snapshot.rotation(), snapshot.x(), snapshot.y(), result.placement());
+    }
+
+    /**
+     * Plans and plays one brick.
+     *
+     * @param listener receiver of the input events
+     * @param board    board the listener operates on
+     * @return {@code true} if a planned placement was played, {@code false}
+     *         if no placement was found and the brick was simply dropped
+     */
+    public boolean playMove(InputEventListener listener, Board board) {
+        List<EventType> moves = planMove(board);
+        if (moves != null) {
+            for (EventType move : moves) {
+                send(listener, move);
+            }
+        }
+        listener.onHardDropEvent();
+        return moves != null;
+    }
+
+    /**
+     * Plays a headless game until it ends or the brick cap is reached.
+     *
+     * @param game      game to play
+     * @param maxPieces maximum number of bricks to place
+     * @return number of bricks placed
+     */
+    public int playGame(HeadlessGame game, int maxPieces) {
+        int placed = 0;
+        while (!game.isGameOver() && placed < maxPieces) {
+            playMove(game, game.getBoard());
+            placed++;
+        }
+        return placed;
+    }
+
+    private static void send(InputEventListener listener, EventType move) {
+        listener.handle(new MoveEvent(move, EventSource.BOT));
+    }
+
+    /**
+     * @return underlying search
+     */
+    public BeamSearchBot getBot() {
+        return bot;
+    }
+}
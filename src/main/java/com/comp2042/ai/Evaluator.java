@@ -0,0 +1,20 @@
+package com.comp2042.ai;
+
+/**
+ * Scores a board position for the bots; higher is better.
+ * <p>
+ * Implementations must be thread-safe because {@link BeamSearchBot}
+ * evaluates many boards in parallel.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public interface Evaluator {
+
+    /**
+     * @param board        board after a placement
+     * @param linesCleared total rows cleared along the path that led to this board
+     * @return heuristic value of the position
+     */
+    double evaluate(BitBoard board, int linesCleared);
+}
@@ -0,0 +1,135 @@
+package com.comp2042.ai;
+
+/**
+ * Computes every board feature used by the heuristic evaluator in a
+ * single top-to-bottom pass over the row bitmasks.
+ * <p>
+ * Each row of a {@link BitBoard} is one {@code int}, so every operation
+ * below works on all columns of a row at once (SIMD within a register).
+ * The pass keeps a running "covered" mask: bit {@code c} is set once
+ * column {@code c} has had a filled cell at or above the current row.
+ * From that mask:
+ * <ul>
+ *     <li>Aggregate height - covered cells, summed over all rows</li>
+ *     <li>Holes - covered cells that are empty</li>
+ *     <li>Bumpiness - rows where neighbouring columns disagree on being
+ *     covered, which equals the sum of their height differences</li>
+ *     <li>Row transitions - filled/empty changes along each row, walls counting as filled</li>
+ *     <li>Column transitions - filled/empty changes down each column,
+ *     the floor counting as filled</li>
+ *     <li>Well depth - open cells with filled cells (or walls) on both sides;
+ *     a well of depth {@code d} scores {@code 1 + 2 + ... + d}. The per-column
+ *     run lengths are kept as bit-sliced counters, one {@code int} per bit.</li>
+ * </ul>
+ * Results are written into a caller-supplied array so that evaluation
+ * never allocates.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class FeatureExtractor {
+
+    /** Index of each feature in the output array. */
+    public static final int AGGREGATE_HEIGHT = 0;
+    public static final int HOLES = 1;
+    public static final int BUMPINESS = 2;
+    public static final int ROW_TRANSITIONS = 3;
+    public static final int COLUMN_TRANSITIONS = 4;
+    public static final int WELL_DEPTH = 5;
+
+    /** Length of the output array. */
+    public static final int FEATURE_COUNT = 6;
+
+    /** Prevent instantiation of this utility class */
+    private FeatureExtractor() {
+    }
+
+    /**
+     * Extracts all features of a board.
+     *
+     * @param board board to analyse
+     * @param out   array of at least {@link #FEATURE_COUNT} elements, overwritten
+     */
+    public static void extract(BitBoard board, int[] out) {
+        final int width = board.width();
+        final int height = board.height();
+        final int full = board.fullRow();
+        final int innerPairs = full >>> 1;              // columns c that have a right neighbour
+        final int wallsMask = (1 << (width + 1)) - 1;   // width + 1 gaps between width + 2 cells
+        final int leftWall = 1;
+        final int rightWall = 1 << (width - 1);
+
+        int covered = 0;
+        int previous = 0;
+
+        int aggregateHeight = 0;
+        int holes = 0;
+        int bumpiness = 0;
+        int rowTransitions = 0;
+        int columnTransitions = 0;
+        int wellDepth = 0;
+
+        // Six bit planes of the well-run counters: wells up to 63 cells deep
+        int run0 = 0, run1 = 0, run2 = 0, run3 = 0, run4 = 0, run5 = 0;
+
+        for (int r = 0; r < height; r++) {
+            int row = board.row(r);
+            covered |= row;
+
+            aggregateHeight += Integer.bitCount(covered);
+            holes += Integer.bitCount(covered & ~row);
+            bumpiness += Integer.bitCount((covered ^ (covered >>> 1)) & innerPairs);
+
+            int framed = (row << 1) | 1 | (1 << (width + 1));
+            rowTransitions += Integer.bitCount((framed ^ (framed >>> 1)) & wallsMask);
+            columnTransitions += Integer.bitCount(row ^ previous);
+            previous = row;
+
+            // Open cell with both neighbours filled (walls count as filled)
+            int left = (row << 1) | leftWall;
+            int right = (row >>> 1) | rightWall;
+            int wells = ~covered & left & right & full;
+
+            // Bit-sliced increment of the run counter of every well column;
+            // columns that are not wells in this row are reset to zero
+            int carry = wells;
+            int t;
+            t = run0 & carry; run0 = (run0 ^ carry) & wells; carry = t;
+            t = run1 & carry; run1 = (run1 ^ carry) & wells; carry = t;
+            t = run2 & carry; run2 = (run2 ^ carry) & wells; carry = t;
+            t = run3 & carry; run3 = (run3 ^ carry) & wells; carry = t;
+            t = run4 & carry; run4 = (run4 ^ carry) & wells; carry = t;
+            run5 = (run5 ^ carry) & wells;
+
+            if (wells != 0) {
+                wellDepth += Integer.bitCount(run0)
+                        + (Integer.bitCount(run1) << 1)
+                        + (Integer.bitCount(run2) << 2)
+                        + (Integer.bitCount(run3) << 3)
+                        + (Integer.bitCount(run4) << 4)
+                        + (Integer.bitCount(run5) << 5);
+            }
+        }
+        // The floor counts as filled
+        columnTransitions += Integer.bitCount(~previous & full);
+
+        out[AGGREGATE_HEIGHT] = aggregateHeight;
+        out[HOLES] = holes;
+        out[BUMPINESS] = bumpiness;
+        out[ROW_TRANSITIONS] = rowTransitions;
+        out[COLUMN_TRANSITIONS] = columnTransitions;
+        out[WELL_DEPTH] = wellDepth;
+    }
+
+    /**
+     * Convenience overload that allocates the output array.
+     *
+     * @param board board to analyse
+     * @return new array indexed by the feature constants
+     */
+    public static int[] extract(BitBoard board) {
+        int[] out = new int[FEATURE_COUNT];
+        extract(board, out);
+        return out;
+    }
+}
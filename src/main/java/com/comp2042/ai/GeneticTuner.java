@@ -0,0 +1,530 @@
+package com.comp2042.ai;
+
+import com.comp2042.HeadlessGame;
+import com.comp2042.SimpleBoard;
+import com.comp2042.logic.bricks.RandomBrickGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Headless tool that evolves {@link HeuristicEvaluator} weights with a
+ * genetic algorithm.
+ * <p>
+ * Every candidate weight vector plays the same set of seeded games per
+ * generation on a real {@link SimpleBoard} driven by {@link HeadlessGame},
+ * so the game rules and {@link com.comp2042.Score} are exactly those of
+ * the GUI and tuned weights transfer directly. Fitness is the average
+ * number of lines cleared (or score) before the game ends or the piece
+ * cap is reached.
+ * <p>
+ * All games of a generation run in parallel on a fixed thread pool, one
+ * task per game, so the work is spread evenly over the cores. The bot
+ * used for fitness looks at the active brick only and has no time budget,
+ * which keeps every game fully deterministic for a given seed.
+ * <p>
+ * Breeding follows the usual scheme for Tetris heuristics: the best
+ * candidates survive unchanged, the others are replaced by children of
+ * tournament winners whose weights are the fitness-weighted average of
+ * both parents, with occasional mutation. Weight vectors are kept at unit
+ * length since only their direction changes which move is chosen.
+ * <p>
+ * After each generation the next population is written to a checkpoint
+ * file (atomically replaced) and one line is appended to a CSV results
+ * file. Running again with the same output directory resumes from the
+ * checkpoint, dropping any result lines written after it; a checkpoint of a run with another seed is ignored and
+ * overwritten. Progress is reported to a callback of {@link #run(Consumer)}
+ * rather than printed, so only the command line writes to the console.
+ *
+ * @author Chan Michelle
+ * @version 1.1
+ */
+public class GeneticTuner {
+
+    /** Board size of the real game. */
+    private static final int BOARD_WIDTH = 10;
+    private static final int BOARD_HEIGHT = 25;
+
+    private static final String CHECKPOINT_FILE = "tuner-checkpoint.txt";
+    private static final String RESULTS_FILE = "tuner-results.csv";
+
+    /** Share of each population kept unchanged for the next generation. */
+    private static final double ELITE_FRACTION = 0.1;
+
+    /** Share of the population sampled for each parent tournament. */
+    private static final double TOURNAMENT_FRACTION = 0.1;
+
+    private static final double MUTATION_RATE = 0.05;
+    private static final double MUTATION_STEP = 0.2;
+
+    /**
+     * What a candidate is scored on.
+     */
+    public enum Fitness {
+        /** Average rows cleared per game. */
+        LINES,
+        /** Average final score per game. */
+        SCORE
+    }
+
+    /**
+     * Tuner settings.
+     *
+     * @param populationSize    candidates per generation
+     * @param generations       generation to stop at (total, including resumed ones)
+     * @param gamesPerCandidate seeded games played by each candidate per generation
+     * @param pieceCap          maximum bricks per game
+     * @param fitness           what games are scored on
+     * @param seed              master seed of the run
+     * @param threads           number of worker threads
+     * @param outputDirectory   directory for the checkpoint and results files
+     */
+    public record Settings(int populationSize, int generations, int gamesPerCandidate, int pieceCap,
+                           Fitness fitness, long seed, int threads, Path outputDirectory) {
+
+        public Settings {
+            if (populationSize < 2 || generations < 1 || gamesPerCandidate < 1 || pieceCap < 1 || threads < 1) {
+                throw new IllegalArgumentException("Tuner settings must be positive (population at least 2)");
+            }
+        }
+
+        /**
+         * @param outputDirectory directory for the checkpoint and results files
+         * @return settings for a full tuning run on every core
+         */
+        public static Settings defaults(Path outputDirectory) {
+            return new Settings(100, 30, 20, 500, Fitness.LINES, 2042L,
+                    Runtime.getRuntime().availableProcessors(), outputDirectory);
+        }
+    }
+
+    /**
+     * A weight vector and the fitness it reached in its last evaluation.
+     *
+     * @param weights evaluator weights
+     * @param fitness average fitness per game
+     */
+    public record Candidate(double[] weights, double fitness) {
+    }
+
+    /**
+     * Progress of a run after one generation.
+     *
+     * @param generation     generation just evaluated
+     * @param top            best candidate of that generation
+     * @param mean           mean fitness of the generation
+     * @param games          games played in the generation
+     * @param gamesPerSecond games played per second of wall time
+     */
+    public record Generation(int generation, Candidate top, double mean, int games, double gamesPerSecond) {
+    }
+
+    private final Settings settings;
+
+    private List<double[]> population;
+    private int generation;
+    private Candidate best;
+    private int resumedFrom;
+
+    /**
+     * @param settings tuner settings
+     */
+    public GeneticTuner(Settings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Runs (or resumes) the tuner until the configured generation count.
+     *
+     * @return best candidate seen over the whole run
+     * @throws IOException if the checkpoint or results cannot be written
+     */
+    public Candidate run() throws IOException {
+        return run(generation -> { });
+    }
+
+    /**
+     * Runs (or resumes) the tuner until the configured generation count.
+     *
+     * @param progress receives each generation once it has been evaluated
+     * @return best candidate seen over the whole run
+     * @throws IOException if the checkpoint or results cannot be written
+     */
+    public Candidate run(Consumer<Generation> progress) throws IOException {
+        Files.createDirectories(settings.outputDirectory());
+        if (loadCheckpoint()) {
+            trimResults(generation);
+        } else {
+            generation = 0;
+            best = null;
+            population = initialPopulation();
+        }
+        resumedFrom = generation;
+
+        ExecutorService pool = Executors.newFixedThreadPool(settings.threads());
+        try {
+            while (generation < settings.generations()) {
+                SplittableRandom random = generationRandom(generation);
+                long[] gameSeeds = new long[settings.gamesPerCandidate()];
+                for (int i = 0; i < gameSeeds.length; i++) {
+                    gameSeeds[i] = random.nextLong();
+                }
+
+                long start = System.nanoTime();
+                List<Candidate> ranked = evaluate(pool, population, gameSeeds);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                Candidate top = ranked.get(0);
+                if (best == null || top.fitness() > best.fitness()) {
+                    best = top;
+                }
+                double mean = ranked.stream().mapToDouble(Candidate::fitness).average().orElse(0);
+                int games = population.size() * gameSeeds.length;
+                progress.accept(new Generation(generation, top, mean, games, games / seconds));
+
+                appendResult(generation, top, mean);
+                population = breed(ranked, random);
+                generation++;
+                saveCheckpoint();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return best;
+    }
+
+    /**
+     * @return generation the last {@link #run} resumed from, or 0 if it started a new run
+     */
+    public int getResumedFrom() {
+        return resumedFrom;
+    }
+
+    /**
+     * Plays one seeded game with the given weights.
+     *
+     * @param weights   evaluator weights
+     * @param seed      brick sequence seed
+     * @param pieceCap  maximum number of bricks
+     * @param fitness   what the game is scored on
+     * @return lines cleared or final score
+     */
+    public static int playGame(double[] weights, long seed, int pieceCap, Fitness fitness) {
+        SimpleBoard board = new SimpleBoard(BOARD_WIDTH, BOARD_HEIGHT, new RandomBrickGenerator(1, seed));
+        HeadlessGame game = new HeadlessGame(board);
+
+        // Active brick only, no time budget: the search never forks and is deterministic
+        BeamSearchBot bot = new BeamSearchBot(new HeuristicEvaluator(weights), 1, 1, 0, ForkJoinPool.commonPool());
+        new BotPlayer(bot).playGame(game, pieceCap);
+
+        return (fitness == Fitness.LINES) ? game.getLinesCleared() : game.getScore();
+    }
+
+    /**
+     * Plays every game of every candidate on the pool.
+     *
+     * @return candidates sorted best first
+     */
+    private List<Candidate> evaluate(ExecutorService pool, List<double[]> candidates, long[] gameSeeds) {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (double[] weights : candidates) {
+            for (long gameSeed : gameSeeds) {
+                tasks.add(() -> playGame(weights, gameSeed, settings.pieceCap(), settings.fitness()));
+            }
+        }
+
+        List<Future<Integer>> results;
+        try {
+            results = pool.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tuning interrupted", e);
+        }
+
+        List<Candidate> ranked = new ArrayList<>();
+        int task = 0;
+        for (double[] weights : candidates) {
+            long total = 0;
+            for (int i = 0; i < gameSeeds.length; i++) {
+                try {
+                    total += results.get(task++).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Tuning interrupted", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Game failed", e.getCause());
+                }
+            }
+            ranked.add(new Candidate(weights, (double) total / gameSeeds.length));
+        }
+        ranked.sort(Comparator.comparingDouble(Candidate::fitness).reversed());
+        return ranked;
+    }
+
+    private List<double[]> initialPopulation() {
+        SplittableRandom random = generationRandom(-1);
+        List<double[]> initial = new ArrayList<>();
+        // Start from the hand-tuned weights so the run can only improve on them
+        initial.add(normalise(HeuristicEvaluator.defaultWeights()));
+        while (initial.size() < settings.populationSize()) {
+            double[] weights = new double[HeuristicEvaluator.FEATURE_COUNT];
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = random.nextDouble(-1.0, 1.0);
+            }
+            initial.add(normalise(weights));
+        }
+        return initial;
+    }
+
+    private List<double[]> breed(List<Candidate> ranked, SplittableRandom random) {
+        int size = settings.populationSize();
+        int elites = Math.max(1, (int) (size * ELITE_FRACTION));
+        int tournament = Math.max(2, (int) (size * TOURNAMENT_FRACTION));
+
+        List<double[]> next = new ArrayList<>();
+        for (int i = 0; i < elites; i++) {
+            next.add(ranked.get(i).weights());
+        }
+        while (next.size() < size) {
+            Candidate a = tournament(ranked, tournament, random);
+            Candidate b = tournament(ranked, tournament, random);
+
+            // Fitness-weighted average; +1 keeps zero-fitness parents in play
+            double wa = a.fitness() + 1;
+            double wb = b.fitness() + 1;
+            double[] child = new double[HeuristicEvaluator.FEATURE_COUNT];
+            for (int i = 0; i < child.length; i++) {
+                child[i] = a.weights()[i] * wa + b.weights()[i] * wb;
+            }
+            if (random.nextDouble() < MUTATION_RATE) {
+                child = normalise(child);
+                child[random.nextInt(child.length)] += random.nextDouble(-MUTATION_STEP, MUTATION_STEP);
+            }
+            next.add(normalise(child));
+        }
+        return next;
+    }
+
+    private static Candidate tournament(List<Candidate> ranked, int rounds, SplittableRandom random) {
+        // The list is sorted best first, so the lowest sampled index wins
+        int winner = ranked.size();
+        for (int i = 0; i < rounds; i++) {
+            winner = Math.min(winner, random.nextInt(ranked.size()));
+        }
+        return ranked.get(winner);
+    }
+
+    private static double[] normalise(double[] weights) {
+        double length = 0;
+        for (double w : weights) {
+            length += w * w;
+        }
+        length = Math.sqrt(length);
+        if (length == 0) {
+            return weights;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] /= length;
+        }
+        return weights;
+    }
+
+    /**
+     * Every generation has its own random stream derived from the master
+     * seed, so a resumed run picks the same games and parents as an
+     * uninterrupted one.
+     */
+    private SplittableRandom generationRandom(int generation) {
+        return new SplittableRandom(settings.seed() + (generation + 1) * 0x9E3779B97F4A7C15L);
+    }
+
+    private void appendResult(int generation, Candidate top, double mean) throws IOException {
+        Path results = settings.outputDirectory().resolve(RESULTS_FILE);
+        StringBuilder line = new StringBuilder();
+        if (!Files.exists(results)) {
+            line.append("generation,best,mean,weights").append(System.lineSeparator());
+        }
+        line.append(generation).append(',').append(top.fitness()).append(',').append(mean);
+        for (double w : top.weights()) {
+            line.append(',').append(w);
+        }
+        line.append(System.lineSeparator());
+        Files.writeString(results, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Drops result lines of generations the checkpoint does not cover yet.
+     * A run stopped between appending a line and saving the checkpoint
+     * plays that generation again, which would otherwise write it twice.
+     */
+    private void trimResults(int from) throws IOException {
+        Path results = settings.outputDirectory().resolve(RESULTS_FILE);
+        if (!Files.exists(results)) {
+            return;
+        }
+        List<String> lines = Files.readAllLines(results);
+        List<String> kept = new ArrayList<>();
+        for (String line : lines) {
+            int comma = line.indexOf(',');
+            String first = (comma < 0) ? line : line.substring(0, comma);
+            // The header and anything else that is not a generation line stay
+            boolean generationLine = !first.isEmpty() && first.chars().allMatch(Character::isDigit);
+            if (!generationLine || Integer.parseInt(first) < from) {
+                kept.add(line);
+            }
+        }
+        if (kept.size() < lines.size()) {
+            Files.write(results, kept);
+        }
+    }
+
+    private void saveCheckpoint() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("seed=" + settings.seed());
+        lines.add("generation=" + generation);
+        if (best != null) {
+            lines.add("bestFitness=" + best.fitness());
+            lines.add("best=" + join(best.weights()));
+        }
+        for (double[] weights : population) {
+            lines.add("candidate=" + join(weights));
+        }
+
+        // Write next to the checkpoint and swap it in, so a crash never leaves half a file
+        Path checkpoint = settings.outputDirectory().resolve(CHECKPOINT_FILE);
+        Path temp = settings.outputDirectory().resolve(CHECKPOINT_FILE + ".tmp");
+        Files.write(temp, lines);
+        Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return {@code true} if a checkpoint for this seed was found and loaded
+     */
+    private boolean loadCheckpoint() throws IOException {
+        Path checkpoint = settings.outputDirectory().resolve(CHECKPOINT_FILE);
+        if (!Files.exists(checkpoint)) {
+            return false;
+        }
+        long seed = Long.MIN_VALUE;
+        int savedGeneration = 0;
+        double bestFitness = 0;
+        double[] bestWeights = null;
+        List<double[]> saved = new ArrayList<>();
+
+        for (String line : Files.readAllLines(checkpoint)) {
+            int eq = line.indexOf('=');
+            if (eq < 0) continue;
+            String key = line.substring(0, eq);
+            String value = line.substring(eq + 1);
+            switch (key) {
+                case "seed" -> seed = Long.parseLong(value);
+                case "generation" -> savedGeneration = Integer.parseInt(value);
+                case "bestFitness" -> bestFitness = Double.parseDouble(value);
+                case "best" -> bestWeights = parse(value);
+                case "candidate" -> saved.add(parse(value));
+                default -> { }
+            }
+        }
+        if (seed != settings.seed() || saved.isEmpty()) {
+            return false;
+        }
+
+        // Population size may have changed between runs
+        List<double[]> initial = initialPopulation();
+        while (saved.size() < settings.populationSize()) {
+            saved.add(initial.get(saved.size()));
+        }
+        population = new ArrayList<>(saved.subList(0, settings.populationSize()));
+        generation = savedGeneration;
+        best = (bestWeights == null) ? null : new Candidate(bestWeights, bestFitness);
+        return true;
+    }
+
+    private static String join(double[] weights) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < weights.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(weights[i]);
+        }
+        return sb.toString();
+    }
+
+    private static double[] parse(String value) {
+        String[] parts = value.split(",");
+        if (parts.length != HeuristicEvaluator.FEATURE_COUNT) {
+            throw new IllegalArgumentException("Checkpoint weights have the wrong length: " + value);
+        }
+        double[] weights = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            weights[i] = Double.parseDouble(parts[i].trim());
+        }
+        return weights;
+    }
+
+    /**
+     * Command-line entry point. Arguments are optional {@code key=value}
+     * pairs: {@code dir}, {@code population}, {@code generations},
+     * {@code games}, {@code pieces}, {@code fitness} ({@code lines} or
+     * {@code score}), {@code seed} and {@code threads}.
+     *
+     * @param args command-line arguments
+     * @throws IOException if the output files cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Settings d = Settings.defaults(Paths.get("tuner"));
+        Path dir = d.outputDirectory();
+        int population = d.populationSize();
+        int generations = d.generations();
+        int games = d.gamesPerCandidate();
+        int pieces = d.pieceCap();
+        Fitness fitness = d.fitness();
+        long seed = d.seed();
+        int threads = d.threads();
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+            }
+            String value = arg.substring(eq + 1);
+            switch (arg.substring(0, eq)) {
+                case "dir" -> dir = Paths.get(value);
+                case "population" -> population = Integer.parseInt(value);
+                case "generations" -> generations = Integer.parseInt(value);
+                case "games" -> games = Integer.parseInt(value);
+                case "pieces" -> pieces = Integer.parseInt(value);
+                case "fitness" -> fitness = Fitness.valueOf(value.toUpperCase());
+                case "seed" -> seed = Long.parseLong(value);
+                case "threads" -> threads = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+
+        GeneticTuner tuner = new GeneticTuner(
+                new Settings(population, generations, games, pieces, fitness, seed, threads, dir));
+        Candidate result = tuner.run(g -> {
+            if (g.generation() > 0 && g.generation() == tuner.getResumedFrom()) {
+                System.out.println("Resumed from generation " + g.generation());
+            }
+            System.out.printf("Generation %d: best %.1f, mean %.1f (%d games, %.0f games/s)%n",
+                    g.generation(), g.top().fitness(), g.mean(), g.games(), g.gamesPerSecond());
+        });
+        System.out.println("Best fitness " + result.fitness() + " with weights " + Arrays.toString(result.weights()));
+    }
+}
@@ -0,0 +1,98 @@
+package com.comp2042.ai;
+
+import java.util.Arrays;
+
+/**
+ * Linear board evaluator: a weighted sum of board features.
+ * <p>
+ * Features used:
+ * <ul>
+ *     <li>Aggregate height - sum of all column heights</li>
+ *     <li>Lines - rows cleared on the way to this board</li>
+ *     <li>Holes - empty cells with a filled cell somewhere above them</li>
+ *     <li>Bumpiness - sum of height differences between neighbouring columns</li>
+ *     <li>Row and column transitions - filled/empty changes along rows and columns</li>
+ *     <li>Well depth - cumulative depth of open one-wide wells</li>
+ * </ul>
+ * All board features come from one {@link FeatureExtractor} pass.
+ * The default weights are the well-known values tuned for standard Tetris
+ * on the first four features; the remaining features start at zero and
+ * can be tuned.
+ *
+ * @author Chan Michelle
+ * @version 1.1
+ */
+public final class HeuristicEvaluator implements Evaluator {
+
+    /** Index of each feature in the weight array. */
+    public static final int AGGREGATE_HEIGHT = 0;
+    public static final int LINES = 1;
+    public static final int HOLES = 2;
+    public static final int BUMPINESS = 3;
+    public static final int ROW_TRANSITIONS = 4;
+    public static final int COLUMN_TRANSITIONS = 5;
+    public static final int WELL_DEPTH = 6;
+
+    /** Number of weights expected by the constructor. */
+    public static final int FEATURE_COUNT = 7;
+
+    private static final double[] DEFAULT_WEIGHTS = {-0.510066, 0.760666, -0.35663, -0.184483, 0, 0, 0};
+
+    /** Per-thread feature buffer, so parallel evaluation never allocates. */
+    private static final ThreadLocal<int[]> FEATURES =
+            ThreadLocal.withInitial(() -> new int[FeatureExtractor.FEATURE_COUNT]);
+
+    private final double[] weights;
+
+    /**
+     * Creates an evaluator with the default weights.
+     */
+    public HeuristicEvaluator() {
+        this(DEFAULT_WEIGHTS);
+    }
+
+    /**
+     * Creates an evaluator with custom weights.
+     *
+     * @param weights one weight per feature, indexed by the constants of this class
+     */
+    public HeuristicEvaluator(double[] weights) {
+        if (weights.length != FEATURE_COUNT) {
+            throw new IllegalArgumentException("Expected " + FEATURE_COUNT + " weights but got " + weights.length);
+        }
+        this.weights = weights.clone();
+    }
+
+    /**
+     * @return copy of the default weights
+     */
+    public static double[] defaultWeights() {
+        return DEFAULT_WEIGHTS.clone();
+    }
+
+    /**
+     * @return copy of the weights used by this evaluator
+     */
+    public double[] getWeights() {
+        return weights.clone();
+    }
+
+    @Override
+    public double evaluate(BitBoard board, int linesCleared) {
+        int[] features = FEATURES.get();
+        FeatureExtractor.extract(board, features);
+
+        return weights[AGGREGATE_HEIGHT] * features[FeatureExtractor.AGGREGATE_HEIGHT]
+                + weights[LINES] * linesCleared
+                + weights[HOLES] * features[FeatureExtractor.HOLES]
+                + weights[BUMPINESS] * features[FeatureExtractor.BUMPINESS]
+                + weights[ROW_TRANSITIONS] * features[FeatureExtractor.ROW_TRANSITIONS]
+                + weights[COLUMN_TRANSITIONS] * features[FeatureExtractor.COLUMN_TRANSITIONS]
+                + weights[WELL_DEPTH] * features[FeatureExtractor.WELL_DEPTH];
+    }
+
+    @Override
+    public String toString() {
+        return "HeuristicEvaluator" + Arrays.toString(weights);
+    }
+}
@@ -0,0 +1,128 @@
+package com.comp2042.ai;
+
+import com.comp2042.Board;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Computes placement hints in the background for an interactive game.
+ * <p>
+ * {@link #request} takes a {@link BoardSnapshot} on the calling thread and
+ * queues the search on a single daemon worker, so the caller (the JavaFX
+ * thread) only pays for the snapshot. Every request supersedes the
+ * previous one: the older search is cancelled if it has not started, and
+ * its result is dropped if it has. Results are handed to a publisher
+ * executor ({@code Platform::runLater} in the GUI) and delivered only if
+ * no newer request was made in the meantime.
+ * <p>
+ * A bot used for hints should expand its beam on {@link #searchPool()}
+ * rather than the common pool, so that hint searches neither slow down
+ * nor wait for other parallel work of the game.
+ *
+ * @author Chan Michelle
+ * @version 1.1
+ */
+public class HintEngine {
+
+    /** Threads of {@link #searchPool()}; hints only need to beat the player, not the clock. */
+    private static final int SEARCH_THREADS = 2;
+
+    private static final ForkJoinPool SEARCH_POOL = new ForkJoinPool(SEARCH_THREADS, pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("hint-search-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    }, null, false);
+
+    private final BeamSearchBot bot;
+    private final Executor publisher;
+    private final ExecutorService worker;
+
+    /** Id of the latest request; results of older requests are discarded. */
+    private final AtomicLong current = new AtomicLong();
+
+    private Future<?> pending;
+
+    /**
+     * @param bot       search used for hints; only ever run by the worker thread
+     * @param publisher executor that delivers results, e.g. {@code Platform::runLater}
+     */
+    public HintEngine(BeamSearchBot bot, Executor publisher) {
+        this.bot = bot;
+        this.publisher = publisher;
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hint-engine");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * @return small pool of low-priority daemon threads for the parallel part of hint searches
+     */
+    public static ForkJoinPool searchPool() {
+        return SEARCH_POOL;
+    }
+
+    /**
+     * Requests a hint for the board's current state, superseding any earlier request.
+     *
+     * @param board    board to snapshot; read on the calling thread only
+     * @param onResult receives the best placement on the publisher, if still current
+     */
+    public void request(Board board, Consumer<Placement> onResult) {
+        long id = current.incrementAndGet();
+        cancelPending();
+
+        BoardSnapshot snapshot = BoardSnapshot.of(board);
+        if (snapshot == null) {
+            return;
+        }
+        pending = worker.submit(() -> {
+            if (id != current.get()) {
+                return;
+            }
+            Placement best = snapshot.search(bot).placement();
+            if (best != null && id == current.get()) {
+                publisher.execute(() -> {
+                    // Re-check on the publishing thread: input may have arrived while queued
+                    if (id == current.get()) {
+                        onResult.accept(best);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Discards the current request so that no hint is delivered for it.
+     */
+    public void cancel() {
+        current.incrementAndGet();
+        cancelPending();
+    }
+
+    /**
+     * Stops the worker thread. The engine cannot be used afterwards.
+     */
+    public void shutdown() {
+        cancel();
+        worker.shutdownNow();
+    }
+
+    private void cancelPending() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.comp2042.ai;
+
+import com.comp2042.EventType;
+import com.comp2042.logic.bricks.BrickType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Enumerates every placement a brick can reach using the game's moves.
+ * <p>
+ * The moves mirror {@link com.comp2042.SimpleBoard}: one cell left, right
+ * or down, and an in-place rotation to the next state (no wall kicks).
+ * A breadth-first search over (rotation, x, y) finds every position from
+ * which the brick can no longer move down, so tucks and spins under
+ * overhangs are found as well as straight drops.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class MoveGenerator {
+
+    /** Horizontal offset so that negative shape columns map to array indices. */
+    private static final int X_OFFSET = PieceShapes.SIZE - 1;
+
+    private static final int NO_PARENT = -1;
+
+    /** Per-thread search buffers so that parallel searchers never allocate them per call. */
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /** Prevent instantiation of this utility class */
+    private MoveGenerator() {
+    }
+
+    /**
+     * @param width board width in cells
+     * @return column at which a new brick spawns, matching {@code SimpleBoard.createNewBrick()}
+     */
+    public static int spawnX(int width) {
+        return width / 2 - PieceShapes.SIZE / 2;
+    }
+
+    /**
+     * Lists all placements reachable from the spawn position.
+     *
+     * @param board board to search
+     * @param type  brick type
+     * @return reachable placements; empty if the brick cannot spawn
+     */
+    public static List<Placement> generate(BitBoard board, BrickType type) {
+        return generate(board, type, 0, spawnX(board.width()), 0);
+    }
+
+    /**
+     * Lists all placements reachable from a given brick state.
+     *
+     * @param board    board to search
+     * @param type     brick type
+     * @param rotation starting rotation index
+     * @param x        starting column
+     * @param y        starting row
+     * @return reachable placements; empty if the start state is blocked
+     */
+    public static List<Placement> generate(BitBoard board, BrickType type, int rotation, int x, int y) {
+        PieceShapes piece = PieceShapes.of(type);
+        if (!board.fits(piece, rotation, x, y)) {
+            return Collections.emptyList();
+        }
+
+        List<Placement> placements = new ArrayList<>();
+        search(board, piece, rotation, x, y, null, placements);
+        return placements;
+    }
+
+    /**
+     * Counts reachable placements without building the result list.
+     *
+     * @param board board to search
+     * @param type  brick type
+     * @return number of reachable placements from the spawn position
+     */
+    public static int count(BitBoard board, BrickType type) {
+        PieceShapes piece = PieceShapes.of(type);
+        int x = spawnX(board.width());
+        if (!board.fits(piece, 0, x, 0)) {
+            return 0;
+        }
+        return search(board, piece, 0, x, 0, null, null);
+    }
+
+    /**
+     * Finds a shortest sequence of moves that brings the brick from the
+     * given state to the target placement.
+     * <p>
+     * Trailing {@link EventType#DOWN} moves are dropped: the caller is
+     * expected to finish with a hard drop, which lands on the same row.
+     *
+     * @param board    board to search
+     * @param rotation starting rotation index
+     * @param x        starting column
+     * @param y        starting row
+     * @param target   placement to reach
+     * @return moves to apply before the hard drop, or {@code null} if unreachable
+     */
+    public static List<EventType> findPath(BitBoard board, int rotation, int x, int y, Placement target) {
+        PieceShapes piece = PieceShapes.of(target.type());
+        if (!board.fits(piece, rotation, x, y)) {
+            return null;
+        }
+
+        Scratch scratch = SCRATCH.get();
+        int[] goal = {stateIndex(board, target.rotation(), target.x(), target.y())};
+        search(board, piece, rotation, x, y, goal, null);
+        if (scratch.seen[goal[0]] != scratch.stamp) {
+            return null;
+        }
+
+        List<EventType> path = new ArrayList<>();
+        for (int state = goal[0]; scratch.parent[state] != NO_PARENT; state = scratch.parent[state]) {
+            path.add(EventType.values()[scratch.move[state]]);
+        }
+        Collections.reverse(path);
+
+        while (!path.isEmpty() && path.get(path.size() - 1) == EventType.DOWN) {
+            path.remove(path.size() - 1);
+        }
+        return path;
+    }
+
+    private static int stateIndex(BitBoard board, int rotation, int x, int y) {
+        int columns = board.width() + X_OFFSET;
+        return (rotation * board.height() + y) * columns + x + X_OFFSET;
+    }
+
+    /**
+     * Breadth-first search over brick states.
+     *
+     * @param goal      when non-null, parent links are recorded and the search stops at goal[0]
+     * @param landings  when non-null, receives every landing placement
+     * @return number of landing placements found
+     */
+    private static int search(BitBoard board, PieceShapes piece, int startRot, int startX, int startY,
+                              int[] goal, List<Placement> landings) {
+        int columns = board.width() + X_OFFSET;
+        int height = board.height();
+        int rotations = piece.rotations();
+
+        Scratch scratch = SCRATCH.get();
+        scratch.prepare(rotations * height * columns);
+        int stamp = scratch.stamp;
+        int[] seen = scratch.seen;
+        int[] queue = scratch.queue;
+
+        int start = (startRot * height + startY) * columns + startX + X_OFFSET;
+        seen[start] = stamp;
+        scratch.parent[start] = NO_PARENT;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        int found = 0;
+
+        while (head < tail) {
+            int state = queue[head++];
+            if (goal != null && state == goal[0]) {
+                break;
+            }
+
+            int x = state % columns - X_OFFSET;
+            int y = (state / columns) % height;
+            int rot = state / (columns * height);
+
+            if (board.fits(piece, rot, x, y + 1)) {
+                tail = visit(scratch, state, state + columns, EventType.DOWN, tail, goal != null);
+            } else {
+                found++;
+                if (landings != null) {
+                    landings.add(new Placement(piece.type(), rot, x, y));
+                }
+            }
+            if (board.fits(piece, rot, x - 1, y)) {
+                tail = visit(scratch, state, state - 1, EventType.LEFT, tail, goal != null);
+            }
+            if (board.fits(piece, rot, x + 1, y)) {
+                tail = visit(scratch, state, state + 1, EventType.RIGHT, tail, goal != null);
+            }
+            int nextRot = (rot + 1) % rotations;
+            if (nextRot != rot && board.fits(piece, nextRot, x, y)) {
+                int next = (nextRot * height + y) * columns + x + X_OFFSET;
+                tail = visit(scratch, state, next, EventType.ROTATE, tail, goal != null);
+            }
+        }
+        return found;
+    }
+
+    private static int visit(Scratch scratch, int from, int to, EventType move, int tail, boolean trackPath) {
+        if (scratch.seen[to] == scratch.stamp) {
+            return tail;
+        }
+        scratch.seen[to] = scratch.stamp;
+        if (trackPath) {
+            scratch.parent[to] = from;
+            scratch.move[to] = (byte) move.ordinal();
+        }
+        scratch.queue[tail] = to;
+        return tail + 1;
+    }
+
+    /**
+     * Reusable search buffers. {@code seen} uses a generation stamp so it
+     * never needs clearing between searches.
+     */
+    private static final class Scratch {
+        int[] seen = new int[0];
+        int[] queue = new int[0];
+        int[] parent = new int[0];
+        byte[] move = new byte[0];
+        int stamp;
+
+        void prepare(int states) {
+            if (seen.length < states) {
+                seen = new int[states];
+                queue = new int[states];
+                parent = new int[states];
+                move = new byte[states];
+                stamp = 0;
+            }
+            stamp++;
+            if (stamp == 0) {
+                Arrays.fill(seen, 0);
+                stamp = 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.comp2042.ai;
+
+import com.comp2042.logic.bricks.BrickType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pre-computed bitmask form of every brick rotation.
+ * <p>
+ * {@link com.comp2042.logic.bricks.Brick#getShapeMatrix()} returns fresh
+ * deep copies on every call, which is far too slow for search. This class
+ * reads each brick's rotations once and stores every shape row as a bitmask
+ * where bit {@code c} means column {@code c} of the 4x4 matrix is filled.
+ * Rotation order matches {@link com.comp2042.BrickRotator}.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class PieceShapes {
+
+    /** Size of every brick matrix. */
+    public static final int SIZE = 4;
+
+    private static final PieceShapes[] SHAPES = new PieceShapes[BrickType.values().length];
+
+    static {
+        for (BrickType type : BrickType.values()) {
+            SHAPES[type.ordinal()] = new PieceShapes(type);
+        }
+    }
+
+    private final BrickType type;
+    private final List<int[][]> matrices;
+
+    /** rowMasks[rotation][row] */
+    private final int[][] rowMasks;
+
+    /** Leftmost and rightmost filled column per rotation. */
+    private final int[] minCol;
+    private final int[] maxCol;
+
+    private PieceShapes(BrickType type) {
+        this.type = type;
+        this.matrices = type.create().getShapeMatrix();
+
+        int rotations = matrices.size();
+        rowMasks = new int[rotations][SIZE];
+        minCol = new int[rotations];
+        maxCol = new int[rotations];
+
+        for (int rot = 0; rot < rotations; rot++) {
+            int[][] shape = matrices.get(rot);
+            int min = SIZE;
+            int max = -1;
+            for (int r = 0; r < SIZE; r++) {
+                for (int c = 0; c < SIZE; c++) {
+                    if (shape[r][c] != 0) {
+                        rowMasks[rot][r] |= 1 << c;
+                        min = Math.min(min, c);
+                        max = Math.max(max, c);
+                    }
+                }
+            }
+            minCol[rot] = min;
+            maxCol[rot] = max;
+        }
+    }
+
+    /**
+     * @param type brick type
+     * @return cached shapes for that type
+     */
+    public static PieceShapes of(BrickType type) {
+        return SHAPES[type.ordinal()];
+    }
+
+    /**
+     * Finds the rotation index of a shape matrix as produced by the board.
+     *
+     * @param shape shape matrix (e.g. from {@link com.comp2042.ViewData#getBrickData()})
+     * @return rotation index, or {@code -1} if the matrix is not a known rotation
+     */
+    public int rotationOf(int[][] shape) {
+        for (int rot = 0; rot < matrices.size(); rot++) {
+            if (Arrays.deepEquals(matrices.get(rot), shape)) {
+                return rot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return brick type these shapes belong to
+     */
+    public BrickType type() {
+        return type;
+    }
+
+    /**
+     * @return number of distinct rotation states
+     */
+    public int rotations() {
+        return rowMasks.length;
+    }
+
+    /**
+     * @param rotation rotation index
+     * @param row      shape row (0-3)
+     * @return bitmask of the filled columns in that shape row
+     */
+    public int rowMask(int rotation, int row) {
+        return rowMasks[rotation][row];
+    }
+
+    /**
+     * @param rotation rotation index
+     * @return leftmost filled column of the shape
+     */
+    public int minCol(int rotation) {
+        return minCol[rotation];
+    }
+
+    /**
+     * @param rotation rotation index
+     * @return rightmost filled column of the shape
+     */
+    public int maxCol(int rotation) {
+        return maxCol[rotation];
+    }
+}
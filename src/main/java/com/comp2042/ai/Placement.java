@@ -0,0 +1,14 @@
+package com.comp2042.ai;
+
+import com.comp2042.logic.bricks.BrickType;
+
+/**
+ * Final resting position of a brick, as chosen by a bot.
+ *
+ * @param type     brick type
+ * @param rotation rotation index (same numbering as {@link com.comp2042.BrickRotator})
+ * @param x        left column of the 4x4 shape matrix
+ * @param y        top row of the 4x4 shape matrix
+ */
+public record Placement(BrickType type, int rotation, int x, int y) {
+}
@@ -0,0 +1,174 @@
+package com.comp2042.ai;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Fixed-size, lock-free hash table from Zobrist hashes to search data.
+ * <p>
+ * Entries live in two parallel {@code long[]} arrays (keys and data), so
+ * nothing is boxed and the table never allocates after construction. Any
+ * number of threads may read and write concurrently without locks:
+ * <ul>
+ *     <li>Each slot stores {@code hash ^ data} instead of the hash itself.
+ *     A reader recomputes {@code key ^ data}; if another thread tore the
+ *     entry by writing between the two loads, the check fails and the
+ *     entry is treated as a miss (the classic "lockless hashing" trick).</li>
+ *     <li>Individual 64-bit loads and stores use opaque {@link VarHandle}
+ *     access so they are never split, even on 32-bit JVMs.</li>
+ * </ul>
+ * Lookups use open addressing over a small bucket of neighbouring slots.
+ * When the bucket is full, an entry from an older search is replaced
+ * first, otherwise the one with the lowest depth.
+ * <p>
+ * Stored data packs a {@code float} value, a depth and the search
+ * generation; use {@link #pack}, {@link #value} and {@link #depth} to
+ * build and read it.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class TranspositionTable {
+
+    /** Returned by {@link #get} when no entry exists for a hash. */
+    public static final long NOT_FOUND = -1L;
+
+    /** Number of neighbouring slots probed per lookup. */
+    private static final int BUCKET = 4;
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int DEPTH_SHIFT = 32;
+    private static final int GENERATION_SHIFT = 40;
+    private static final long BYTE = 0xFFL;
+
+    /** Set in every packed word so that a stored entry is never all zeros (empty). */
+    private static final long VALID = 1L << 48;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+
+    /** Current search generation (0-255); entries from other generations are stale. */
+    private volatile int generation;
+
+    /**
+     * @param capacity requested number of entries; rounded up to a power of two
+     */
+    public TranspositionTable(int capacity) {
+        if (capacity < BUCKET) {
+            capacity = BUCKET;
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        keys = new long[size];
+        data = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Packs a search value and depth into a data word for the current generation.
+     *
+     * @param value evaluation value
+     * @param depth search depth (0-255)
+     * @return data word for {@link #put}
+     */
+    public long pack(float value, int depth) {
+        return (Float.floatToRawIntBits(value) & 0xFFFFFFFFL)
+                | ((depth & BYTE) << DEPTH_SHIFT)
+                | ((generation & BYTE) << GENERATION_SHIFT)
+                | VALID;
+    }
+
+    /**
+     * @param data data word returned by {@link #get}
+     * @return the stored evaluation value
+     */
+    public static float value(long data) {
+        return Float.intBitsToFloat((int) data);
+    }
+
+    /**
+     * @param data data word returned by {@link #get}
+     * @return the stored depth
+     */
+    public static int depth(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & BYTE);
+    }
+
+    private static int generationOf(long data) {
+        return (int) ((data >>> GENERATION_SHIFT) & BYTE);
+    }
+
+    /**
+     * Starts a new search. Entries written by earlier searches become
+     * invisible to {@link #get} and are the first to be replaced.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & (int) BYTE;
+    }
+
+    /**
+     * Looks up the entry for a hash written during the current search.
+     *
+     * @param hash Zobrist hash
+     * @return stored data word, or {@link #NOT_FOUND}
+     */
+    public long get(long hash) {
+        int gen = generation;
+        int index = index(hash);
+        for (int i = 0; i < BUCKET; i++) {
+            int slot = (index + i) & mask;
+            long storedData = (long) SLOTS.getOpaque(data, slot);
+            long storedKey = (long) SLOTS.getOpaque(keys, slot);
+            if ((storedKey ^ storedData) == hash && storedData != 0L) {
+                return generationOf(storedData) == gen ? storedData : NOT_FOUND;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Stores data for a hash, replacing an existing entry for the same hash
+     * or the least valuable entry in its bucket.
+     *
+     * @param hash    Zobrist hash
+     * @param packed  data word built with {@link #pack}
+     */
+    public void put(long hash, long packed) {
+        int gen = generation;
+        int index = index(hash);
+        int victim = index;
+        int victimScore = Integer.MAX_VALUE;
+
+        for (int i = 0; i < BUCKET; i++) {
+            int slot = (index + i) & mask;
+            long storedData = (long) SLOTS.getOpaque(data, slot);
+            long storedKey = (long) SLOTS.getOpaque(keys, slot);
+
+            if (storedData == 0L || (storedKey ^ storedData) == hash) {
+                victim = slot;
+                break;
+            }
+            // Prefer stale generations, then shallow entries
+            int score = (generationOf(storedData) == gen ? 256 : 0) + depth(storedData);
+            if (score < victimScore) {
+                victimScore = score;
+                victim = slot;
+            }
+        }
+
+        SLOTS.setOpaque(data, victim, packed);
+        SLOTS.setOpaque(keys, victim, hash ^ packed);
+    }
+
+    /**
+     * @return number of slots in the table
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    private int index(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,262 @@
+package com.comp2042.host;
+
+import com.comp2042.EventType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Runs many independent {@link GameSession}s without any view.
+ * <p>
+ * Sessions are split into one shard per worker thread. A scheduler runs
+ * each shard at a fixed tick rate, and a shard ticks every one of its
+ * sessions in turn, so the host needs one task per core rather than one
+ * thread or timer per session. A session is only ever ticked by its own
+ * shard, so its game needs no locking; clients only touch its input queue.
+ * <p>
+ * When a tick takes longer than the tick period the shard falls behind
+ * rather than skipping ticks: sessions keep their pace relative to each
+ * other, and {@link #getSessionTicks()} shows how far the host is from
+ * its target rate.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class GameHost implements AutoCloseable {
+
+    /** Tick rate of the desktop game's frame pulse. */
+    public static final int DEFAULT_TICKS_PER_SECOND = 60;
+
+    private final ScheduledExecutorService scheduler;
+    private final Shard[] shards;
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicInteger sessions = new AtomicInteger();
+
+    /** Sessions of one worker, ticked together. */
+    private final class Shard implements Runnable {
+        final Queue<GameSession> joining = new ConcurrentLinkedQueue<>();
+
+        /** Used by the running tick only; ticks of a shard never overlap. */
+        final List<GameSession> running = new ArrayList<>();
+
+        final LongAdder sessionTicks = new LongAdder();
+        final LongAdder busyNanos = new LongAdder();
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            GameSession joined;
+            while ((joined = joining.poll()) != null) {
+                running.add(joined);
+            }
+            int ticked = 0;
+            for (int i = running.size() - 1; i >= 0; i--) {
+                GameSession session = running.get(i);
+                if (!session.isFinished()) {
+                    try {
+                        session.tick();
+                        ticked++;
+                    } catch (RuntimeException e) {
+                        // One broken session must not stop the shard
+                        System.out.println("Error in game session " + session.getId() + ": " + e.getMessage());
+                        session.close();
+                    }
+                }
+                if (session.isFinished()) {
+                    // The last session takes its place; it was ticked already
+                    running.set(i, running.get(running.size() - 1));
+                    running.remove(running.size() - 1);
+                    sessions.decrementAndGet();
+                }
+            }
+            sessionTicks.add(ticked);
+            busyNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private GameHost(int workers, int ticksPerSecond) {
+        AtomicInteger threads = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "game-host-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.shards = new Shard[workers];
+        long period = TimeUnit.SECONDS.toNanos(1) / ticksPerSecond;
+        for (int i = 0; i < workers; i++) {
+            shards[i] = new Shard();
+            // Spread the shards over the tick period so they do not all wake at once
+            scheduler.scheduleAtFixedRate(shards[i], period * i / workers, period, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Starts a host.
+     *
+     * @param workers        threads that tick sessions, usually the number of cores
+     * @param ticksPerSecond tick rate of every session
+     * @return the running host
+     */
+    public static GameHost start(int workers, int ticksPerSecond) {
+        if (workers < 1 || ticksPerSecond < 1) {
+            throw new IllegalArgumentException("Workers and tick rate must be positive");
+        }
+        return new GameHost(workers, ticksPerSecond);
+    }
+
+    /**
+     * Starts a new game. It begins at the next tick of its shard.
+     *
+     * @param seed      seed of the brick sequence
+     * @param publisher receives every frame of the game, on a host thread
+     * @return the session, for the client to send inputs to
+     */
+    public GameSession open(long seed, Consumer<byte[]> publisher) {
+        long id = nextId.getAndIncrement();
+        GameSession session = new GameSession(id, seed, publisher);
+        sessions.incrementAndGet();
+        shards[(int) (id % shards.length)].joining.add(session);
+        return session;
+    }
+
+    /**
+     * @return sessions that have not finished yet
+     */
+    public int getSessions() {
+        return sessions.get();
+    }
+
+    /**
+     * @return ticks run so far, summed over all sessions
+     */
+    public long getSessionTicks() {
+        long total = 0;
+        for (Shard shard : shards) {
+            total += shard.sessionTicks.sum();
+        }
+        return total;
+    }
+
+    /**
+     * @return time the workers spent ticking so far, summed over all workers
+     */
+    public long getBusyNanos() {
+        long total = 0;
+        for (Shard shard : shards) {
+            total += shard.busyNanos.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Stops ticking every session.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Runs a load test: for each session count, opens that many games
+     * played by simulated clients, and prints the heap used per session and
+     * the tick rate the host reached.
+     *
+     * @param args session counts (default 1000, 10000 and 50000)
+     * @throws InterruptedException if interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int[] counts = (args.length > 0)
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] {1_000, 10_000, 50_000};
+        int workers = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d workers, %d ticks/s per session%n", workers, DEFAULT_TICKS_PER_SECOND);
+        for (int count : counts) {
+            LoadReport report = measure(count, workers, DEFAULT_TICKS_PER_SECOND, 5_000);
+            System.out.println(report);
+        }
+    }
+
+    /**
+     * Result of {@link #measure}.
+     *
+     * @param sessions        sessions run
+     * @param bytesPerSession heap used per session
+     * @param ticksPerSecond  session ticks per second reached
+     * @param targetPerSecond session ticks per second asked for
+     * @param workerLoad      fraction of the workers' time spent ticking
+     * @param framesPerSecond frames published per second
+     */
+    public record LoadReport(int sessions, long bytesPerSession, double ticksPerSecond, double targetPerSecond,
+                             double workerLoad, double framesPerSecond) {
+
+        @Override
+        public String toString() {
+            return String.format("%,7d sessions: %,6d bytes each, %,12.0f ticks/s of %,12.0f (%.0f%%), "
+                            + "workers %.0f%% busy, %,10.0f frames/s", sessions, bytesPerSession, ticksPerSecond,
+                    targetPerSecond, 100 * ticksPerSecond / targetPerSecond, 100 * workerLoad, framesPerSecond);
+        }
+    }
+
+    /**
+     * Opens a number of sessions on a new host, plays them with simulated
+     * clients that each send about three inputs a second, and measures the
+     * host.
+     *
+     * @param count          sessions to open
+     * @param workers        worker threads of the host
+     * @param ticksPerSecond tick rate of every session
+     * @param millis         how long to play
+     * @return what was measured
+     * @throws InterruptedException if interrupted
+     */
+    public static LoadReport measure(int count, int workers, int ticksPerSecond, long millis)
+            throws InterruptedException {
+        EventType[] moves = EventType.values();
+        LongAdder frames = new LongAdder();
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+
+        try (GameHost host = start(workers, ticksPerSecond)) {
+            GameSession[] sessions = new GameSession[count];
+            for (int i = 0; i < count; i++) {
+                sessions[i] = host.open(i, frame -> frames.increment());
+            }
+            // Let every session run its first tick, which builds the rest of its state
+            Thread.sleep(200);
+            System.gc();
+            long footprint = (runtime.totalMemory() - runtime.freeMemory() - before) / count;
+
+            Random random = new Random(count);
+            long ticks = host.getSessionTicks();
+            long busy = host.getBusyNanos();
+            long published = frames.sum();
+            long start = System.nanoTime();
+            long end = start + TimeUnit.MILLISECONDS.toNanos(millis);
+            while (System.nanoTime() < end) {
+                // Every 50 ms, about one client in seven sends an input
+                for (GameSession session : sessions) {
+                    if (random.nextInt(7) == 0) {
+                        session.submit(moves[random.nextInt(moves.length)]);
+                    }
+                }
+                Thread.sleep(50);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            return new LoadReport(count, footprint, (host.getSessionTicks() - ticks) / seconds,
+                    (double) count * ticksPerSecond, (host.getBusyNanos() - busy) / 1e9 / seconds / workers,
+                    (frames.sum() - published) / seconds);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.comp2042.host;
+
+import com.comp2042.EventType;
+import com.comp2042.HeadlessGame;
+import com.comp2042.SimpleBoard;
+import com.comp2042.logic.bricks.RandomBrickGenerator;
+import com.comp2042.net.SpectatorFeed;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * One game run by a {@link GameHost}.
+ * <p>
+ * The session owns its board, its seeded brick generator and its clock.
+ * The clock is the number of ticks the host has run, not the wall clock,
+ * so gravity falls at the same point of the game however busy the host
+ * is. A client submits inputs from any thread; the host checks them when
+ * they arrive and applies them at the next tick, at most
+ * {@value #MAX_INPUTS_PER_TICK} per tick. After each tick that changed the
+ * game, the session publishes what changed as a frame of the spectator
+ * stream (see {@link com.comp2042.net.SpectatorProtocol}).
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class GameSession {
+
+    /** Board size of hosted games, the same as the desktop game. */
+    static final int BOARD_WIDTH = 10;
+    static final int BOARD_HEIGHT = 25;
+
+    /** Ticks between two gravity steps: 400 ms at 60 ticks per second, as in the desktop game. */
+    static final int GRAVITY_TICKS = 24;
+
+    /** Inputs applied in one tick at most; more wait for the next tick. */
+    static final int MAX_INPUTS_PER_TICK = 4;
+
+    /** Inputs a client may have waiting at most; more are rejected. */
+    static final int MAX_QUEUED_INPUTS = 32;
+
+    private final long id;
+    private final long seed;
+    private final HeadlessGame game;
+    private final SpectatorFeed feed = new SpectatorFeed();
+    private final Consumer<byte[]> publisher;
+
+    private final Queue<EventType> inputs = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger rejected = new AtomicInteger();
+
+    /** Written on the host thread only. */
+    private volatile long ticks;
+    private volatile boolean gameOver;
+    private volatile boolean closed;
+
+    /**
+     * Creates a session. Its first tick publishes a keyframe.
+     *
+     * @param id        id of the session in its host
+     * @param seed      seed of the brick sequence
+     * @param publisher receives every frame of the session, on the host thread
+     */
+    GameSession(long id, long seed, Consumer<byte[]> publisher) {
+        this.id = id;
+        this.seed = seed;
+        this.publisher = publisher;
+        this.game = new HeadlessGame(new SimpleBoard(BOARD_WIDTH, BOARD_HEIGHT, new RandomBrickGenerator(1, seed)));
+        this.gameOver = game.isGameOver();
+    }
+
+    /**
+     * Sends an input to the game. Can be called from any thread.
+     *
+     * @param type input of the player
+     * @return {@code true} if the input will be applied, {@code false} if it
+     *         was rejected because it is not an input, the game is over or
+     *         the client sends inputs faster than the session applies them
+     */
+    public boolean submit(EventType type) {
+        if (type == null || gameOver || closed) {
+            rejected.incrementAndGet();
+            return false;
+        }
+        if (queued.incrementAndGet() > MAX_QUEUED_INPUTS) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            return false;
+        }
+        inputs.add(type);
+        return true;
+    }
+
+    /**
+     * Advances the game by one tick: applies waiting inputs, lets gravity
+     * act when its time has come and publishes the changes. Called by the
+     * host thread only.
+     */
+    void tick() {
+        boolean changed = ticks == 0;
+        EventType type;
+        for (int i = 0; i < MAX_INPUTS_PER_TICK && (type = inputs.poll()) != null; i++) {
+            queued.decrementAndGet();
+            game.apply(type);
+            changed = true;
+        }
+        long now = ticks + 1;
+        if (now % GRAVITY_TICKS == 0) {
+            game.apply(EventType.DOWN);
+            changed = true;
+        }
+        ticks = now;
+        if (changed) {
+            gameOver = game.isGameOver();
+            publish();
+        }
+    }
+
+    private void publish() {
+        byte[] frame = feed.update(game.getBoard(), game.isGameOver());
+        if (frame != null) {
+            publisher.accept(frame);
+        }
+    }
+
+    /**
+     * Ends the session; the host stops running it at its next tick.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * @return {@code true} once the host no longer needs to run this session
+     */
+    boolean isFinished() {
+        return gameOver || closed;
+    }
+
+    /**
+     * @return id of the session in its host
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return seed of the brick sequence
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return ticks run so far, the clock of the session
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * @return {@code true} once a new brick could not be spawned
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * @return inputs rejected so far
+     */
+    public int getRejectedInputs() {
+        return rejected.get();
+    }
+
+    /**
+     * The game of this session. Only read it from the host thread, or once
+     * the session has finished.
+     *
+     * @return the game
+     */
+    HeadlessGame getGame() {
+        return game;
+    }
+}
@@ -0,0 +1,430 @@
+package com.comp2042.leaderboard;
+
+import com.comp2042.BackgroundWriter;
+import com.comp2042.stats.GameMetrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Score history of one leaderboard, with its top K entries kept in memory.
+ * <p>
+ * Every score is kept on disk in a crash-safe {@link ScoreLog}: a
+ * snapshot file ({@code <name>.dat}) plus an append-only log
+ * ({@code <name>.log}). Opening a store reads the best snapshot records,
+ * the score histogram stored with the snapshot and the log, so it does not
+ * grow with the number of games played. After that the best
+ * {@code capacity} entries live in a min-heap whose root is the entry
+ * that would be dropped next, so {@link #add} costs O(log K). The sorted
+ * view returned by {@link #top()} is cached, so reading the leaderboard
+ * does no work at all until the next insert.
+ * <p>
+ * Every score ever recorded is also counted in a {@link ScoreRankTree},
+ * so {@link #rank} and {@link #percentile} over the whole history cost
+ * O(log d) for d distinct scores.
+ * <p>
+ * Records are written behind: {@link #add} updates memory, so the new
+ * entry is visible at once, and queues the entry. A shared background
+ * writer thread appends all queued entries of the store in one pass, so
+ * several quick inserts cost one append, and compacts the log into the
+ * snapshot once it holds {@link #COMPACT_THRESHOLD} records. Pending
+ * writes are flushed when the JVM exits, or on demand with {@link #drain()}.
+ * An append that fails (a full disk, a lock held too long) keeps its
+ * entries pending, to be written by a later attempt.
+ * <p>
+ * Several processes may share the same files (see {@link ScoreLog} for
+ * the locking). Each append first picks up the scores other processes
+ * added since, so they appear here after the next save or an explicit
+ * {@link #refresh()} (see {@link LeaderboardWatcher} for calling it when
+ * the files change). Until its append, a new entry ranks after every
+ * stored entry with the same score. Listeners added with
+ * {@link #addListener} hear about every change, local or not.
+ * <p>
+ * Reads and appends are timed into {@link GameMetrics}.
+ * <p>
+ * Methods are synchronized; a store may be shared between threads.
+ *
+ * @author Chan Michelle
+ * @version 1.7
+ */
+public final class LeaderboardStore {
+
+    /** Number of entries kept by the game's leaderboards. */
+    public static final int DEFAULT_CAPACITY = 10;
+
+    /** Log records after which the log is folded into the snapshot. */
+    public static final int COMPACT_THRESHOLD = 1024;
+
+    /** Extension of the log file next to a snapshot. */
+    public static final String LOG_EXTENSION = ".log";
+
+    /** Appends tried in a row before a failing store waits for the next {@link #add}. */
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    private static final BackgroundWriter WRITER = new BackgroundWriter("leaderboard");
+
+    /**
+     * Sequence numbers of entries not yet appended start here, so that
+     * they rank after stored entries with the same score. The log
+     * assigns the final numbers.
+     */
+    private static final long PROVISIONAL_SEQUENCE = 1L << 62;
+
+    /** Worst entry first, so the root is the one to replace. */
+    private static final Comparator<ScoreEntry> WORST_FIRST = Comparator.reverseOrder();
+
+    private final Path file;
+    private final int capacity;
+    private final ScoreLog log;
+    private final PriorityQueue<ScoreEntry> heap;
+    private long nextProvisional = PROVISIONAL_SEQUENCE;
+
+    /** Every score in the history, including pending ones. */
+    private ScoreRankTree ranks = new ScoreRankTree();
+
+    /** Entries best first; rebuilt lazily after an insert. */
+    private List<ScoreEntry> sorted = Collections.emptyList();
+    private boolean sortedValid = true;
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    /** Entries added since the last append, in order. */
+    private List<ScoreEntry> pending = new ArrayList<>();
+    private boolean flushQueued;
+    private int failedFlushes;
+
+    private LeaderboardStore(Path file, int capacity) {
+        this.file = file;
+        this.capacity = capacity;
+        this.log = new ScoreLog(file, logFile(file), capacity);
+        this.heap = new PriorityQueue<>(capacity + 1, WORST_FIRST);
+    }
+
+    /**
+     * Opens a leaderboard, reading its history if it exists.
+     *
+     * @param file     snapshot file; the log is the sibling file with {@link #LOG_EXTENSION}
+     * @param capacity number of top entries to keep in memory
+     * @return opened store
+     * @throws IOException if the files exist but cannot be read or are not leaderboard files
+     */
+    public static LeaderboardStore open(Path file, int capacity) throws IOException {
+        LeaderboardStore store = new LeaderboardStore(file, capacity);
+        long start = System.nanoTime();
+        store.apply(store.log.load(), List.of());
+        GameMetrics.defaultMetrics().leaderboardIo(System.nanoTime() - start);
+        return store;
+    }
+
+    /**
+     * @param file snapshot file
+     * @return log file belonging to the snapshot
+     */
+    public static Path logFile(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return file.resolveSibling(((dot > 0) ? name.substring(0, dot) : name) + LOG_EXTENSION);
+    }
+
+    /**
+     * Reads every score in the history, including those of other processes.
+     *
+     * @param file snapshot file
+     * @return all entries, in sequence order
+     * @throws IOException if the files cannot be read
+     */
+    public static List<ScoreEntry> readHistory(Path file) throws IOException {
+        List<ScoreEntry> entries = new ArrayList<>();
+        new ScoreLog(file, logFile(file), 0).readAll(entries::add);
+        entries.sort(Comparator.comparingLong(ScoreEntry::sequence));
+        return entries;
+    }
+
+    /**
+     * Merges what the log reported into memory.
+     *
+     * @param changes  entries read from the files
+     * @param appended provisional entries that {@code changes} now holds
+     *                 under their final sequence numbers
+     */
+    private synchronized void apply(ScoreLog.Changes changes, List<ScoreEntry> appended) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (changes.reloaded()) {
+            heap.clear();
+            ranks = changes.snapshotRanks();
+            for (ScoreEntry entry : changes.snapshotTop()) {
+                offer(entry);
+            }
+            for (ScoreEntry entry : changes.appended()) {
+                ranks.add(entry.score());
+            }
+        } else {
+            // Appended entries were counted when they were added
+            for (ScoreEntry entry : appended) {
+                heap.remove(entry);
+            }
+        }
+        for (ScoreEntry entry : changes.entries()) {
+            offer(entry);
+            ranks.add(entry.score());
+        }
+        for (ScoreEntry entry : changes.appended()) {
+            offer(entry);
+        }
+        if (changes.reloaded()) {
+            // Entries still waiting for the writer are not in the files yet
+            for (ScoreEntry entry : pending) {
+                offer(entry);
+                ranks.add(entry.score());
+            }
+        }
+        sortedValid = false;
+    }
+
+    /**
+     * Puts an entry into the top-K heap if it ranks high enough.
+     *
+     * @return {@code true} if the entry is now in the top K
+     */
+    private boolean offer(ScoreEntry entry) {
+        if (heap.size() < capacity) {
+            heap.add(entry);
+            return true;
+        }
+        if (entry.compareTo(heap.peek()) < 0) {
+            heap.poll();
+            heap.add(entry);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records a score. Every score is kept in the history; only the best
+     * {@code capacity} appear in {@link #top()}.
+     *
+     * @param name  player name; longer names are cut to 31 UTF-8 bytes
+     * @param score final score
+     * @param time  time the score was set (epoch millis)
+     * @return {@code true} if the score made the top entries
+     */
+    public boolean add(String name, int score, long time) {
+        boolean top;
+        synchronized (this) {
+            ScoreEntry entry = new ScoreEntry(name, score, time, nextProvisional++);
+            ranks.add(score);
+            top = offer(entry);
+            if (top) {
+                sortedValid = false;
+            }
+
+            pending.add(entry);
+            if (!flushQueued) {
+                flushQueued = true;
+                WRITER.execute(this::flush);
+            }
+        }
+        fireChanged();
+        return top;
+    }
+
+    /**
+     * Adds a listener called after every change: a local {@link #add}, or
+     * scores of other processes read by {@link #refresh()} or an append.
+     * It is called on the thread that made the change, without locks held.
+     *
+     * @param listener listener to add
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener listener to remove
+     */
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireChanged() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * @return top entries, best first; the list is cached and unmodifiable
+     */
+    public synchronized List<ScoreEntry> top() {
+        if (!sortedValid) {
+            List<ScoreEntry> entries = new ArrayList<>(heap);
+            Collections.sort(entries);
+            sorted = Collections.unmodifiableList(entries);
+            sortedValid = true;
+        }
+        return sorted;
+    }
+
+    /**
+     * @return number of scores in the history
+     */
+    public synchronized long size() {
+        return ranks.size();
+    }
+
+    /**
+     * Ranks a score against the whole history. Equal scores share a rank.
+     *
+     * @param score score to rank
+     * @return 1 plus the number of stored scores higher than {@code score}
+     */
+    public synchronized long rank(int score) {
+        return ranks.rank(score);
+    }
+
+    /**
+     * @param score score to compare
+     * @return percentage (0 to 100) of stored scores lower than {@code score}; 0 if the history is empty
+     */
+    public synchronized double percentile(int score) {
+        return ranks.percentile(score);
+    }
+
+    /**
+     * @param score score to compare
+     * @return number of stored scores lower than {@code score}
+     */
+    public synchronized long countBelow(int score) {
+        return ranks.countBelow(score);
+    }
+
+    /**
+     * Picks up scores that other processes added since the last read.
+     * Costs a file size check when nothing changed.
+     *
+     * @return {@code true} if anything new was read
+     * @throws IOException if the files cannot be read
+     */
+    public boolean refresh() throws IOException {
+        ScoreLog.Changes changes;
+        synchronized (log) {
+            long start = System.nanoTime();
+            changes = log.refresh();
+            apply(changes, List.of());
+            GameMetrics.defaultMetrics().leaderboardIo(System.nanoTime() - start);
+        }
+        if (changes.isEmpty()) {
+            return false;
+        }
+        fireChanged();
+        return true;
+    }
+
+    /**
+     * Opens a paged view of the whole history, including entries not yet
+     * written. Listing every score best first opens at once; other orders
+     * and date ranges first scan the snapshot, so call this off the
+     * JavaFX thread.
+     *
+     * @param query order and date range
+     * @return view to be closed by the caller
+     * @throws IOException if the files cannot be read
+     */
+    public ScoreHistory history(ScoreQuery query) throws IOException {
+        List<ScoreEntry> unwritten;
+        ScoreLog.HistorySource source;
+        // Holding the log keeps the writer from moving entries between pending and the files
+        synchronized (log) {
+            synchronized (this) {
+                unwritten = new ArrayList<>(pending);
+            }
+            source = log.openHistory();
+        }
+        return ScoreHistory.open(source, unwritten, query);
+    }
+
+    /**
+     * Queues a compaction of the log into the snapshot.
+     */
+    public void compact() {
+        WRITER.execute(() -> {
+            try {
+                synchronized (log) {
+                    apply(log.compact(), List.of());
+                }
+            } catch (IOException e) {
+                System.out.println("Error compacting leaderboard: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * @return snapshot file of this leaderboard
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Appends all pending entries. Runs on the writer thread.
+     */
+    private void flush() {
+        ScoreLog.Changes changes;
+        synchronized (log) {
+            List<ScoreEntry> batch;
+            synchronized (this) {
+                batch = pending;
+                pending = new ArrayList<>();
+                flushQueued = false;
+            }
+            long start = System.nanoTime();
+            try {
+                changes = log.append(batch, COMPACT_THRESHOLD);
+            } catch (IOException e) {
+                System.out.println("Error saving leaderboard: " + e.getMessage());
+                retry(batch);
+                return;
+            }
+            apply(changes, batch);
+            GameMetrics.defaultMetrics().leaderboardIo(System.nanoTime() - start);
+            synchronized (this) {
+                failedFlushes = 0;
+            }
+        }
+        // Only scores of other processes are news; this store's own were announced by add
+        if (changes.reloaded() || !changes.entries().isEmpty()) {
+            fireChanged();
+        }
+    }
+
+    /**
+     * Puts a batch that could not be appended back in front of the entries
+     * added since, and queues another append, unless the last
+     * {@value #MAX_FLUSH_ATTEMPTS} failed in a row; the next {@link #add}
+     * then tries again.
+     */
+    private synchronized void retry(List<ScoreEntry> batch) {
+        batch.addAll(pending);
+        pending = batch;
+        failedFlushes++;
+        if (failedFlushes < MAX_FLUSH_ATTEMPTS && !flushQueued) {
+            flushQueued = true;
+            WRITER.execute(this::flush);
+        }
+    }
+
+    /**
+     * Waits until every queued leaderboard write has finished.
+     */
+    public static void drain() {
+        WRITER.drain();
+    }
+}
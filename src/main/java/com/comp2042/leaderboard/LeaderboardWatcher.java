@@ -0,0 +1,127 @@
+package com.comp2042.leaderboard;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Watches a leaderboard directory for files changed by other processes.
+ * <p>
+ * A daemon thread blocks on a {@link WatchService}, so nothing runs
+ * while no file changes. When files are created or modified, the names
+ * of all files changed in one burst are reported once each, on the watch
+ * thread. If the service loses events, the callback receives
+ * {@code null}, meaning that any file may have changed.
+ * <p>
+ * The callback should only catch up on the change (for a
+ * {@link LeaderboardStore}, {@link LeaderboardStore#refresh()} reads just
+ * the records appended since its last read); it must not block for long.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class LeaderboardWatcher implements AutoCloseable {
+
+    private final Path directory;
+    private final WatchService service;
+    private final Consumer<Path> onChange;
+    private final Thread thread;
+
+    private LeaderboardWatcher(Path directory, WatchService service, Consumer<Path> onChange) {
+        this.directory = directory;
+        this.service = service;
+        this.onChange = onChange;
+        this.thread = new Thread(this::run, "leaderboard-watcher");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Starts watching a directory.
+     *
+     * @param directory directory to watch (must exist)
+     * @param onChange  receives the path of each changed file, or {@code null} if events were lost
+     * @return running watcher
+     * @throws IOException if the directory cannot be watched
+     */
+    public static LeaderboardWatcher start(Path directory, Consumer<Path> onChange) throws IOException {
+        WatchService service = FileSystems.getDefault().newWatchService();
+        try {
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | RuntimeException e) {
+            service.close();
+            throw e;
+        }
+        LeaderboardWatcher watcher = new LeaderboardWatcher(directory, service, onChange);
+        watcher.thread.start();
+        return watcher;
+    }
+
+    /**
+     * @return the watched directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                Set<Path> changed = new LinkedHashSet<>();
+                boolean overflow = false;
+                // Gather everything already queued, so a burst of appends is handled once
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            overflow = true;
+                        } else {
+                            changed.add(directory.resolve((Path) event.context()));
+                        }
+                    }
+                    if (!key.reset()) {
+                        System.out.println("Leaderboard directory is no longer watched: " + directory);
+                        return;
+                    }
+                    key = service.poll();
+                }
+                notify(overflow ? null : changed);
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Closed: stop watching
+        }
+    }
+
+    private void notify(Set<Path> changed) {
+        try {
+            if (changed == null) {
+                onChange.accept(null);
+                return;
+            }
+            for (Path file : changed) {
+                onChange.accept(file);
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Error refreshing leaderboard: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops watching.
+     */
+    @Override
+    public void close() {
+        try {
+            service.close();
+        } catch (IOException e) {
+            System.out.println("Error closing leaderboard watcher: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.comp2042.leaderboard;
+
+/**
+ * One leaderboard score.
+ *
+ * @param name     player name
+ * @param score    final score
+ * @param time     time the score was set (epoch millis)
+ * @param sequence insertion order within its leaderboard; among equal
+ *                 scores the earlier entry ranks higher
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public record ScoreEntry(String name, int score, long time, long sequence) implements Comparable<ScoreEntry> {
+
+    /**
+     * Orders entries best first: higher score, then earlier sequence.
+     */
+    @Override
+    public int compareTo(ScoreEntry other) {
+        if (score != other.score) {
+            return Integer.compare(other.score, score);
+        }
+        return Long.compare(sequence, other.sequence);
+    }
+}
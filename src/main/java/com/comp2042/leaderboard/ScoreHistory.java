@@ -0,0 +1,300 @@
+package com.comp2042.leaderboard;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Read-only, paged view of the full score history of one leaderboard, as
+ * it was when the view was opened.
+ * <p>
+ * The view never loads the whole history. Snapshot records stay on disk
+ * and are read by position when a page is requested; only the log
+ * records, which are few, are held in memory. The view keeps its own
+ * handle on the snapshot file, so a compaction by another store or
+ * process does not change what it shows.
+ * <p>
+ * Listing all scores best first is served straight from the sorted
+ * snapshot: opening the view reads nothing but the log, and a page at any
+ * offset is found with a binary search over the snapshot and the sorted
+ * log records, so it costs O(log n) reads plus the page itself. Other
+ * orders and date ranges scan the snapshot once when the view is opened
+ * and keep the positions of matching records (four bytes per record).
+ * <p>
+ * A record that fails its checksum is shown as an entry named {@code ?}.
+ * Methods are synchronized; close the view when it is no longer needed.
+ *
+ * @author Chan Michelle
+ * @version 1.1
+ */
+public final class ScoreHistory implements AutoCloseable {
+
+    /** Records read per chunk while scanning the snapshot. */
+    private static final int SCAN_RECORDS = 1024;
+
+    private static final ScoreEntry DAMAGED = new ScoreEntry("?", 0, 0, -1);
+
+    private final FileChannel snapshot;
+    private final int recordBytes;
+    private final Comparator<ScoreEntry> order;
+
+    /** Snapshot records in the view; with {@code rows == null}, row i is record i. */
+    private final int snapshotRows;
+    private final int[] rows;
+
+    /** Log and pending entries in the view, in view order. */
+    private final List<ScoreEntry> extra;
+
+    private final ByteBuffer record;
+
+    /** Snapshot records read by pages so far. */
+    private long recordsRead;
+
+    private ScoreHistory(FileChannel snapshot, int recordBytes, Comparator<ScoreEntry> order,
+                         int snapshotRows, int[] rows, List<ScoreEntry> extra) {
+        this.snapshot = snapshot;
+        this.recordBytes = recordBytes;
+        this.order = order;
+        this.snapshotRows = snapshotRows;
+        this.rows = rows;
+        this.extra = extra;
+        this.record = ByteBuffer.allocate(recordBytes);
+    }
+
+    /**
+     * Builds a view. Takes ownership of the snapshot channel in {@code source}.
+     *
+     * @param source  snapshot and log records read under the log lock
+     * @param pending entries not yet written
+     * @param query   order and date range
+     * @return opened view
+     * @throws IOException if the snapshot cannot be read
+     */
+    static ScoreHistory open(ScoreLog.HistorySource source, List<ScoreEntry> pending, ScoreQuery query)
+            throws IOException {
+        Comparator<ScoreEntry> order = query.order().comparator();
+        List<ScoreEntry> extra = new ArrayList<>();
+        for (ScoreEntry entry : source.logged()) {
+            if (query.matches(entry)) {
+                extra.add(entry);
+            }
+        }
+        for (ScoreEntry entry : pending) {
+            if (query.matches(entry)) {
+                extra.add(entry);
+            }
+        }
+        extra.sort(order);
+
+        FileChannel channel = source.snapshot();
+        int version = source.version();
+        int recordBytes = (version == 1) ? ScoreLog.V1_RECORD_BYTES : ScoreLog.RECORD_BYTES;
+        if (channel == null) {
+            return new ScoreHistory(null, recordBytes, order, 0, null, extra);
+        }
+        try {
+            long end = Math.min(channel.size(), ScoreLog.recordsEnd(channel, version));
+            int records = (int) Math.max(0, (end - ScoreLog.HEADER_BYTES) / recordBytes);
+            boolean sorted = version == ScoreLog.SNAPSHOT_VERSION && query.order() == ScoreQuery.Order.BEST_FIRST;
+            if (sorted && !query.isFiltered()) {
+                return new ScoreHistory(channel, recordBytes, order, records, null, extra);
+            }
+            int[] rows = scan(channel, recordBytes, records, query, sorted);
+            return new ScoreHistory(channel, recordBytes, order, rows.length, rows, extra);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Finds the snapshot records matching the query and puts them in view order.
+     *
+     * @param sorted {@code true} if the snapshot is already in view order
+     */
+    private static int[] scan(FileChannel channel, int recordBytes, int records, ScoreQuery query, boolean sorted)
+            throws IOException {
+        int[] rows = new int[1024];
+        int[] scores = sorted ? null : new int[rows.length];
+        long[] times = sorted ? null : new long[rows.length];
+        long[] sequences = sorted ? null : new long[rows.length];
+        int matches = 0;
+
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_RECORDS * recordBytes);
+        int index = 0;
+        while (index < records) {
+            int chunk = Math.min(SCAN_RECORDS, records - index);
+            buffer.clear().limit(chunk * recordBytes);
+            readFully(channel, buffer, ScoreLog.HEADER_BYTES + (long) index * recordBytes);
+            buffer.flip();
+            for (int i = 0; i < chunk; i++, index++) {
+                ScoreEntry entry = decode(buffer, recordBytes);
+                if (entry == null || !query.matches(entry)) {
+                    continue;
+                }
+                if (matches == rows.length) {
+                    rows = Arrays.copyOf(rows, matches * 2);
+                    if (!sorted) {
+                        scores = Arrays.copyOf(scores, matches * 2);
+                        times = Arrays.copyOf(times, matches * 2);
+                        sequences = Arrays.copyOf(sequences, matches * 2);
+                    }
+                }
+                rows[matches] = index;
+                if (!sorted) {
+                    scores[matches] = entry.score();
+                    times[matches] = entry.time();
+                    sequences[matches] = entry.sequence();
+                }
+                matches++;
+            }
+        }
+        if (sorted) {
+            return Arrays.copyOf(rows, matches);
+        }
+
+        // Sort match numbers by the fields kept for them, then map back to rows
+        int[] s = scores;
+        long[] t = times;
+        long[] q = sequences;
+        IntBinaryOperator byOrder = (query.order() == ScoreQuery.Order.BEST_FIRST)
+                ? (x, y) -> (s[x] != s[y]) ? Integer.compare(s[y], s[x]) : Long.compare(q[x], q[y])
+                : (x, y) -> (t[x] != t[y]) ? Long.compare(t[y], t[x]) : Long.compare(q[y], q[x]);
+        int[] permutation = new int[matches];
+        for (int i = 0; i < matches; i++) {
+            permutation[i] = i;
+        }
+        sort(permutation, new int[matches], 0, matches, byOrder);
+        int[] ordered = new int[matches];
+        for (int i = 0; i < matches; i++) {
+            ordered[i] = rows[permutation[i]];
+        }
+        return ordered;
+    }
+
+    /**
+     * Merge sort of {@code values[from, to)} by a comparator, without boxing.
+     */
+    private static void sort(int[] values, int[] temp, int from, int to, IntBinaryOperator comparator) {
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                int value = values[i];
+                int j = i;
+                while (j > from && comparator.applyAsInt(values[j - 1], value) > 0) {
+                    values[j] = values[j - 1];
+                    j--;
+                }
+                values[j] = value;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(values, temp, from, mid, comparator);
+        sort(values, temp, mid, to, comparator);
+        if (comparator.applyAsInt(values[mid - 1], values[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(values, from, temp, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid && comparator.applyAsInt(temp[left], temp[right]) <= 0)) {
+                values[i] = temp[left++];
+            } else {
+                values[i] = temp[right++];
+            }
+        }
+    }
+
+    /**
+     * @return number of entries in the view
+     */
+    public int size() {
+        return snapshotRows + extra.size();
+    }
+
+    /**
+     * Reads entries of the view.
+     *
+     * @param offset index of the first entry
+     * @param limit  maximum number of entries
+     * @return entries from {@code offset}, in view order; empty past the end
+     * @throws IOException if the snapshot cannot be read
+     */
+    public synchronized List<ScoreEntry> page(int offset, int limit) throws IOException {
+        int n = snapshotRows;
+        int m = extra.size();
+        if (offset < 0 || limit <= 0 || offset >= n + m) {
+            return Collections.emptyList();
+        }
+
+        // Find how many of the first 'offset' entries come from the snapshot
+        int low = Math.max(0, offset - m);
+        int high = Math.min(offset, n);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (order.compare(snapshotAt(mid), extra.get(offset - mid - 1)) > 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        List<ScoreEntry> page = new ArrayList<>(Math.min(limit, n + m - offset));
+        int a = low;
+        int b = offset - low;
+        ScoreEntry next = (a < n) ? snapshotAt(a) : null;
+        while (page.size() < limit && (a < n || b < m)) {
+            if (b >= m || (a < n && order.compare(next, extra.get(b)) < 0)) {
+                page.add(next);
+                a++;
+                next = (a < n) ? snapshotAt(a) : null;
+            } else {
+                page.add(extra.get(b++));
+            }
+        }
+        return page;
+    }
+
+    /**
+     * @return snapshot records read by {@link #page} so far
+     */
+    synchronized long recordsRead() {
+        return recordsRead;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (snapshot != null) {
+            snapshot.close();
+        }
+    }
+
+    private ScoreEntry snapshotAt(int index) throws IOException {
+        int row = (rows == null) ? index : rows[index];
+        record.clear();
+        recordsRead++;
+        readFully(snapshot, record, ScoreLog.HEADER_BYTES + (long) row * recordBytes);
+        record.flip();
+        ScoreEntry entry = decode(record, recordBytes);
+        return (entry == null) ? DAMAGED : entry;
+    }
+
+    private static ScoreEntry decode(ByteBuffer buffer, int recordBytes) {
+        return (recordBytes == ScoreLog.RECORD_BYTES) ? ScoreLog.readRecord(buffer) : ScoreLog.readRecordV1(buffer);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of leaderboard file");
+            }
+        }
+    }
+}
@@ -0,0 +1,849 @@
+package com.comp2042.leaderboard;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Crash-safe storage for the full score history of one leaderboard,
+ * shared safely between processes.
+ * <p>
+ * New scores are appended to a log file; an append never rewrites
+ * existing data, so it costs O(1) and a crash can at worst leave a torn
+ * record at the end. From time to time the log is compacted: the
+ * snapshot and the log are merged into a temporary file, which then
+ * replaces the snapshot with an atomic {@link Files#move}, after which
+ * the log is emptied. Every record carries a CRC32C checksum.
+ * <p>
+ * The snapshot keeps its records sorted best first and ends with a
+ * {@link ScoreRankTree} histogram of all its scores. Opening a
+ * leaderboard therefore reads only the top records, the histogram and
+ * the log, however many games the snapshot holds.
+ * <p>
+ * Several game instances may use the same files. Every change happens
+ * under an exclusive {@link FileChannel#lock} on the log, and reads take
+ * a shared lock. The log is never replaced, only truncated, so its lock
+ * covers the snapshot as well. Each instance remembers how far it has
+ * read the log; before changing anything it first catches up on the
+ * records other instances appended since (an optimistic re-read). If the
+ * log was compacted in the meantime, which bumps the epoch in its header,
+ * everything is read again. Sequence numbers are assigned under the lock,
+ * so they are unique and increasing across processes. Within one process
+ * a lock held by another thread is retried after a short pause.
+ * <p>
+ * Recovery skips records whose checksum does not match. A torn tail is
+ * overwritten by the next append. Log records already contained in the
+ * snapshot (left behind by a crash between the move and emptying the log)
+ * are recognised by their sequence number and skipped.
+ * <p>
+ * Both files start with a 16-byte header: int magic ('TLBD' for the
+ * snapshot, 'TLBL' for the log), short version, short record size and a
+ * long holding the compaction epoch in the log and the record count in
+ * the snapshot. A record is:
+ * <pre>
+ *   byte name length, 31 bytes UTF-8 name, int score, long time, long sequence, int CRC32C
+ * </pre>
+ * A version 3 snapshot follows its records with the encoded histogram and
+ * a footer: long last sequence, int histogram length, int histogram
+ * CRC32C, int magic 'TLBH'. Version 1 and 2 snapshots (unsorted, without
+ * histogram) are still read and are replaced at the next compaction.
+ * <p>
+ * Methods are synchronized on the instance.
+ *
+ * @author Chan Michelle
+ * @version 1.3
+ */
+final class ScoreLog {
+
+    static final int SNAPSHOT_MAGIC = 0x544C4244;
+    static final int LOG_MAGIC = 0x544C424C;
+    static final int FOOTER_MAGIC = 0x544C4248;
+    static final short LOG_VERSION = 2;
+    static final short SNAPSHOT_VERSION = 3;
+
+    static final int HEADER_BYTES = 16;
+    static final int NAME_BYTES = 31;
+    static final int DATA_BYTES = 1 + NAME_BYTES + 4 + 8 + 8;
+    static final int RECORD_BYTES = DATA_BYTES + 4;
+    static final int FOOTER_BYTES = 8 + 4 + 4 + 4;
+
+    /** Version 1 record: the same fields without a checksum. */
+    static final int V1_RECORD_BYTES = DATA_BYTES;
+
+    /** Records read per chunk while scanning a file. */
+    private static final int SCAN_RECORDS = 1024;
+
+    /** Longest time to wait for a lock held by another thread of this process. */
+    private static final long LOCK_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * Records read while catching up with the files.
+     *
+     * @param reloaded    {@code true} if the history was read again and
+     *                    replaces what the caller knew; otherwise
+     *                    {@code entries} are only the records added since
+     *                    the last call
+     * @param snapshotTop best records of the snapshot, best first (empty unless reloaded)
+     * @param snapshotRanks histogram of every snapshot score (empty unless reloaded)
+     * @param entries     log records read, in sequence order
+     * @param appended    records appended by this call, with their final sequence numbers
+     */
+    record Changes(boolean reloaded, List<ScoreEntry> snapshotTop, ScoreRankTree snapshotRanks,
+                   List<ScoreEntry> entries, List<ScoreEntry> appended) {
+
+        boolean isEmpty() {
+            return !reloaded && entries.isEmpty() && appended.isEmpty();
+        }
+    }
+
+    /**
+     * The history at one point in time, for a {@link ScoreHistory}.
+     *
+     * @param snapshot open snapshot channel, or {@code null} if there is no snapshot
+     * @param version  snapshot version
+     * @param logged   log records not contained in the snapshot, in sequence order
+     */
+    record HistorySource(FileChannel snapshot, int version, List<ScoreEntry> logged) {
+    }
+
+    /**
+     * What a reload needs from the snapshot.
+     *
+     * @param version      snapshot version (0 if there is no snapshot)
+     * @param count        number of records
+     * @param top          best records, best first
+     * @param ranks        histogram of all scores
+     * @param lastSequence highest sequence number in the snapshot
+     */
+    private record SnapshotInfo(int version, long count, List<ScoreEntry> top, ScoreRankTree ranks,
+                                long lastSequence) {
+    }
+
+    private final Path snapshot;
+    private final Path log;
+    private final int topCount;
+
+    /** Whether the history has been read at least once. */
+    private boolean loaded;
+
+    /** Log epoch and offset up to which the log has been read. */
+    private long knownEpoch;
+    private long knownPosition;
+
+    /** Highest sequence number seen. */
+    private long lastSequence = -1;
+
+    /** Number of valid records in the log. */
+    private int logRecords;
+
+    /**
+     * @param snapshot snapshot file
+     * @param log      log file
+     * @param topCount number of best snapshot records to report on a reload
+     */
+    ScoreLog(Path snapshot, Path log, int topCount) {
+        this.snapshot = snapshot;
+        this.log = log;
+        this.topCount = topCount;
+    }
+
+    /**
+     * Reads the history: the best snapshot records, the snapshot
+     * histogram and the log.
+     *
+     * @return reloaded state
+     * @throws IOException if a file cannot be read or has an unknown format
+     */
+    synchronized Changes load() throws IOException {
+        loaded = false;
+        return refresh();
+    }
+
+    /**
+     * Reads every record of the history, snapshot first (best first) and
+     * then the log (in sequence order).
+     *
+     * @param sink receives every entry
+     * @throws IOException if a file cannot be read or has an unknown format
+     */
+    synchronized void readAll(Consumer<ScoreEntry> sink) throws IOException {
+        if (!Files.exists(log)) {
+            readAllLocked(null, sink);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+            whileLocked(channel, true, () -> {
+                readAllLocked(channel, sink);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Opens the snapshot and reads the log records not yet compacted into
+     * it, under a shared lock so that both belong to the same point in time.
+     * The caller owns the returned snapshot channel.
+     *
+     * @return snapshot channel and log records
+     * @throws IOException if a file cannot be read or has an unknown format
+     */
+    synchronized HistorySource openHistory() throws IOException {
+        if (!Files.exists(log)) {
+            return openHistoryLocked(null);
+        }
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+            return whileLocked(channel, true, () -> openHistoryLocked(channel));
+        }
+    }
+
+    private HistorySource openHistoryLocked(FileChannel logChannel) throws IOException {
+        SnapshotInfo info = readSnapshotInfo();
+        List<ScoreEntry> logged = new ArrayList<>();
+        if (logChannel != null && logChannel.size() >= HEADER_BYTES) {
+            readHeader(logChannel, LOG_MAGIC);
+            scan(logChannel, RECORD_BYTES, HEADER_BYTES, Long.MAX_VALUE, entry -> {
+                if (entry.sequence() > info.lastSequence()) {
+                    logged.add(entry);
+                }
+            });
+        }
+        FileChannel channel = (info.version() == 0) ? null : FileChannel.open(snapshot, StandardOpenOption.READ);
+        return new HistorySource(channel, info.version(), logged);
+    }
+
+    private void readAllLocked(FileChannel logChannel, Consumer<ScoreEntry> sink) throws IOException {
+        long snapshotLast = readSnapshotRecords(sink);
+        if (logChannel != null && logChannel.size() >= HEADER_BYTES) {
+            readHeader(logChannel, LOG_MAGIC);
+            scan(logChannel, RECORD_BYTES, HEADER_BYTES, Long.MAX_VALUE, entry -> {
+                if (entry.sequence() > snapshotLast) {
+                    sink.accept(entry);
+                }
+            });
+        }
+    }
+
+    /**
+     * Reads whatever other processes added since the last call. Returns
+     * at once without locking if the log has not changed.
+     *
+     * @return changes since the last call
+     * @throws IOException if a file cannot be read
+     */
+    synchronized Changes refresh() throws IOException {
+        if (loaded && unchanged()) {
+            return new Changes(false, List.of(), null, List.of(), List.of());
+        }
+        if (!Files.exists(log)) {
+            // Nothing to lock yet: only a snapshot can exist
+            return catchUp(null);
+        }
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+            return whileLocked(channel, true, () -> catchUp(channel));
+        }
+    }
+
+    /**
+     * Appends entries to the log and forces them to disk, first catching
+     * up on records appended by other processes. Compacts the log once it
+     * holds {@code compactThreshold} records; a failed compaction does not
+     * fail the append, since the entries are already in the log.
+     *
+     * @param entries          entries to append; their sequence numbers are replaced
+     * @param compactThreshold log records that trigger a compaction
+     * @return records added by others, and the appended entries with their final sequence numbers
+     * @throws IOException if the log cannot be written; the entries were not appended and may be
+     *                     appended again
+     */
+    synchronized Changes append(List<ScoreEntry> entries, int compactThreshold) throws IOException {
+        createParent(log);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return whileLocked(channel, false, () -> appendLocked(channel, entries, compactThreshold));
+        }
+    }
+
+    private Changes appendLocked(FileChannel channel, List<ScoreEntry> entries, int compactThreshold)
+            throws IOException {
+        Changes changes = catchUp(channel);
+
+        List<ScoreEntry> appended = new ArrayList<>(entries.size());
+        ByteBuffer buffer = ByteBuffer.allocate(entries.size() * RECORD_BYTES);
+        for (ScoreEntry entry : entries) {
+            ScoreEntry numbered = new ScoreEntry(entry.name(), entry.score(), entry.time(), ++lastSequence);
+            appended.add(numbered);
+            putRecord(buffer, numbered);
+        }
+
+        if (knownPosition < HEADER_BYTES) {
+            writeFully(channel, header(LOG_MAGIC, LOG_VERSION, knownEpoch), 0);
+            knownPosition = HEADER_BYTES;
+        }
+        // Writing at the end of the last valid record overwrites a torn tail
+        writeFully(channel, buffer.flip(), knownPosition);
+        knownPosition += (long) entries.size() * RECORD_BYTES;
+        if (channel.size() > knownPosition) {
+            channel.truncate(knownPosition);
+        }
+        channel.force(false);
+        logRecords += entries.size();
+
+        if (logRecords >= compactThreshold) {
+            try {
+                compactLocked(channel);
+            } catch (IOException e) {
+                // The entries are safe in the log; the next append tries again
+                System.out.println("Error compacting leaderboard: " + e.getMessage());
+            }
+        }
+        return new Changes(changes.reloaded(), changes.snapshotTop(), changes.snapshotRanks(),
+                changes.entries(), appended);
+    }
+
+    /**
+     * Folds the log into the snapshot, first catching up on records
+     * appended by other processes.
+     *
+     * @return records added by others
+     * @throws IOException if the files cannot be written; the old snapshot and log then stay valid
+     */
+    synchronized Changes compact() throws IOException {
+        createParent(log);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return whileLocked(channel, false, () -> {
+                Changes changes = catchUp(channel);
+                compactLocked(channel);
+                return changes;
+            });
+        }
+    }
+
+    /**
+     * @return number of records in the log since the last compaction
+     */
+    synchronized int logRecords() {
+        return logRecords;
+    }
+
+    // ---------------------------------------------------------------
+    // Locked operations
+    // ---------------------------------------------------------------
+
+    /**
+     * Cheap check, without locking, for changes since the last read.
+     */
+    private boolean unchanged() throws IOException {
+        if (!Files.exists(log)) {
+            return knownPosition == 0;
+        }
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+            return channel.size() == knownPosition && readEpoch(channel) == knownEpoch;
+        }
+    }
+
+    /**
+     * Brings the known state up to date. Must hold a lock on {@code channel}.
+     *
+     * @param channel log channel, or {@code null} if there is no log
+     */
+    private Changes catchUp(FileChannel channel) throws IOException {
+        long size = (channel == null) ? 0 : channel.size();
+        long epoch = (size >= HEADER_BYTES) ? readEpoch(channel) : 0;
+        List<ScoreEntry> entries = new ArrayList<>();
+
+        boolean reload = !loaded || epoch != knownEpoch || size < knownPosition;
+        SnapshotInfo info = null;
+        if (reload) {
+            // First read, or someone compacted (or replaced the files): read everything again
+            info = readSnapshotInfo();
+            long snapshotLast = info.lastSequence();
+            lastSequence = snapshotLast;
+            logRecords = 0;
+            knownPosition = 0;
+            if (size >= HEADER_BYTES) {
+                readHeader(channel, LOG_MAGIC);
+                knownPosition = scan(channel, RECORD_BYTES, HEADER_BYTES, Long.MAX_VALUE, entry -> {
+                    logRecords++;
+                    if (entry.sequence() > snapshotLast) {
+                        entries.add(entry);
+                        lastSequence = Math.max(lastSequence, entry.sequence());
+                    }
+                });
+            }
+            knownEpoch = epoch;
+            loaded = true;
+        } else if (size > knownPosition && size >= HEADER_BYTES) {
+            if (knownPosition < HEADER_BYTES) {
+                // The log was created by someone else since the last read
+                readHeader(channel, LOG_MAGIC);
+                knownPosition = HEADER_BYTES;
+            }
+            knownPosition = scan(channel, RECORD_BYTES, knownPosition, Long.MAX_VALUE, entry -> {
+                logRecords++;
+                entries.add(entry);
+                lastSequence = Math.max(lastSequence, entry.sequence());
+            });
+        }
+        return (info == null)
+                ? new Changes(false, List.of(), null, entries, List.of())
+                : new Changes(true, info.top(), info.ranks(), entries, List.of());
+    }
+
+    /**
+     * Reads the best records, histogram and last sequence of the snapshot.
+     * For a version 3 snapshot this reads only the first records and the
+     * footer; older snapshots are scanned in full.
+     */
+    private SnapshotInfo readSnapshotInfo() throws IOException {
+        if (!Files.exists(snapshot)) {
+            return new SnapshotInfo(0, 0, List.of(), new ScoreRankTree(), -1);
+        }
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            int version = readHeader(channel, SNAPSHOT_MAGIC);
+            if (version == SNAPSHOT_VERSION) {
+                SnapshotInfo info = readSortedSnapshotInfo(channel);
+                if (info != null) {
+                    return info;
+                }
+                // Damaged footer: fall back to reading every record
+            }
+
+            ScoreRankTree ranks = new ScoreRankTree();
+            PriorityQueue<ScoreEntry> best = new PriorityQueue<>(Comparator.reverseOrder());
+            long[] last = {-1};
+            long[] count = {0};
+            scan(channel, recordBytes(version), HEADER_BYTES, recordsEnd(channel, version), entry -> {
+                ranks.add(entry.score());
+                last[0] = Math.max(last[0], entry.sequence());
+                count[0]++;
+                best.add(entry);
+                if (best.size() > topCount) {
+                    best.poll();
+                }
+            });
+            List<ScoreEntry> top = new ArrayList<>(best);
+            top.sort(null);
+            return new SnapshotInfo(version, count[0], top, ranks, last[0]);
+        }
+    }
+
+    /**
+     * @return info read from the front and the footer, or {@code null} if the footer is damaged
+     */
+    private SnapshotInfo readSortedSnapshotInfo(FileChannel channel) throws IOException {
+        long count = readHeaderBytes(channel).getLong(8);
+        long recordsEnd = HEADER_BYTES + count * RECORD_BYTES;
+        long size = channel.size();
+        if (size < recordsEnd + FOOTER_BYTES) {
+            return null;
+        }
+        ByteBuffer footer = readAt(channel, size - FOOTER_BYTES, FOOTER_BYTES);
+        long last = footer.getLong();
+        int histogramBytes = footer.getInt();
+        int histogramCrc = footer.getInt();
+        if (footer.getInt() != FOOTER_MAGIC || recordsEnd + histogramBytes + FOOTER_BYTES != size) {
+            return null;
+        }
+        ByteBuffer histogram = readAt(channel, recordsEnd, histogramBytes);
+        CRC32C crc = new CRC32C();
+        crc.update(histogram.duplicate());
+        if ((int) crc.getValue() != histogramCrc) {
+            return null;
+        }
+        ScoreRankTree ranks;
+        try {
+            ranks = ScoreRankTree.decode(histogram);
+        } catch (RuntimeException e) {
+            return null;
+        }
+
+        List<ScoreEntry> top = new ArrayList<>();
+        long topEnd = HEADER_BYTES + Math.min(count, topCount) * (long) RECORD_BYTES;
+        scan(channel, RECORD_BYTES, HEADER_BYTES, topEnd, top::add);
+        return new SnapshotInfo(SNAPSHOT_VERSION, count, top, ranks, last);
+    }
+
+    /**
+     * Streams the snapshot records.
+     *
+     * @return highest sequence number in the snapshot, or -1
+     */
+    private long readSnapshotRecords(Consumer<ScoreEntry> sink) throws IOException {
+        if (!Files.exists(snapshot)) {
+            return -1;
+        }
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            int version = readHeader(channel, SNAPSHOT_MAGIC);
+            long[] last = {-1};
+            scan(channel, recordBytes(version), HEADER_BYTES, recordsEnd(channel, version), entry -> {
+                last[0] = Math.max(last[0], entry.sequence());
+                sink.accept(entry);
+            });
+            return last[0];
+        }
+    }
+
+    private static int recordBytes(int version) {
+        return (version == 1) ? V1_RECORD_BYTES : RECORD_BYTES;
+    }
+
+    /**
+     * @return end of the record area; version 3 snapshots are followed by the histogram
+     */
+    static long recordsEnd(FileChannel channel, int version) throws IOException {
+        if (version != SNAPSHOT_VERSION) {
+            return Long.MAX_VALUE;
+        }
+        return HEADER_BYTES + readHeaderBytes(channel).getLong(8) * RECORD_BYTES;
+    }
+
+    /**
+     * Writes the snapshot and resets the log. Must hold the exclusive
+     * lock and be caught up.
+     */
+    private void compactLocked(FileChannel logChannel) throws IOException {
+        SnapshotInfo info = readSnapshotInfo();
+        long snapshotLast = info.lastSequence();
+
+        // The log holds at most a few thousand records; sort them in memory
+        List<ScoreEntry> logged = new ArrayList<>();
+        if (knownPosition >= HEADER_BYTES) {
+            scan(logChannel, RECORD_BYTES, HEADER_BYTES, knownPosition, entry -> {
+                if (entry.sequence() > snapshotLast) {
+                    logged.add(entry);
+                }
+            });
+        }
+        logged.sort(null);
+
+        Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            SnapshotWriter writer = new SnapshotWriter(out);
+            try {
+                if (info.version() == SNAPSHOT_VERSION) {
+                    // Both inputs are sorted best first: merge them in one pass
+                    int[] next = {0};
+                    readSnapshotRecords(entry -> {
+                        while (next[0] < logged.size() && logged.get(next[0]).compareTo(entry) < 0) {
+                            writer.accept(logged.get(next[0]++));
+                        }
+                        writer.accept(entry);
+                    });
+                    for (int i = next[0]; i < logged.size(); i++) {
+                        writer.accept(logged.get(i));
+                    }
+                } else {
+                    // An old unsorted snapshot is sorted once, here
+                    List<ScoreEntry> all = new ArrayList<>(logged);
+                    readSnapshotRecords(all::add);
+                    all.sort(null);
+                    all.forEach(writer);
+                }
+                writer.finish(Math.max(snapshotLast, lastSequence));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.force(true);
+        }
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // A new epoch tells other processes that the log was folded away
+        knownEpoch++;
+        logChannel.truncate(HEADER_BYTES);
+        writeFully(logChannel, header(LOG_MAGIC, LOG_VERSION, knownEpoch), 0);
+        logChannel.force(true);
+        knownPosition = HEADER_BYTES;
+        logRecords = 0;
+    }
+
+    /**
+     * Writes sorted records, then the histogram, footer and header, of a snapshot.
+     */
+    private static final class SnapshotWriter implements Consumer<ScoreEntry> {
+        private final FileChannel out;
+        private final ByteBuffer buffer = ByteBuffer.allocate(SCAN_RECORDS * RECORD_BYTES);
+        private final ScoreRankTree ranks = new ScoreRankTree();
+        private final long[] position = {HEADER_BYTES};
+        private long count;
+
+        private SnapshotWriter(FileChannel out) {
+            this.out = out;
+        }
+
+        @Override
+        public void accept(ScoreEntry entry) {
+            if (!buffer.hasRemaining()) {
+                flushBuffer(out, buffer, position);
+            }
+            putRecord(buffer, entry);
+            ranks.add(entry.score());
+            count++;
+        }
+
+        private void finish(long lastSequence) throws IOException {
+            flushBuffer(out, buffer, position);
+
+            ByteBuffer histogram = ByteBuffer.allocate(ranks.maxEncodedBytes());
+            ranks.encode(histogram);
+            histogram.flip();
+            CRC32C crc = new CRC32C();
+            crc.update(histogram.duplicate());
+
+            ByteBuffer footer = ByteBuffer.allocate(FOOTER_BYTES);
+            footer.putLong(lastSequence).putInt(histogram.remaining()).putInt((int) crc.getValue())
+                    .putInt(FOOTER_MAGIC);
+            long histogramStart = position[0];
+            writeFully(out, histogram, histogramStart);
+            writeFully(out, footer.flip(), histogramStart + histogram.limit());
+            writeFully(out, header(SNAPSHOT_MAGIC, SNAPSHOT_VERSION, count), 0);
+        }
+    }
+
+    /**
+     * Work done while holding a lock on the log.
+     */
+    @FunctionalInterface
+    private interface LockedWork<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * Runs some work while holding a lock on the whole file, then releases it.
+     */
+    private static <T> T whileLocked(FileChannel channel, boolean shared, LockedWork<T> work) throws IOException {
+        FileLock lock = acquire(channel, shared);
+        try {
+            return work.run();
+        } finally {
+            lock.release();
+        }
+    }
+
+    /**
+     * Locks the whole file, retrying while another thread of this process holds it.
+     */
+    private static FileLock acquire(FileChannel channel, boolean shared) throws IOException {
+        long deadline = System.currentTimeMillis() + LOCK_TIMEOUT_MILLIS;
+        while (true) {
+            try {
+                // Blocks while another process holds a conflicting lock
+                return channel.lock(0, Long.MAX_VALUE, shared);
+            } catch (OverlappingFileLockException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IOException("Timed out waiting for leaderboard lock", e);
+                }
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted waiting for leaderboard lock", interrupted);
+                }
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Encoding
+    // ---------------------------------------------------------------
+
+    private static ByteBuffer header(int magic, short version, long value) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(magic).putShort(version).putShort((short) RECORD_BYTES).putLong(value);
+        return header.flip();
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of leaderboard file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static ByteBuffer readHeaderBytes(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        int read = 0;
+        while (header.hasRemaining()) {
+            int n = channel.read(header, read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+        return header.flip();
+    }
+
+    private static long readEpoch(FileChannel channel) throws IOException {
+        ByteBuffer header = readHeaderBytes(channel);
+        return (header.remaining() < HEADER_BYTES) ? 0 : header.getLong(8);
+    }
+
+    /**
+     * Checks a file header.
+     *
+     * @return version of the file
+     */
+    private static int readHeader(FileChannel channel, int magic) throws IOException {
+        ByteBuffer header = readHeaderBytes(channel);
+        if (header.remaining() < HEADER_BYTES || header.getInt() != magic) {
+            throw new IOException("Not a leaderboard file");
+        }
+        short version = header.getShort();
+        short recordBytes = header.getShort();
+        if (magic == LOG_MAGIC && version == LOG_VERSION && recordBytes == RECORD_BYTES) {
+            return version;
+        }
+        if (magic == SNAPSHOT_MAGIC && (version == 2 || version == SNAPSHOT_VERSION) && recordBytes == RECORD_BYTES) {
+            return version;
+        }
+        if (magic == SNAPSHOT_MAGIC && version == 1 && recordBytes == V1_RECORD_BYTES) {
+            return version;
+        }
+        throw new IOException("Unsupported leaderboard version " + version);
+    }
+
+    /**
+     * Reads records from {@code start} up to {@code end} or the end of the
+     * file. Records failing their checksum are skipped.
+     *
+     * @return offset just after the last valid record
+     */
+    private static long scan(FileChannel channel, int recordBytes, long start, long end,
+                             Consumer<ScoreEntry> sink) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_RECORDS * recordBytes);
+        long position = start;
+        long validEnd = start;
+        while (true) {
+            buffer.clear();
+            if (end - position < buffer.capacity()) {
+                buffer.limit((int) Math.max(0, end - position));
+            }
+            int read = 0;
+            while (buffer.hasRemaining()) {
+                int n = channel.read(buffer, position + read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+            buffer.flip();
+            while (buffer.remaining() >= recordBytes) {
+                int recordStart = buffer.position();
+                ScoreEntry entry = (recordBytes == RECORD_BYTES) ? readRecord(buffer) : readRecordV1(buffer);
+                position += recordBytes;
+                if (entry != null) {
+                    sink.accept(entry);
+                    validEnd = position;
+                }
+                buffer.position(recordStart + recordBytes);
+            }
+            if (read < buffer.capacity()) {
+                // Whatever is left is shorter than a record: a torn tail (or the end of the records)
+                return validEnd;
+            }
+        }
+    }
+
+    static void putRecord(ByteBuffer buffer, ScoreEntry entry) {
+        int start = buffer.position();
+        byte[] name = truncate(entry.name());
+        buffer.put((byte) name.length);
+        buffer.put(name);
+        buffer.position(buffer.position() + NAME_BYTES - name.length);
+        buffer.putInt(entry.score());
+        buffer.putLong(entry.time());
+        buffer.putLong(entry.sequence());
+        buffer.putInt(checksum(buffer, start));
+    }
+
+    /**
+     * @return the record, or {@code null} if its checksum does not match
+     */
+    static ScoreEntry readRecord(ByteBuffer buffer) {
+        int start = buffer.position();
+        ScoreEntry entry = readRecordV1(buffer);
+        int expected = checksum(buffer, start);
+        return (buffer.getInt() == expected) ? entry : null;
+    }
+
+    static ScoreEntry readRecordV1(ByteBuffer buffer) {
+        int length = Math.min(buffer.get() & 0xFF, NAME_BYTES);
+        byte[] name = new byte[NAME_BYTES];
+        buffer.get(name);
+        int score = buffer.getInt();
+        long time = buffer.getLong();
+        long sequence = buffer.getLong();
+        return new ScoreEntry(new String(name, 0, length, StandardCharsets.UTF_8), score, time, sequence);
+    }
+
+    private static int checksum(ByteBuffer buffer, int start) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(start).limit(start + DATA_BYTES));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Encodes a name in at most {@link #NAME_BYTES} bytes without splitting a character.
+     */
+    private static byte[] truncate(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= NAME_BYTES) {
+            return bytes;
+        }
+        int end = NAME_BYTES;
+        // Back up over UTF-8 continuation bytes (10xxxxxx)
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        byte[] cut = new byte[end];
+        System.arraycopy(bytes, 0, cut, 0, end);
+        return cut;
+    }
+
+    // ---------------------------------------------------------------
+    // File helpers
+    // ---------------------------------------------------------------
+
+    private static void flushBuffer(FileChannel out, ByteBuffer buffer, long[] position) {
+        buffer.flip();
+        try {
+            long start = position[0];
+            position[0] += buffer.remaining();
+            writeFully(out, buffer, start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+    }
+
+    private static void createParent(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.comp2042.leaderboard;
+
+import java.util.Comparator;
+
+/**
+ * Order and date range of a {@link ScoreHistory}.
+ *
+ * @param order order of the entries
+ * @param from  earliest time included (epoch millis)
+ * @param until first time no longer included (epoch millis)
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public record ScoreQuery(Order order, long from, long until) {
+
+    /** Every score, best first. */
+    public static final ScoreQuery ALL = new ScoreQuery(Order.BEST_FIRST, Long.MIN_VALUE, Long.MAX_VALUE);
+
+    /** Orders a history can be listed in. */
+    public enum Order {
+        /** Higher score first, then the earlier entry. */
+        BEST_FIRST(Comparator.naturalOrder()),
+        /** Most recent first. */
+        NEWEST_FIRST(Comparator.comparingLong(ScoreEntry::time).thenComparingLong(ScoreEntry::sequence).reversed());
+
+        private final Comparator<ScoreEntry> comparator;
+
+        Order(Comparator<ScoreEntry> comparator) {
+            this.comparator = comparator;
+        }
+
+        /**
+         * @return comparator putting entries in this order
+         */
+        public Comparator<ScoreEntry> comparator() {
+            return comparator;
+        }
+    }
+
+    /**
+     * @param order order of the entries
+     * @return query for every score in that order
+     */
+    public static ScoreQuery all(Order order) {
+        return new ScoreQuery(order, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param from earliest time included (epoch millis)
+     * @return this query limited to scores set at or after {@code from}
+     */
+    public ScoreQuery since(long from) {
+        return new ScoreQuery(order, from, until);
+    }
+
+    /**
+     * @return {@code true} if the query leaves out some dates
+     */
+    public boolean isFiltered() {
+        return from != Long.MIN_VALUE || until != Long.MAX_VALUE;
+    }
+
+    /**
+     * @param entry entry to test
+     * @return {@code true} if the entry was set within the date range
+     */
+    public boolean matches(ScoreEntry entry) {
+        return entry.time() >= from && entry.time() < until;
+    }
+}
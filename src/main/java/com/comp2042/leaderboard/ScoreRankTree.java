@@ -0,0 +1,333 @@
+package com.comp2042.leaderboard;
+
+import com.comp2042.replay.ReplayFormat;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Counts of every score ever stored on a leaderboard, answering rank and
+ * percentile queries in O(log d) for d distinct scores.
+ * <p>
+ * The tree is a treap keyed by score. Each node holds one distinct score,
+ * how many games ended with it, and the total count of its subtree, so
+ * counting the games below or above a score walks a single root-to-leaf
+ * path. Scores in this game are multiples of 50, so even millions of
+ * games produce a few thousand nodes. Nodes live in parallel arrays
+ * rather than objects to keep the footprint small.
+ * <p>
+ * {@link #encode} writes the distinct scores in ascending order as
+ * varint deltas with varint counts, which takes a few bytes per distinct
+ * score regardless of how many games were played.
+ * <p>
+ * Not thread-safe.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class ScoreRankTree {
+
+    private static final int NONE = -1;
+
+    private int[] key = new int[16];
+    private int[] count = new int[16];
+    private long[] total = new long[16];
+    private int[] left = new int[16];
+    private int[] right = new int[16];
+    private int[] priority = new int[16];
+    private int nodes;
+    private int root = NONE;
+
+    /** Fixed seed: the shape of the tree does not need to be unpredictable. */
+    private final SplittableRandom random = new SplittableRandom(0x5C0BE5L);
+
+    /**
+     * Records one game.
+     *
+     * @param score final score
+     */
+    public void add(int score) {
+        add(score, 1);
+    }
+
+    /**
+     * Records several games with the same score.
+     *
+     * @param score final score
+     * @param games number of games (positive)
+     */
+    public void add(int score, int games) {
+        if (games <= 0) {
+            throw new IllegalArgumentException("Game count must be positive");
+        }
+        root = insert(root, score, games);
+    }
+
+    private int insert(int node, int score, int games) {
+        if (node == NONE) {
+            return newNode(score, games);
+        }
+        if (score == key[node]) {
+            count[node] += games;
+        } else if (score < key[node]) {
+            // Insert first: it may grow the arrays, so left must be read afterwards
+            int child = insert(left[node], score, games);
+            left[node] = child;
+            if (priority[left[node]] > priority[node]) {
+                node = rotateRight(node);
+            }
+        } else {
+            int child = insert(right[node], score, games);
+            right[node] = child;
+            if (priority[right[node]] > priority[node]) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * @param score a score
+     * @return number of games with a strictly lower score
+     */
+    public long countBelow(int score) {
+        long below = 0;
+        int node = root;
+        while (node != NONE) {
+            if (score <= key[node]) {
+                node = left[node];
+            } else {
+                below += sum(left[node]) + count[node];
+                node = right[node];
+            }
+        }
+        return below;
+    }
+
+    /**
+     * @param score a score
+     * @return number of games with a strictly higher score
+     */
+    public long countAbove(int score) {
+        long atMost = 0;
+        int node = root;
+        while (node != NONE) {
+            if (score < key[node]) {
+                node = left[node];
+            } else {
+                atMost += sum(left[node]) + count[node];
+                node = right[node];
+            }
+        }
+        return size() - atMost;
+    }
+
+    /**
+     * Leaderboard position of a score: one more than the number of games
+     * that scored higher, so equal scores share a rank.
+     *
+     * @param score a score
+     * @return 1-based rank
+     */
+    public long rank(int score) {
+        return countAbove(score) + 1;
+    }
+
+    /**
+     * Share of games that a score beat.
+     *
+     * @param score a score
+     * @return percentage (0-100) of recorded games with a strictly lower score; 0 if there are none
+     */
+    public double percentile(int score) {
+        long games = size();
+        return (games == 0) ? 0 : 100.0 * countBelow(score) / games;
+    }
+
+    /**
+     * Finds the score at a position counted from the best game.
+     *
+     * @param rank 1-based position, at most {@link #size()}
+     * @return score of the game at that position
+     * @throws IndexOutOfBoundsException if {@code rank} is out of range
+     */
+    public int scoreAt(long rank) {
+        if (rank < 1 || rank > size()) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " out of 1.." + size());
+        }
+        // Position from the lowest score, 0-based
+        long index = size() - rank;
+        int node = root;
+        while (true) {
+            long leftSum = sum(left[node]);
+            if (index < leftSum) {
+                node = left[node];
+            } else if (index < leftSum + count[node]) {
+                return key[node];
+            } else {
+                index -= leftSum + count[node];
+                node = right[node];
+            }
+        }
+    }
+
+    /**
+     * @return number of games recorded
+     */
+    public long size() {
+        return sum(root);
+    }
+
+    /**
+     * @return number of distinct scores
+     */
+    public int distinctScores() {
+        return nodes;
+    }
+
+    /**
+     * Forgets every game.
+     */
+    public void clear() {
+        nodes = 0;
+        root = NONE;
+    }
+
+    /**
+     * Adds every game of another tree to this one.
+     *
+     * @param other tree to merge in
+     */
+    public void addAll(ScoreRankTree other) {
+        other.forEachAscending((score, games) -> add(score, games));
+    }
+
+    // ---------------------------------------------------------------
+    // Encoding
+    // ---------------------------------------------------------------
+
+    /**
+     * @return upper bound of {@link #encode} output in bytes
+     */
+    public int maxEncodedBytes() {
+        return 10 + nodes * 15;
+    }
+
+    /**
+     * Writes the distinct scores, lowest first, as varint deltas with varint counts.
+     *
+     * @param buffer destination with at least {@link #maxEncodedBytes()} bytes remaining
+     */
+    public void encode(ByteBuffer buffer) {
+        ReplayFormat.putVarint(buffer, nodes);
+        long[] previous = {Integer.MIN_VALUE};
+        forEachAscending((score, games) -> {
+            ReplayFormat.putVarint(buffer, score - previous[0]);
+            ReplayFormat.putVarint(buffer, games);
+            previous[0] = score;
+        });
+    }
+
+    /**
+     * Reads a tree written by {@link #encode}.
+     *
+     * @param buffer source
+     * @return decoded tree
+     * @throws IllegalArgumentException if the data is malformed
+     */
+    public static ScoreRankTree decode(ByteBuffer buffer) {
+        ScoreRankTree tree = new ScoreRankTree();
+        long distinct = ReplayFormat.getVarint(buffer);
+        long score = Integer.MIN_VALUE;
+        for (long i = 0; i < distinct; i++) {
+            score += ReplayFormat.getVarint(buffer);
+            long games = ReplayFormat.getVarint(buffer);
+            if (score > Integer.MAX_VALUE || games <= 0 || games > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Malformed score histogram");
+            }
+            tree.add((int) score, (int) games);
+        }
+        return tree;
+    }
+
+    /** Receives one distinct score and its number of games. */
+    @FunctionalInterface
+    public interface ScoreCount {
+        void accept(int score, int games);
+    }
+
+    /**
+     * Visits the distinct scores from lowest to highest.
+     *
+     * @param visitor receives each score and its number of games
+     */
+    public void forEachAscending(ScoreCount visitor) {
+        int[] stack = new int[64];
+        int depth = 0;
+        int node = root;
+        while (node != NONE || depth > 0) {
+            while (node != NONE) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = left[node];
+            }
+            node = stack[--depth];
+            visitor.accept(key[node], count[node]);
+            node = right[node];
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Treap helpers
+    // ---------------------------------------------------------------
+
+    private int newNode(int score, int games) {
+        if (nodes == key.length) {
+            int capacity = nodes * 2;
+            key = Arrays.copyOf(key, capacity);
+            count = Arrays.copyOf(count, capacity);
+            total = Arrays.copyOf(total, capacity);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            priority = Arrays.copyOf(priority, capacity);
+        }
+        int node = nodes++;
+        key[node] = score;
+        count[node] = games;
+        total[node] = games;
+        left[node] = NONE;
+        right[node] = NONE;
+        priority[node] = random.nextInt();
+        return node;
+    }
+
+    private long sum(int node) {
+        return (node == NONE) ? 0 : total[node];
+    }
+
+    private void update(int node) {
+        total[node] = sum(left[node]) + count[node] + sum(right[node]);
+    }
+
+    private int rotateRight(int node) {
+        int pivot = left[node];
+        left[node] = right[pivot];
+        right[pivot] = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private int rotateLeft(int node) {
+        int pivot = right[node];
+        right[node] = left[pivot];
+        left[pivot] = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+}
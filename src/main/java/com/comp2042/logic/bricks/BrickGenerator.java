@@ -1,5 +1,6 @@
 package com.comp2042.logic.bricks;
 
+import java.util.List;
 
 /**
  * Abstraction for a brick provides used by the {@code SimpleBoard}.
@@ -8,7 +9,7 @@ package com.comp2042.logic.bricks;
  * a "next" brick for preview
  *
  * @author Chan Michelle
- * @version 1.0
+ * @version 1.1
  */
 public interface BrickGenerator {
 
@@ -27,4 +28,51 @@ public interface BrickGenerator {
      */
 
     Brick getNextBrick();
+
+    /**
+     * Returns every queued brick that is already known, in spawn order.
+     * <p>
+     * The first element is the same brick returned by {@link #getNextBrick()}.
+     * Generators that only look one brick ahead can rely on this default.
+     *
+     * @return read-only list of upcoming bricks (may be empty)
+     */
+    default List<Brick> getUpcomingBricks() {
+        Brick next = getNextBrick();
+        return (next == null) ? List.of() : List.of(next);
+    }
+
+    /**
+     * Creates a generator that continues from the current state: it
+     * returns the same bricks this one would, but advances independently.
+     * Used when forking a board.
+     *
+     * @return independent copy of this generator
+     */
+    BrickGenerator fork();
+
+    /**
+     * Saved state of one generator that can be written and put back many
+     * times, e.g. every tick of a game that may be rolled back.
+     */
+    interface Snapshot {
+
+        /**
+         * Copies the current state of the generator into this snapshot.
+         */
+        void save();
+
+        /**
+         * Puts the generator back to the state last saved.
+         */
+        void restore();
+    }
+
+    /**
+     * Creates a snapshot of this generator. Nothing is saved until
+     * {@link Snapshot#save()} is called.
+     *
+     * @return an empty snapshot bound to this generator
+     */
+    Snapshot newSnapshot();
 }
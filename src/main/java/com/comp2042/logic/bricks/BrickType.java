@@ -0,0 +1,102 @@
+package com.comp2042.logic.bricks;
+
+/**
+ * Enumerates the seven Tetromino types.
+ * <p>
+ * Every brick paints its cells with a unique colour value (1-7), so the
+ * type of any shape matrix can be recovered from one of its filled cells.
+ * Code outside this package uses this enum to create bricks by type, since
+ * the concrete brick classes are package-private.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public enum BrickType {
+    I(1), J(2), L(3), O(4), S(5), T(6), Z(7);
+
+    private static final BrickType[] BY_ID = new BrickType[8];
+
+    static {
+        for (BrickType type : values()) {
+            BY_ID[type.id] = type;
+        }
+    }
+
+    /** Colour value written into the board for this brick. */
+    private final int id;
+
+    BrickType(int id) {
+        this.id = id;
+    }
+
+    /**
+     * @return colour value used by this brick's cells
+     */
+    public int id() {
+        return id;
+    }
+
+    /**
+     * Creates a new brick instance of this type.
+     *
+     * @return new {@link Brick}
+     */
+    public Brick create() {
+        switch (this) {
+            case I:
+                return new IBrick();
+            case J:
+                return new JBrick();
+            case L:
+                return new LBrick();
+            case O:
+                return new OBrick();
+            case S:
+                return new SBrick();
+            case T:
+                return new TBrick();
+            default:
+                return new ZBrick();
+        }
+    }
+
+    /**
+     * Looks up the type for a cell colour value.
+     *
+     * @param id colour value (1-7)
+     * @return matching type, or {@code null} if the value is not a brick colour
+     */
+    public static BrickType fromId(int id) {
+        return (id > 0 && id < BY_ID.length) ? BY_ID[id] : null;
+    }
+
+    /**
+     * Determines the type of a shape matrix from its first filled cell.
+     *
+     * @param shape brick shape matrix
+     * @return matching type, or {@code null} if the matrix is empty
+     */
+    public static BrickType of(int[][] shape) {
+        if (shape == null) {
+            return null;
+        }
+        for (int[] row : shape) {
+            for (int value : row) {
+                if (value != 0) {
+                    return fromId(value);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Determines the type of a brick.
+     *
+     * @param brick brick instance
+     * @return matching type, or {@code null} if {@code brick} is null
+     */
+    public static BrickType of(Brick brick) {
+        return (brick == null) ? null : of(brick.getShapeMatrix().get(0));
+    }
+}
@@ -2,6 +2,7 @@ package com.comp2042.logic.bricks;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
@@ -10,38 +11,97 @@ import java.util.concurrent.ThreadLocalRandom;
  * Default implementation of {@link BrickGenerator} used by the Tetris board.
  * <p>
  * Maintains an internal list of brick types and a small queue for
- * "next brick" preview support
+ * "next brick" preview support. The queue length can be raised so that
+ * bots can look several pieces ahead.
+ * <p>
+ * Bricks are drawn from a SplitMix64 sequence. Giving the same seed
+ * produces the same brick order, which makes games reproducible for bot
+ * tuning, tests and replays.
  */
 public class RandomBrickGenerator implements BrickGenerator {
 
-    private final List<Brick> brickList;
+    /**
+     * One brick per type, in declaration order. Bricks hand out copies of
+     * their shapes, so every generator shares the same instances.
+     */
+    private static final List<Brick> BRICKS = createBricks();
     private final Deque<Brick> nextBricks = new ArrayDeque<>();
 
+    /** Number of bricks kept visible after the active one. */
+    private final int previewSize;
+
+    /** Seed of the current brick sequence. */
+    private long seed;
+
+    /** Current SplitMix64 state. */
+    private long state;
+
     /**
      * Creates a new random brick generator with all seven Tetromino types.
      */
     public RandomBrickGenerator() {
-        brickList = new ArrayList<>();
-        brickList.add(new IBrick());
-        brickList.add(new JBrick());
-        brickList.add(new LBrick());
-        brickList.add(new OBrick());
-        brickList.add(new SBrick());
-        brickList.add(new TBrick());
-        brickList.add(new ZBrick());
+        this(1);
+    }
+
+    /**
+     * Creates a random brick generator that keeps a longer preview queue.
+     *
+     * @param previewSize number of upcoming bricks to keep known (at least 1)
+     */
+    public RandomBrickGenerator(int previewSize) {
+        this(previewSize, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Creates a reproducible generator: equal seeds give equal brick sequences.
+     *
+     * @param previewSize number of upcoming bricks to keep known (at least 1)
+     * @param seed        seed of the brick sequence
+     */
+    public RandomBrickGenerator(int previewSize, long seed) {
+        if (previewSize < 1) {
+            throw new IllegalArgumentException("Preview size must be at least 1");
+        }
+        this.previewSize = previewSize;
+        this.seed = seed;
+        this.state = seed;
+
+        // Pre-fill queue with the active brick plus the preview
+        for (int i = 0; i <= previewSize; i++) {
+            nextBricks.add(randomBrick());
+        }
+    }
+
+    /**
+     * Copies the queue and random state of another generator.
+     */
+    private RandomBrickGenerator(RandomBrickGenerator source) {
+        this.previewSize = source.previewSize;
+        this.seed = source.seed;
+        this.state = source.state;
+        this.nextBricks.addAll(source.nextBricks);
+    }
 
-        // Pre-fill queue with two random bricks
-        nextBricks.add(randomBrick());
-        nextBricks.add(randomBrick());
+    private static List<Brick> createBricks() {
+        List<Brick> bricks = new ArrayList<>();
+        for (BrickType type : BrickType.values()) {
+            bricks.add(type.create());
+        }
+        return Collections.unmodifiableList(bricks);
     }
 
     private Brick randomBrick() {
-        return brickList.get(ThreadLocalRandom.current().nextInt(brickList.size()));
+        state += 0x9E3779B97F4A7C15L;
+        long z = state;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= (z >>> 31);
+        return BRICKS.get((int) Math.floorMod(z, (long) BRICKS.size()));
     }
 
     @Override
     public Brick getBrick() {
-        if (nextBricks.size() <= 1) {
+        while (nextBricks.size() <= previewSize) {
             nextBricks.add(randomBrick());
         }
         return nextBricks.poll();
@@ -51,4 +111,102 @@ public class RandomBrickGenerator implements BrickGenerator {
     public Brick getNextBrick() {
         return nextBricks.peek();
     }
+
+    @Override
+    public List<Brick> getUpcomingBricks() {
+        return Collections.unmodifiableList(new ArrayList<>(nextBricks));
+    }
+
+    /**
+     * Restarts the generator on a new brick sequence, discarding the queue.
+     *
+     * @param seed seed of the new sequence
+     */
+    public void reset(long seed) {
+        this.seed = seed;
+        this.state = seed;
+        nextBricks.clear();
+        for (int i = 0; i <= previewSize; i++) {
+            nextBricks.add(randomBrick());
+        }
+    }
+
+    /**
+     * Continues a brick sequence saved with {@link #getSeed()},
+     * {@link #getState()} and {@link #getUpcomingBricks()}.
+     *
+     * @param seed  seed of the sequence
+     * @param state random state at the time of saving
+     * @param queue bricks that were queued, in order
+     */
+    public void restore(long seed, long state, List<BrickType> queue) {
+        this.seed = seed;
+        this.state = state;
+        nextBricks.clear();
+        for (BrickType type : queue) {
+            nextBricks.add(BRICKS.get(type.ordinal()));
+        }
+    }
+
+    /**
+     * Reusable copy of the queue and random state, for saving and
+     * restoring them many times a second without allocating.
+     */
+    private final class QueueSnapshot implements Snapshot {
+        private final Brick[] queue = new Brick[previewSize + 1];
+        private int size;
+        private long savedSeed;
+        private long savedState;
+
+        @Override
+        public void save() {
+            savedSeed = seed;
+            savedState = state;
+            size = 0;
+            for (Brick brick : nextBricks) {
+                queue[size++] = brick;
+            }
+        }
+
+        @Override
+        public void restore() {
+            seed = savedSeed;
+            state = savedState;
+            nextBricks.clear();
+            for (int i = 0; i < size; i++) {
+                nextBricks.add(queue[i]);
+            }
+        }
+    }
+
+    @Override
+    public Snapshot newSnapshot() {
+        return new QueueSnapshot();
+    }
+
+    @Override
+    public RandomBrickGenerator fork() {
+        return new RandomBrickGenerator(this);
+    }
+
+    /**
+     * @return number of upcoming bricks kept known
+     */
+    public int getPreviewSize() {
+        return previewSize;
+    }
+
+    /**
+     * @return seed of the current brick sequence
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return current random state; with the queue it determines every later brick
+     */
+    public long getState() {
+        return state;
+    }
 }
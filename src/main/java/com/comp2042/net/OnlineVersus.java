@@ -0,0 +1,190 @@
+package com.comp2042.net;
+
+import com.comp2042.EventSource;
+import com.comp2042.EventType;
+import com.comp2042.VersusGame;
+
+/**
+ * One side of an online versus match.
+ * <p>
+ * Each game instance runs a full {@link VersusGame}: the local player's
+ * board is played here, and the opponent's board is a mirror that
+ * replays the opponent's inputs as they arrive. Both instances start
+ * from the same seed, so the mirror follows the opponent's real board
+ * exactly. The only thing that is not decided by the inputs alone is
+ * garbage, which each instance decides for its own board and announces:
+ * <ul>
+ *     <li>{@link VersusMessage.Attack} when the local player sends garbage;</li>
+ *     <li>{@link VersusMessage.Garbage} when garbage is pushed onto the
+ *     local board, just before the input that locked the brick, so that
+ *     the mirror pushes it in at the same point;</li>
+ *     <li>{@link VersusMessage.Checksum} every {@link #CHECKSUM_INTERVAL}
+ *     bricks, so that the mirror can verify it still agrees.</li>
+ * </ul>
+ * Nothing here waits for the network: {@link #update} handles whatever
+ * has arrived since the last call and returns.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class OnlineVersus implements VersusGame.Listener {
+
+    /** Bricks between two checksums. */
+    public static final int CHECKSUM_INTERVAL = 8;
+
+    private final VersusConnection connection;
+    private final VersusGame game;
+    private final int local;
+    private final int remote;
+
+    private boolean desynced;
+    private boolean opponentLeft;
+
+    /**
+     * Starts the match described by the relay's start message.
+     *
+     * @param connection connection to the relay
+     * @param start      start message received on it
+     * @param width      board width in cells
+     * @param height     board height in cells
+     */
+    public OnlineVersus(VersusConnection connection, VersusMessage.Start start, int width, int height) {
+        this.connection = connection;
+        this.local = start.player();
+        this.remote = 1 - local;
+        this.game = new VersusGame(width, height, start.seed());
+        game.setRemote(remote);
+        game.setListener(this);
+    }
+
+    /**
+     * Applies an input of the local player and sends it to the opponent.
+     *
+     * @param type   input to apply
+     * @param source who issued it (player or gravity timer)
+     */
+    public void input(EventType type, EventSource source) {
+        if (game.isOver()) {
+            return;
+        }
+        int pieces = game.getPiecesPlaced(local);
+        // Garbage taken by this input is announced from within apply, before the input itself
+        game.apply(local, type);
+        connection.send(new VersusMessage.Input(type, source));
+
+        int placed = game.getPiecesPlaced(local);
+        if (placed != pieces && placed % CHECKSUM_INTERVAL == 0) {
+            connection.send(new VersusMessage.Checksum(placed, game.getBoard(local).getZobristHash()));
+        }
+    }
+
+    /**
+     * Moves the local brick down one row, as gravity.
+     */
+    public void tick() {
+        input(EventType.DOWN, EventSource.THREAD);
+    }
+
+    /**
+     * Applies every message received since the last call. Never blocks.
+     *
+     * @return {@code true} if anything changed
+     */
+    public boolean update() {
+        boolean changed = false;
+        VersusMessage message;
+        while ((message = connection.poll()) != null) {
+            changed = true;
+            switch (message) {
+                case VersusMessage.Input input -> game.apply(remote, input.type());
+                case VersusMessage.Attack attack -> game.receiveGarbage(local, attack.rows());
+                case VersusMessage.Garbage garbage -> game.announceGarbage(remote, garbage.rows(), garbage.holeColumn());
+                case VersusMessage.Checksum checksum -> check(checksum);
+                case VersusMessage.Bye bye -> leave();
+                case VersusMessage.Start start -> {
+                    // Only sent once, before the match
+                }
+            }
+        }
+        if (!connection.isOpen() && !opponentLeft) {
+            leave();
+            changed = true;
+        }
+        return changed;
+    }
+
+    private void check(VersusMessage.Checksum checksum) {
+        // Once the match is over the mirror stops, so later checksums cannot be compared
+        if (!game.isOver() && game.getPiecesPlaced(remote) == checksum.pieces()
+                && game.getBoard(remote).getZobristHash() != checksum.hash()) {
+            if (!desynced) {
+                System.out.println("Versus opponent's board is out of sync after " + checksum.pieces() + " bricks");
+            }
+            desynced = true;
+        }
+    }
+
+    private void leave() {
+        opponentLeft = true;
+        game.concede(remote);
+    }
+
+    @Override
+    public void garbageSent(int player, int rows) {
+        connection.send(new VersusMessage.Attack(rows));
+    }
+
+    @Override
+    public void garbageTaken(int player, int rows, int holeColumn) {
+        connection.send(new VersusMessage.Garbage(rows, holeColumn));
+    }
+
+    /**
+     * @return the match, with the local and the mirrored board
+     */
+    public VersusGame getGame() {
+        return game;
+    }
+
+    /**
+     * @return index of the local player
+     */
+    public int getLocalPlayer() {
+        return local;
+    }
+
+    /**
+     * @return index of the opponent
+     */
+    public int getRemotePlayer() {
+        return remote;
+    }
+
+    /**
+     * @return {@code true} if a checksum showed that the mirror no longer matches the opponent's board
+     */
+    public boolean isDesynced() {
+        return desynced;
+    }
+
+    /**
+     * @return {@code true} if the opponent left or the connection was lost
+     */
+    public boolean hasOpponentLeft() {
+        return opponentLeft;
+    }
+
+    /**
+     * @return connection to the relay
+     */
+    public VersusConnection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Leaves the match. Never blocks.
+     */
+    public void close() {
+        connection.close();
+    }
+}
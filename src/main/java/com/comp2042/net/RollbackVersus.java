@@ -0,0 +1,258 @@
+package com.comp2042.net;
+
+import com.comp2042.EventType;
+import com.comp2042.VersusGame;
+
+/**
+ * One side of a versus match played with rollback.
+ * <p>
+ * Unlike {@link OnlineVersus}, where the opponent's board only moves when
+ * their inputs arrive, here both instances run the whole match, both
+ * boards and the garbage between them, in fixed ticks. Every tick needs
+ * both players' inputs. The local ones are known at once; the opponent's
+ * arrive later, so until then they are predicted to be empty (in this
+ * game most ticks have no input) and the match runs on. When the real
+ * inputs of a past tick turn out to differ from the prediction, the match
+ * is restored to its state at that tick and the ticks since are played
+ * again with the real inputs, all before the next frame is drawn.
+ * <p>
+ * The state at the start of each of the last {@code history} ticks is
+ * kept in a ring of reusable {@link VersusGame.Snapshot}s, so saving a
+ * tick allocates nothing. If the opponent's inputs fall {@code history}
+ * ticks behind, there is no snapshot left to go back to, and
+ * {@link #advance} waits for them instead.
+ * <p>
+ * The inputs of one tick are packed in an {@code int}, see {@link #with}.
+ * Getting each side's inputs to the other, in tick order, is up to the
+ * caller. Not thread-safe.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class RollbackVersus {
+
+    /** Ticks between two gravity steps: 400 ms at 60 ticks per second, as in the desktop game. */
+    public static final int GRAVITY_TICKS = 24;
+
+    /** Packed inputs of a tick with no input. */
+    public static final int NO_INPUT = 0;
+
+    /** Inputs one tick can hold at most. */
+    public static final int MAX_INPUTS_PER_TICK = 8;
+
+    private static final EventType[] TYPES = EventType.values();
+
+    private final VersusGame game;
+    private final int local;
+    private final int remote;
+
+    /** {@code snapshots[t % history]} is the match at the start of tick {@code t}. */
+    private final VersusGame.Snapshot[] snapshots;
+
+    /**
+     * {@code inputs[player][t % inputs.length]}: inputs of tick {@code t}, predicted for the
+     * opponent until confirmed. Twice the history, since the opponent may be ahead of us.
+     */
+    private final int[][] inputs;
+
+    /** Next tick to play. */
+    private long tick;
+
+    /** The opponent's inputs of every tick before this one are known. */
+    private long confirmedTick;
+
+    /** Earliest tick whose prediction was wrong, or -1 if none. */
+    private long rollbackFrom = -1;
+
+    private long rollbacks;
+    private long resimulatedTicks;
+    private long longestRollbackNanos;
+
+    /**
+     * Starts a match.
+     *
+     * @param width   board width in cells
+     * @param height  board height in cells
+     * @param seed    seed of the match, the same on both sides
+     * @param local   index of the local player
+     * @param history ticks that can be rolled back at most
+     */
+    public RollbackVersus(int width, int height, long seed, int local, int history) {
+        if (history < 1) {
+            throw new IllegalArgumentException("History must be at least one tick");
+        }
+        this.game = new VersusGame(width, height, seed);
+        this.local = local;
+        this.remote = 1 - local;
+        this.snapshots = new VersusGame.Snapshot[history];
+        for (int i = 0; i < history; i++) {
+            snapshots[i] = game.newSnapshot();
+        }
+        this.inputs = new int[VersusGame.PLAYERS][2 * history];
+    }
+
+    /**
+     * Adds an input to the packed inputs of a tick. Inputs are applied in
+     * the order they were added; beyond {@value #MAX_INPUTS_PER_TICK} they
+     * are dropped.
+     *
+     * @param packed inputs of the tick so far, {@link #NO_INPUT} to start
+     * @param type   input to add
+     * @return the packed inputs
+     */
+    public static int with(int packed, EventType type) {
+        for (int slot = 0; slot < MAX_INPUTS_PER_TICK; slot++) {
+            if (((packed >>> (4 * slot)) & 0xF) == 0) {
+                return packed | ((type.ordinal() + 1) << (4 * slot));
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Plays the next tick with the local player's inputs, predicting the
+     * opponent's if they have not arrived. Re-simulates first if a
+     * prediction turned out wrong.
+     *
+     * @param localInputs packed inputs of the local player for this tick
+     * @return {@code false} if the tick was not played because the
+     *         opponent's inputs are too far behind to predict any further
+     */
+    public boolean advance(int localInputs) {
+        resimulate();
+        if (tick - confirmedTick >= snapshots.length) {
+            return false;
+        }
+        inputs[local][slot(tick)] = localInputs;
+        if (tick >= confirmedTick) {
+            inputs[remote][slot(tick)] = NO_INPUT;
+        }
+        game.saveTo(snapshots[(int) (tick % snapshots.length)]);
+        step(tick);
+        tick++;
+        return true;
+    }
+
+    /**
+     * Takes in the opponent's inputs of their next tick. A wrong
+     * prediction is corrected at the next {@link #advance} or
+     * {@link #resimulate}.
+     *
+     * @param remoteTick tick of the inputs; ticks must arrive in order
+     * @param packed     the opponent's packed inputs of that tick
+     * @throws IllegalArgumentException if a tick is missing or repeated
+     * @throws IllegalStateException    if the opponent is too far ahead
+     */
+    public void receive(long remoteTick, int packed) {
+        if (remoteTick != confirmedTick) {
+            throw new IllegalArgumentException("Expected inputs of tick " + confirmedTick + ", got " + remoteTick);
+        }
+        if (remoteTick >= tick + snapshots.length) {
+            throw new IllegalStateException("Opponent is more than " + snapshots.length + " ticks ahead");
+        }
+        int slot = slot(remoteTick);
+        if (remoteTick < tick && inputs[remote][slot] != packed && rollbackFrom < 0) {
+            rollbackFrom = remoteTick;
+        }
+        inputs[remote][slot] = packed;
+        confirmedTick++;
+    }
+
+    /**
+     * Restores the match to the first tick that was played on a wrong
+     * prediction and plays every tick since again, without drawing
+     * anything. Call it before drawing a frame; does nothing if every
+     * prediction so far was right.
+     *
+     * @return ticks played again
+     */
+    public int resimulate() {
+        if (rollbackFrom < 0) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        game.restoreFrom(snapshots[(int) (rollbackFrom % snapshots.length)]);
+        int count = 0;
+        for (long t = rollbackFrom; t < tick; t++) {
+            if (t > rollbackFrom) {
+                game.saveTo(snapshots[(int) (t % snapshots.length)]);
+            }
+            step(t);
+            count++;
+        }
+        rollbackFrom = -1;
+        rollbacks++;
+        resimulatedTicks += count;
+        longestRollbackNanos = Math.max(longestRollbackNanos, System.nanoTime() - start);
+        return count;
+    }
+
+    /**
+     * Plays one tick: both players' inputs in player order, so that both
+     * sides apply them alike, then gravity when its time has come.
+     */
+    private void step(long t) {
+        int slot = slot(t);
+        for (int player = 0; player < VersusGame.PLAYERS; player++) {
+            for (int packed = inputs[player][slot]; packed != 0; packed >>>= 4) {
+                game.apply(player, TYPES[(packed & 0xF) - 1]);
+            }
+        }
+        if ((t + 1) % GRAVITY_TICKS == 0) {
+            game.tick();
+        }
+    }
+
+    private int slot(long t) {
+        return (int) (t % inputs[0].length);
+    }
+
+    /**
+     * @return the match as of the last tick played
+     */
+    public VersusGame getGame() {
+        return game;
+    }
+
+    /**
+     * @return index of the local player
+     */
+    public int getLocalPlayer() {
+        return local;
+    }
+
+    /**
+     * @return next tick to play
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * @return number of ticks whose opponent inputs are known
+     */
+    public long getConfirmedTick() {
+        return confirmedTick;
+    }
+
+    /**
+     * @return rollbacks done so far
+     */
+    public long getRollbacks() {
+        return rollbacks;
+    }
+
+    /**
+     * @return ticks played again by rollbacks so far
+     */
+    public long getResimulatedTicks() {
+        return resimulatedTicks;
+    }
+
+    /**
+     * @return time taken by the longest rollback, restore and re-simulation together
+     */
+    public long getLongestRollbackNanos() {
+        return longestRollbackNanos;
+    }
+}
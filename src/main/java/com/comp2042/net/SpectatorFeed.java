@@ -0,0 +1,178 @@
+package com.comp2042.net;
+
+import com.comp2042.Board;
+import com.comp2042.ViewData;
+import com.comp2042.replay.ReplayFormat;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Turns the updates of a running game into spectator frames (see
+ * {@link SpectatorProtocol}).
+ * <p>
+ * The feed keeps the board as the spectators last saw it and, after each
+ * game update, sends only what differs. When the locked cells changed it
+ * first checks whether locking the last brick, where it was or where it
+ * would land, explains the change; if so one Lock operation replaces the
+ * cells of the brick and every row it cleared. Whatever is left (such as
+ * garbage rows) is sent as changed cells or rows.
+ * <p>
+ * Not thread-safe; call it from the thread that drives the game.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class SpectatorFeed {
+
+    /** A row with at least this many changed cells is sent whole. */
+    private static final int ROW_THRESHOLD = 3;
+
+    private int[][] shadow;
+    private SpectatorProtocol.Piece piece = SpectatorProtocol.Piece.NONE;
+    private int ghostY;
+    private int score;
+    private boolean gameOver;
+
+    /**
+     * Encodes what changed since the last call. The first call encodes a
+     * keyframe.
+     *
+     * @param board    board of the game
+     * @param gameOver {@code true} if the game has ended
+     * @return the frame, ready to send, or {@code null} if nothing changed
+     */
+    public byte[] update(Board board, boolean gameOver) {
+        int[][] cells = board.readBoardMatrix();
+        ViewData view = board.getViewData();
+        SpectatorProtocol.Piece current = gameOver ? SpectatorProtocol.Piece.NONE
+                : SpectatorProtocol.Piece.of(view.getBrickData(), view.getxPosition(), view.getyPosition());
+        int currentScore = board.getScore().scoreProperty().get();
+
+        int width = cells[0].length;
+        ByteBuffer out = ByteBuffer.allocate(64 + cells.length * (width + 2));
+        if (shadow == null || shadow.length != cells.length || (this.gameOver && !gameOver)) {
+            // First update, or a new game: start the spectators over
+            keyframe(out, cells, current, currentScore, gameOver);
+        } else {
+            diffCells(out, cells);
+            if (!current.equals(piece)) {
+                out.put((byte) SpectatorProtocol.PIECE);
+                SpectatorProtocol.putPiece(out, current);
+            }
+            if (currentScore != score) {
+                out.put((byte) SpectatorProtocol.SCORE);
+                ReplayFormat.putVarint(out, currentScore);
+            }
+            if (gameOver && !this.gameOver) {
+                out.put((byte) SpectatorProtocol.GAME_OVER);
+            }
+        }
+        piece = current;
+        ghostY = (view.getGhostData() != null) ? view.getghostY() : view.getyPosition();
+        score = currentScore;
+        this.gameOver = gameOver;
+
+        out.flip();
+        return out.hasRemaining() ? SpectatorProtocol.frame(out) : null;
+    }
+
+    private void keyframe(ByteBuffer out, int[][] cells, SpectatorProtocol.Piece current, int currentScore,
+                          boolean over) {
+        shadow = new int[cells.length][];
+        for (int r = 0; r < cells.length; r++) {
+            shadow[r] = cells[r].clone();
+        }
+        out.put((byte) SpectatorProtocol.KEYFRAME);
+        ReplayFormat.putVarint(out, cells[0].length);
+        ReplayFormat.putVarint(out, cells.length);
+        for (int[] row : cells) {
+            for (int cell : row) {
+                out.put((byte) cell);
+            }
+        }
+        SpectatorProtocol.putPiece(out, current);
+        ReplayFormat.putVarint(out, currentScore);
+        out.put((byte) (over ? 1 : 0));
+    }
+
+    /**
+     * Brings the shadow board up to date with the game, encoding a Lock
+     * when that explains the change best, then the cells still differing.
+     */
+    private void diffCells(ByteBuffer out, int[][] cells) {
+        int changed = countChanges(shadow, cells);
+        if (changed == 0) {
+            return;
+        }
+        if (piece.id() != 0) {
+            int bestY = -1;
+            int[][] best = null;
+            for (int y : new int[] {piece.y(), ghostY}) {
+                int[][] locked = copy(shadow);
+                SpectatorView.lockInto(locked, piece.atRow(y));
+                int left = countChanges(locked, cells);
+                if (left < changed) {
+                    changed = left;
+                    best = locked;
+                    bestY = y;
+                }
+            }
+            if (best != null) {
+                out.put((byte) SpectatorProtocol.LOCK).put((byte) bestY);
+                shadow = best;
+                // Spectators drop the brick on a lock; it must be sent again
+                piece = SpectatorProtocol.Piece.NONE;
+            }
+        }
+        if (changed == 0) {
+            return;
+        }
+        for (int r = 0; r < cells.length; r++) {
+            int[] row = cells[r];
+            int[] seen = shadow[r];
+            int rowChanges = 0;
+            for (int c = 0; c < row.length; c++) {
+                if (row[c] != seen[c]) {
+                    rowChanges++;
+                }
+            }
+            if (rowChanges >= ROW_THRESHOLD) {
+                out.put((byte) SpectatorProtocol.ROW).put((byte) r);
+                for (int cell : row) {
+                    out.put((byte) cell);
+                }
+            } else if (rowChanges > 0) {
+                for (int c = 0; c < row.length; c++) {
+                    if (row[c] != seen[c]) {
+                        out.put((byte) SpectatorProtocol.CELL).put((byte) r).put((byte) c).put((byte) row[c]);
+                    }
+                }
+            }
+            if (rowChanges > 0) {
+                shadow[r] = row.clone();
+            }
+        }
+    }
+
+    private static int countChanges(int[][] a, int[][] b) {
+        int changes = 0;
+        for (int r = 0; r < a.length; r++) {
+            int[] x = a[r];
+            int[] y = b[r];
+            for (int c = 0; c < x.length; c++) {
+                if (x[c] != y[c]) {
+                    changes++;
+                }
+            }
+        }
+        return changes;
+    }
+
+    private static int[][] copy(int[][] board) {
+        int[][] copy = new int[board.length][];
+        for (int r = 0; r < board.length; r++) {
+            copy[r] = board[r].clone();
+        }
+        return copy;
+    }
+}
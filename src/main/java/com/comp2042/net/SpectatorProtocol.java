@@ -0,0 +1,150 @@
+package com.comp2042.net;
+
+import com.comp2042.replay.ReplayFormat;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Binary encoding of the spectator stream.
+ * <p>
+ * The stream is a sequence of frames, each a varint byte length followed
+ * by operations. A spectator's first frame is a keyframe with the whole
+ * game; every later frame holds the changes of one game update:
+ * <pre>
+ * 0x01 Keyframe  varint width, varint height, one byte per cell (row by row),
+ *                piece, varint score, byte game over
+ * 0x02 Piece     the active brick moved, rotated or was replaced: piece
+ * 0x03 Lock      byte y: the active brick locked at row y (its column is
+ *                unchanged); full rows are then cleared as in the game
+ * 0x04 Cell      byte row, byte column, byte colour
+ * 0x05 Row       byte row, one byte per cell
+ * 0x06 Score     varint score
+ * 0x07 GameOver
+ * </pre>
+ * A piece is a byte colour id (0 for none), a short 4x4 shape mask (bit
+ * {@code r * 4 + c} for row {@code r}, column {@code c}) and signed bytes x
+ * and y. Most updates only move the brick, a 7-byte frame; a lock that
+ * clears rows is a 3-byte frame, since spectators clear the rows themselves.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class SpectatorProtocol {
+
+    static final int KEYFRAME = 0x01;
+    static final int PIECE = 0x02;
+    static final int LOCK = 0x03;
+    static final int CELL = 0x04;
+    static final int ROW = 0x05;
+    static final int SCORE = 0x06;
+    static final int GAME_OVER = 0x07;
+
+    /** Side of the square that holds every brick shape. */
+    static final int SHAPE_SIZE = 4;
+
+    /**
+     * The active brick as spectators see it.
+     *
+     * @param id   colour id of the brick, 0 if there is none
+     * @param mask filled cells of its 4x4 shape
+     * @param x    board column of the shape's left edge
+     * @param y    board row of the shape's top edge
+     */
+    public record Piece(int id, int mask, int x, int y) {
+
+        /** No active brick. */
+        public static final Piece NONE = new Piece(0, 0, 0, 0);
+
+        /**
+         * @param shape shape matrix of a brick, at most 4x4
+         * @param x     board column of the shape's left edge
+         * @param y     board row of the shape's top edge
+         * @return the piece
+         */
+        public static Piece of(int[][] shape, int x, int y) {
+            int id = 0;
+            int mask = 0;
+            for (int r = 0; r < Math.min(shape.length, SHAPE_SIZE); r++) {
+                for (int c = 0; c < Math.min(shape[r].length, SHAPE_SIZE); c++) {
+                    if (shape[r][c] != 0) {
+                        id = shape[r][c];
+                        mask |= 1 << (r * SHAPE_SIZE + c);
+                    }
+                }
+            }
+            return new Piece(id, mask, x, y);
+        }
+
+        /**
+         * @param row    row of the 4x4 shape
+         * @param column column of the 4x4 shape
+         * @return {@code true} if the shape fills that cell
+         */
+        public boolean fills(int row, int column) {
+            return (mask & (1 << (row * SHAPE_SIZE + column))) != 0;
+        }
+
+        /**
+         * @param y row to place the piece at
+         * @return the same piece at another row
+         */
+        public Piece atRow(int y) {
+            return new Piece(id, mask, x, y);
+        }
+    }
+
+    /** Prevent instantiation of this utility class */
+    private SpectatorProtocol() {
+    }
+
+    static void putPiece(ByteBuffer buffer, Piece piece) {
+        buffer.put((byte) piece.id()).putShort((short) piece.mask()).put((byte) piece.x()).put((byte) piece.y());
+    }
+
+    static Piece getPiece(ByteBuffer buffer) {
+        int id = buffer.get() & 0xFF;
+        int mask = buffer.getShort() & 0xFFFF;
+        return new Piece(id, mask, buffer.get(), buffer.get());
+    }
+
+    /**
+     * Wraps encoded operations into a frame.
+     *
+     * @param operations buffer in read mode holding the operations
+     * @return the frame, ready to send
+     */
+    static byte[] frame(ByteBuffer operations) {
+        ByteBuffer frame = ByteBuffer.allocate(5 + operations.remaining());
+        ReplayFormat.putVarint(frame, operations.remaining());
+        frame.put(operations);
+        byte[] bytes = new byte[frame.position()];
+        frame.flip().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Reads the next frame, if all of it has arrived. If not, the buffer
+     * is left as it was.
+     *
+     * @param buffer source buffer in read mode
+     * @return the frame's operations (sharing the buffer's content), or
+     *         {@code null} if the frame is not complete yet
+     */
+    public static ByteBuffer nextFrame(ByteBuffer buffer) {
+        int start = buffer.position();
+        try {
+            int length = (int) ReplayFormat.getVarint(buffer);
+            if (buffer.remaining() < length) {
+                buffer.position(start);
+                return null;
+            }
+            ByteBuffer frame = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            return frame;
+        } catch (BufferUnderflowException e) {
+            buffer.position(start);
+            return null;
+        }
+    }
+}
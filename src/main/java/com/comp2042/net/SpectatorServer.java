@@ -0,0 +1,347 @@
+package com.comp2042.net;
+
+import com.comp2042.Board;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams a running game to any number of spectators.
+ * <p>
+ * The game thread calls {@link #publish} after each update. That only
+ * encodes the changes (see {@link SpectatorFeed}) and hands the frame to
+ * the server thread, so the cost to the game does not depend on how many
+ * spectators are watching or how fast they read.
+ * <p>
+ * The server thread serves every spectator through one {@link Selector}.
+ * It keeps its own copy of the game ({@link SpectatorView}), so a
+ * spectator who joins late first gets a keyframe of the game as it is and
+ * then the frames that follow. Each spectator has a bounded queue of
+ * frames waiting to be written; one whose queue fills up because they do
+ * not read fast enough is disconnected, and the others are not held up.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class SpectatorServer implements AutoCloseable {
+
+    /** Port the spectator server listens on by default. */
+    public static final int DEFAULT_PORT = 7778;
+
+    /** Frames a spectator may fall behind by default before being dropped. */
+    public static final int DEFAULT_QUEUE_FRAMES = 256;
+
+    /** Socket send buffer per spectator, small so that a stalled spectator is noticed soon. */
+    private static final int SEND_BUFFER_BYTES = 16 * 1024;
+
+    /** Frames written to a spectator in one gathering write at most. */
+    private static final int WRITE_BATCH = 64;
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final Thread thread;
+    private final int queueFrames;
+
+    /** Frames published by the game, waiting for the server thread. */
+    private final Queue<byte[]> published = new ConcurrentLinkedQueue<>();
+
+    /** Used on the game thread only. */
+    private final SpectatorFeed feed = new SpectatorFeed();
+
+    /** The game as spectators see it; used on the server thread only. */
+    private final SpectatorView view = new SpectatorView();
+
+    private final List<Spectator> spectators = new ArrayList<>();
+    private final ByteBuffer[] batch = new ByteBuffer[WRITE_BATCH];
+    private final ByteBuffer scratch = ByteBuffer.allocate(256);
+    private final AtomicInteger connected = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong framesPublished = new AtomicLong();
+
+    private volatile boolean closed;
+
+    /** One watching client. */
+    private static final class Spectator {
+        final SocketChannel channel;
+        final ArrayDeque<ByteBuffer> queue = new ArrayDeque<>();
+
+        Spectator(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private SpectatorServer(ServerSocketChannel server, Selector selector, int queueFrames) {
+        this.server = server;
+        this.selector = selector;
+        this.queueFrames = queueFrames;
+        this.thread = new Thread(this::run, "spectator-server");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Starts a spectator server on the loopback interface.
+     *
+     * @param port port to listen on, or 0 for any free port
+     * @return the running server
+     * @throws IOException if the port cannot be opened
+     */
+    public static SpectatorServer start(int port) throws IOException {
+        return start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), DEFAULT_QUEUE_FRAMES);
+    }
+
+    /**
+     * Starts a spectator server.
+     *
+     * @param address     address to listen on
+     * @param queueFrames frames a spectator may fall behind before being dropped
+     * @return the running server
+     * @throws IOException if the address cannot be opened
+     */
+    public static SpectatorServer start(InetSocketAddress address, int queueFrames) throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        Selector selector = null;
+        try {
+            server.bind(address, 512);
+            server.configureBlocking(false);
+            selector = Selector.open();
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException | RuntimeException e) {
+            server.close();
+            if (selector != null) {
+                selector.close();
+            }
+            throw e;
+        }
+        SpectatorServer spectatorServer = new SpectatorServer(server, selector, queueFrames);
+        spectatorServer.thread.start();
+        return spectatorServer;
+    }
+
+    /**
+     * @return port the server listens on
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * Sends the changes of the game since the last call to every
+     * spectator. Call it from the game thread after each update; it never
+     * waits for a spectator.
+     *
+     * @param board    board of the game
+     * @param gameOver {@code true} if the game has ended
+     */
+    public void publish(Board board, boolean gameOver) {
+        byte[] frame = feed.update(board, gameOver);
+        if (frame != null) {
+            published.add(frame);
+            framesPublished.incrementAndGet();
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * @return spectators currently connected
+     */
+    public int getSpectators() {
+        return connected.get();
+    }
+
+    /**
+     * @return spectators disconnected for falling too far behind
+     */
+    public long getDroppedSpectators() {
+        return dropped.get();
+    }
+
+    /**
+     * @return frames published so far
+     */
+    public long getFramesPublished() {
+        return framesPublished.get();
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                selector.select();
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Spectator spectator = (Spectator) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            read(spectator);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            write(spectator);
+                        }
+                    } catch (IOException e) {
+                        disconnect(spectator);
+                    }
+                }
+                selector.selectedKeys().clear();
+                fanOut();
+            }
+        } catch (IOException e) {
+            System.out.println("Error in spectator server: " + e.getMessage());
+        } finally {
+            try {
+                for (SelectionKey key : selector.keys()) {
+                    key.channel().close();
+                }
+                selector.close();
+            } catch (IOException e) {
+                System.out.println("Error closing spectator server: " + e.getMessage());
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, SEND_BUFFER_BYTES);
+            Spectator spectator = new Spectator(channel);
+            channel.register(selector, SelectionKey.OP_READ, spectator);
+            spectators.add(spectator);
+            connected.incrementAndGet();
+
+            // Frames already taken from the game are in the view, so the keyframe lines up with what follows
+            if (view.hasGame()) {
+                enqueue(spectator, view.keyframe());
+                try {
+                    write(spectator);
+                } catch (IOException e) {
+                    disconnect(spectator);
+                }
+            }
+        }
+    }
+
+    /**
+     * Spectators send nothing; reading only notices when they leave.
+     */
+    private void read(Spectator spectator) throws IOException {
+        if (spectator.channel.read(scratch.clear()) < 0) {
+            throw new IOException("Spectator left");
+        }
+    }
+
+    /**
+     * Hands every frame published since the last pass to every spectator.
+     */
+    private void fanOut() {
+        byte[] frame;
+        boolean any = false;
+        while ((frame = published.poll()) != null) {
+            view.apply(SpectatorProtocol.nextFrame(ByteBuffer.wrap(frame)));
+            for (int i = spectators.size() - 1; i >= 0; i--) {
+                Spectator spectator = spectators.get(i);
+                try {
+                    if (spectator.queue.size() >= queueFrames) {
+                        // Many frames may come in one pass; only a socket that takes none of them is behind
+                        write(spectator);
+                    }
+                    if (spectator.queue.size() >= queueFrames) {
+                        // Too far behind: drop them rather than hold frames for them without limit
+                        dropped.incrementAndGet();
+                        disconnect(spectator);
+                    } else {
+                        enqueue(spectator, frame);
+                    }
+                } catch (IOException e) {
+                    disconnect(spectator);
+                }
+            }
+            any = true;
+        }
+        if (any) {
+            for (int i = spectators.size() - 1; i >= 0; i--) {
+                Spectator spectator = spectators.get(i);
+                try {
+                    write(spectator);
+                } catch (IOException e) {
+                    disconnect(spectator);
+                }
+            }
+        }
+    }
+
+    private void enqueue(Spectator spectator, byte[] frame) {
+        spectator.queue.add(ByteBuffer.wrap(frame));
+    }
+
+    /**
+     * Writes as many queued frames as the socket takes, and asks for a
+     * write event if some are left.
+     */
+    private void write(Spectator spectator) throws IOException {
+        ArrayDeque<ByteBuffer> queue = spectator.queue;
+        while (!queue.isEmpty()) {
+            int count = 0;
+            for (ByteBuffer frame : queue) {
+                batch[count++] = frame;
+                if (count == WRITE_BATCH) {
+                    break;
+                }
+            }
+            spectator.channel.write(batch, 0, count);
+            boolean full = batch[count - 1].hasRemaining();
+            Arrays.fill(batch, 0, count, null);
+            while (!queue.isEmpty() && !queue.peek().hasRemaining()) {
+                queue.poll();
+            }
+            if (full) {
+                break;
+            }
+        }
+        SelectionKey key = spectator.channel.keyFor(selector);
+        if (key != null && key.isValid()) {
+            key.interestOps(queue.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void disconnect(Spectator spectator) {
+        if (spectators.remove(spectator)) {
+            connected.decrementAndGet();
+        }
+        spectator.queue.clear();
+        try {
+            spectator.channel.close();
+        } catch (IOException e) {
+            System.out.println("Error closing spectator: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the server and disconnects every spectator.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+    }
+}
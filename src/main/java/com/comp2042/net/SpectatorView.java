@@ -0,0 +1,188 @@
+package com.comp2042.net;
+
+import com.comp2042.replay.ReplayFormat;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A spectator's copy of a game, rebuilt from the frames of the spectator
+ * stream (see {@link SpectatorProtocol}).
+ * <p>
+ * Not thread-safe.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class SpectatorView {
+
+    private int width;
+    private int height;
+    private int[][] cells;
+    private SpectatorProtocol.Piece piece = SpectatorProtocol.Piece.NONE;
+    private int score;
+    private boolean gameOver;
+    private long frames;
+
+    /**
+     * Applies one frame.
+     *
+     * @param frame operations of the frame, as returned by {@link SpectatorProtocol#nextFrame}
+     * @throws IllegalArgumentException if the frame is malformed or comes before the keyframe
+     */
+    public void apply(ByteBuffer frame) {
+        while (frame.hasRemaining()) {
+            int operation = frame.get();
+            if (operation != SpectatorProtocol.KEYFRAME && cells == null) {
+                throw new IllegalArgumentException("Spectator stream must start with a keyframe");
+            }
+            switch (operation) {
+                case SpectatorProtocol.KEYFRAME -> readKeyframe(frame);
+                case SpectatorProtocol.PIECE -> piece = SpectatorProtocol.getPiece(frame);
+                case SpectatorProtocol.LOCK -> lock(frame.get());
+                case SpectatorProtocol.CELL -> {
+                    int row = frame.get();
+                    int column = frame.get();
+                    cells[row][column] = frame.get();
+                }
+                case SpectatorProtocol.ROW -> {
+                    int[] row = cells[frame.get()];
+                    for (int c = 0; c < width; c++) {
+                        row[c] = frame.get();
+                    }
+                }
+                case SpectatorProtocol.SCORE -> score = (int) ReplayFormat.getVarint(frame);
+                case SpectatorProtocol.GAME_OVER -> gameOver = true;
+                default -> throw new IllegalArgumentException("Unknown spectator operation " + operation);
+            }
+        }
+        frames++;
+    }
+
+    private void readKeyframe(ByteBuffer frame) {
+        width = (int) ReplayFormat.getVarint(frame);
+        height = (int) ReplayFormat.getVarint(frame);
+        cells = new int[height][width];
+        for (int[] row : cells) {
+            for (int c = 0; c < width; c++) {
+                row[c] = frame.get();
+            }
+        }
+        piece = SpectatorProtocol.getPiece(frame);
+        score = (int) ReplayFormat.getVarint(frame);
+        gameOver = frame.get() != 0;
+    }
+
+    /**
+     * Locks the active brick at a row and clears full rows, the same way
+     * the game does.
+     */
+    private void lock(int y) {
+        lockInto(cells, piece.atRow(y));
+        piece = SpectatorProtocol.Piece.NONE;
+    }
+
+    /**
+     * Merges a piece into a board and clears the rows it completes.
+     *
+     * @param board board to change
+     * @param piece piece to merge
+     */
+    static void lockInto(int[][] board, SpectatorProtocol.Piece piece) {
+        int width = board[0].length;
+        for (int r = 0; r < SpectatorProtocol.SHAPE_SIZE; r++) {
+            for (int c = 0; c < SpectatorProtocol.SHAPE_SIZE; c++) {
+                int by = piece.y() + r;
+                int bx = piece.x() + c;
+                if (piece.fills(r, c) && by >= 0 && by < board.length && bx >= 0 && bx < width) {
+                    board[by][bx] = piece.id();
+                }
+            }
+        }
+        int write = board.length - 1;
+        for (int read = board.length - 1; read >= 0; read--) {
+            int[] row = board[read];
+            boolean full = true;
+            for (int cell : row) {
+                full &= cell != 0;
+            }
+            if (!full) {
+                board[write--] = row;
+            }
+        }
+        for (; write >= 0; write--) {
+            board[write] = new int[width];
+        }
+    }
+
+    /**
+     * Encodes the whole game as a keyframe, for a spectator joining now.
+     *
+     * @return the keyframe, ready to send
+     * @throws IllegalStateException if no keyframe was applied yet
+     */
+    public byte[] keyframe() {
+        if (cells == null) {
+            throw new IllegalStateException("No game to encode yet");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(32 + width * height);
+        buffer.put((byte) SpectatorProtocol.KEYFRAME);
+        ReplayFormat.putVarint(buffer, width);
+        ReplayFormat.putVarint(buffer, height);
+        for (int[] row : cells) {
+            for (int cell : row) {
+                buffer.put((byte) cell);
+            }
+        }
+        SpectatorProtocol.putPiece(buffer, piece);
+        ReplayFormat.putVarint(buffer, score);
+        buffer.put((byte) (gameOver ? 1 : 0));
+        return SpectatorProtocol.frame(buffer.flip());
+    }
+
+    /**
+     * @return {@code true} once a keyframe was applied
+     */
+    public boolean hasGame() {
+        return cells != null;
+    }
+
+    /**
+     * @return copy of the locked cells
+     */
+    public int[][] getCells() {
+        int[][] copy = new int[height][];
+        for (int r = 0; r < height; r++) {
+            copy[r] = Arrays.copyOf(cells[r], width);
+        }
+        return copy;
+    }
+
+    /**
+     * @return the active brick, or {@link SpectatorProtocol.Piece#NONE}
+     */
+    public SpectatorProtocol.Piece getPiece() {
+        return piece;
+    }
+
+    /**
+     * @return current score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return {@code true} once the game has ended
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * @return number of frames applied
+     */
+    public long getFrames() {
+        return frames;
+    }
+}
@@ -0,0 +1,245 @@
+package com.comp2042.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection of one player to a {@link VersusRelay}.
+ * <p>
+ * All network I/O happens on a daemon thread that waits on a
+ * {@link Selector} over a non-blocking {@link SocketChannel}. The game
+ * loop only touches two queues: {@link #send} adds a message to the
+ * outbox and {@link #poll} takes the next received message, neither of
+ * which ever waits for the network.
+ * <p>
+ * Outgoing messages are gathered and written together every
+ * {@link #FLUSH_INTERVAL_MILLIS} ms, so a burst of key presses costs one
+ * packet rather than one per key. This caps a player at ten packets a
+ * second, headers included well under 1 KB/s, at the price of up to
+ * 100 ms of extra delay before the opponent sees a move.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class VersusConnection implements AutoCloseable {
+
+    /** Time between two writes of queued messages. */
+    public static final long FLUSH_INTERVAL_MILLIS = 100;
+
+    private static final int BUFFER_BYTES = 8 * 1024;
+
+    private final SocketChannel channel;
+    private final Selector selector;
+    private final Thread thread;
+
+    private final Queue<VersusMessage> outbox = new ConcurrentLinkedQueue<>();
+    private final Queue<VersusMessage> inbox = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+
+    private volatile boolean open = true;
+    private volatile boolean closing;
+
+    private VersusConnection(SocketChannel channel, Selector selector) {
+        this.channel = channel;
+        this.selector = selector;
+        this.thread = new Thread(this::run, "versus-network");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Starts connecting to a relay. The connection completes in the
+     * background; messages sent before that are kept until it does.
+     *
+     * @param relay address of the relay
+     * @return the connection
+     * @throws IOException if the connection cannot be started
+     */
+    public static VersusConnection connect(InetSocketAddress relay) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        Selector selector = null;
+        try {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            selector = Selector.open();
+            boolean connected = channel.connect(relay);
+            channel.register(selector, connected ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            if (selector != null) {
+                selector.close();
+            }
+            throw e;
+        }
+        VersusConnection connection = new VersusConnection(channel, selector);
+        connection.thread.start();
+        return connection;
+    }
+
+    /**
+     * Queues a message for the next write. Never blocks.
+     *
+     * @param message message to send
+     */
+    public void send(VersusMessage message) {
+        if (open && !closing) {
+            outbox.add(message);
+        }
+    }
+
+    /**
+     * Takes the next received message. Never blocks.
+     *
+     * @return the message, or {@code null} if none is waiting
+     */
+    public VersusMessage poll() {
+        return inbox.poll();
+    }
+
+    /**
+     * @return {@code false} once the connection was closed by either side or failed
+     */
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * @return payload bytes written to the network so far
+     */
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    /**
+     * @return payload bytes read from the network so far
+     */
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    /**
+     * @return number of writes (roughly, packets) sent so far
+     */
+    public long getWrites() {
+        return writes.get();
+    }
+
+    private void run() {
+        ByteBuffer in = ByteBuffer.allocate(BUFFER_BYTES);
+        ByteBuffer out = ByteBuffer.allocate(BUFFER_BYTES);
+        long nextFlush = System.nanoTime();
+        try {
+            while (true) {
+                long wait = Math.max(1, (nextFlush - System.nanoTime()) / 1_000_000);
+                selector.select(wait);
+
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (key.isConnectable() && channel.finishConnect()) {
+                        key.interestOps(SelectionKey.OP_READ);
+                    }
+                    if (key.isValid() && key.isReadable() && !read(in)) {
+                        return;
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        write(out);
+                    }
+                }
+                selector.selectedKeys().clear();
+
+                if (System.nanoTime() - nextFlush >= 0 || closing) {
+                    nextFlush = System.nanoTime() + FLUSH_INTERVAL_MILLIS * 1_000_000;
+                    if (channel.isConnected()) {
+                        fill(out);
+                        write(out);
+                    }
+                }
+                if (closing && (!channel.isConnected() || (outbox.isEmpty() && out.position() == 0))) {
+                    return;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (!closing) {
+                System.out.println("Error in versus connection: " + e.getMessage());
+            }
+        } finally {
+            open = false;
+            try {
+                channel.close();
+                selector.close();
+            } catch (IOException e) {
+                System.out.println("Error closing versus connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads what has arrived and decodes every complete message.
+     *
+     * @return {@code false} if the other side closed the connection
+     */
+    private boolean read(ByteBuffer in) throws IOException {
+        int count = channel.read(in);
+        if (count < 0) {
+            return false;
+        }
+        bytesReceived.addAndGet(count);
+        in.flip();
+        VersusMessage message;
+        while ((message = VersusProtocol.decode(in)) != null) {
+            inbox.add(message);
+        }
+        in.compact();
+        return true;
+    }
+
+    /**
+     * Moves queued messages into the (write-mode) output buffer.
+     */
+    private void fill(ByteBuffer out) {
+        VersusMessage message;
+        while (out.remaining() >= VersusProtocol.MAX_MESSAGE_BYTES && (message = outbox.poll()) != null) {
+            VersusProtocol.encode(message, out);
+        }
+    }
+
+    /**
+     * Writes as much of the output buffer as the socket takes, and asks
+     * for a write event if some is left.
+     */
+    private void write(ByteBuffer out) throws IOException {
+        if (out.position() == 0) {
+            return;
+        }
+        out.flip();
+        int count = channel.write(out);
+        out.compact();
+        if (count > 0) {
+            bytesSent.addAndGet(count);
+            writes.incrementAndGet();
+        }
+        SelectionKey key = channel.keyFor(selector);
+        key.interestOps((out.position() > 0) ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    /**
+     * Says goodbye to the opponent and closes the connection once the
+     * queued messages are written. Never blocks.
+     */
+    @Override
+    public void close() {
+        if (open && !closing) {
+            outbox.add(new VersusMessage.Bye());
+            closing = true;
+            selector.wakeup();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.comp2042.net;
+
+import com.comp2042.EventSource;
+import com.comp2042.EventType;
+
+/**
+ * A message of the online versus protocol. See {@link VersusProtocol}
+ * for how each message is encoded.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public sealed interface VersusMessage {
+
+    /**
+     * Sent by the relay to both players once they are paired.
+     *
+     * @param player index of the receiving player (0 or 1)
+     * @param seed   seed of the match, shared by both players
+     */
+    record Start(int player, long seed) implements VersusMessage {
+    }
+
+    /**
+     * One input of the sender, in the order it was applied.
+     *
+     * @param type   what the input did
+     * @param source who issued it (player or gravity timer)
+     */
+    record Input(EventType type, EventSource source) implements VersusMessage {
+    }
+
+    /**
+     * Garbage rows sent to the receiver by the sender's line clears.
+     *
+     * @param rows number of garbage rows
+     */
+    record Attack(int rows) implements VersusMessage {
+    }
+
+    /**
+     * Garbage the sender takes when it locks its next brick. Sent just
+     * before the input that locks it.
+     *
+     * @param rows       number of garbage rows
+     * @param holeColumn the empty column of the rows
+     */
+    record Garbage(int rows, int holeColumn) implements VersusMessage {
+    }
+
+    /**
+     * State hash of the sender's board after a number of bricks, so that
+     * the receiver can check that its mirror of the board agrees.
+     *
+     * @param pieces bricks locked by the sender so far
+     * @param hash   Zobrist hash of the sender's board
+     */
+    record Checksum(int pieces, long hash) implements VersusMessage {
+    }
+
+    /**
+     * The sender is leaving the match.
+     */
+    record Bye() implements VersusMessage {
+    }
+}
@@ -0,0 +1,132 @@
+package com.comp2042.net;
+
+import com.comp2042.replay.ReplayFormat;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Binary encoding of the online versus protocol.
+ * <p>
+ * The protocol is a plain stream of messages with no framing. The first
+ * byte of a message tells its kind:
+ * <pre>
+ * 1xxxxxxx  Input     command code (see {@link ReplayFormat#encodeCommand}) in the low 7 bits
+ * 0x01      Start     byte version, byte player, long seed
+ * 0x02      Attack    varint rows
+ * 0x03      Garbage   varint rows, byte hole column
+ * 0x04      Checksum  varint pieces, long hash
+ * 0x05      Bye
+ * </pre>
+ * Inputs, by far the most frequent messages, take a single byte. A
+ * player sending ten inputs a second plus gravity and a checksum every
+ * few bricks sends well under 100 bytes per second.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class VersusProtocol {
+
+    /** Port the relay listens on by default. */
+    public static final int DEFAULT_PORT = 7777;
+
+    /** Protocol version, sent in {@link VersusMessage.Start}. */
+    public static final int VERSION = 1;
+
+    /** Largest encoded message: a checksum with a 5-byte varint. */
+    public static final int MAX_MESSAGE_BYTES = 1 + 5 + 8;
+
+    private static final int INPUT_FLAG = 0x80;
+    private static final int START = 0x01;
+    private static final int ATTACK = 0x02;
+    private static final int GARBAGE = 0x03;
+    private static final int CHECKSUM = 0x04;
+    private static final int BYE = 0x05;
+
+    /** Prevent instantiation of this utility class */
+    private VersusProtocol() {
+    }
+
+    /**
+     * Writes one message.
+     *
+     * @param message message to write
+     * @param buffer  target buffer, with at least {@link #MAX_MESSAGE_BYTES} remaining
+     */
+    public static void encode(VersusMessage message, ByteBuffer buffer) {
+        switch (message) {
+            case VersusMessage.Input input ->
+                    buffer.put((byte) (INPUT_FLAG | ReplayFormat.encodeCommand(input.type(), input.source())));
+            case VersusMessage.Start start ->
+                    buffer.put((byte) START).put((byte) VERSION).put((byte) start.player()).putLong(start.seed());
+            case VersusMessage.Attack attack -> {
+                buffer.put((byte) ATTACK);
+                ReplayFormat.putVarint(buffer, attack.rows());
+            }
+            case VersusMessage.Garbage garbage -> {
+                buffer.put((byte) GARBAGE);
+                ReplayFormat.putVarint(buffer, garbage.rows());
+                buffer.put((byte) garbage.holeColumn());
+            }
+            case VersusMessage.Checksum checksum -> {
+                buffer.put((byte) CHECKSUM);
+                ReplayFormat.putVarint(buffer, checksum.pieces());
+                buffer.putLong(checksum.hash());
+            }
+            case VersusMessage.Bye bye -> buffer.put((byte) BYE);
+        }
+    }
+
+    /**
+     * Reads the next message, if all of its bytes have arrived. If not,
+     * the buffer is left as it was, so that the read can be retried once
+     * more bytes were appended.
+     *
+     * @param buffer source buffer
+     * @return the message, or {@code null} if it is not complete yet
+     * @throws IllegalArgumentException if the bytes are not a valid message
+     */
+    public static VersusMessage decode(ByteBuffer buffer) {
+        if (!buffer.hasRemaining()) {
+            return null;
+        }
+        int start = buffer.position();
+        try {
+            int kind = buffer.get() & 0xFF;
+            if ((kind & INPUT_FLAG) != 0) {
+                int code = kind & ~INPUT_FLAG;
+                return new VersusMessage.Input(ReplayFormat.commandType(code), ReplayFormat.commandSource(code));
+            }
+            switch (kind) {
+                case START: {
+                    int version = buffer.get();
+                    int player = buffer.get();
+                    long seed = buffer.getLong();
+                    if (version != VERSION) {
+                        throw new IllegalArgumentException("Unsupported versus protocol version " + version);
+                    }
+                    return new VersusMessage.Start(player, seed);
+                }
+                case ATTACK:
+                    return new VersusMessage.Attack((int) ReplayFormat.getVarint(buffer));
+                case GARBAGE: {
+                    int rows = (int) ReplayFormat.getVarint(buffer);
+                    return new VersusMessage.Garbage(rows, buffer.get());
+                }
+                case CHECKSUM: {
+                    int pieces = (int) ReplayFormat.getVarint(buffer);
+                    return new VersusMessage.Checksum(pieces, buffer.getLong());
+                }
+                case BYE:
+                    return new VersusMessage.Bye();
+                default:
+                    throw new IllegalArgumentException("Unknown versus message " + kind);
+            }
+        } catch (BufferUnderflowException e) {
+            buffer.position(start);
+            return null;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Unknown input command", e);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.comp2042.net;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Relay server that pairs players for online versus and forwards their
+ * messages to each other.
+ * <p>
+ * Players are paired in the order they connect. Once two are paired,
+ * the relay sends each a {@link VersusMessage.Start} with their player
+ * index and a shared seed, and from then on copies every byte one player
+ * sends to the other without decoding it. When either player leaves, the
+ * other is disconnected.
+ * <p>
+ * The relay runs on one thread with a {@link Selector} over non-blocking
+ * channels, so one slow player never holds up another pair. It can run
+ * inside a game instance or on its own with {@link #main}.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class VersusRelay implements AutoCloseable {
+
+    /** Bytes a player may have waiting for their opponent before the pair is dropped. */
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final Thread thread;
+
+    /** Player waiting for an opponent, if any; only used on the relay thread. */
+    private Peer waiting;
+
+    /** Receives (and discards) what a player sends before being paired. */
+    private final ByteBuffer discard = ByteBuffer.allocate(1024);
+
+    private volatile boolean closed;
+
+    /** One connected player. */
+    private static final class Peer {
+        final SocketChannel channel;
+        final ByteBuffer out = ByteBuffer.allocate(BUFFER_BYTES);
+        Peer partner;
+
+        Peer(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private VersusRelay(ServerSocketChannel server, Selector selector) {
+        this.server = server;
+        this.selector = selector;
+        this.thread = new Thread(this::run, "versus-relay");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Starts a relay on the loopback interface.
+     *
+     * @param port port to listen on, or 0 for any free port
+     * @return the running relay
+     * @throws IOException if the port cannot be opened
+     */
+    public static VersusRelay start(int port) throws IOException {
+        return start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Starts a relay.
+     *
+     * @param address address to listen on
+     * @return the running relay
+     * @throws IOException if the address cannot be opened
+     */
+    public static VersusRelay start(InetSocketAddress address) throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        Selector selector = null;
+        try {
+            server.bind(address);
+            server.configureBlocking(false);
+            selector = Selector.open();
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException | RuntimeException e) {
+            server.close();
+            if (selector != null) {
+                selector.close();
+            }
+            throw e;
+        }
+        VersusRelay relay = new VersusRelay(server, selector);
+        relay.thread.start();
+        return relay;
+    }
+
+    /**
+     * @return port the relay listens on
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                selector.select();
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Peer peer = (Peer) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            forward(peer);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            flush(peer);
+                        }
+                    } catch (IOException e) {
+                        drop(peer);
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException e) {
+            System.out.println("Error in versus relay: " + e.getMessage());
+        } finally {
+            try {
+                for (SelectionKey key : selector.keys()) {
+                    key.channel().close();
+                }
+                selector.close();
+            } catch (IOException e) {
+                System.out.println("Error closing versus relay: " + e.getMessage());
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Peer peer = new Peer(channel);
+        channel.register(selector, SelectionKey.OP_READ, peer);
+
+        if (waiting == null || !waiting.channel.isOpen()) {
+            waiting = peer;
+            return;
+        }
+        Peer first = waiting;
+        waiting = null;
+        first.partner = peer;
+        peer.partner = first;
+
+        long seed = ThreadLocalRandom.current().nextLong();
+        VersusProtocol.encode(new VersusMessage.Start(0, seed), first.out);
+        VersusProtocol.encode(new VersusMessage.Start(1, seed), peer.out);
+        flush(first);
+        flush(peer);
+    }
+
+    /**
+     * Copies what a player sent into their partner's output buffer.
+     */
+    private void forward(Peer peer) throws IOException {
+        Peer partner = peer.partner;
+        ByteBuffer target = (partner != null) ? partner.out : discard.clear();
+        if (!target.hasRemaining()) {
+            throw new IOException("Opponent is not reading");
+        }
+        if (peer.channel.read(target) < 0) {
+            throw new IOException("Player left");
+        }
+        if (partner != null) {
+            try {
+                flush(partner);
+            } catch (IOException e) {
+                drop(partner);
+            }
+        }
+    }
+
+    private void flush(Peer peer) throws IOException {
+        ByteBuffer out = peer.out;
+        out.flip();
+        peer.channel.write(out);
+        out.compact();
+        SelectionKey key = peer.channel.keyFor(selector);
+        if (key != null && key.isValid()) {
+            key.interestOps((out.position() > 0) ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Disconnects a player and their partner.
+     */
+    private void drop(Peer peer) {
+        close(peer);
+        if (peer.partner != null) {
+            close(peer.partner);
+        }
+        if (waiting == peer) {
+            waiting = null;
+        }
+    }
+
+    private static void close(Peer peer) {
+        try {
+            peer.channel.close();
+        } catch (IOException e) {
+            System.out.println("Error closing versus player: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the relay and disconnects every player.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+    }
+
+    /**
+     * Runs a relay until the process is stopped.
+     *
+     * @param args optional port (default {@value VersusProtocol#DEFAULT_PORT})
+     * @throws Exception if the relay cannot start
+     */
+    public static void main(String[] args) throws Exception {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : VersusProtocol.DEFAULT_PORT;
+        InetSocketAddress address = new InetSocketAddress(port);
+        try (VersusRelay relay = start(address)) {
+            System.out.println("Versus relay listening on port " + relay.getPort());
+            relay.thread.join();
+        }
+    }
+}
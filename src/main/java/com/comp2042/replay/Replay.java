@@ -0,0 +1,85 @@
+package com.comp2042.replay;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A decoded replay: header, events with absolute ticks and the final score.
+ *
+ * @param header     replay header
+ * @param events     events in recording order
+ * @param finalScore score recorded at the end of the game, or {@code -1} if the game was abandoned
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public record Replay(ReplayHeader header, List<ReplayEvent> events, int finalScore) {
+
+    public Replay {
+        events = Collections.unmodifiableList(events);
+    }
+
+    /**
+     * @return {@code true} if the replay has its end record
+     */
+    public boolean isFinished() {
+        return finalScore >= 0;
+    }
+
+    /**
+     * @return game length in milliseconds (tick of the last event)
+     */
+    public long durationMillis() {
+        return events.isEmpty() ? 0 : events.get(events.size() - 1).tick();
+    }
+
+    /**
+     * Reads a replay file.
+     * <p>
+     * A file cut short (e.g. by a crash while recording) yields every
+     * complete event before the cut and is reported as unfinished.
+     *
+     * @param file replay file
+     * @return decoded replay
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a replay
+     */
+    public static Replay read(Path file) throws IOException {
+        return decode(ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+
+    /**
+     * Decodes a replay from memory.
+     *
+     * @param buffer encoded replay
+     * @return decoded replay
+     */
+    public static Replay decode(ByteBuffer buffer) {
+        ReplayHeader header = ReplayHeader.readFrom(buffer);
+        List<ReplayEvent> events = new ArrayList<>();
+        long tick = 0;
+        int finalScore = -1;
+
+        try {
+            while (buffer.hasRemaining()) {
+                long delta = ReplayFormat.getVarint(buffer);
+                int code = buffer.get() & 0xFF;
+                if (code == ReplayFormat.END) {
+                    finalScore = (int) ReplayFormat.getVarint(buffer);
+                    break;
+                }
+                tick += delta;
+                events.add(new ReplayEvent(tick, ReplayFormat.commandType(code), ReplayFormat.commandSource(code)));
+            }
+        } catch (BufferUnderflowException e) {
+            // Torn final record: keep the complete ones
+        }
+        return new Replay(header, events, finalScore);
+    }
+}
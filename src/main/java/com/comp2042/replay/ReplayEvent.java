@@ -0,0 +1,17 @@
+package com.comp2042.replay;
+
+import com.comp2042.EventSource;
+import com.comp2042.EventType;
+
+/**
+ * One recorded input.
+ *
+ * @param tick   milliseconds since the start of the game
+ * @param type   what the input did
+ * @param source who issued it (player, gravity timer or bot)
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public record ReplayEvent(long tick, EventType type, EventSource source) {
+}
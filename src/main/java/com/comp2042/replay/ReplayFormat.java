@@ -0,0 +1,109 @@
+package com.comp2042.replay;
+
+import com.comp2042.EventSource;
+import com.comp2042.EventType;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Constants and primitive encoders of the binary replay format.
+ * <p>
+ * A replay file is a {@link ReplayHeader} followed by one record per
+ * input event:
+ * <pre>
+ * varint  milliseconds since the previous event
+ * byte    command code: event type in the low 4 bits, event source above
+ * </pre>
+ * and ends with a record whose command code is {@link #END}, followed by
+ * the final score as a varint. A file without the end record belongs to a game that was
+ * abandoned; its events are still valid.
+ * <p>
+ * Varints are unsigned LEB128: seven bits per byte, low bits first, with
+ * the top bit set on every byte but the last. Events are rarely more than
+ * 127 ms apart while playing, so a typical record is two bytes.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class ReplayFormat {
+
+    /** File signature ("TRPL"). */
+    public static final int MAGIC = 0x5452504C;
+
+    /** Current format version. */
+    public static final int VERSION = 1;
+
+    /** Command code that ends the event stream. */
+    public static final int END = 0xFF;
+
+    /** File name extension of replay files. */
+    public static final String EXTENSION = ".trp";
+
+    /** Largest encoded event: a 10-byte varint plus the command code. */
+    static final int MAX_RECORD_BYTES = 11;
+
+    private static final EventType[] TYPES = EventType.values();
+    private static final EventSource[] SOURCES = EventSource.values();
+
+    /** Prevent instantiation of this utility class */
+    private ReplayFormat() {
+    }
+
+    /**
+     * @param type   event type
+     * @param source event source
+     * @return one-byte command code
+     */
+    public static int encodeCommand(EventType type, EventSource source) {
+        return (source.ordinal() << 4) | type.ordinal();
+    }
+
+    /**
+     * @param code command code
+     * @return event type of the code
+     */
+    public static EventType commandType(int code) {
+        return TYPES[code & 0x0F];
+    }
+
+    /**
+     * @param code command code
+     * @return event source of the code
+     */
+    public static EventSource commandSource(int code) {
+        return SOURCES[(code >>> 4) & 0x0F];
+    }
+
+    /**
+     * Writes an unsigned LEB128 varint.
+     *
+     * @param buffer target buffer
+     * @param value  non-negative value
+     */
+    public static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads an unsigned LEB128 varint.
+     *
+     * @param buffer source buffer
+     * @return decoded value
+     * @throws IllegalArgumentException if the varint is longer than 64 bits
+     */
+    public static long getVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
@@ -0,0 +1,88 @@
+package com.comp2042.replay;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed information at the start of every replay.
+ * <p>
+ * The seed and board size are enough to rebuild the exact brick sequence
+ * with {@link com.comp2042.logic.bricks.RandomBrickGenerator}, so the
+ * replay itself only needs to store inputs.
+ *
+ * @param version     format version the replay was written with
+ * @param mode        game mode, e.g. {@code normal} or {@code time_60}
+ * @param seed        brick sequence seed
+ * @param width       board width in cells
+ * @param height      board height in cells
+ * @param previewSize number of upcoming bricks the generator kept
+ * @param startedAt   wall-clock start time in epoch milliseconds
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public record ReplayHeader(int version, String mode, long seed, int width, int height,
+                           int previewSize, long startedAt) {
+
+    /**
+     * Creates a header for the current format version.
+     *
+     * @param mode        game mode
+     * @param seed        brick sequence seed
+     * @param width       board width
+     * @param height      board height
+     * @param previewSize generator preview size
+     * @param startedAt   start time in epoch milliseconds
+     * @return new header
+     */
+    public static ReplayHeader of(String mode, long seed, int width, int height, int previewSize, long startedAt) {
+        return new ReplayHeader(ReplayFormat.VERSION, mode, seed, width, height, previewSize, startedAt);
+    }
+
+    /**
+     * Writes this header.
+     *
+     * @param buffer target buffer with enough room (at most 280 bytes)
+     */
+    public void writeTo(ByteBuffer buffer) {
+        byte[] modeBytes = mode.getBytes(StandardCharsets.UTF_8);
+        if (modeBytes.length > 255) {
+            throw new IllegalArgumentException("Mode name too long: " + mode);
+        }
+        buffer.putInt(ReplayFormat.MAGIC);
+        buffer.put((byte) version);
+        buffer.put((byte) width);
+        buffer.put((byte) height);
+        buffer.put((byte) previewSize);
+        buffer.putLong(seed);
+        buffer.putLong(startedAt);
+        buffer.put((byte) modeBytes.length);
+        buffer.put(modeBytes);
+    }
+
+    /**
+     * Reads a header.
+     *
+     * @param buffer source buffer positioned at the start of a replay
+     * @return decoded header
+     * @throws IllegalArgumentException if the data is not a supported replay
+     */
+    public static ReplayHeader readFrom(ByteBuffer buffer) {
+        if (buffer.remaining() < 4 || buffer.getInt() != ReplayFormat.MAGIC) {
+            throw new IllegalArgumentException("Not a replay file");
+        }
+        int version = buffer.get() & 0xFF;
+        if (version > ReplayFormat.VERSION) {
+            throw new IllegalArgumentException("Unsupported replay version " + version);
+        }
+        int width = buffer.get() & 0xFF;
+        int height = buffer.get() & 0xFF;
+        int previewSize = buffer.get() & 0xFF;
+        long seed = buffer.getLong();
+        long startedAt = buffer.getLong();
+        byte[] modeBytes = new byte[buffer.get() & 0xFF];
+        buffer.get(modeBytes);
+        return new ReplayHeader(version, new String(modeBytes, StandardCharsets.UTF_8),
+                seed, width, height, previewSize, startedAt);
+    }
+}
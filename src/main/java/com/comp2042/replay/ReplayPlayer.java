@@ -0,0 +1,189 @@
+package com.comp2042.replay;
+
+import com.comp2042.HeadlessGame;
+import com.comp2042.SimpleBoard;
+import com.comp2042.logic.bricks.RandomBrickGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Re-simulates a recorded game on a headless board.
+ * <p>
+ * On construction the whole replay is played once at full speed through
+ * {@link HeadlessGame#apply}, which skips all view data. Every
+ * {@code keyframeInterval} events a keyframe is kept: a
+ * {@link HeadlessGame#fork() fork} of the game at that point, which shares
+ * unchanged board rows and so costs little memory. Seeking to any event
+ * then forks the nearest earlier keyframe and applies at most
+ * {@code keyframeInterval} events, while moving forward by a small step
+ * just continues from the current state.
+ * <p>
+ * Keyframes are never modified; {@link #getGame()} returns a fork that
+ * callers may read but should not drive themselves.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class ReplayPlayer {
+
+    /** Default number of events between keyframes. */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 256;
+
+    private final Replay replay;
+    private final int keyframeInterval;
+    private final List<ReplayEvent> events;
+
+    /** keyframes.get(k) is the state after k * keyframeInterval events. */
+    private final List<HeadlessGame> keyframes = new ArrayList<>();
+
+    private final int simulatedScore;
+    private final long simulationNanos;
+
+    private HeadlessGame current;
+    private int position;
+
+    /**
+     * @param replay replay to play
+     */
+    public ReplayPlayer(Replay replay) {
+        this(replay, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * @param replay           replay to play
+     * @param keyframeInterval events between keyframes (at least 1)
+     */
+    public ReplayPlayer(Replay replay, int keyframeInterval) {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be at least 1");
+        }
+        this.replay = replay;
+        this.keyframeInterval = keyframeInterval;
+        this.events = replay.events();
+
+        HeadlessGame game = newGame(replay.header());
+        keyframes.add(game.fork());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < events.size(); i++) {
+            game.apply(events.get(i).type());
+            if ((i + 1) % keyframeInterval == 0) {
+                keyframes.add(game.fork());
+            }
+        }
+        simulationNanos = System.nanoTime() - start;
+        simulatedScore = game.getScore();
+
+        current = keyframes.get(0).fork();
+        position = 0;
+    }
+
+    /**
+     * Creates the game a replay starts from.
+     *
+     * @param header replay header
+     * @return game with the recorded board size and brick sequence
+     */
+    public static HeadlessGame newGame(ReplayHeader header) {
+        RandomBrickGenerator generator = new RandomBrickGenerator(header.previewSize(), header.seed());
+        return new HeadlessGame(new SimpleBoard(header.width(), header.height(), generator));
+    }
+
+    /**
+     * Moves to the state after the first {@code index} events.
+     *
+     * @param index number of events applied (clamped to the replay length)
+     * @return game at that point
+     */
+    public HeadlessGame seekToEvent(int index) {
+        index = Math.max(0, Math.min(index, events.size()));
+        if (index < position || index - position > keyframeInterval) {
+            int keyframe = index / keyframeInterval;
+            current = keyframes.get(keyframe).fork();
+            position = keyframe * keyframeInterval;
+        }
+        while (position < index) {
+            current.apply(events.get(position++).type());
+        }
+        return current;
+    }
+
+    /**
+     * Moves to the state at a point in time.
+     *
+     * @param tick milliseconds since the start of the game
+     * @return game with every event up to and including {@code tick} applied
+     */
+    public HeadlessGame seek(long tick) {
+        return seekToEvent(indexAt(tick));
+    }
+
+    /**
+     * @param tick milliseconds since the start of the game
+     * @return number of events at or before {@code tick}
+     */
+    public int indexAt(long tick) {
+        int low = 0;
+        int high = events.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (events.get(mid).tick() <= tick) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return game at the current position
+     */
+    public HeadlessGame getGame() {
+        return current;
+    }
+
+    /**
+     * @return number of events applied to {@link #getGame()}
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the replay being played
+     */
+    public Replay getReplay() {
+        return replay;
+    }
+
+    /**
+     * @return total number of events
+     */
+    public int eventCount() {
+        return events.size();
+    }
+
+    /**
+     * @return score reached by re-simulating the whole replay
+     */
+    public int getSimulatedScore() {
+        return simulatedScore;
+    }
+
+    /**
+     * @return {@code true} if re-simulation reproduced the recorded final
+     *         score (always true for unfinished replays)
+     */
+    public boolean matchesRecording() {
+        return !replay.isFinished() || simulatedScore == replay.finalScore();
+    }
+
+    /**
+     * @return events applied per second during the initial full-speed pass
+     */
+    public double simulationEventsPerSecond() {
+        return events.size() / Math.max(1e-9, simulationNanos / 1e9);
+    }
+}
@@ -0,0 +1,209 @@
+package com.comp2042.replay;
+
+import com.comp2042.BackgroundWriter;
+import com.comp2042.EventSource;
+import com.comp2042.EventType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the input events of one game into a compact replay file.
+ * <p>
+ * Recording is designed to be left on: {@link #record} only encodes a
+ * few bytes into an in-memory chunk, so the calling thread (the JavaFX
+ * thread) never touches the disk. Full chunks are handed to a shared
+ * background writer thread that appends them to the file through a
+ * {@link FileChannel}. Chunks from one recorder are written in order,
+ * and chunks already handed over are still written when the JVM exits.
+ * The chunk being filled is only handed over by {@link #close()} or
+ * {@link #finish}, so a recorder must be closed to keep its last events;
+ * the game does this when it is left or its window is closed.
+ * <p>
+ * A recorder is not thread-safe; all calls must come from the thread that
+ * drives the game.
+ *
+ * @author Chan Michelle
+ * @version 1.2
+ */
+public final class ReplayRecorder implements AutoCloseable {
+
+    /** Default directory for replay files. */
+    public static final Path DEFAULT_DIRECTORY = Paths.get("replays");
+
+    /** Size of each in-memory chunk; a chunk holds around two thousand events. */
+    private static final int CHUNK_SIZE = 4096;
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final BackgroundWriter WRITER = new BackgroundWriter("replay");
+
+    private final Path file;
+    private final long startNanos;
+
+    private ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+    private long lastTick;
+    private boolean closed;
+
+    /** Only used on the writer thread. */
+    private FileChannel channel;
+    private boolean failed;
+
+    /**
+     * Starts recording into a new file.
+     *
+     * @param file   replay file to create (replaced if it exists)
+     * @param header replay header
+     */
+    public ReplayRecorder(Path file, ReplayHeader header) {
+        this.file = file;
+        this.startNanos = System.nanoTime();
+        header.writeTo(chunk);
+    }
+
+    /**
+     * Starts recording into a new, uniquely named file in a directory.
+     *
+     * @param directory directory for replay files (created if missing)
+     * @param header    replay header
+     * @return new recorder
+     */
+    public static ReplayRecorder start(Path directory, ReplayHeader header) {
+        String name = header.mode() + "-" + LocalDateTime.now().format(FILE_TIME)
+                + "-" + Long.toHexString(header.seed()) + ReplayFormat.EXTENSION;
+        return new ReplayRecorder(directory.resolve(name), header);
+    }
+
+    /**
+     * Records an event at the current time.
+     *
+     * @param type   event type
+     * @param source event source
+     */
+    public void record(EventType type, EventSource source) {
+        record(elapsedMillis(), type, source);
+    }
+
+    /**
+     * Records an event at an explicit time (used by tools and tests).
+     *
+     * @param tick   milliseconds since the start of the game; never earlier than the previous event
+     * @param type   event type
+     * @param source event source
+     */
+    public void record(long tick, EventType type, EventSource source) {
+        if (closed) {
+            return;
+        }
+        putRecord(tick, ReplayFormat.encodeCommand(type, source));
+    }
+
+    /**
+     * Writes the end record with the final score and closes the file.
+     *
+     * @param finalScore score at the end of the game
+     */
+    public void finish(int finalScore) {
+        if (closed) {
+            return;
+        }
+        putRecord(elapsedMillis(), ReplayFormat.END);
+        ReplayFormat.putVarint(chunk, finalScore);
+        close();
+    }
+
+    /**
+     * Flushes the remaining events and closes the file without an end
+     * record, marking the game as abandoned.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flush();
+        WRITER.execute(this::closeChannel);
+    }
+
+    /**
+     * @return replay file being written
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    private long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private void putRecord(long tick, int code) {
+        if (chunk.remaining() < 2 * ReplayFormat.MAX_RECORD_BYTES) {
+            flush();
+        }
+        long delta = Math.max(0, tick - lastTick);
+        lastTick = Math.max(lastTick, tick);
+        ReplayFormat.putVarint(chunk, delta);
+        chunk.put((byte) code);
+    }
+
+    /**
+     * Hands the current chunk to the writer thread and starts a new one.
+     */
+    private void flush() {
+        ByteBuffer full = chunk.flip();
+        chunk = ByteBuffer.allocate(CHUNK_SIZE);
+        if (full.hasRemaining()) {
+            WRITER.execute(() -> write(full));
+        }
+    }
+
+    private void write(ByteBuffer data) {
+        if (failed) {
+            return;
+        }
+        try {
+            if (channel == null) {
+                Path parent = file.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+            }
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        } catch (IOException e) {
+            failed = true;
+            System.out.println("Error writing replay: " + e.getMessage());
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Error closing replay: " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    /**
+     * Waits until every chunk handed to the writer has been written.
+     */
+    public static void drain() {
+        WRITER.drain();
+    }
+}
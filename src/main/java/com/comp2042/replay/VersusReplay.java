@@ -0,0 +1,134 @@
+package com.comp2042.replay;
+
+import com.comp2042.EventType;
+import com.comp2042.VersusGame;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A replay of a versus match played move by move, such as a bot match.
+ * <p>
+ * The file is a {@link ReplayHeader} with mode {@value #MODE} followed by
+ * one byte per input: the player in the high bits and the event type in
+ * the low 4 bits, as in {@link ReplayFormat#encodeCommand}. It ends with
+ * {@link ReplayFormat#END} and the winner plus one as a varint (0 for a
+ * draw). Both boards and the garbage between them follow from the seed
+ * and the inputs, so {@link #play()} rebuilds the whole match.
+ *
+ * @param header header; its seed is the seed of the match
+ * @param moves  inputs in the order they were applied
+ * @param winner index of the winning player, or {@code -1} for a draw
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public record VersusReplay(ReplayHeader header, List<Move> moves, int winner) {
+
+    /** Game mode written in the header of versus replays. */
+    public static final String MODE = "versus";
+
+    /** File extension of versus replays. */
+    public static final String EXTENSION = ".tvr";
+
+    private static final EventType[] TYPES = EventType.values();
+
+    /**
+     * One input of one player.
+     *
+     * @param player player index
+     * @param type   input
+     */
+    public record Move(int player, EventType type) {
+    }
+
+    public VersusReplay {
+        moves = Collections.unmodifiableList(moves);
+    }
+
+    /**
+     * @return the encoded replay
+     */
+    public byte[] encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(300 + moves.size() + 12);
+        header.writeTo(buffer);
+        for (Move move : moves) {
+            buffer.put((byte) ((move.player() << 4) | move.type().ordinal()));
+        }
+        buffer.put((byte) ReplayFormat.END);
+        ReplayFormat.putVarint(buffer, winner + 1);
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Writes the replay to a file.
+     *
+     * @param file target file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path file) throws IOException {
+        Files.write(file, encode());
+    }
+
+    /**
+     * Reads a versus replay file.
+     *
+     * @param file replay file
+     * @return decoded replay; the winner is {@code -1} if the file was cut short
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a versus replay
+     */
+    public static VersusReplay read(Path file) throws IOException {
+        return decode(ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+
+    /**
+     * Decodes a versus replay from memory.
+     *
+     * @param buffer encoded replay
+     * @return decoded replay
+     * @throws IllegalArgumentException if the data is not a versus replay
+     */
+    public static VersusReplay decode(ByteBuffer buffer) {
+        ReplayHeader header = ReplayHeader.readFrom(buffer);
+        if (!MODE.equals(header.mode())) {
+            throw new IllegalArgumentException("Not a versus replay: " + header.mode());
+        }
+        List<Move> moves = new ArrayList<>();
+        int winner = -1;
+        try {
+            while (buffer.hasRemaining()) {
+                int code = buffer.get() & 0xFF;
+                if (code == ReplayFormat.END) {
+                    winner = (int) ReplayFormat.getVarint(buffer) - 1;
+                    break;
+                }
+                moves.add(new Move(code >>> 4, TYPES[code & 0xF]));
+            }
+        } catch (BufferUnderflowException e) {
+            // Torn final record: keep the complete moves
+        }
+        return new VersusReplay(header, moves, winner);
+    }
+
+    /**
+     * Plays the match again from its seed and inputs.
+     *
+     * @return the match as it ended
+     */
+    public VersusGame play() {
+        VersusGame game = new VersusGame(header.width(), header.height(), header.seed());
+        for (Move move : moves) {
+            game.apply(move.player(), move.type());
+        }
+        return game;
+    }
+}
@@ -0,0 +1,136 @@
+package com.comp2042.save;
+
+import com.comp2042.BackgroundWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File holding the saved in-progress game.
+ * <p>
+ * {@link #save} only hands the captured game to a shared background
+ * writer thread, so autosaving never blocks the JavaFX thread. If saves
+ * arrive faster than they can be written, queued saves that have been
+ * superseded are skipped and only the newest is written. Each write goes
+ * to a temporary file that is then moved over the save, so a crash
+ * mid-write leaves the previous save intact. Pending writes are finished
+ * when the JVM exits.
+ *
+ * @author Chan Michelle
+ * @version 1.1
+ */
+public final class SaveFile {
+
+    /** Default location of the autosave. */
+    public static final Path DEFAULT_PATH = Paths.get("saves", "autosave.sav");
+
+    private static final BackgroundWriter WRITER = new BackgroundWriter("save");
+
+    private static final SaveFile DEFAULT = new SaveFile(DEFAULT_PATH);
+
+    private final Path path;
+
+    /** Id of the latest save or delete; older queued saves are skipped. */
+    private final AtomicLong latest = new AtomicLong();
+
+    /**
+     * @param path file to save to
+     */
+    public SaveFile(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * @return the shared save file at {@link #DEFAULT_PATH}
+     */
+    public static SaveFile defaultFile() {
+        return DEFAULT;
+    }
+
+    /**
+     * Queues a game to be written in the background.
+     *
+     * @param game game to save
+     */
+    public void save(SavedGame game) {
+        long id = latest.incrementAndGet();
+        WRITER.execute(() -> {
+            if (id == latest.get()) {
+                write(game);
+            }
+        });
+    }
+
+    /**
+     * Deletes the save in the background, after any queued writes.
+     */
+    public void delete() {
+        latest.incrementAndGet();
+        WRITER.execute(() -> {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                System.out.println("Error deleting save: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * @return {@code true} if a saved game exists
+     */
+    public boolean exists() {
+        return Files.isRegularFile(path);
+    }
+
+    /**
+     * Reads the saved game.
+     *
+     * @return saved game
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid save
+     */
+    public SavedGame load() throws IOException {
+        return SavedGame.decode(ByteBuffer.wrap(Files.readAllBytes(path)));
+    }
+
+    /**
+     * @return path of the save
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    private void write(SavedGame game) {
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            ByteBuffer data = game.encode();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Error saving game: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Waits until every queued save or delete has finished.
+     */
+    public static void drain() {
+        WRITER.drain();
+    }
+}
@@ -0,0 +1,209 @@
+package com.comp2042.save;
+
+import com.comp2042.BoardState;
+import com.comp2042.SimpleBoard;
+import com.comp2042.logic.bricks.Brick;
+import com.comp2042.logic.bricks.BrickType;
+import com.comp2042.logic.bricks.RandomBrickGenerator;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An in-progress game, captured so that it can be resumed later.
+ * <p>
+ * Binary layout (big-endian), version 1:
+ * <pre>
+ *   int    magic 'TSAV'
+ *   short  version
+ *   byte   mode length, then the mode name in UTF-8
+ *   int    time remaining in seconds (-1 for untimed games)
+ *   long   time the game was saved (epoch millis)
+ *   byte   width, byte height
+ *   width * height / 2 bytes: cells, two 4-bit colour values per byte
+ *   byte   active brick id, byte rotation, byte x, byte y
+ *   byte   hold brick id (0 = empty), byte hold used
+ *   int    score
+ *   long   seed, long random state
+ *   byte   queue length, then one brick id per byte
+ * </pre>
+ * A standard 10 x 25 board saves in under 200 bytes. Readers reject other
+ * versions, so the layout can change by bumping {@link #VERSION}.
+ *
+ * @param mode          leaderboard mode of the game, e.g. {@code normal} or {@code time_60}
+ * @param timeRemaining seconds left in a timed game, or -1
+ * @param savedAt       time the game was saved (epoch millis)
+ * @param board         board state
+ * @param seed          seed of the brick sequence
+ * @param randomState   state of the brick generator
+ * @param queue         upcoming bricks, in order
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public record SavedGame(String mode, int timeRemaining, long savedAt, BoardState board,
+                        long seed, long randomState, List<BrickType> queue) {
+
+    /** File magic, "TSAV". */
+    public static final int MAGIC = 0x54534156;
+
+    /** Current format version. */
+    public static final short VERSION = 1;
+
+    public SavedGame {
+        queue = List.copyOf(queue);
+    }
+
+    /**
+     * Captures a running game.
+     *
+     * @param mode           leaderboard mode of the game
+     * @param timeRemaining  seconds left in a timed game, or -1
+     * @param board          board of the game
+     * @param brickGenerator generator feeding {@code board}
+     * @return saved game
+     */
+    public static SavedGame capture(String mode, int timeRemaining, SimpleBoard board,
+                                    RandomBrickGenerator brickGenerator) {
+        List<BrickType> queue = new ArrayList<>();
+        for (Brick brick : brickGenerator.getUpcomingBricks()) {
+            queue.add(BrickType.of(brick));
+        }
+        return new SavedGame(mode, timeRemaining, System.currentTimeMillis(), board.captureState(),
+                brickGenerator.getSeed(), brickGenerator.getState(), queue);
+    }
+
+    /**
+     * Puts this game back onto a board and its generator.
+     *
+     * @param board          board to restore; must have the saved size
+     * @param brickGenerator generator feeding {@code board}
+     */
+    public void restoreInto(SimpleBoard board, RandomBrickGenerator brickGenerator) {
+        brickGenerator.restore(seed, randomState, queue);
+        board.restoreState(this.board);
+    }
+
+    /**
+     * @return {@code true} if the game has a time limit
+     */
+    public boolean isTimed() {
+        return timeRemaining >= 0;
+    }
+
+    /**
+     * Encodes this game.
+     *
+     * @return buffer positioned at zero, holding exactly the encoded game
+     */
+    public ByteBuffer encode() {
+        int[][] cells = board.cells();
+        int width = cells[0].length;
+        int height = cells.length;
+        byte[] modeBytes = mode.getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer buffer = ByteBuffer.allocate(64 + modeBytes.length + (width * height + 1) / 2 + queue.size());
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.put((byte) modeBytes.length).put(modeBytes);
+        buffer.putInt(timeRemaining);
+        buffer.putLong(savedAt);
+
+        buffer.put((byte) width).put((byte) height);
+        int packed = 0;
+        int index = 0;
+        for (int[] row : cells) {
+            for (int value : row) {
+                packed = (packed << 4) | (value & 0xF);
+                if ((++index & 1) == 0) {
+                    buffer.put((byte) packed);
+                    packed = 0;
+                }
+            }
+        }
+        if ((index & 1) != 0) {
+            buffer.put((byte) (packed << 4));
+        }
+
+        buffer.put((byte) board.brick().id()).put((byte) board.rotation());
+        buffer.put((byte) board.x()).put((byte) board.y());
+        buffer.put((byte) (board.hold() == null ? 0 : board.hold().id()));
+        buffer.put((byte) (board.holdUsed() ? 1 : 0));
+        buffer.putInt(board.score());
+
+        buffer.putLong(seed).putLong(randomState);
+        buffer.put((byte) queue.size());
+        for (BrickType type : queue) {
+            buffer.put((byte) type.id());
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Decodes a game written by {@link #encode()}.
+     *
+     * @param buffer encoded game
+     * @return decoded game
+     * @throws IllegalArgumentException if the data is not a save of a supported version
+     */
+    public static SavedGame decode(ByteBuffer buffer) {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a saved game");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported save version " + version);
+            }
+            byte[] modeBytes = new byte[buffer.get() & 0xFF];
+            buffer.get(modeBytes);
+            String mode = new String(modeBytes, StandardCharsets.UTF_8);
+            int timeRemaining = buffer.getInt();
+            long savedAt = buffer.getLong();
+
+            int width = buffer.get() & 0xFF;
+            int height = buffer.get() & 0xFF;
+            int[][] cells = new int[height][width];
+            int packed = 0;
+            for (int i = 0; i < width * height; i++) {
+                if ((i & 1) == 0) {
+                    packed = buffer.get() & 0xFF;
+                }
+                cells[i / width][i % width] = ((i & 1) == 0) ? packed >>> 4 : packed & 0xF;
+            }
+
+            BrickType brick = brickType(buffer.get());
+            int rotation = buffer.get();
+            int x = buffer.get();
+            int y = buffer.get();
+            int holdId = buffer.get();
+            BrickType hold = (holdId == 0) ? null : brickType((byte) holdId);
+            boolean holdUsed = buffer.get() != 0;
+            int score = buffer.getInt();
+
+            long seed = buffer.getLong();
+            long randomState = buffer.getLong();
+            int queueLength = buffer.get() & 0xFF;
+            List<BrickType> queue = new ArrayList<>(queueLength);
+            for (int i = 0; i < queueLength; i++) {
+                queue.add(brickType(buffer.get()));
+            }
+
+            BoardState board = new BoardState(cells, brick, rotation, x, y, hold, holdUsed, score);
+            return new SavedGame(mode, timeRemaining, savedAt, board, seed, randomState, queue);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Saved game is truncated", e);
+        }
+    }
+
+    private static BrickType brickType(byte id) {
+        BrickType type = BrickType.fromId(id);
+        if (type == null) {
+            throw new IllegalArgumentException("Invalid brick id " + id);
+        }
+        return type;
+    }
+}
@@ -0,0 +1,263 @@
+package com.comp2042.stats;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters and timings of the running game, published over JMX.
+ * <p>
+ * Unlike {@link StatsCounter}, which describes one finished game for the
+ * player, these describe the process as it runs, for whoever monitors
+ * the machine: how much the game is being played and how long the engine,
+ * the drawing and the leaderboard files take. The game screen reports
+ * into {@link #defaultMetrics()}, which {@link #register} publishes once
+ * as {@value #OBJECT_NAME}.
+ * <p>
+ * Recording costs an increment or an array store, so it can be done on
+ * every input and every frame. Game counters are written by the JavaFX
+ * thread and read by JMX threads; leaderboard timings may come from any
+ * thread.
+ *
+ * @author Chan Michelle
+ * @version 1.1
+ */
+public final class GameMetrics implements GameMetricsMBean {
+
+    /** Name the metrics are registered under. */
+    public static final String OBJECT_NAME = "com.comp2042:type=GameMetrics";
+
+    /** Recent samples kept for each timing. */
+    private static final int WINDOW = 1024;
+
+    private static final GameMetrics DEFAULT = new GameMetrics();
+
+    private final LongAdder gamesStarted = new LongAdder();
+    private final LongAdder pieces = new LongAdder();
+    private final LongAdder inputs = new LongAdder();
+    private final LongAdder lines = new LongAdder();
+    private final LongAdder viewData = new LongAdder();
+
+    private final LatencyWindow ticks = new LatencyWindow(WINDOW);
+    private final LatencyWindow boardDraws = new LatencyWindow(WINDOW);
+    private final LatencyWindow brickDraws = new LatencyWindow(WINDOW);
+    private final LatencyWindow leaderboard = new LatencyWindow(WINDOW);
+
+    /** Start of the game in progress, or 0 between games. */
+    private volatile long gameStartNanos;
+    private volatile int gamePieces;
+    private volatile int gameInputs;
+    private volatile int gameLines;
+    private volatile int gameScore;
+
+    private boolean registered;
+
+    /**
+     * @return the shared metrics of this process
+     */
+    public static GameMetrics defaultMetrics() {
+        return DEFAULT;
+    }
+
+    /**
+     * Publishes these metrics on the platform MBean server, if not done
+     * already. The game runs on without them if that fails.
+     */
+    public synchronized void register() {
+        if (registered) {
+            return;
+        }
+        registered = true;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            System.out.println("Could not register game metrics: " + e.getMessage());
+        }
+    }
+
+    // Recording
+
+    /**
+     * Starts counting a new or resumed game, dropping the rates of the
+     * previous one.
+     *
+     * @param score score the game starts from
+     */
+    public void gameStarted(int score) {
+        gamesStarted.increment();
+        gamePieces = 0;
+        gameInputs = 0;
+        gameLines = 0;
+        gameScore = score;
+        gameStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Marks the game in progress as over or left.
+     */
+    public void gameEnded() {
+        gameStartNanos = 0;
+    }
+
+    /**
+     * Counts one player input.
+     */
+    public void input() {
+        inputs.increment();
+        gameInputs++;
+    }
+
+    /**
+     * Counts a piece placed on the board.
+     *
+     * @param linesCleared lines it cleared
+     * @param score        score of the game after it
+     */
+    public void piece(int linesCleared, int score) {
+        pieces.increment();
+        lines.add(linesCleared);
+        gamePieces++;
+        gameLines += linesCleared;
+        gameScore = score;
+    }
+
+    /**
+     * Counts one {@code ViewData} snapshot built for drawing.
+     */
+    public void viewData() {
+        viewData.increment();
+    }
+
+    /**
+     * @param nanos time of one engine step
+     */
+    public void tick(long nanos) {
+        ticks.record(nanos);
+    }
+
+    /**
+     * @param nanos time taken to redraw the settled cells
+     */
+    public void boardDrawn(long nanos) {
+        boardDraws.record(nanos);
+    }
+
+    /**
+     * @param nanos time taken to redraw the active brick, its ghost and the previews
+     */
+    public void brickDrawn(long nanos) {
+        brickDraws.record(nanos);
+    }
+
+    /**
+     * @param nanos time of one leaderboard read or write
+     */
+    public void leaderboardIo(long nanos) {
+        leaderboard.record(nanos);
+    }
+
+    // GameMetricsMBean
+
+    @Override
+    public boolean isGameRunning() {
+        return gameStartNanos != 0;
+    }
+
+    @Override
+    public double getPiecesPerSecond() {
+        double seconds = gameSeconds();
+        return (seconds <= 0) ? 0 : gamePieces / seconds;
+    }
+
+    @Override
+    public double getInputsPerMinute() {
+        double seconds = gameSeconds();
+        return (seconds <= 0) ? 0 : gameInputs * 60 / seconds;
+    }
+
+    private double gameSeconds() {
+        long start = gameStartNanos;
+        return (start == 0) ? 0 : (System.nanoTime() - start) / 1e9;
+    }
+
+    @Override
+    public int getGameLinesCleared() {
+        return gameLines;
+    }
+
+    @Override
+    public int getGameScore() {
+        return gameScore;
+    }
+
+    @Override
+    public long getGamesStarted() {
+        return gamesStarted.sum();
+    }
+
+    @Override
+    public long getPiecesPlaced() {
+        return pieces.sum();
+    }
+
+    @Override
+    public long getInputs() {
+        return inputs.sum();
+    }
+
+    @Override
+    public long getLinesCleared() {
+        return lines.sum();
+    }
+
+    @Override
+    public long getViewDataBuilt() {
+        return viewData.sum();
+    }
+
+    @Override
+    public double getTickMillisP50() {
+        return ticks.percentileMillis(50);
+    }
+
+    @Override
+    public double getTickMillisP99() {
+        return ticks.percentileMillis(99);
+    }
+
+    @Override
+    public double getBoardDrawMillisP50() {
+        return boardDraws.percentileMillis(50);
+    }
+
+    @Override
+    public double getBoardDrawMillisP99() {
+        return boardDraws.percentileMillis(99);
+    }
+
+    @Override
+    public double getBrickDrawMillisP50() {
+        return brickDraws.percentileMillis(50);
+    }
+
+    @Override
+    public double getBrickDrawMillisP99() {
+        return brickDraws.percentileMillis(99);
+    }
+
+    @Override
+    public long getLeaderboardOperations() {
+        return leaderboard.count();
+    }
+
+    @Override
+    public double getLeaderboardMillisP50() {
+        return leaderboard.percentileMillis(50);
+    }
+
+    @Override
+    public double getLeaderboardMillisP99() {
+        return leaderboard.percentileMillis(99);
+    }
+}
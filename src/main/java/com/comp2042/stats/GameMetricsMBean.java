@@ -0,0 +1,110 @@
+package com.comp2042.stats;
+
+/**
+ * Management interface of {@link GameMetrics}: what JMX tools such as
+ * JConsole or a fleet monitor see under {@value GameMetrics#OBJECT_NAME}.
+ * <p>
+ * Rates describe the game in progress and are 0 between games. Counts
+ * are totals since the game was launched. Timings are percentiles over
+ * the most recent samples, in milliseconds.
+ *
+ * @author Chan Michelle
+ * @version 1.1
+ */
+public interface GameMetricsMBean {
+
+    /**
+     * @return {@code true} while a game is being played
+     */
+    boolean isGameRunning();
+
+    /**
+     * @return pieces placed per second in the game in progress
+     */
+    double getPiecesPerSecond();
+
+    /**
+     * @return player inputs per minute in the game in progress
+     */
+    double getInputsPerMinute();
+
+    /**
+     * @return lines cleared in the game in progress
+     */
+    int getGameLinesCleared();
+
+    /**
+     * @return score of the game in progress
+     */
+    int getGameScore();
+
+    /**
+     * @return games started since launch
+     */
+    long getGamesStarted();
+
+    /**
+     * @return pieces placed since launch
+     */
+    long getPiecesPlaced();
+
+    /**
+     * @return player inputs since launch
+     */
+    long getInputs();
+
+    /**
+     * @return lines cleared since launch
+     */
+    long getLinesCleared();
+
+    /**
+     * @return {@code ViewData} snapshots built for the game screen since launch
+     */
+    long getViewDataBuilt();
+
+    /**
+     * @return median time of one engine step (an input or a gravity step), without drawing
+     */
+    double getTickMillisP50();
+
+    /**
+     * @return 99th percentile time of one engine step
+     */
+    double getTickMillisP99();
+
+    /**
+     * @return median time to redraw the settled cells, after a brick locks
+     */
+    double getBoardDrawMillisP50();
+
+    /**
+     * @return 99th percentile time to redraw the settled cells
+     */
+    double getBoardDrawMillisP99();
+
+    /**
+     * @return median time to redraw the active brick, its ghost and the previews, after each move
+     */
+    double getBrickDrawMillisP50();
+
+    /**
+     * @return 99th percentile time to redraw the active brick, its ghost and the previews
+     */
+    double getBrickDrawMillisP99();
+
+    /**
+     * @return leaderboard reads and writes since launch
+     */
+    long getLeaderboardOperations();
+
+    /**
+     * @return median time of one leaderboard read or write
+     */
+    double getLeaderboardMillisP50();
+
+    /**
+     * @return 99th percentile time of one leaderboard read or write
+     */
+    double getLeaderboardMillisP99();
+}
@@ -0,0 +1,61 @@
+package com.comp2042.stats;
+
+/**
+ * Statistics of one finished game.
+ *
+ * @param startTime      time the game started (epoch millis)
+ * @param durationMillis length of the game
+ * @param timeLimit      time limit in seconds, or 0 for a normal game
+ * @param seed           seed of the brick sequence
+ * @param score          final score
+ * @param pieces         pieces placed
+ * @param lines          lines cleared
+ * @param singles        clears of one line
+ * @param doubles        clears of two lines
+ * @param triples        clears of three lines
+ * @param tetrises       clears of four lines
+ * @param keys           player inputs (gravity steps are not counted)
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public record GameStats(long startTime, long durationMillis, int timeLimit, long seed, int score,
+                        int pieces, int lines, int singles, int doubles, int triples, int tetrises, int keys) {
+
+    /**
+     * @return leaderboard mode of the game, e.g. {@code normal} or {@code time_60}
+     */
+    public String mode() {
+        return modeName(timeLimit);
+    }
+
+    /**
+     * @return pieces placed per second
+     */
+    public double piecesPerSecond() {
+        return (durationMillis <= 0) ? 0 : pieces * 1000.0 / durationMillis;
+    }
+
+    /**
+     * @return player inputs per piece placed
+     */
+    public double keysPerPiece() {
+        return (pieces == 0) ? 0 : (double) keys / pieces;
+    }
+
+    /**
+     * @param mode leaderboard mode, e.g. {@code normal} or {@code time_60}
+     * @return time limit in seconds, or 0 for a normal game
+     */
+    public static int timeLimit(String mode) {
+        return mode.startsWith("time_") ? Integer.parseInt(mode.substring(5)) : 0;
+    }
+
+    /**
+     * @param timeLimit time limit in seconds, or 0 for a normal game
+     * @return leaderboard mode
+     */
+    public static String modeName(int timeLimit) {
+        return (timeLimit > 0) ? "time_" + timeLimit : "normal";
+    }
+}
@@ -0,0 +1,62 @@
+package com.comp2042.stats;
+
+import java.util.Arrays;
+
+/**
+ * The most recent timings of some operation, for percentiles.
+ * <p>
+ * Keeps the last {@code size} samples in a ring, so recording is one
+ * array store and percentiles describe recent behaviour rather than the
+ * whole run. A percentile sorts a copy of the ring, which is cheap at the
+ * rate a monitoring tool asks. Thread-safe.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class LatencyWindow {
+
+    private final long[] samples;
+    private long count;
+
+    /**
+     * @param size number of recent samples kept
+     */
+    public LatencyWindow(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Window must hold at least one sample");
+        }
+        this.samples = new long[size];
+    }
+
+    /**
+     * @param nanos duration of one operation
+     */
+    public synchronized void record(long nanos) {
+        samples[(int) (count % samples.length)] = nanos;
+        count++;
+    }
+
+    /**
+     * @return operations recorded so far, including those no longer in the window
+     */
+    public synchronized long count() {
+        return count;
+    }
+
+    /**
+     * @param percentile percentile to read, from 0 to 100
+     * @return that percentile of the samples in the window in milliseconds, or 0 if none
+     */
+    public double percentileMillis(double percentile) {
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+        }
+        if (sorted.length == 0) {
+            return 0;
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(rank, sorted.length) - 1)] / 1e6;
+    }
+}
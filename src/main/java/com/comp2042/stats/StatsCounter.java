@@ -0,0 +1,61 @@
+package com.comp2042.stats;
+
+/**
+ * Counts the statistics of the game in progress. Updating costs a few
+ * increments, so it can be called on every input and every piece.
+ * <p>
+ * Not thread-safe; all calls must come from the thread that drives the game.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class StatsCounter {
+
+    private final int timeLimit;
+    private final long seed;
+    private final long startTime = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+
+    private int pieces;
+    private int keys;
+    private final int[] clears = new int[5];
+
+    /**
+     * @param mode leaderboard mode of the game
+     * @param seed seed of the brick sequence
+     */
+    public StatsCounter(String mode, long seed) {
+        this.timeLimit = GameStats.timeLimit(mode);
+        this.seed = seed;
+    }
+
+    /**
+     * Counts one player input.
+     */
+    public void key() {
+        keys++;
+    }
+
+    /**
+     * Counts a piece placed on the board.
+     *
+     * @param linesCleared lines it cleared (0 to 4)
+     */
+    public void piece(int linesCleared) {
+        pieces++;
+        if (linesCleared > 0) {
+            clears[Math.min(linesCleared, 4)]++;
+        }
+    }
+
+    /**
+     * @param score final score
+     * @return statistics of the game up to now
+     */
+    public GameStats finish(int score) {
+        long duration = (System.nanoTime() - startNanos) / 1_000_000;
+        int lines = clears[1] + 2 * clears[2] + 3 * clears[3] + 4 * clears[4];
+        return new GameStats(startTime, duration, timeLimit, seed, score, pieces, lines,
+                clears[1], clears[2], clears[3], clears[4], keys);
+    }
+}
@@ -0,0 +1,338 @@
+package com.comp2042.stats;
+
+import com.comp2042.BackgroundWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.function.LongConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Append-only, columnar store of per-game statistics.
+ * <p>
+ * Each statistic is kept in its own file of fixed-width big-endian
+ * values ({@code <column>.col}), one value per game. Aggregating one
+ * statistic over a lifetime of games therefore reads only that file:
+ * four or eight bytes per game, whatever else is recorded. Row {@code i}
+ * of every column belongs to the same game.
+ * <p>
+ * {@link #record} only queues the game; a shared background writer thread
+ * appends queued games to every column in one pass. A crash mid-append
+ * can leave some columns one row longer than others, so the number of
+ * games is the length of the shortest column, and the next append
+ * overwrites whatever lies beyond it. A batch that cannot be appended
+ * stays queued and is tried again with the games recorded after it.
+ * Pending writes are finished when the JVM exits. The store assumes a
+ * single writing process.
+ * <p>
+ * Every column file starts with a 16-byte header: int magic 'TSTC',
+ * short version, short value width and a reserved long.
+ *
+ * @author Chan Michelle
+ * @version 1.2
+ */
+public final class StatsStore {
+
+    /** Default directory of the statistics columns. */
+    public static final Path DEFAULT_DIRECTORY = Paths.get("stats");
+
+    static final int MAGIC = 0x54535443;
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    /** Bytes read per chunk while scanning a column. */
+    private static final int SCAN_BYTES = 64 * 1024;
+
+    /** The recorded statistics, one file each. */
+    public enum Column {
+        START_TIME(8, GameStats::startTime),
+        DURATION_MILLIS(8, GameStats::durationMillis),
+        TIME_LIMIT(4, GameStats::timeLimit),
+        SEED(8, GameStats::seed),
+        SCORE(4, GameStats::score),
+        PIECES(4, GameStats::pieces),
+        LINES(4, GameStats::lines),
+        SINGLES(4, GameStats::singles),
+        DOUBLES(4, GameStats::doubles),
+        TRIPLES(4, GameStats::triples),
+        TETRISES(4, GameStats::tetrises),
+        KEYS(4, GameStats::keys);
+
+        private final int width;
+        private final ToLongFunction<GameStats> value;
+
+        Column(int width, ToLongFunction<GameStats> value) {
+            this.width = width;
+            this.value = value;
+        }
+
+        /**
+         * @return bytes per value
+         */
+        public int width() {
+            return width;
+        }
+
+        /**
+         * @param stats a game
+         * @return the value of this column for the game
+         */
+        public long valueOf(GameStats stats) {
+            return value.applyAsLong(stats);
+        }
+
+        private String fileName() {
+            return name().toLowerCase() + ".col";
+        }
+    }
+
+    private static final Column[] COLUMNS = Column.values();
+
+    /** Appends tried in a row before a failing store waits for the next {@link #record}. */
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    private static final BackgroundWriter WRITER = new BackgroundWriter("stats");
+
+    private static final StatsStore DEFAULT = new StatsStore(DEFAULT_DIRECTORY);
+
+    private final Path directory;
+
+    /** Games queued since the last append. */
+    private List<GameStats> pending = new ArrayList<>();
+    private boolean flushQueued;
+    private int failedFlushes;
+
+    /**
+     * @param directory directory of the column files (created on the first write)
+     */
+    public StatsStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the shared store in {@link #DEFAULT_DIRECTORY}
+     */
+    public static StatsStore defaultStore() {
+        return DEFAULT;
+    }
+
+    /**
+     * @param column a column
+     * @return file holding the column
+     */
+    public Path file(Column column) {
+        return directory.resolve(column.fileName());
+    }
+
+    /**
+     * Queues a finished game to be written in the background.
+     *
+     * @param stats statistics of the game
+     */
+    public synchronized void record(GameStats stats) {
+        pending.add(stats);
+        if (!flushQueued) {
+            flushQueued = true;
+            WRITER.execute(this::flush);
+        }
+    }
+
+    /**
+     * @return number of games stored (the length of the shortest column)
+     * @throws IOException if a column cannot be read
+     */
+    public long games() throws IOException {
+        long games = Long.MAX_VALUE;
+        for (Column column : COLUMNS) {
+            Path file = file(column);
+            long size = Files.exists(file) ? Files.size(file) : 0;
+            games = Math.min(games, Math.max(0, size - HEADER_BYTES) / column.width);
+        }
+        return games;
+    }
+
+    /**
+     * Reads every stored value of one column, oldest game first. Only
+     * that column's file is read.
+     *
+     * @param column column to read
+     * @param sink   receives each value
+     * @return number of values read
+     * @throws IOException if the column cannot be read or is not a statistics column
+     */
+    public long scan(Column column, LongConsumer sink) throws IOException {
+        long games = games();
+        if (games == 0) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file(column), StandardOpenOption.READ)) {
+            checkHeader(channel, column);
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BYTES - SCAN_BYTES % column.width);
+            long position = HEADER_BYTES;
+            long end = HEADER_BYTES + games * column.width;
+            while (position < end) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+                readFully(channel, buffer, position);
+                position += buffer.limit();
+                buffer.flip();
+                if (column.width == 8) {
+                    while (buffer.hasRemaining()) {
+                        sink.accept(buffer.getLong());
+                    }
+                } else {
+                    while (buffer.hasRemaining()) {
+                        sink.accept(buffer.getInt());
+                    }
+                }
+            }
+            return games;
+        }
+    }
+
+    /**
+     * Count, sum, minimum, maximum and average of one column over every
+     * stored game.
+     *
+     * @param column column to aggregate
+     * @return summary of the column
+     * @throws IOException if the column cannot be read
+     */
+    public LongSummaryStatistics summarize(Column column) throws IOException {
+        LongSummaryStatistics summary = new LongSummaryStatistics();
+        scan(column, summary);
+        return summary;
+    }
+
+    /**
+     * Reads one whole game, one value from every column.
+     *
+     * @param game index of the game, oldest first
+     * @return statistics of the game
+     * @throws IOException if a column cannot be read
+     * @throws IndexOutOfBoundsException if there is no such game
+     */
+    public GameStats read(long game) throws IOException {
+        if (game < 0 || game >= games()) {
+            throw new IndexOutOfBoundsException("Game " + game + " not stored");
+        }
+        long[] values = new long[COLUMNS.length];
+        for (Column column : COLUMNS) {
+            try (FileChannel channel = FileChannel.open(file(column), StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(column.width);
+                readFully(channel, buffer, HEADER_BYTES + game * column.width);
+                buffer.flip();
+                values[column.ordinal()] = (column.width == 8) ? buffer.getLong() : buffer.getInt();
+            }
+        }
+        return new GameStats(values[0], values[1], (int) values[2], values[3], (int) values[4],
+                (int) values[5], (int) values[6], (int) values[7], (int) values[8], (int) values[9],
+                (int) values[10], (int) values[11]);
+    }
+
+    /**
+     * Appends all queued games. Runs on the writer thread.
+     */
+    private void flush() {
+        List<GameStats> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new ArrayList<>();
+            flushQueued = false;
+        }
+        try {
+            append(batch);
+        } catch (IOException e) {
+            System.out.println("Error saving statistics: " + e.getMessage());
+            retry(batch);
+            return;
+        }
+        synchronized (this) {
+            failedFlushes = 0;
+        }
+    }
+
+    /**
+     * Puts a batch that could not be appended back in front of the games
+     * recorded since, and queues another append, unless the last
+     * {@value #MAX_FLUSH_ATTEMPTS} failed in a row; the next {@link #record}
+     * then tries again.
+     */
+    private synchronized void retry(List<GameStats> batch) {
+        batch.addAll(pending);
+        pending = batch;
+        failedFlushes++;
+        if (failedFlushes < MAX_FLUSH_ATTEMPTS && !flushQueued) {
+            flushQueued = true;
+            WRITER.execute(this::flush);
+        }
+    }
+
+    private void append(List<GameStats> batch) throws IOException {
+        Files.createDirectories(directory);
+        // Rows past the shortest column belong to an append that did not finish
+        long games = games();
+        for (Column column : COLUMNS) {
+            try (FileChannel channel = FileChannel.open(file(column), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                if (channel.size() < HEADER_BYTES) {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                    header.putInt(MAGIC).putShort(VERSION).putShort((short) column.width).putLong(0);
+                    writeFully(channel, header.flip(), 0);
+                } else {
+                    checkHeader(channel, column);
+                }
+
+                ByteBuffer values = ByteBuffer.allocate(batch.size() * column.width);
+                for (GameStats stats : batch) {
+                    long value = column.valueOf(stats);
+                    if (column.width == 8) {
+                        values.putLong(value);
+                    } else {
+                        values.putInt((int) value);
+                    }
+                }
+                long position = HEADER_BYTES + games * column.width;
+                writeFully(channel, values.flip(), position);
+                channel.truncate(position + (long) batch.size() * column.width);
+            }
+        }
+    }
+
+    private static void checkHeader(FileChannel channel, Column column) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getShort() != VERSION || header.getShort() != column.width) {
+            throw new IOException("Not a statistics column: " + column.fileName());
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of statistics column");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+    }
+
+    /**
+     * Waits until every queued game has been written.
+     */
+    public static void drain() {
+        WRITER.drain();
+    }
+}
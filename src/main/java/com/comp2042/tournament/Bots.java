@@ -0,0 +1,111 @@
+package com.comp2042.tournament;
+
+import com.comp2042.EventType;
+import com.comp2042.ai.BeamSearchBot;
+import com.comp2042.ai.BotPlayer;
+import com.comp2042.ai.HeuristicEvaluator;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The bots that can be entered in a tournament by name.
+ * <ul>
+ *     <li>{@code greedy}: {@link BeamSearchBot} with the default weights,
+ *     looking at the active brick only;</li>
+ *     <li>{@code beam}: {@link BeamSearchBot} with the default weights,
+ *     searching the active and the next brick;</li>
+ *     <li>{@code random}: random rotation and column, seeded by the match;</li>
+ *     <li>any other name is taken as the class name of a {@link VersusBot}.</li>
+ * </ul>
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+public final class Bots {
+
+    /** Time the {@code beam} bot may search per brick; far more than a two-brick search needs. */
+    private static final long BEAM_BUDGET_MILLIS = 1_000;
+
+    /** Prevent instantiation of this utility class */
+    private Bots() {
+    }
+
+    /**
+     * @param spec built-in bot name or class name
+     * @return an entrant that creates that bot for each match
+     * @throws IllegalArgumentException if the name is neither a built-in bot nor a usable class
+     */
+    public static Tournament.Entrant entrant(String spec) {
+        return switch (spec) {
+            case "greedy" -> new Tournament.Entrant(spec, seed -> search(1, 1, 0));
+            case "beam" -> new Tournament.Entrant(spec, seed -> search(16, 2, BEAM_BUDGET_MILLIS));
+            case "random" -> new Tournament.Entrant(spec, Bots::random);
+            default -> {
+                Constructor<? extends VersusBot> constructor = botClass(spec);
+                yield new Tournament.Entrant(spec, seed -> {
+                    try {
+                        return constructor.newInstance();
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalStateException("Cannot create bot " + spec, e);
+                    }
+                });
+            }
+        };
+    }
+
+    private static Constructor<? extends VersusBot> botClass(String name) {
+        try {
+            Class<?> type = Class.forName(name);
+            if (!VersusBot.class.isAssignableFrom(type)) {
+                throw new IllegalArgumentException(name + " is not a " + VersusBot.class.getSimpleName());
+            }
+            return type.asSubclass(VersusBot.class).getConstructor();
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown bot " + name);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(name + " needs a public constructor without arguments");
+        }
+    }
+
+    /**
+     * A bot that plays the placements chosen by a beam search.
+     *
+     * @param beamWidth        boards kept at each depth
+     * @param maxDepth         bricks searched
+     * @param timeBudgetMillis time budget per brick
+     * @return the bot
+     */
+    public static VersusBot search(int beamWidth, int maxDepth, long timeBudgetMillis) {
+        BotPlayer player = new BotPlayer(new BeamSearchBot(new HeuristicEvaluator(), beamWidth, maxDepth,
+                timeBudgetMillis, ForkJoinPool.commonPool()));
+        return (game, p) -> {
+            List<EventType> moves = player.planMove(game.getBoard(p));
+            return (moves == null) ? List.of() : moves;
+        };
+    }
+
+    /**
+     * A bot that drops every brick with a random rotation in a random column.
+     *
+     * @param seed seed of its choices
+     * @return the bot
+     */
+    public static VersusBot random(long seed) {
+        Random random = new Random(seed);
+        return (game, p) -> {
+            List<EventType> moves = new ArrayList<>();
+            for (int i = random.nextInt(4); i > 0; i--) {
+                moves.add(EventType.ROTATE);
+            }
+            EventType side = random.nextBoolean() ? EventType.LEFT : EventType.RIGHT;
+            for (int i = random.nextInt(6); i > 0; i--) {
+                moves.add(side);
+            }
+            return moves;
+        };
+    }
+}
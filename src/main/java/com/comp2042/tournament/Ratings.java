@@ -0,0 +1,105 @@
+package com.comp2042.tournament;
+
+import java.util.Arrays;
+
+/**
+ * Elo and Glicko ratings of the entrants of a tournament.
+ * <p>
+ * Elo is updated after every game, in the order the games were
+ * scheduled, so it does not depend on which worker finished first.
+ * Glicko (the original Glicko-1) rates a whole rating period at once: the
+ * games of a period are collected with {@link #add} and applied by
+ * {@link #endPeriod}. A round of a tournament is one period. Besides a
+ * rating, Glicko gives a rating deviation: how uncertain the rating still
+ * is after the games played.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+final class Ratings {
+
+    /** Rating of a new entrant in both systems. */
+    static final double INITIAL_RATING = 1500;
+
+    /** Glicko rating deviation of a new entrant. */
+    static final double INITIAL_DEVIATION = 350;
+
+    /** Elo change for a game whose result was a certainty either way. */
+    private static final double ELO_K = 16;
+
+    private static final double Q = Math.log(10) / 400;
+
+    private final double[] elo;
+    private final double[] glicko;
+    private final double[] deviation;
+
+    /** Glicko sums of the current period: the inverse of d squared, and the sum of g (s - E). */
+    private final double[] inverseVariance;
+    private final double[] improvement;
+
+    /**
+     * @param entrants number of entrants
+     */
+    Ratings(int entrants) {
+        elo = new double[entrants];
+        glicko = new double[entrants];
+        deviation = new double[entrants];
+        inverseVariance = new double[entrants];
+        improvement = new double[entrants];
+        Arrays.fill(elo, INITIAL_RATING);
+        Arrays.fill(glicko, INITIAL_RATING);
+        Arrays.fill(deviation, INITIAL_DEVIATION);
+    }
+
+    /**
+     * Records one game: updates Elo at once and adds it to the current
+     * Glicko period.
+     *
+     * @param a      first entrant
+     * @param b      second entrant
+     * @param scoreA 1 if {@code a} won, 0.5 for a draw, 0 if {@code b} won
+     */
+    void add(int a, int b, double scoreA) {
+        double expected = 1 / (1 + Math.pow(10, (elo[b] - elo[a]) / 400));
+        elo[a] += ELO_K * (scoreA - expected);
+        elo[b] -= ELO_K * (scoreA - expected);
+
+        addGlicko(a, b, scoreA);
+        addGlicko(b, a, 1 - scoreA);
+    }
+
+    private void addGlicko(int player, int opponent, double score) {
+        double g = 1 / Math.sqrt(1 + 3 * Q * Q * deviation[opponent] * deviation[opponent] / (Math.PI * Math.PI));
+        double expected = 1 / (1 + Math.pow(10, -g * (glicko[player] - glicko[opponent]) / 400));
+        inverseVariance[player] += Q * Q * g * g * expected * (1 - expected);
+        improvement[player] += g * (score - expected);
+    }
+
+    /**
+     * Applies the Glicko updates of the games added since the last period.
+     * Entrants who played no game keep their rating and deviation.
+     */
+    void endPeriod() {
+        for (int i = 0; i < glicko.length; i++) {
+            if (inverseVariance[i] > 0) {
+                double variance = 1 / (1 / (deviation[i] * deviation[i]) + inverseVariance[i]);
+                glicko[i] += Q * variance * improvement[i];
+                deviation[i] = Math.sqrt(variance);
+            }
+        }
+        Arrays.fill(inverseVariance, 0);
+        Arrays.fill(improvement, 0);
+    }
+
+    double elo(int entrant) {
+        return elo[entrant];
+    }
+
+    double glicko(int entrant) {
+        return glicko[entrant];
+    }
+
+    double deviation(int entrant) {
+        return deviation[entrant];
+    }
+}
@@ -0,0 +1,487 @@
+package com.comp2042.tournament;
+
+import com.comp2042.EventType;
+import com.comp2042.VersusGame;
+import com.comp2042.replay.ReplayHeader;
+import com.comp2042.replay.VersusReplay;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongFunction;
+
+/**
+ * Headless tool that plays tournaments of versus matches between bots.
+ * <p>
+ * Every match is a seeded {@link VersusGame} played brick by brick: each
+ * turn, each player's bot plans its brick and the brick is hard-dropped,
+ * until a board tops out or both players reach the brick cap (a draw).
+ * Both players get the same bricks, so every pairing plays each seed
+ * twice, once from each side, and neither bot gains from moving first.
+ * <p>
+ * In a round-robin every entrant meets every other once, all in one
+ * round and on the same seeds. In a Swiss tournament entrants with equal
+ * points are paired each round, avoiding rematches where possible; with
+ * an odd number of entrants the lowest ranked one without a bye sits out
+ * and scores as if it had won every game. The matches of a round run in
+ * parallel on a fixed thread pool, one task per match.
+ * <p>
+ * Results are written to the output directory: a replay of every match
+ * ({@link VersusReplay}), one line per match in {@value #MATCHES_FILE},
+ * and the final Elo and Glicko ratings in {@value #RATINGS_FILE}. From
+ * the command line, the standings and the throughput in matches and
+ * bricks per second are also printed.
+ *
+ * @author Chan Michelle
+ * @version 1.1
+ */
+public final class Tournament {
+
+    /** Board size of the real game. */
+    private static final int BOARD_WIDTH = 10;
+    private static final int BOARD_HEIGHT = 25;
+
+    /** Inputs a bot may ask for per brick; anything beyond is ignored. */
+    private static final int MAX_MOVES_PER_BRICK = 64;
+
+    private static final String MATCHES_FILE = "matches.csv";
+    private static final String RATINGS_FILE = "ratings.csv";
+    private static final String REPLAY_DIRECTORY = "replays";
+
+    /**
+     * How entrants are paired.
+     */
+    public enum Format {
+        /** Every entrant meets every other once. */
+        ROUND_ROBIN,
+        /** Entrants with similar points meet, over a fixed number of rounds. */
+        SWISS
+    }
+
+    /**
+     * A bot entered in the tournament.
+     *
+     * @param name    name in the results
+     * @param factory creates the bot for one match from the match seed
+     */
+    public record Entrant(String name, LongFunction<VersusBot> factory) {
+    }
+
+    /**
+     * Tournament settings.
+     *
+     * @param entrants        bots taking part (at least two)
+     * @param format          pairing format
+     * @param gamesPerPairing seeds each pairing plays, each from both sides
+     * @param rounds          rounds of a Swiss tournament (ignored for round-robin)
+     * @param pieceCap        bricks per player after which a match is a draw
+     * @param seed            master seed of the match seeds
+     * @param threads         number of worker threads
+     * @param replays         {@code true} to write a replay of every match
+     * @param outputDirectory directory for the results and replays
+     */
+    public record Settings(List<Entrant> entrants, Format format, int gamesPerPairing, int rounds, int pieceCap,
+                           long seed, int threads, boolean replays, Path outputDirectory) {
+
+        public Settings {
+            if (entrants.size() < 2 || gamesPerPairing < 1 || rounds < 1 || pieceCap < 1 || threads < 1) {
+                throw new IllegalArgumentException("Tournament settings must be positive (at least two entrants)");
+            }
+            entrants = List.copyOf(entrants);
+        }
+    }
+
+    /**
+     * Result of one match.
+     *
+     * @param index       number of the match in the tournament
+     * @param round       round it was played in
+     * @param seed        seed of the match
+     * @param first       entrant playing as player 0
+     * @param second      entrant playing as player 1
+     * @param winner      0 or 1, or {@code -1} for a draw
+     * @param pieces      bricks placed by both players
+     * @param linesSent   garbage rows sent by player 0 and by player 1
+     * @param replay      replay file, or {@code null} if replays are off
+     */
+    public record MatchResult(int index, int round, long seed, int first, int second, int winner, int pieces,
+                              int[] linesSent, Path replay) {
+    }
+
+    /**
+     * Final standing of an entrant.
+     *
+     * @param name      entrant name
+     * @param played    games played
+     * @param wins      games won
+     * @param draws     games drawn
+     * @param losses    games lost
+     * @param points    one per win, a half per draw, plus byes
+     * @param elo       Elo rating
+     * @param glicko    Glicko rating
+     * @param deviation Glicko rating deviation
+     */
+    public record Standing(String name, int played, int wins, int draws, int losses, double points,
+                           double elo, double glicko, double deviation) {
+    }
+
+    /**
+     * Result of a whole tournament.
+     *
+     * @param standings        entrants, best Elo first
+     * @param matches          every match, in schedule order
+     * @param matchesPerSecond matches played per second of wall time
+     * @param piecesPerSecond  bricks placed per second of wall time
+     */
+    public record Result(List<Standing> standings, List<MatchResult> matches, double matchesPerSecond,
+                         double piecesPerSecond) {
+    }
+
+    private final Settings settings;
+    private final int size;
+    private final Ratings ratings;
+    private final int[] played;
+    private final int[] wins;
+    private final int[] draws;
+    private final double[] points;
+    private final boolean[] hadBye;
+    private final Set<Long> pairingsPlayed = new HashSet<>();
+    private final List<MatchResult> matches = new ArrayList<>();
+
+    /**
+     * @param settings tournament settings
+     */
+    public Tournament(Settings settings) {
+        this.settings = settings;
+        this.size = settings.entrants().size();
+        this.ratings = new Ratings(size);
+        this.played = new int[size];
+        this.wins = new int[size];
+        this.draws = new int[size];
+        this.points = new double[size];
+        this.hadBye = new boolean[size];
+    }
+
+    /**
+     * Plays the whole tournament.
+     *
+     * @return standings, matches and throughput
+     * @throws IOException if the results cannot be written
+     */
+    public Result run() throws IOException {
+        Path replayDirectory = settings.outputDirectory().resolve(REPLAY_DIRECTORY);
+        Files.createDirectories(settings.replays() ? replayDirectory : settings.outputDirectory());
+        Files.writeString(settings.outputDirectory().resolve(MATCHES_FILE),
+                "match,round,seed,first,second,winner,pieces,first_sent,second_sent,replay" + System.lineSeparator());
+
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        int rounds = (settings.format() == Format.ROUND_ROBIN) ? 1 : settings.rounds();
+        long totalPieces = 0;
+        long start = System.nanoTime();
+
+        ExecutorService pool = Executors.newFixedThreadPool(settings.threads());
+        try {
+            for (int round = 0; round < rounds; round++) {
+                long[] seeds = new long[settings.gamesPerPairing()];
+                for (int i = 0; i < seeds.length; i++) {
+                    seeds[i] = random.nextLong();
+                }
+                List<int[]> pairings = (settings.format() == Format.ROUND_ROBIN) ? allPairings() : swissPairings();
+
+                List<MatchResult> results = playRound(pool, round, pairings, seeds, replayDirectory);
+                for (MatchResult result : results) {
+                    record(result);
+                    totalPieces += result.pieces();
+                }
+                ratings.endPeriod();
+                appendMatches(results);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        List<Standing> standings = standings();
+        writeRatings(standings);
+        return new Result(standings, List.copyOf(matches), matches.size() / seconds, totalPieces / seconds);
+    }
+
+    private List<int[]> allPairings() {
+        List<int[]> pairings = new ArrayList<>();
+        for (int a = 0; a < size; a++) {
+            for (int b = a + 1; b < size; b++) {
+                pairings.add(new int[] {a, b});
+            }
+        }
+        return pairings;
+    }
+
+    /**
+     * Pairs entrants of equal standing, top down, each with the next one
+     * they have not met yet (or simply the next one if they met them all).
+     */
+    private List<int[]> swissPairings() {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingDouble((Integer i) -> -points[i]).thenComparingDouble(i -> -ratings.elo(i)));
+
+        if (order.size() % 2 == 1) {
+            int bye = order.size() - 1;
+            while (bye > 0 && hadBye[order.get(bye)]) {
+                bye--;
+            }
+            int entrant = order.remove(bye);
+            hadBye[entrant] = true;
+            points[entrant] += 2 * settings.gamesPerPairing();
+        }
+
+        List<int[]> pairings = new ArrayList<>();
+        while (!order.isEmpty()) {
+            int a = order.remove(0);
+            int pick = 0;
+            for (int i = 0; i < order.size(); i++) {
+                if (!pairingsPlayed.contains(pairingKey(a, order.get(i)))) {
+                    pick = i;
+                    break;
+                }
+            }
+            pairings.add(new int[] {a, order.remove(pick)});
+        }
+        return pairings;
+    }
+
+    private static long pairingKey(int a, int b) {
+        return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+    }
+
+    private List<MatchResult> playRound(ExecutorService pool, int round, List<int[]> pairings, long[] seeds,
+                                        Path replayDirectory) {
+        List<Callable<MatchResult>> tasks = new ArrayList<>();
+        int index = matches.size();
+        for (int[] pairing : pairings) {
+            pairingsPlayed.add(pairingKey(pairing[0], pairing[1]));
+            for (long seed : seeds) {
+                for (int side = 0; side < 2; side++) {
+                    int first = pairing[side];
+                    int second = pairing[1 - side];
+                    int match = index++;
+                    Path replay = settings.replays()
+                            ? replayDirectory.resolve(String.format("match-%06d%s", match, VersusReplay.EXTENSION))
+                            : null;
+                    tasks.add(() -> playMatch(match, round, seed, first, second, replay));
+                }
+            }
+        }
+
+        List<Future<MatchResult>> futures;
+        try {
+            futures = pool.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tournament interrupted", e);
+        }
+        List<MatchResult> results = new ArrayList<>();
+        for (Future<MatchResult> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Tournament interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Match failed", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private MatchResult playMatch(int index, int round, long seed, int first, int second, Path replay)
+            throws IOException {
+        List<Entrant> entrants = settings.entrants();
+        VersusBot[] bots = {entrants.get(first).factory().apply(seed), entrants.get(second).factory().apply(seed)};
+        List<VersusReplay.Move> moves = new ArrayList<>();
+        VersusGame game = play(bots, seed, settings.pieceCap(), moves);
+
+        if (replay != null) {
+            ReplayHeader header = ReplayHeader.of(VersusReplay.MODE, seed, BOARD_WIDTH, BOARD_HEIGHT, 1,
+                    System.currentTimeMillis());
+            new VersusReplay(header, moves, game.getWinner()).write(replay);
+        }
+        return new MatchResult(index, round, seed, first, second, game.getWinner(),
+                game.getPiecesPlaced(0) + game.getPiecesPlaced(1),
+                new int[] {game.getLinesSent(0), game.getLinesSent(1)}, replay);
+    }
+
+    /**
+     * Plays one match between two bots.
+     *
+     * @param bots     bots of player 0 and player 1
+     * @param seed     seed of the match
+     * @param pieceCap bricks per player after which the match is a draw
+     * @param moves    receives every input applied, for a replay
+     * @return the match as it ended
+     */
+    public static VersusGame play(VersusBot[] bots, long seed, int pieceCap, List<VersusReplay.Move> moves) {
+        VersusGame game = new VersusGame(BOARD_WIDTH, BOARD_HEIGHT, seed);
+        while (!game.isOver() && (game.getPiecesPlaced(0) < pieceCap || game.getPiecesPlaced(1) < pieceCap)) {
+            for (int player = 0; player < VersusGame.PLAYERS && !game.isOver(); player++) {
+                if (game.getPiecesPlaced(player) >= pieceCap) {
+                    continue;
+                }
+                List<EventType> plan;
+                try {
+                    plan = Objects.requireNonNullElse(bots[player].plan(game, player), List.of());
+                } catch (RuntimeException e) {
+                    // A broken bot loses the match rather than stopping the tournament
+                    System.out.println("Error in bot of player " + player + ": " + e);
+                    game.concede(player);
+                    break;
+                }
+                // A bot only steers its brick; the match drops it, unless a move already locked it
+                int placed = game.getPiecesPlaced(player);
+                for (int i = 0; i < Math.min(plan.size(), MAX_MOVES_PER_BRICK); i++) {
+                    if (game.getPiecesPlaced(player) != placed || game.isOver()) {
+                        break;
+                    }
+                    apply(game, player, plan.get(i), moves);
+                }
+                if (game.getPiecesPlaced(player) == placed) {
+                    apply(game, player, EventType.HARD_DROP, moves);
+                }
+            }
+        }
+        return game;
+    }
+
+    private static void apply(VersusGame game, int player, EventType type, List<VersusReplay.Move> moves) {
+        game.apply(player, type);
+        moves.add(new VersusReplay.Move(player, type));
+    }
+
+    private void record(MatchResult result) {
+        matches.add(result);
+        int a = result.first();
+        int b = result.second();
+        double scoreA = (result.winner() == 0) ? 1 : (result.winner() == 1) ? 0 : 0.5;
+        ratings.add(a, b, scoreA);
+        played[a]++;
+        played[b]++;
+        points[a] += scoreA;
+        points[b] += 1 - scoreA;
+        if (result.winner() < 0) {
+            draws[a]++;
+            draws[b]++;
+        } else {
+            wins[(result.winner() == 0) ? a : b]++;
+        }
+    }
+
+    private List<Standing> standings() {
+        List<Standing> standings = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            standings.add(new Standing(settings.entrants().get(i).name(), played[i], wins[i], draws[i],
+                    played[i] - wins[i] - draws[i], points[i], ratings.elo(i), ratings.glicko(i),
+                    ratings.deviation(i)));
+        }
+        standings.sort(Comparator.comparingDouble(Standing::elo).reversed());
+        return standings;
+    }
+
+    private void appendMatches(List<MatchResult> results) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (MatchResult result : results) {
+            lines.append(result.index()).append(',').append(result.round() + 1).append(',').append(result.seed())
+                    .append(',').append(settings.entrants().get(result.first()).name())
+                    .append(',').append(settings.entrants().get(result.second()).name())
+                    .append(',').append(result.winner()).append(',').append(result.pieces())
+                    .append(',').append(result.linesSent()[0]).append(',').append(result.linesSent()[1])
+                    .append(',').append((result.replay() == null) ? "" : result.replay().getFileName())
+                    .append(System.lineSeparator());
+        }
+        Files.writeString(settings.outputDirectory().resolve(MATCHES_FILE), lines, StandardOpenOption.APPEND);
+    }
+
+    private void writeRatings(List<Standing> standings) throws IOException {
+        StringBuilder lines = new StringBuilder("name,played,wins,draws,losses,points,elo,glicko,deviation")
+                .append(System.lineSeparator());
+        for (Standing s : standings) {
+            lines.append(String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%.1f,%.1f,%.1f,%.1f", s.name(), s.played(),
+                    s.wins(), s.draws(), s.losses(), s.points(), s.elo(), s.glicko(), s.deviation()))
+                    .append(System.lineSeparator());
+        }
+        Files.writeString(settings.outputDirectory().resolve(RATINGS_FILE), lines);
+    }
+
+    /**
+     * Command-line entry point. Arguments are optional {@code key=value}
+     * pairs: {@code bots} (comma-separated names, see {@link Bots}),
+     * {@code format} ({@code roundrobin} or {@code swiss}), {@code games},
+     * {@code rounds}, {@code pieces}, {@code seed}, {@code threads},
+     * {@code replays} ({@code true} or {@code false}) and {@code dir}.
+     *
+     * @param args command-line arguments
+     * @throws IOException if the results cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        String bots = "greedy,beam,random";
+        Format format = Format.ROUND_ROBIN;
+        int games = 4;
+        int rounds = 5;
+        int pieces = 300;
+        long seed = 2042L;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean replays = true;
+        Path dir = Paths.get("tournament");
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+            }
+            String value = arg.substring(eq + 1);
+            switch (arg.substring(0, eq)) {
+                case "bots" -> bots = value;
+                case "format" -> format = value.equalsIgnoreCase("swiss") ? Format.SWISS : Format.ROUND_ROBIN;
+                case "games" -> games = Integer.parseInt(value);
+                case "rounds" -> rounds = Integer.parseInt(value);
+                case "pieces" -> pieces = Integer.parseInt(value);
+                case "seed" -> seed = Long.parseLong(value);
+                case "threads" -> threads = Integer.parseInt(value);
+                case "replays" -> replays = Boolean.parseBoolean(value);
+                case "dir" -> dir = Paths.get(value);
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+
+        List<Entrant> entrants = new ArrayList<>();
+        for (String name : bots.split(",")) {
+            entrants.add(Bots.entrant(name.trim()));
+        }
+        Result result = new Tournament(
+                new Settings(entrants, format, games, rounds, pieces, seed, threads, replays, dir)).run();
+        System.out.printf("%-24s %6s %5s %5s %5s %7s %7s %7s %5s%n",
+                "Bot", "Games", "Won", "Drawn", "Lost", "Points", "Elo", "Glicko", "RD");
+        for (Standing s : result.standings()) {
+            System.out.printf("%-24s %6d %5d %5d %5d %7.1f %7.0f %7.0f %5.0f%n", s.name(), s.played(), s.wins(),
+                    s.draws(), s.losses(), s.points(), s.elo(), s.glicko(), s.deviation());
+        }
+        System.out.printf("%d matches, %.1f matches/s, %.0f bricks/s%n",
+                result.matches().size(), result.matchesPerSecond(), result.piecesPerSecond());
+    }
+}
@@ -0,0 +1,32 @@
+package com.comp2042.tournament;
+
+import com.comp2042.EventType;
+import com.comp2042.VersusGame;
+
+import java.util.List;
+
+/**
+ * A bot that can play versus matches in a {@link Tournament}.
+ * <p>
+ * A tournament creates a new bot for every match, so a bot may keep state
+ * for the length of one match; bots of different matches run on
+ * different threads at the same time. Implementations outside this
+ * package are entered by class name (see {@link Bots#entrant}) and need a
+ * public constructor without arguments.
+ *
+ * @author Chan Michelle
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface VersusBot {
+
+    /**
+     * Chooses the inputs for a player's active brick. The match applies
+     * them in order and then hard-drops the brick.
+     *
+     * @param game   the match, to read only
+     * @param player index of the player to move
+     * @return inputs to apply before the hard drop; may be empty
+     */
+    List<EventType> plan(VersusGame game, int player);
+}
@@ -1,5 +1,6 @@
 package com.comp2042;
 
+import com.comp2042.leaderboard.LeaderboardStore;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.AfterEach;
@@ -10,6 +11,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -32,8 +35,11 @@ public class LeaderboardManagerTest {
     @AfterEach
     void cleanup() {
         try {
+            LeaderboardManager.clearCacheForTesting();
             Path testFile = Paths.get("target/test-resources/" + TEST_FILENAME);
             Files.deleteIfExists(testFile);
+            Files.deleteIfExists(Paths.get("target/test-resources/test_leaderboard.dat"));
+            Files.deleteIfExists(Paths.get("target/test-resources/test_leaderboard.log"));
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -77,10 +83,60 @@ public class LeaderboardManagerTest {
         assertTrue(loaded.get(0).contains("120"), "Highest score should be 120");
     }
 
+    @Test
+    void testScoresSurviveReload() {
+        for (int i = 1; i <= 15; i++) {
+            LeaderboardManager.saveScore(TEST_FILENAME, "Player" + i, (i % 5) * 100);
+        }
+        List<String> before = LeaderboardManager.loadScores(TEST_FILENAME);
+
+        LeaderboardManager.clearCacheForTesting();
+        assertEquals(before, LeaderboardManager.loadScores(TEST_FILENAME));
+        // Equal scores keep their original order
+        assertEquals("Player4,400", before.get(0));
+        assertEquals("Player9,400", before.get(1));
+    }
+
+    @Test
+    void testImportsTextLeaderboard() throws IOException {
+        Files.write(Paths.get("target/test-resources/" + TEST_FILENAME), List.of("Alice,200", "Bob, 300"));
+
+        List<String> loaded = LeaderboardManager.loadScores(TEST_FILENAME);
+
+        assertEquals(List.of("Bob,300", "Alice,200"), loaded);
+    }
+
+    @Test
+    void testSaveInBackground() {
+        LeaderboardManager.saveScoreAsync(TEST_FILENAME, "Alice", 200).join();
+
+        assertEquals(List.of("Alice,200"), LeaderboardManager.loadScores(TEST_FILENAME));
+    }
+
     @Test
     void testLoadNonExistentFile() {
         List<String> loaded = LeaderboardManager.loadScores("nonexistent.txt");
 
         assertTrue(loaded.isEmpty(), "Loading non-existent file should return empty list");
     }
+
+    @Test
+    void testSeesOtherInstancesLive() throws Exception {
+        LeaderboardManager.saveScore(TEST_FILENAME, "Alice", 100);
+        CountDownLatch changed = new CountDownLatch(1);
+        LeaderboardManager.addListener(TEST_FILENAME, () -> {
+            if (LeaderboardManager.loadScores(TEST_FILENAME).contains("Bob,500")) {
+                changed.countDown();
+            }
+        });
+
+        // A second store on the same files stands in for another game instance
+        LeaderboardStore other = LeaderboardStore.open(
+                Paths.get("target/test-resources/test_leaderboard.dat"), LeaderboardStore.DEFAULT_CAPACITY);
+        other.add("Bob", 500, System.currentTimeMillis());
+        LeaderboardStore.drain();
+
+        assertTrue(changed.await(10, TimeUnit.SECONDS), "watcher should pick up the other instance's score");
+        assertEquals(List.of("Bob,500", "Alice,100"), LeaderboardManager.loadScores(TEST_FILENAME));
+    }
 }
@@ -0,0 +1,87 @@
+package com.comp2042;
+
+import com.comp2042.leaderboard.LeaderboardStore;
+import com.comp2042.leaderboard.ScoreEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts several JVMs that save scores to the same leaderboard at the
+ * same time, and checks that every score survives.
+ */
+public class LeaderboardMultiProcessTest {
+
+    private static final String FILENAME = "stress.txt";
+    private static final int PROCESSES = 4;
+
+    /** Enough saves in total to force compactions while the others append. */
+    private static final int SAVES_PER_PROCESS = 400;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testConcurrentProcessesLoseNoScores() throws Exception {
+        String javaBin = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String classPath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+
+        List<Process> processes = new ArrayList<>();
+        for (int id = 0; id < PROCESSES; id++) {
+            processes.add(new ProcessBuilder(javaBin, "-cp", classPath, LeaderboardMultiProcessTest.class.getName(),
+                    dir.toString(), Integer.toString(id), Integer.toString(SAVES_PER_PROCESS))
+                    .inheritIO()
+                    .start());
+        }
+        for (Process process : processes) {
+            assertTrue(process.waitFor(2, TimeUnit.MINUTES), "Writer process did not finish");
+            assertEquals(0, process.exitValue());
+        }
+
+        List<ScoreEntry> history = LeaderboardStore.readHistory(dir.resolve("stress.dat"));
+        Set<String> names = new HashSet<>();
+        Set<Long> sequences = new HashSet<>();
+        for (ScoreEntry entry : history) {
+            names.add(entry.name());
+            sequences.add(entry.sequence());
+        }
+        assertEquals(PROCESSES * SAVES_PER_PROCESS, history.size());
+        assertEquals(PROCESSES * SAVES_PER_PROCESS, names.size(), "Every score should be stored exactly once");
+        assertEquals(history.size(), sequences.size(), "Sequence numbers should be unique");
+
+        LeaderboardManager.setBasePathForTesting(dir.toString());
+        List<String> top = LeaderboardManager.loadScores(FILENAME);
+        assertEquals(10, top.size());
+        LeaderboardManager.setBasePathForTesting("target/test-resources/");
+    }
+
+    /**
+     * Writer process: saves scores one at a time, waiting for each write.
+     *
+     * @param args base directory, writer id, number of saves
+     */
+    public static void main(String[] args) {
+        LeaderboardManager.setBasePathForTesting(args[0]);
+        int id = Integer.parseInt(args[1]);
+        int count = Integer.parseInt(args[2]);
+        Random random = new Random(id);
+
+        for (int i = 0; i < count; i++) {
+            LeaderboardManager.saveScore(FILENAME, "W" + id + "-" + i, random.nextInt(100) * 50);
+            if (random.nextInt(4) == 0) {
+                LeaderboardStore.drain();
+            }
+        }
+        LeaderboardStore.drain();
+    }
+}
@@ -57,4 +57,158 @@ public class SimpleBoardTest {
         assertEquals(1, cr.linesRemoved());
         assertEquals(50, cr.scoreBonus());
     }
+
+    @Test
+    void testForkIsIndependent() {
+        SimpleBoard board = new SimpleBoard(10, 25, new RandomBrickGenerator(3, 11L));
+        board.createNewBrick();
+        board.getScore().add(300);
+        board.holdCurrentBrick();
+
+        SimpleBoard fork = board.fork();
+        assertEquals(board.getZobristHash(), fork.getZobristHash());
+        assertEquals(300, fork.getScore().scoreProperty().get());
+
+        // Lock a brick on the original only
+        while (board.moveBrickDown()) {
+            // drop
+        }
+        board.mergeBrickToBackground();
+        board.clearRows();
+
+        int filled = 0;
+        for (int[] row : fork.getBoardMatrix()) {
+            for (int cell : row) {
+                if (cell != 0) filled++;
+            }
+        }
+        assertEquals(0, filled, "Fork must not see bricks locked on the original");
+        assertEquals(0L, fork.getBoardHash());
+        assertNotEquals(board.getBoardHash(), fork.getBoardHash());
+    }
+
+    @Test
+    void testReadingTheMatrixKeepsRowsShared() {
+        SimpleBoard board = new SimpleBoard(10, 25, new RandomBrickGenerator(3, 11L));
+        board.getBoardMatrix()[24][0] = 1;
+        SimpleBoard fork = board.fork();
+
+        for (int i = 0; i < 3; i++) {
+            assertSame(board.readBoardMatrix()[24], fork.readBoardMatrix()[24], "Reads copy no rows");
+        }
+        long before = fork.getBoardHash();
+
+        // Writing unshares the rows and is picked up by the hash
+        fork.getBoardMatrix()[24][1] = 1;
+        assertNotSame(board.readBoardMatrix()[24], fork.readBoardMatrix()[24]);
+        assertEquals(0, board.readBoardMatrix()[24][1]);
+        assertNotEquals(before, fork.getBoardHash());
+        assertEquals(ZobristKeys.hashBoard(fork.readBoardMatrix()), fork.getBoardHash());
+    }
+
+    @Test
+    void testForkContinuesSameGame() {
+        HeadlessGame game = new HeadlessGame(new SimpleBoard(10, 25, new RandomBrickGenerator(2, 5L)));
+        for (int i = 0; i < 5; i++) {
+            game.onLeftEvent(null);
+            game.onHardDropEvent();
+        }
+        HeadlessGame fork = game.fork();
+
+        // Same inputs on both games must give the same states and bricks
+        for (int i = 0; i < 20; i++) {
+            if (i % 2 == 0) {
+                game.onRotateEvent(null);
+                fork.onRotateEvent(null);
+            }
+            game.onRightEvent(null);
+            fork.onRightEvent(null);
+            game.onHardDropEvent();
+            fork.onHardDropEvent();
+
+            assertEquals(game.getBoard().getZobristHash(), fork.getBoard().getZobristHash(), "Brick " + i);
+        }
+        assertEquals(game.getScore(), fork.getScore());
+        assertEquals(game.isGameOver(), fork.isGameOver());
+    }
+
+    @Test
+    void testGarbageShiftsRowReferences() {
+        SimpleBoard board = new SimpleBoard(10, 25);
+        int[][] matrix = board.getBoardMatrix();
+        matrix[24][0] = 3;
+        int[] top = matrix[0];
+        int[] bottom = matrix[24];
+
+        assertFalse(board.addGarbage(2, 4));
+
+        int[][] after = board.getBoardMatrix();
+        // Existing rows moved up without copying; the pushed-out top row is reused
+        assertSame(bottom, after[22]);
+        assertEquals(3, after[22][0]);
+        assertTrue(after[23] == top || after[24] == top);
+        for (int r = 23; r < 25; r++) {
+            for (int c = 0; c < 10; c++) {
+                assertEquals(c == 4 ? 0 : SimpleBoard.GARBAGE, after[r][c], "Row " + r + " column " + c);
+            }
+        }
+        assertEquals(ZobristKeys.hashBoard(after), board.getBoardHash());
+    }
+
+    @Test
+    void testGarbageLeavesForkAloneAndTopsOut() {
+        SimpleBoard board = new SimpleBoard(10, 25);
+        board.getBoardMatrix()[1][5] = 2;
+        SimpleBoard fork = board.fork();
+        long forkHash = fork.getBoardHash();
+
+        // The filled cell in row 1 is pushed off the top
+        assertTrue(board.addGarbage(2, 0));
+        assertFalse(board.addGarbage(0, 0));
+
+        assertEquals(forkHash, fork.getBoardHash());
+        assertEquals(2, fork.getBoardMatrix()[1][5]);
+        for (int[] row : fork.getBoardMatrix()) {
+            for (int cell : row) {
+                assertNotEquals(SimpleBoard.GARBAGE, cell);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> board.addGarbage(1, 10));
+    }
+
+    @Test
+    void testSnapshotRestoresAndCanBeReused() {
+        HeadlessGame game = new HeadlessGame(new SimpleBoard(10, 25, new RandomBrickGenerator(1, 9L)));
+        SimpleBoard board = (SimpleBoard) game.getBoard();
+        for (int i = 0; i < 4; i++) {
+            game.apply(i % 2 == 0 ? EventType.LEFT : EventType.RIGHT);
+            game.apply(EventType.HARD_DROP);
+        }
+        game.apply(EventType.HOLD);
+        SimpleBoard.Snapshot snapshot = board.newSnapshot();
+        board.saveTo(snapshot);
+        long hash = board.getZobristHash();
+        int score = game.getScore();
+
+        // The same inputs after each restore must replay the same game
+        long[] after = new long[2];
+        for (int run = 0; run < 2; run++) {
+            board.restoreFrom(snapshot);
+            assertEquals(hash, board.getZobristHash(), "Run " + run);
+            assertEquals(score, game.getScore());
+            for (int i = 0; i < 6; i++) {
+                EventType side = (i % 2 == 0) ? EventType.LEFT : EventType.RIGHT;
+                for (int move = 0; move < 3; move++) {
+                    game.apply(side);
+                }
+                game.apply(EventType.ROTATE);
+                game.apply(EventType.HARD_DROP);
+            }
+            assertFalse(game.isGameOver());
+            after[run] = board.getZobristHash();
+            assertEquals(ZobristKeys.hashBoard(board.getBoardMatrix()), board.getBoardHash());
+        }
+        assertEquals(after[0], after[1]);
+        assertNotEquals(hash, after[0]);
+    }
 }
@@ -0,0 +1,84 @@
+package com.comp2042;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VersusGameTest {
+
+    /** Fills the bottom rows of a player's board, ready to be cleared by the next lock. */
+    private static void fillRows(VersusGame game, int player, int rows) {
+        int[][] matrix = game.getBoard(player).getBoardMatrix();
+        for (int r = matrix.length - rows; r < matrix.length; r++) {
+            Arrays.fill(matrix[r], 1);
+        }
+    }
+
+    @Test
+    void testClearsSendGarbageThatArrivesOnNextLock() {
+        VersusGame game = new VersusGame(10, 25, 7L);
+        fillRows(game, 0, 3);
+        game.apply(0, EventType.HARD_DROP);
+
+        assertEquals(3, game.getLinesCleared(0));
+        assertEquals(2, game.getLinesSent(0));
+        assertEquals(2, game.getPendingGarbage(1));
+
+        // Moving does not bring the garbage in; locking without a clear does
+        game.apply(1, EventType.LEFT);
+        assertEquals(2, game.getPendingGarbage(1));
+        game.apply(1, EventType.HARD_DROP);
+        assertEquals(0, game.getPendingGarbage(1));
+
+        int[][] matrix = game.getBoard(1).getBoardMatrix();
+        for (int r = 23; r < 25; r++) {
+            int holes = 0;
+            for (int cell : matrix[r]) {
+                if (cell == 0) {
+                    holes++;
+                } else {
+                    assertEquals(SimpleBoard.GARBAGE, cell);
+                }
+            }
+            assertEquals(1, holes, "Row " + r);
+        }
+        assertFalse(game.isOver());
+    }
+
+    @Test
+    void testClearsCancelIncomingGarbage() {
+        VersusGame game = new VersusGame(10, 25, 9L);
+        fillRows(game, 1, 4);
+        game.apply(1, EventType.HARD_DROP);
+        assertEquals(4, game.getPendingGarbage(0));
+
+        fillRows(game, 0, 2);
+        game.apply(0, EventType.HARD_DROP);
+        assertEquals(3, game.getPendingGarbage(0));
+        assertEquals(0, game.getPendingGarbage(1));
+        assertEquals(0, game.getLinesSent(0));
+    }
+
+    @Test
+    void testToppingOutLosesTheMatch() {
+        VersusGame game = new VersusGame(10, 25, 3L);
+        for (int i = 0; i < 100 && !game.isOver(); i++) {
+            game.apply(1, EventType.HARD_DROP);
+        }
+        assertTrue(game.isOver());
+        assertEquals(0, game.getWinner());
+        assertTrue(game.isToppedOut(1));
+        assertFalse(game.isToppedOut(0));
+
+        // Nothing moves once the match is over
+        long hash = game.getBoard(0).getZobristHash();
+        game.apply(0, EventType.HARD_DROP);
+        assertEquals(hash, game.getBoard(0).getZobristHash());
+
+        game.newMatch(4L);
+        assertFalse(game.isOver());
+        assertEquals(-1, game.getWinner());
+    }
+}
@@ -0,0 +1,113 @@
+package com.comp2042;
+
+import com.comp2042.ai.BitBoard;
+import com.comp2042.logic.bricks.Brick;
+import com.comp2042.logic.bricks.BrickGenerator;
+import com.comp2042.logic.bricks.BrickType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZobristHashTest {
+
+    /** Always supplies T bricks so that hashes are reproducible. */
+    private static final BrickGenerator T_ONLY = new BrickGenerator() {
+        @Override
+        public Brick getBrick() {
+            return BrickType.T.create();
+        }
+
+        @Override
+        public Brick getNextBrick() {
+            return BrickType.T.create();
+        }
+
+        @Override
+        public BrickGenerator fork() {
+            return this;
+        }
+
+        @Override
+        public Snapshot newSnapshot() {
+            return new Snapshot() {
+                @Override
+                public void save() {
+                }
+
+                @Override
+                public void restore() {
+                }
+            };
+        }
+    };
+
+    private static SimpleBoard newBoard() {
+        SimpleBoard board = new SimpleBoard(10, 25, T_ONLY);
+        board.createNewBrick();
+        return board;
+    }
+
+    @Test
+    void testMovesAreReversible() {
+        SimpleBoard board = newBoard();
+        long start = board.getZobristHash();
+
+        assertTrue(board.moveBrickLeft());
+        assertNotEquals(start, board.getZobristHash(), "Moving should change the hash");
+        assertTrue(board.moveBrickRight());
+        assertEquals(start, board.getZobristHash(), "Moving back should restore the hash");
+
+        board.moveBrickDown();
+        for (int i = 0; i < 4; i++) {
+            assertTrue(board.rotateLeftBrick());
+        }
+        board.moveBrickDown();
+        SimpleBoard other = newBoard();
+        other.moveBrickDown();
+        other.moveBrickDown();
+        assertEquals(other.getZobristHash(), board.getZobristHash(), "Full rotation should return to the same state");
+    }
+
+    @Test
+    void testTranspositionsHashEqual() {
+        SimpleBoard a = newBoard();
+        a.moveBrickLeft();
+        a.moveBrickDown();
+
+        SimpleBoard b = newBoard();
+        b.moveBrickDown();
+        b.moveBrickLeft();
+
+        assertEquals(a.getZobristHash(), b.getZobristHash());
+    }
+
+    @Test
+    void testMergeAndClearKeepBoardHashInSync() {
+        SimpleBoard board = newBoard();
+        while (board.moveBrickDown()) {
+            // drop
+        }
+        board.mergeBrickToBackground();
+
+        int[][] matrix = board.getBoardMatrix();
+        assertNotEquals(0L, board.getBoardHash());
+        assertEquals(ZobristKeys.hashBoard(matrix), board.getBoardHash());
+        assertEquals(BitBoard.fromMatrix(matrix).hash(), board.getBoardHash(), "Bot boards share the same keys");
+
+        for (int c = 0; c < 10; c++) {
+            matrix[24][c] = 1;
+        }
+        assertEquals(1, board.clearRows().linesRemoved());
+        assertEquals(ZobristKeys.hashBoard(board.getBoardMatrix()), board.getBoardHash());
+    }
+
+    @Test
+    void testHoldChangesHash() {
+        SimpleBoard board = newBoard();
+        long before = board.getZobristHash();
+
+        board.holdCurrentBrick();
+
+        assertNotEquals(before, board.getZobristHash());
+    }
+}
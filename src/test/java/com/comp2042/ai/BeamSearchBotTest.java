@@ -0,0 +1,60 @@
+package com.comp2042.ai;
+
+import com.comp2042.HeadlessGame;
+import com.comp2042.SimpleBoard;
+import com.comp2042.logic.bricks.BrickType;
+import com.comp2042.logic.bricks.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BeamSearchBotTest {
+
+    @Test
+    void testPlacementsOnEmptyBoard() {
+        BitBoard empty = new BitBoard(10, 25);
+
+        assertEquals(9, MoveGenerator.generate(empty, BrickType.O).size(), "O brick fits in 9 columns");
+        assertEquals(17, MoveGenerator.generate(empty, BrickType.I).size(), "I brick: 7 flat + 10 upright");
+    }
+
+    @Test
+    void testBotCompletesLine() {
+        // Bottom row filled except the four left-most cells
+        int[] rows = new int[25];
+        rows[24] = 0b1111110000;
+        BitBoard board = BitBoard.ofRows(10, rows);
+
+        BeamSearchBot bot = new BeamSearchBot(new HeuristicEvaluator(), 16, 1, 0, ForkJoinPool.commonPool());
+        Placement best = bot.search(board, List.of(BrickType.I)).placement();
+
+        assertNotNull(best);
+        BitBoard after = board.place(PieceShapes.of(BrickType.I), best.rotation(), best.x(), best.y());
+        assertEquals(1, after.linesCleared(), "Bot should take the line clear");
+    }
+
+    @Test
+    void testSearchUsesQueueDepth() {
+        BeamSearchBot bot = new BeamSearchBot(new HeuristicEvaluator(), 8, 3, 10_000, ForkJoinPool.commonPool());
+        BeamSearchBot.SearchResult result = bot.search(new BitBoard(10, 25), List.of(BrickType.T, BrickType.S, BrickType.Z));
+
+        assertEquals(3, result.depth());
+        assertNotNull(result.placement());
+    }
+
+    @Test
+    void testBotPlaysHeadlessGame() {
+        HeadlessGame game = new HeadlessGame(new SimpleBoard(10, 25, new RandomBrickGenerator(3)));
+        BotPlayer player = new BotPlayer(new BeamSearchBot(new HeuristicEvaluator()));
+
+        int placed = player.playGame(game, 150);
+
+        assertEquals(150, placed, "Bot should survive 150 bricks");
+        assertFalse(game.isGameOver());
+        assertTrue(game.getLinesCleared() > 0, "Bot should clear lines");
+        assertTrue(game.getScore() > 0);
+    }
+}
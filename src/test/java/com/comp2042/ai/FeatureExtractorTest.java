@@ -0,0 +1,132 @@
+package com.comp2042.ai;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FeatureExtractorTest {
+
+    private static final int WIDTH = 10;
+    private static final int HEIGHT = 25;
+
+    /** Straightforward cell-by-cell version of every feature, used as the reference. */
+    private static int[] naive(int[][] cells) {
+        int[] heights = new int[WIDTH];
+        int aggregate = 0;
+        int holes = 0;
+        for (int c = 0; c < WIDTH; c++) {
+            int r = 0;
+            while (r < HEIGHT && cells[r][c] == 0) r++;
+            heights[c] = HEIGHT - r;
+            aggregate += heights[c];
+            for (; r < HEIGHT; r++) {
+                if (cells[r][c] == 0) holes++;
+            }
+        }
+        int bumpiness = 0;
+        for (int c = 0; c + 1 < WIDTH; c++) {
+            bumpiness += Math.abs(heights[c] - heights[c + 1]);
+        }
+
+        int rowTransitions = 0;
+        for (int r = 0; r < HEIGHT; r++) {
+            int last = 1;
+            for (int c = 0; c < WIDTH; c++) {
+                if (cells[r][c] != last) rowTransitions++;
+                last = cells[r][c];
+            }
+            if (last != 1) rowTransitions++;
+        }
+
+        int columnTransitions = 0;
+        for (int c = 0; c < WIDTH; c++) {
+            int last = 0;
+            for (int r = 0; r < HEIGHT; r++) {
+                if (cells[r][c] != last) columnTransitions++;
+                last = cells[r][c];
+            }
+            if (last != 1) columnTransitions++;
+        }
+
+        int wells = 0;
+        for (int c = 0; c < WIDTH; c++) {
+            int run = 0;
+            for (int r = 0; r < HEIGHT - heights[c]; r++) {
+                boolean leftFilled = c == 0 || cells[r][c - 1] != 0;
+                boolean rightFilled = c == WIDTH - 1 || cells[r][c + 1] != 0;
+                run = (leftFilled && rightFilled) ? run + 1 : 0;
+                wells += run;
+            }
+        }
+        return new int[]{aggregate, holes, bumpiness, rowTransitions, columnTransitions, wells};
+    }
+
+    private static BitBoard randomBoard(Random random, int[][] cells) {
+        int[] rows = new int[HEIGHT];
+        int stackTop = HEIGHT - random.nextInt(HEIGHT);
+        for (int r = stackTop; r < HEIGHT; r++) {
+            for (int c = 0; c < WIDTH; c++) {
+                if (random.nextInt(100) < 65) {
+                    cells[r][c] = 1;
+                    rows[r] |= 1 << c;
+                }
+            }
+        }
+        return BitBoard.ofRows(WIDTH, rows);
+    }
+
+    @Test
+    void testMatchesNaiveReference() {
+        Random random = new Random(2042);
+        int[] out = new int[FeatureExtractor.FEATURE_COUNT];
+
+        for (int i = 0; i < 2000; i++) {
+            int[][] cells = new int[HEIGHT][WIDTH];
+            BitBoard board = randomBoard(random, cells);
+            FeatureExtractor.extract(board, out);
+
+            assertArrayEquals(naive(cells), out, "Board " + i);
+        }
+    }
+
+    @Test
+    void testEmptyBoard() {
+        int[] features = FeatureExtractor.extract(new BitBoard(WIDTH, HEIGHT));
+
+        assertEquals(0, features[FeatureExtractor.AGGREGATE_HEIGHT]);
+        assertEquals(0, features[FeatureExtractor.HOLES]);
+        assertEquals(2 * HEIGHT, features[FeatureExtractor.ROW_TRANSITIONS], "Each empty row touches both walls");
+        assertEquals(WIDTH, features[FeatureExtractor.COLUMN_TRANSITIONS], "Each column meets the floor");
+    }
+
+    /**
+     * Times feature extraction on random boards. Skipped unless run with
+     * {@code -Dbenchmark=true}.
+     */
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkThroughput() {
+        Random random = new Random(7);
+        BitBoard[] boards = new BitBoard[1024];
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = randomBoard(random, new int[HEIGHT][WIDTH]);
+        }
+        int[] out = new int[FeatureExtractor.FEATURE_COUNT];
+        long checksum = 0;
+
+        int evaluations = 2_000_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < evaluations; i++) {
+            FeatureExtractor.extract(boards[i & 1023], out);
+            checksum += out[FeatureExtractor.HOLES];
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("FeatureExtractor: %.1f M evaluations/s (checksum %d)%n", evaluations / seconds / 1e6, checksum);
+    }
+}
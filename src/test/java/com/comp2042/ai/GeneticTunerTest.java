@@ -0,0 +1,71 @@
+package com.comp2042.ai;
+
+import com.comp2042.logic.bricks.BrickType;
+import com.comp2042.logic.bricks.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeneticTunerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testSeededGeneratorIsReproducible() {
+        RandomBrickGenerator a = new RandomBrickGenerator(1, 99L);
+        RandomBrickGenerator b = new RandomBrickGenerator(1, 99L);
+
+        for (int i = 0; i < 200; i++) {
+            assertEquals(BrickType.of(a.getBrick()), BrickType.of(b.getBrick()), "Brick " + i);
+        }
+    }
+
+    @Test
+    void testSeededGameIsReproducible() {
+        double[] weights = HeuristicEvaluator.defaultWeights();
+
+        int first = GeneticTuner.playGame(weights, 7L, 200, GeneticTuner.Fitness.SCORE);
+        int second = GeneticTuner.playGame(weights, 7L, 200, GeneticTuner.Fitness.SCORE);
+
+        assertTrue(first > 0, "Default weights should clear lines in 200 bricks");
+        assertEquals(first, second);
+    }
+
+    @Test
+    void testRunWritesCheckpointAndResumes() throws Exception {
+        GeneticTuner.Settings twoGenerations =
+                new GeneticTuner.Settings(4, 2, 2, 40, GeneticTuner.Fitness.LINES, 5L, 2, dir);
+        new GeneticTuner(twoGenerations).run();
+
+        List<String> checkpoint = Files.readAllLines(dir.resolve("tuner-checkpoint.txt"));
+        assertTrue(checkpoint.contains("generation=2"));
+        assertEquals(4, checkpoint.stream().filter(l -> l.startsWith("candidate=")).count());
+
+        // A run stopped after writing its result line but before its checkpoint
+        Files.writeString(dir.resolve("tuner-results.csv"), "2,0.0,0.0" + System.lineSeparator(),
+                StandardOpenOption.APPEND);
+
+        // Raising the generation count continues from the checkpoint instead of starting over
+        GeneticTuner.Settings threeGenerations =
+                new GeneticTuner.Settings(4, 3, 2, 40, GeneticTuner.Fitness.LINES, 5L, 2, dir);
+        GeneticTuner resumed = new GeneticTuner(threeGenerations);
+        List<GeneticTuner.Generation> reported = new ArrayList<>();
+        GeneticTuner.Candidate best = resumed.run(reported::add);
+        assertEquals(2, resumed.getResumedFrom());
+        assertEquals(List.of(2), reported.stream().map(GeneticTuner.Generation::generation).toList());
+
+        List<String> results = Files.readAllLines(dir.resolve("tuner-results.csv"));
+        assertEquals(4, results.size(), "Header plus one line per generation");
+        assertTrue(results.get(3).startsWith("2,"));
+        assertNotEquals("2,0.0,0.0", results.get(3), "The unfinished generation is written again, once");
+        assertEquals(HeuristicEvaluator.FEATURE_COUNT, best.weights().length);
+    }
+}
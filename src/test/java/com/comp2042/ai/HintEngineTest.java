@@ -0,0 +1,64 @@
+package com.comp2042.ai;
+
+import com.comp2042.SimpleBoard;
+import com.comp2042.logic.bricks.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HintEngineTest {
+
+    @Test
+    void testOnlyLatestHintIsPublished() throws Exception {
+        // Stands in for Platform.runLater: results wait here until "the FX thread" runs them
+        BlockingQueue<Runnable> fxQueue = new LinkedBlockingQueue<>();
+        BeamSearchBot bot = new BeamSearchBot(new HeuristicEvaluator(), 8, 1, 0, HintEngine.searchPool());
+        HintEngine engine = new HintEngine(bot, fxQueue::add);
+        List<Placement> shown = new ArrayList<>();
+
+        SimpleBoard board = new SimpleBoard(10, 25, new RandomBrickGenerator(2, 1L));
+        board.createNewBrick();
+
+        engine.request(board, shown::add);
+        Runnable stale = fxQueue.poll(5, TimeUnit.SECONDS);
+        assertNotNull(stale, "First hint should be computed");
+
+        // New input arrives before the first result reached the FX thread
+        board.moveBrickLeft();
+        engine.request(board, shown::add);
+        stale.run();
+        assertTrue(shown.isEmpty(), "Superseded hint must not be shown");
+
+        Runnable latest = fxQueue.poll(5, TimeUnit.SECONDS);
+        assertNotNull(latest);
+        latest.run();
+        assertEquals(1, shown.size());
+
+        engine.cancel();
+        engine.shutdown();
+    }
+
+    @Test
+    void testSnapshotIsIndependentOfBoard() {
+        SimpleBoard board = new SimpleBoard(10, 25, new RandomBrickGenerator(2, 3L));
+        board.createNewBrick();
+        BoardSnapshot snapshot = BoardSnapshot.of(board);
+        assertNotNull(snapshot);
+
+        while (board.moveBrickDown()) {
+            // drop
+        }
+        board.mergeBrickToBackground();
+
+        for (int r = 0; r < snapshot.board().height(); r++) {
+            assertEquals(0, snapshot.board().row(r), "Snapshot must not see later changes");
+        }
+        assertEquals(3, snapshot.pieces().size(), "Active brick plus two upcoming");
+    }
+}
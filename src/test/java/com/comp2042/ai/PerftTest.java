@@ -0,0 +1,275 @@
+package com.comp2042.ai;
+
+import com.comp2042.SimpleBoard;
+import com.comp2042.logic.bricks.Brick;
+import com.comp2042.logic.bricks.BrickGenerator;
+import com.comp2042.logic.bricks.BrickType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Perft for brick placement, in the spirit of chess move-generation tests.
+ * <p>
+ * {@code perft(depth)} counts every sequence of landing positions
+ * (rotation, column, row) reachable with left, right, rotate and down for
+ * the next {@code depth} bricks of a fixed sequence. Counts are computed
+ * twice, once by driving a real {@link SimpleBoard} (exercising
+ * {@code canPlace}, rotation and row clearing) and once with
+ * {@link MoveGenerator} on {@link BitBoard}s, and both must match the
+ * checked-in values. Any change to collision or rotation rules changes the
+ * counts; if the change is intended, update the expected values.
+ * <p>
+ * Fixture spawn rows are kept empty so a spawn is never blocked.
+ */
+public class PerftTest {
+
+    private static final int WIDTH = 10;
+    private static final int HEIGHT = 25;
+
+    /** Bottom rows of each fixture, top first; '#' is filled. */
+    private static final String[] EMPTY = {};
+
+    private static final String[] OVERHANGS = {
+            "..........",
+            "##....##..",
+            "#......#..",
+            "#..##..#.#",
+            "##.##.####",
+    };
+
+    private static final String[] NEAR_CLEARS = {
+            "....#.....",
+            "###.######",
+            "####.#####",
+            "#####.####",
+            "######.###",
+    };
+
+    private record Case(String name, String[] rows, List<BrickType> pieces, long[] expected) {
+    }
+
+    /** expected[d - 1] is perft(d). */
+    private static final List<Case> CASES = List.of(
+            new Case("empty", EMPTY, List.of(BrickType.T, BrickType.I, BrickType.O),
+                    new long[]{34, 596, 5542}),
+            new Case("overhangs", OVERHANGS, List.of(BrickType.S, BrickType.Z, BrickType.L),
+                    new long[]{19, 360, 13577}),
+            new Case("near clears", NEAR_CLEARS, List.of(BrickType.I, BrickType.J, BrickType.T),
+                    new long[]{17, 582, 20616})
+    );
+
+    @Test
+    void testSingleBrickCounts() {
+        BitBoard empty = new BitBoard(WIDTH, HEIGHT);
+        for (BrickType type : BrickType.values()) {
+            assertEquals(MoveGenerator.count(empty, type), perft(simpleBoard(EMPTY, List.of(type)), 1), type.name());
+        }
+    }
+
+    @Test
+    void testSimpleBoardPerft() {
+        for (Case c : CASES) {
+            for (int depth = 1; depth <= c.expected().length; depth++) {
+                long nodes = perft(simpleBoard(c.rows(), c.pieces()), depth);
+                assertEquals(c.expected()[depth - 1], nodes, c.name() + " depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    void testBitBoardPerft() {
+        for (Case c : CASES) {
+            for (int depth = 1; depth <= c.expected().length; depth++) {
+                long nodes = perft(bitBoard(c.rows()), c.pieces(), 0, depth);
+                assertEquals(c.expected()[depth - 1], nodes, c.name() + " depth " + depth);
+            }
+        }
+    }
+
+    /**
+     * Times perft on both boards. Skipped unless run with
+     * {@code -Dbenchmark=true}.
+     */
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkThroughput() {
+        List<BrickType> pieces = List.of(BrickType.T, BrickType.I, BrickType.O, BrickType.S);
+
+        long start = System.nanoTime();
+        long bitNodes = perft(bitBoard(OVERHANGS), pieces, 0, 4);
+        double bitSeconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        long simpleNodes = perft(simpleBoard(OVERHANGS, pieces), 3);
+        double simpleSeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Perft BitBoard:    %d nodes, %.2f M nodes/s%n", bitNodes, bitNodes / bitSeconds / 1e6);
+        System.out.printf("Perft SimpleBoard: %d nodes, %.2f M nodes/s%n", simpleNodes, simpleNodes / simpleSeconds / 1e6);
+    }
+
+    // ---------------------------------------------------------------
+    // SimpleBoard perft
+    // ---------------------------------------------------------------
+
+    /**
+     * Counts landing sequences on a board whose active brick is at spawn.
+     */
+    private static long perft(SimpleBoard board, int depth) {
+        List<SimpleBoard> landings = landings(board);
+        if (depth == 1) {
+            return landings.size();
+        }
+        long nodes = 0;
+        for (SimpleBoard landing : landings) {
+            landing.mergeBrickToBackground();
+            landing.clearRows();
+            if (!landing.createNewBrick()) {
+                nodes += perft(landing, depth - 1);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Breadth-first search over brick states using only the board's own
+     * moves. States are told apart by the Zobrist hash, which covers the
+     * brick's rotation and position.
+     */
+    private static List<SimpleBoard> landings(SimpleBoard start) {
+        List<SimpleBoard> landings = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        ArrayDeque<SimpleBoard> queue = new ArrayDeque<>();
+        seen.add(start.getZobristHash());
+        queue.add(start);
+
+        while (!queue.isEmpty()) {
+            SimpleBoard state = queue.poll();
+
+            SimpleBoard down = state.fork();
+            if (down.moveBrickDown()) {
+                visit(down, seen, queue);
+            } else {
+                landings.add(state);
+            }
+            SimpleBoard left = state.fork();
+            if (left.moveBrickLeft()) {
+                visit(left, seen, queue);
+            }
+            SimpleBoard right = state.fork();
+            if (right.moveBrickRight()) {
+                visit(right, seen, queue);
+            }
+            SimpleBoard rotated = state.fork();
+            if (rotated.rotateLeftBrick()) {
+                visit(rotated, seen, queue);
+            }
+        }
+        return landings;
+    }
+
+    private static void visit(SimpleBoard board, Set<Long> seen, ArrayDeque<SimpleBoard> queue) {
+        if (seen.add(board.getZobristHash())) {
+            queue.add(board);
+        }
+    }
+
+    private static SimpleBoard simpleBoard(String[] fixture, List<BrickType> pieces) {
+        SimpleBoard board = new SimpleBoard(WIDTH, HEIGHT, new SequenceGenerator(pieces, 0));
+        int[][] matrix = board.getBoardMatrix();
+        int top = HEIGHT - fixture.length;
+        for (int r = 0; r < fixture.length; r++) {
+            for (int c = 0; c < WIDTH; c++) {
+                if (fixture[r].charAt(c) == '#') {
+                    matrix[top + r][c] = 8;
+                }
+            }
+        }
+        board.createNewBrick();
+        return board;
+    }
+
+    /**
+     * Supplies a fixed brick sequence (repeated if it runs out) and can be forked.
+     */
+    private static final class SequenceGenerator implements BrickGenerator {
+        private final List<BrickType> pieces;
+        private int index;
+
+        SequenceGenerator(List<BrickType> pieces, int index) {
+            this.pieces = pieces;
+            this.index = index;
+        }
+
+        @Override
+        public Brick getBrick() {
+            return pieces.get(index++ % pieces.size()).create();
+        }
+
+        @Override
+        public Brick getNextBrick() {
+            return pieces.get(index % pieces.size()).create();
+        }
+
+        @Override
+        public BrickGenerator fork() {
+            return new SequenceGenerator(pieces, index);
+        }
+
+        @Override
+        public Snapshot newSnapshot() {
+            return new Snapshot() {
+                private int saved;
+
+                @Override
+                public void save() {
+                    saved = index;
+                }
+
+                @Override
+                public void restore() {
+                    index = saved;
+                }
+            };
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // BitBoard perft
+    // ---------------------------------------------------------------
+
+    private static long perft(BitBoard board, List<BrickType> pieces, int index, int depth) {
+        BrickType type = pieces.get(index % pieces.size());
+        if (depth == 1) {
+            return MoveGenerator.count(board, type);
+        }
+        long nodes = 0;
+        PieceShapes shapes = PieceShapes.of(type);
+        for (Placement p : MoveGenerator.generate(board, type)) {
+            nodes += perft(board.place(shapes, p.rotation(), p.x(), p.y()), pieces, index + 1, depth - 1);
+        }
+        return nodes;
+    }
+
+    private static BitBoard bitBoard(String[] fixture) {
+        int[] rows = new int[HEIGHT];
+        int top = HEIGHT - fixture.length;
+        for (int r = 0; r < fixture.length; r++) {
+            for (int c = 0; c < WIDTH; c++) {
+                if (fixture[r].charAt(c) == '#') {
+                    rows[top + r] |= 1 << c;
+                }
+            }
+        }
+        return BitBoard.ofRows(WIDTH, rows);
+    }
+}
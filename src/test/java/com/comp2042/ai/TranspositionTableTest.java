@@ -0,0 +1,65 @@
+package com.comp2042.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    void testPutAndGet() {
+        TranspositionTable table = new TranspositionTable(1024);
+        table.put(42L, table.pack(1.5f, 3));
+
+        long data = table.get(42L);
+        assertNotEquals(TranspositionTable.NOT_FOUND, data);
+        assertEquals(1.5f, TranspositionTable.value(data));
+        assertEquals(3, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.NOT_FOUND, table.get(43L));
+    }
+
+    @Test
+    void testNewSearchHidesOldEntries() {
+        TranspositionTable table = new TranspositionTable(1024);
+        table.put(7L, table.pack(0f, 1));
+
+        table.newSearch();
+
+        assertEquals(TranspositionTable.NOT_FOUND, table.get(7L));
+    }
+
+    @Test
+    void testConcurrentWritersNeverReturnTornEntries() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(64);
+        AtomicBoolean torn = new AtomicBoolean(false);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < 4; t++) {
+            final int seed = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    long hash = (i % 97) * 0x9E3779B97F4A7C15L + 1;
+                    // The value is derived from the hash, so any mismatch means a torn read
+                    float expected = (float) (hash % 1000);
+                    table.put(hash, table.pack(expected, seed));
+                    long data = table.get(hash);
+                    if (data != TranspositionTable.NOT_FOUND && TranspositionTable.value(data) != expected) {
+                        torn.set(true);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertFalse(torn.get(), "Readers must never see a value stored under another hash");
+    }
+}
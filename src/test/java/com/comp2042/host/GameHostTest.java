@@ -0,0 +1,115 @@
+package com.comp2042.host;
+
+import com.comp2042.EventType;
+import com.comp2042.HeadlessGame;
+import com.comp2042.net.SpectatorProtocol;
+import com.comp2042.net.SpectatorView;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameHostTest {
+
+    private static GameSession watched(SpectatorView view) {
+        return new GameSession(0, 42L, frame -> view.apply(SpectatorProtocol.nextFrame(ByteBuffer.wrap(frame))));
+    }
+
+    /** Waits for the host threads to reach a state, without timing them. */
+    private static void await(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError(message);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void testSessionValidatesAndPublishes() {
+        SpectatorView view = new SpectatorView();
+        GameSession session = watched(view);
+        HeadlessGame game = session.getGame();
+        session.tick();
+        assertTrue(view.hasGame(), "First tick publishes a keyframe");
+
+        assertFalse(session.submit(null));
+        int accepted = 0;
+        for (int i = 0; i < GameSession.MAX_QUEUED_INPUTS + 8; i++) {
+            if (session.submit(i % 2 == 0 ? EventType.LEFT : EventType.ROTATE)) {
+                accepted++;
+            }
+        }
+        assertEquals(GameSession.MAX_QUEUED_INPUTS, accepted, "A flooding client is held back");
+        assertEquals(9, session.getRejectedInputs());
+
+        // One tick applies a few inputs, making room for as many more
+        session.tick();
+        for (int i = 0; i < GameSession.MAX_INPUTS_PER_TICK; i++) {
+            assertTrue(session.submit(EventType.RIGHT));
+        }
+        assertFalse(session.submit(EventType.RIGHT));
+        for (int i = 0; i < GameSession.MAX_QUEUED_INPUTS / GameSession.MAX_INPUTS_PER_TICK; i++) {
+            session.tick();
+        }
+        assertTrue(Arrays.deepEquals(view.getCells(), game.getBoard().getBoardMatrix()));
+        assertEquals(view.getPiece().x(), game.getBoard().getViewData().getxPosition());
+        while (session.getTicks() % GameSession.GRAVITY_TICKS != GameSession.GRAVITY_TICKS - 1) {
+            session.tick();
+        }
+        int y = game.getBoard().getViewData().getyPosition();
+        session.tick();
+        assertEquals(y + 1, game.getBoard().getViewData().getyPosition(), "Gravity follows the session clock");
+        assertTrue(Arrays.deepEquals(view.getCells(), game.getBoard().getBoardMatrix()));
+
+        while (!session.isGameOver()) {
+            session.submit(EventType.HARD_DROP);
+            session.tick();
+        }
+        assertTrue(view.isGameOver(), "Game over is published");
+        assertTrue(Arrays.deepEquals(view.getCells(), game.getBoard().getBoardMatrix()));
+        assertEquals(game.getScore(), view.getScore());
+        assertFalse(session.submit(EventType.LEFT), "A finished game takes no inputs");
+        assertTrue(session.isFinished());
+    }
+
+    @Test
+    void testHostTicksSessionsUntilTheyFinish() throws InterruptedException {
+        try (GameHost host = GameHost.start(2, 1_000)) {
+            LongAdder idleFrames = new LongAdder();
+            GameSession idle = host.open(1L, frame -> idleFrames.increment());
+            GameSession dropping = host.open(2L, frame -> { });
+            GameSession left = host.open(3L, frame -> { });
+            assertEquals(3, host.getSessions());
+
+            await(() -> idle.getTicks() >= 3 * GameSession.GRAVITY_TICKS, "Sessions are not ticked");
+            assertTrue(left.getTicks() > 0 && dropping.getTicks() > 0, "Every shard ticks its sessions");
+
+            // A finished session leaves its shard and is not ticked again
+            left.close();
+            await(() -> host.getSessions() == 2, "A closed session stays on its shard");
+            long leftAt = left.getTicks();
+            while (!dropping.isGameOver()) {
+                dropping.submit(EventType.HARD_DROP);
+                Thread.sleep(1);
+            }
+            await(() -> host.getSessions() == 1, "A finished game stays on its shard");
+            long droppedAt = dropping.getTicks();
+
+            idle.close();
+            await(() -> host.getSessions() == 0, "A closed session stays on its shard");
+            assertEquals(leftAt, left.getTicks());
+            assertEquals(droppedAt, dropping.getTicks());
+
+            // Without inputs, a game only changes on its keyframe and at each gravity step
+            assertEquals(1 + idle.getTicks() / GameSession.GRAVITY_TICKS, idleFrames.sum());
+            long ticks = idle.getTicks() + leftAt + droppedAt;
+            await(() -> host.getSessionTicks() == ticks, "Host counts ticks no session ran");
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.comp2042.leaderboard;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LeaderboardStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<String> names(List<ScoreEntry> entries) {
+        return entries.stream().map(ScoreEntry::name).toList();
+    }
+
+    @Test
+    void testMatchesFullSortAndReload() throws Exception {
+        Path file = dir.resolve("normal.dat");
+        LeaderboardStore store = LeaderboardStore.open(file, 10);
+        List<ScoreEntry> all = new ArrayList<>();
+        Random random = new Random(3);
+
+        for (int i = 0; i < 2_000; i++) {
+            String name = "P" + i;
+            int score = random.nextInt(50) * 50;
+            boolean added = store.add(name, score, 1_000L + i);
+            all.add(new ScoreEntry(name, score, 1_000L + i, i));
+
+            Collections.sort(all);
+            List<ScoreEntry> expected = all.subList(0, Math.min(10, all.size()));
+            assertEquals(names(expected), names(store.top()), "after insert " + i);
+            assertEquals(added, expected.stream().anyMatch(e -> e.name().equals(name)));
+        }
+        LeaderboardStore.drain();
+
+        // The log was compacted into the snapshot along the way
+        assertTrue(Files.size(file) > 1_024L * ScoreLog.RECORD_BYTES);
+        assertTrue(Files.size(LeaderboardStore.logFile(file)) < 1_024L * ScoreLog.RECORD_BYTES);
+
+        LeaderboardStore reopened = LeaderboardStore.open(file, 10);
+        assertEquals(2_000, reopened.size());
+        assertEquals(names(store.top()), names(reopened.top()));
+    }
+
+    @Test
+    void testFailedAppendKeepsScoresForTheNextOne() throws Exception {
+        Path file = dir.resolve("normal.dat");
+        LeaderboardStore store = LeaderboardStore.open(file, 10);
+
+        // A directory in place of the log makes every append fail
+        Path log = LeaderboardStore.logFile(file);
+        Files.createDirectories(log);
+        store.add("Lost?", 500, 1_000L);
+        LeaderboardStore.drain();
+        assertEquals(List.of("Lost?"), names(store.top()), "A failed write still shows the score");
+
+        Files.delete(log);
+        store.add("Next", 300, 2_000L);
+        LeaderboardStore.drain();
+
+        LeaderboardStore reopened = LeaderboardStore.open(file, 10);
+        assertEquals(List.of("Lost?", "Next"), names(reopened.top()), "The failed score is written with the next");
+        assertEquals(2, reopened.size());
+    }
+
+    @Test
+    void testWritesBehindWithoutBlocking() throws Exception {
+        Path file = dir.resolve("time_180.dat");
+        LeaderboardStore store = LeaderboardStore.open(file, 10);
+
+        for (int i = 0; i < 10_000; i++) {
+            store.add("P" + i, i, i);
+            assertEquals("P" + i, store.top().get(0).name());
+        }
+
+        LeaderboardStore.drain();
+        LeaderboardStore reopened = LeaderboardStore.open(file, 10);
+        assertEquals(store.top(), reopened.top());
+        assertEquals(10_000, reopened.size());
+    }
+
+    @Test
+    void testReadsAreCached() throws Exception {
+        LeaderboardStore store = LeaderboardStore.open(dir.resolve("time_60.dat"), 10);
+        store.add("Alice", 100, 1L);
+        List<ScoreEntry> first = store.top();
+        assertSame(first, store.top());
+
+        store.add("Bob", 200, 2L);
+        assertNotSame(first, store.top());
+        assertEquals("Bob", store.top().get(0).name());
+    }
+
+    @Test
+    void testTornTailIsOverwrittenByNextAppend() throws Exception {
+        Path file = dir.resolve("time_120.dat");
+        Path log = LeaderboardStore.logFile(file);
+        LeaderboardStore store = LeaderboardStore.open(file, 10);
+        store.add("é".repeat(40), 500, 1L);
+        store.add("Bob", 400, 2L);
+        LeaderboardStore.drain();
+
+        // Cut the second record in half, as a crash mid-append would
+        byte[] bytes = Files.readAllBytes(log);
+        Files.write(log, Arrays.copyOf(bytes, bytes.length - ScoreLog.RECORD_BYTES / 2));
+
+        LeaderboardStore recovered = LeaderboardStore.open(file, 10);
+        assertEquals(1, recovered.size());
+        assertEquals("é".repeat(15), recovered.top().get(0).name());
+
+        // The next append overwrites the torn record
+        recovered.add("Carol", 450, 3L);
+        LeaderboardStore.drain();
+        assertEquals(ScoreLog.HEADER_BYTES + 2L * ScoreLog.RECORD_BYTES, Files.size(log));
+        assertEquals(List.of("é".repeat(15), "Carol"), names(LeaderboardStore.open(file, 10).top()));
+    }
+
+    @Test
+    void testStoresSharingFilesSeeEachOther() throws Exception {
+        Path file = dir.resolve("shared.dat");
+        LeaderboardStore first = LeaderboardStore.open(file, 10);
+        LeaderboardStore second = LeaderboardStore.open(file, 10);
+
+        first.add("Alice", 100, 1L);
+        LeaderboardStore.drain();
+        second.add("Bob", 200, 2L);
+        LeaderboardStore.drain();
+
+        // Bob's append caught up on Alice's; Alice's store needs a refresh
+        assertEquals(List.of("Bob", "Alice"), names(second.top()));
+        assertEquals(List.of("Alice"), names(first.top()));
+        assertTrue(first.refresh());
+        assertFalse(first.refresh());
+        assertEquals(List.of("Bob", "Alice"), names(first.top()));
+
+        // A compaction by one store makes the other read everything again
+        second.compact();
+        LeaderboardStore.drain();
+        first.add("Carol", 150, 3L);
+        LeaderboardStore.drain();
+        assertEquals(List.of("Bob", "Carol", "Alice"), names(first.top()));
+        assertEquals(3, first.size());
+
+        List<Long> sequences = LeaderboardStore.readHistory(file).stream().map(ScoreEntry::sequence).toList();
+        assertEquals(List.of(0L, 1L, 2L), sequences);
+    }
+
+    @Test
+    void testCorruptRecordIsSkipped() throws Exception {
+        Path file = dir.resolve("corrupt.dat");
+        Path log = LeaderboardStore.logFile(file);
+        LeaderboardStore store = LeaderboardStore.open(file, 10);
+        store.add("Alice", 100, 1L);
+        store.add("Bob", 200, 2L);
+        LeaderboardStore.drain();
+
+        byte[] bytes = Files.readAllBytes(log);
+        bytes[ScoreLog.HEADER_BYTES + 3] ^= 0x20;
+        Files.write(log, bytes);
+
+        assertEquals(List.of("Bob"), names(LeaderboardStore.open(file, 10).top()));
+    }
+
+    @Test
+    void testCrashBeforeLogResetDoesNotDuplicate() throws Exception {
+        Path file = dir.resolve("compact.dat");
+        Path log = LeaderboardStore.logFile(file);
+        LeaderboardStore store = LeaderboardStore.open(file, 10);
+        for (int i = 0; i < 3; i++) {
+            store.add("P" + i, i * 10, i);
+        }
+        LeaderboardStore.drain();
+        byte[] oldLog = Files.readAllBytes(log);
+
+        store.compact();
+        LeaderboardStore.drain();
+        assertEquals(ScoreLog.HEADER_BYTES, Files.size(log));
+
+        // Put the old log back, as if the process died right after the snapshot move
+        Files.write(log, oldLog);
+        LeaderboardStore recovered = LeaderboardStore.open(file, 10);
+        assertEquals(3, recovered.size());
+        assertEquals(List.of("P2", "P1", "P0"), names(recovered.top()));
+    }
+
+    @Test
+    void testRanksWholeHistoryAcrossCompactions() throws Exception {
+        Path file = dir.resolve("ranked.dat");
+        LeaderboardStore store = LeaderboardStore.open(file, 10);
+        ScoreRankTree expected = new ScoreRankTree();
+        Random random = new Random(17);
+        for (int i = 0; i < 3_000; i++) {
+            int score = random.nextInt(100) * 50;
+            store.add("P" + i, score, i);
+            expected.add(score);
+        }
+        assertEquals(expected.rank(2_500), store.rank(2_500));
+        LeaderboardStore.drain();
+        store.compact();
+        LeaderboardStore.drain();
+
+        // The snapshot is sorted best first, so its first records are the top entries
+        List<ScoreEntry> history = new ArrayList<>();
+        new ScoreLog(file, LeaderboardStore.logFile(file), 0).readAll(history::add);
+        List<ScoreEntry> sorted = new ArrayList<>(history);
+        Collections.sort(sorted);
+        assertEquals(sorted, history);
+
+        LeaderboardStore reopened = LeaderboardStore.open(file, 10);
+        assertEquals(3_000, reopened.size());
+        assertEquals(names(store.top()), names(reopened.top()));
+        for (int score = -50; score <= 5_000; score += 50) {
+            assertEquals(expected.rank(score), reopened.rank(score), "rank of " + score);
+            assertEquals(expected.percentile(score), reopened.percentile(score), 1e-9);
+        }
+    }
+
+    @Test
+    void testMigratesUnsortedSnapshot() throws Exception {
+        Path file = dir.resolve("legacy.dat");
+        ByteBuffer buffer = ByteBuffer.allocate(ScoreLog.HEADER_BYTES + 3 * ScoreLog.RECORD_BYTES);
+        buffer.putInt(ScoreLog.SNAPSHOT_MAGIC).putShort((short) 2).putShort((short) ScoreLog.RECORD_BYTES)
+                .putLong(0);
+        ScoreLog.putRecord(buffer, new ScoreEntry("Alice", 100, 1L, 0));
+        ScoreLog.putRecord(buffer, new ScoreEntry("Bob", 300, 2L, 1));
+        ScoreLog.putRecord(buffer, new ScoreEntry("Carol", 200, 3L, 2));
+        Files.write(file, buffer.array());
+
+        LeaderboardStore store = LeaderboardStore.open(file, 2);
+        assertEquals(List.of("Bob", "Carol"), names(store.top()));
+        assertEquals(2, store.rank(200));
+
+        store.add("Dave", 250, 4L);
+        store.compact();
+        LeaderboardStore.drain();
+        LeaderboardStore reopened = LeaderboardStore.open(file, 2);
+        assertEquals(List.of("Bob", "Dave"), names(reopened.top()));
+        assertEquals(4, reopened.size());
+        assertEquals(4, reopened.rank(100));
+        assertEquals(List.of(0L, 1L, 2L, 3L),
+                LeaderboardStore.readHistory(file).stream().map(ScoreEntry::sequence).toList());
+    }
+}
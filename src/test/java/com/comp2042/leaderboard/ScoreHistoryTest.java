@@ -0,0 +1,159 @@
+package com.comp2042.leaderboard;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScoreHistoryTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Writes a log of {@code games} records directly, much faster than
+     * adding them one by one.
+     */
+    private static List<ScoreEntry> writeLog(Path file, int games, long seed) throws Exception {
+        Random random = new Random(seed);
+        List<ScoreEntry> entries = new ArrayList<>(games);
+        try (FileChannel channel = FileChannel.open(LeaderboardStore.logFile(file), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(ScoreLog.HEADER_BYTES);
+            header.putInt(ScoreLog.LOG_MAGIC).putShort(ScoreLog.LOG_VERSION)
+                    .putShort((short) ScoreLog.RECORD_BYTES).putLong(0);
+            channel.write(header.flip());
+            ByteBuffer buffer = ByteBuffer.allocate(1024 * ScoreLog.RECORD_BYTES);
+            for (int i = 0; i < games; i++) {
+                ScoreEntry entry = new ScoreEntry("P" + i, random.nextInt(2_000) * 50,
+                        1_000_000L + random.nextInt(1_000_000), i);
+                entries.add(entry);
+                ScoreLog.putRecord(buffer, entry);
+                if (!buffer.hasRemaining()) {
+                    channel.write(buffer.flip());
+                    buffer.clear();
+                }
+            }
+            channel.write(buffer.flip());
+        }
+        return entries;
+    }
+
+    private static void assertPage(List<ScoreEntry> expected, ScoreHistory history, int offset, int limit)
+            throws Exception {
+        int end = Math.min(expected.size(), offset + limit);
+        assertEquals(expected.subList(Math.min(offset, end), end), history.page(offset, limit), "page at " + offset);
+    }
+
+    @Test
+    void testPagesMatchSortedHistory() throws Exception {
+        Path file = dir.resolve("paged.dat");
+        List<ScoreEntry> all = new ArrayList<>(writeLog(file, 5_000, 2));
+        LeaderboardStore store = LeaderboardStore.open(file, 10);
+        store.compact();
+        LeaderboardStore.drain();
+
+        // Some scores in the log and some not yet written
+        for (int i = 0; i < 300; i++) {
+            store.add("L" + i, (i * 37 % 2_000) * 50, 1_500_000L + i);
+        }
+        LeaderboardStore.drain();
+        for (int i = 0; i < 20; i++) {
+            store.add("Q" + i, (i * 91 % 2_000) * 50, 1_600_000L + i);
+        }
+        all.addAll(LeaderboardStore.readHistory(file).subList(5_000, 5_300));
+
+        try (ScoreHistory best = store.history(ScoreQuery.ALL)) {
+            // Pending entries are included but have no final sequence number yet
+            assertEquals(5_320, best.size());
+            List<ScoreEntry> expected = new ArrayList<>(all);
+            expected.sort(null);
+            List<ScoreEntry> stored = new ArrayList<>(best.page(0, best.size()));
+            stored.removeIf(entry -> entry.name().startsWith("Q"));
+            assertEquals(expected, stored);
+        }
+        LeaderboardStore.drain();
+        all = LeaderboardStore.readHistory(file);
+
+        ScoreQuery[] queries = {
+                ScoreQuery.ALL,
+                ScoreQuery.all(ScoreQuery.Order.NEWEST_FIRST),
+                ScoreQuery.ALL.since(1_400_000L),
+                ScoreQuery.all(ScoreQuery.Order.NEWEST_FIRST).since(1_900_000L),
+        };
+        for (ScoreQuery query : queries) {
+            List<ScoreEntry> expected = new ArrayList<>(all.stream().filter(query::matches).toList());
+            expected.sort(query.order().comparator());
+            try (ScoreHistory history = store.history(query)) {
+                assertEquals(expected.size(), history.size(), query.toString());
+                for (int offset : new int[] {0, 1, 99, 2_500, expected.size() - 7, expected.size()}) {
+                    assertPage(expected, history, offset, 50);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testPagesReadOnlyTheRecordsAskedFor() throws Exception {
+        Path file = dir.resolve("large.dat");
+        List<ScoreEntry> all = writeLog(file, 200_000, 9);
+        LeaderboardStore store = LeaderboardStore.open(file, 10);
+        store.compact();
+        LeaderboardStore.drain();
+        all.sort(null);
+
+        try (ScoreHistory history = store.history(ScoreQuery.ALL)) {
+            assertEquals(200_000, history.size());
+            assertEquals(0, history.recordsRead(), "Opening the sorted view reads no snapshot record");
+
+            assertEquals(all.subList(0, 50), history.page(0, 50));
+            assertEquals(all.subList(165_432, 165_482), history.page(165_432, 50));
+            // Each page reads its records plus the one after it, nothing in between
+            assertTrue(history.recordsRead() <= 2 * 51, history.recordsRead() + " records read");
+        }
+
+        try (ScoreHistory history = store.history(ScoreQuery.all(ScoreQuery.Order.NEWEST_FIRST).since(1_500_000L))) {
+            assertTrue(history.size() > 80_000);
+            assertTrue(history.page(0, 1).get(0).time() >= history.page(1, 1).get(0).time());
+            assertEquals(2 * 2, history.recordsRead());
+        }
+    }
+
+    /**
+     * Times opening and paging a history of a million games. Skipped
+     * unless run with {@code -Dbenchmark=true}.
+     */
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkMillionEntries() throws Exception {
+        Path file = dir.resolve("million.dat");
+        writeLog(file, 1_000_000, 9);
+        LeaderboardStore store = LeaderboardStore.open(file, 10);
+        store.compact();
+        LeaderboardStore.drain();
+
+        long start = System.nanoTime();
+        try (ScoreHistory history = store.history(ScoreQuery.ALL)) {
+            history.page(0, 50);
+            history.page(765_432, 50);
+            System.out.printf("1M entries: open + two pages in %.2f ms%n", (System.nanoTime() - start) / 1e6);
+        }
+
+        start = System.nanoTime();
+        try (ScoreHistory history = store.history(ScoreQuery.all(ScoreQuery.Order.NEWEST_FIRST).since(1_500_000L))) {
+            System.out.printf("1M entries: newest first since a date in %.0f ms%n",
+                    (System.nanoTime() - start) / 1e6);
+        }
+    }
+}
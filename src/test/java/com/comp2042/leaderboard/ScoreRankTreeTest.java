@@ -0,0 +1,102 @@
+package com.comp2042.leaderboard;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScoreRankTreeTest {
+
+    @Test
+    void testMatchesSortedArray() {
+        ScoreRankTree tree = new ScoreRankTree();
+        Random random = new Random(11);
+        int[] scores = new int[5_000];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = random.nextInt(400) * 50;
+            tree.add(scores[i]);
+        }
+        Arrays.sort(scores);
+
+        assertEquals(scores.length, tree.size());
+        for (int probe = -50; probe <= 20_050; probe += 25) {
+            int p = probe;
+            long below = Arrays.stream(scores).filter(s -> s < p).count();
+            long above = Arrays.stream(scores).filter(s -> s > p).count();
+            assertEquals(below, tree.countBelow(probe), "below " + probe);
+            assertEquals(above, tree.countAbove(probe), "above " + probe);
+            assertEquals(above + 1, tree.rank(probe));
+            assertEquals(100.0 * below / scores.length, tree.percentile(probe), 1e-9);
+        }
+        for (int rank = 1; rank <= scores.length; rank++) {
+            assertEquals(scores[scores.length - rank], tree.scoreAt(rank));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.scoreAt(0));
+    }
+
+    @Test
+    void testEmptyTree() {
+        ScoreRankTree tree = new ScoreRankTree();
+        assertEquals(0, tree.size());
+        assertEquals(1, tree.rank(100));
+        assertEquals(0, tree.percentile(100));
+    }
+
+    @Test
+    void testEncodeRoundTripIsCompact() {
+        ScoreRankTree tree = new ScoreRankTree();
+        Random random = new Random(5);
+        for (int i = 0; i < 1_000_000; i++) {
+            tree.add(random.nextInt(2_000) * 50);
+        }
+        tree.add(-7);
+        tree.add(Integer.MAX_VALUE, 3);
+
+        ByteBuffer buffer = ByteBuffer.allocate(tree.maxEncodedBytes());
+        tree.encode(buffer);
+        buffer.flip();
+        int bytes = buffer.remaining();
+        ScoreRankTree decoded = ScoreRankTree.decode(buffer);
+
+        assertEquals(tree.size(), decoded.size());
+        assertEquals(tree.distinctScores(), decoded.distinctScores());
+        for (int probe : new int[] {-8, -7, 0, 50, 12_345, 50_000, 99_950, Integer.MAX_VALUE}) {
+            assertEquals(tree.countBelow(probe), decoded.countBelow(probe));
+            assertEquals(tree.countAbove(probe), decoded.countAbove(probe));
+        }
+        // A few bytes per distinct score, whatever the number of games
+        assertTrue(bytes < tree.distinctScores() * 6, "encoded " + bytes + " bytes");
+    }
+
+    /**
+     * Times inserts and rank queries over a million games. Skipped unless
+     * run with {@code -Dbenchmark=true}.
+     */
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkMillionGames() {
+        ScoreRankTree tree = new ScoreRankTree();
+        Random random = new Random(8);
+        long start = System.nanoTime();
+        for (int i = 0; i < 1_000_000; i++) {
+            tree.add(random.nextInt(4_000) * 50);
+        }
+        long insertNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            checksum += tree.rank(random.nextInt(4_000) * 50);
+        }
+        long queryNanos = System.nanoTime() - start;
+
+        System.out.printf("Rank tree: %.0f ns per insert, %.0f ns per rank query (checksum %d)%n",
+                insertNanos / 1e6, queryNanos / 1e6, checksum);
+    }
+}
@@ -0,0 +1,120 @@
+package com.comp2042.net;
+
+import com.comp2042.EventSource;
+import com.comp2042.EventType;
+import com.comp2042.SimpleBoard;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OnlineVersusTest {
+
+    private static final EventType[] MOVES = {
+            EventType.LEFT, EventType.RIGHT, EventType.ROTATE, EventType.DOWN, EventType.HARD_DROP, EventType.HOLD};
+
+    /** Plays the part of the game loop: polls the connection without ever waiting on it. */
+    private static OnlineVersus awaitStart(VersusConnection connection) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            VersusMessage message = connection.poll();
+            if (message instanceof VersusMessage.Start start) {
+                return new OnlineVersus(connection, start, 10, 25);
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Relay did not start the match");
+    }
+
+    private static InetSocketAddress address(VersusRelay relay) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), relay.getPort());
+    }
+
+    @Test
+    void testMirrorsStayInSyncOverRelay() throws Exception {
+        try (VersusRelay relay = VersusRelay.start(0)) {
+            VersusConnection first = VersusConnection.connect(address(relay));
+            VersusConnection second = VersusConnection.connect(address(relay));
+            OnlineVersus a = awaitStart(first);
+            OnlineVersus b = awaitStart(second);
+            assertNotEquals(a.getLocalPlayer(), b.getLocalPlayer());
+
+            Random random = new Random(12);
+            long start = System.nanoTime();
+            // About three seconds of play at 60 frames/s, ~12 inputs/s each and gravity every 400 ms
+            for (int frame = 0; frame < 180; frame++) {
+                for (OnlineVersus side : new OnlineVersus[] {a, b}) {
+                    if (random.nextInt(5) == 0) {
+                        side.input(MOVES[random.nextInt(MOVES.length)], EventSource.USER);
+                    }
+                    if (frame % 24 == 0) {
+                        side.tick();
+                    }
+                    side.update();
+                }
+                if (frame == 60) {
+                    // A clear on a's side would send this; b must take it in and announce it
+                    a.getConnection().send(new VersusMessage.Attack(3));
+                }
+                Thread.sleep(16);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            // Let the last messages arrive, still without blocking the loop
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (System.currentTimeMillis() < deadline
+                    && (a.getGame().getPiecesPlaced(a.getRemotePlayer()) != b.getGame().getPiecesPlaced(b.getLocalPlayer())
+                    || b.getGame().getPiecesPlaced(b.getRemotePlayer()) != a.getGame().getPiecesPlaced(a.getLocalPlayer())
+                    || a.getGame().getBoard(a.getRemotePlayer()).getZobristHash()
+                            != b.getGame().getBoard(b.getLocalPlayer()).getZobristHash()
+                    || b.getGame().getBoard(b.getRemotePlayer()).getZobristHash()
+                            != a.getGame().getBoard(a.getLocalPlayer()).getZobristHash())) {
+                a.update();
+                b.update();
+                Thread.sleep(5);
+            }
+
+            assertEquals(b.getGame().getBoard(b.getLocalPlayer()).getZobristHash(),
+                    a.getGame().getBoard(a.getRemotePlayer()).getZobristHash(), "a's mirror of b");
+            assertEquals(a.getGame().getBoard(a.getLocalPlayer()).getZobristHash(),
+                    b.getGame().getBoard(b.getRemotePlayer()).getZobristHash(), "b's mirror of a");
+            assertFalse(a.isDesynced());
+            assertFalse(b.isDesynced());
+            assertEquals(3, b.getGame().getLinesSent(b.getRemotePlayer()));
+            int[][] mirror = a.getGame().getBoard(a.getRemotePlayer()).getBoardMatrix();
+            assertEquals(SimpleBoard.GARBAGE, mirror[24][(mirror[24][0] == 0) ? 1 : 0], "Garbage reached a's mirror");
+
+            for (OnlineVersus side : new OnlineVersus[] {a, b}) {
+                VersusConnection connection = side.getConnection();
+                // Payload plus roughly 52 bytes of TCP/IP headers per packet
+                double wire = (connection.getBytesSent() + 52.0 * connection.getWrites()) / seconds;
+                assertTrue(wire < 1024, "Bandwidth " + wire + " B/s");
+            }
+            a.close();
+            b.close();
+        }
+    }
+
+    @Test
+    void testOpponentLeavingEndsTheMatch() throws Exception {
+        try (VersusRelay relay = VersusRelay.start(0)) {
+            VersusConnection first = VersusConnection.connect(address(relay));
+            VersusConnection second = VersusConnection.connect(address(relay));
+            OnlineVersus a = awaitStart(first);
+            OnlineVersus b = awaitStart(second);
+
+            b.close();
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (!a.hasOpponentLeft() && System.currentTimeMillis() < deadline) {
+                a.update();
+                Thread.sleep(5);
+            }
+            assertTrue(a.hasOpponentLeft());
+            assertTrue(a.getGame().isOver());
+            assertEquals(a.getLocalPlayer(), a.getGame().getWinner());
+        }
+    }
+}
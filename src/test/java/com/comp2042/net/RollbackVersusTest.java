@@ -0,0 +1,168 @@
+package com.comp2042.net;
+
+import com.comp2042.EventType;
+import com.comp2042.VersusGame;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RollbackVersusTest {
+
+    private static final int HISTORY = 32;
+
+    /** Inputs of one tick on their way to the other side. */
+    private record Packet(long tick, int inputs, long arrival) {
+    }
+
+    private static int randomInputs(Random random) {
+        int packed = RollbackVersus.NO_INPUT;
+        // Most ticks have no input
+        if (random.nextInt(6) == 0) {
+            packed = RollbackVersus.with(packed, EventType.values()[random.nextInt(EventType.values().length)]);
+            if (random.nextInt(4) == 0) {
+                packed = RollbackVersus.with(packed, EventType.HARD_DROP);
+            }
+        }
+        return packed;
+    }
+
+    private static void deliver(ArrayDeque<Packet> wire, RollbackVersus to, long now) {
+        while (!wire.isEmpty() && wire.peek().arrival() <= now) {
+            Packet packet = wire.poll();
+            to.receive(packet.tick(), packet.inputs());
+        }
+    }
+
+    private static void assertSameMatch(VersusGame expected, VersusGame actual) {
+        for (int p = 0; p < VersusGame.PLAYERS; p++) {
+            assertEquals(expected.getBoard(p).getZobristHash(), actual.getBoard(p).getZobristHash(), "Board " + p);
+            assertEquals(expected.getScore(p), actual.getScore(p));
+            assertEquals(expected.getPendingGarbage(p), actual.getPendingGarbage(p));
+            assertEquals(expected.getLinesSent(p), actual.getLinesSent(p));
+        }
+        assertEquals(expected.getWinner(), actual.getWinner());
+    }
+
+    @Test
+    void testBothSidesAgreeDespiteLatency() {
+        long seed = 77L;
+        RollbackVersus[] sides = {new RollbackVersus(10, 25, seed, 0, HISTORY),
+                new RollbackVersus(10, 25, seed, 1, HISTORY)};
+        List<List<Integer>> sent = List.of(new ArrayList<>(), new ArrayList<>());
+        List<ArrayDeque<Packet>> wires = List.of(new ArrayDeque<>(), new ArrayDeque<>());
+        long[] lastArrival = new long[2];
+        Random random = new Random(5);
+
+        int frames = 4_000;
+        for (long frame = 0; frame < frames; frame++) {
+            for (int side = 0; side < 2; side++) {
+                deliver(wires.get(1 - side), sides[side], frame);
+                int packed = randomInputs(random);
+                if (!sides[side].advance(packed)) {
+                    // Stalled until the other side's inputs arrive
+                    continue;
+                }
+                sent.get(side).add(packed);
+                // 1 to 12 ticks of latency with jitter, in order as over TCP
+                long arrival = Math.max(lastArrival[side], frame + 1 + random.nextInt(12));
+                lastArrival[side] = arrival;
+                wires.get(side).add(new Packet(sides[side].getTick() - 1, packed, arrival));
+            }
+        }
+
+        // Let the side behind catch up, then deliver everything
+        while (sides[0].getTick() != sides[1].getTick()) {
+            int behind = (sides[0].getTick() < sides[1].getTick()) ? 0 : 1;
+            assertTrue(sides[behind].advance(RollbackVersus.NO_INPUT));
+            sent.get(behind).add(RollbackVersus.NO_INPUT);
+            wires.get(behind).add(new Packet(sides[behind].getTick() - 1, RollbackVersus.NO_INPUT, 0));
+        }
+        for (int side = 0; side < 2; side++) {
+            deliver(wires.get(1 - side), sides[side], Long.MAX_VALUE);
+            sides[side].resimulate();
+        }
+
+        // A match that knew every input in time must end in the same state
+        VersusGame expected = new VersusGame(10, 25, seed);
+        EventType[] types = EventType.values();
+        for (int t = 0; t < sides[0].getTick(); t++) {
+            for (int player = 0; player < 2; player++) {
+                for (int packed = sent.get(player).get(t); packed != 0; packed >>>= 4) {
+                    expected.apply(player, types[(packed & 0xF) - 1]);
+                }
+            }
+            if ((t + 1) % RollbackVersus.GRAVITY_TICKS == 0) {
+                expected.tick();
+            }
+        }
+        assertTrue(expected.getLinesSent(0) + expected.getLinesSent(1) > 0 || expected.isOver(),
+                "The match should exchange garbage");
+        for (RollbackVersus side : sides) {
+            assertSameMatch(expected, side.getGame());
+            assertTrue(side.getRollbacks() > 0);
+        }
+    }
+
+    /** A versus match with a few rows on each board. */
+    private static VersusGame playedGame() {
+        VersusGame game = new VersusGame(10, 25, 3L);
+        Random random = new Random(1);
+        for (int i = 0; i < 40; i++) {
+            game.apply(i % 2, EventType.values()[random.nextInt(3) + 1]);
+            game.apply(i % 2, EventType.HARD_DROP);
+        }
+        return game;
+    }
+
+    @Test
+    void testSnapshotsRestoreTheMatch() {
+        VersusGame game = playedGame();
+        VersusGame.Snapshot snapshot = game.newSnapshot();
+        game.saveTo(snapshot);
+        long hash = game.getBoard(0).getZobristHash() ^ game.getBoard(1).getZobristHash();
+
+        for (int i = 0; i < 1_000; i++) {
+            game.saveTo(snapshot);
+            // Write to a row so the board has to copy it again
+            game.apply(i % 2, EventType.HARD_DROP);
+            game.restoreFrom(snapshot);
+        }
+        assertEquals(hash, game.getBoard(0).getZobristHash() ^ game.getBoard(1).getZobristHash());
+    }
+
+    /**
+     * Times saving and restoring a versus match. Skipped unless run with
+     * {@code -Dbenchmark=true}.
+     */
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkSnapshots() {
+        VersusGame game = playedGame();
+        VersusGame.Snapshot snapshot = game.newSnapshot();
+
+        int rounds = 200_000;
+        long saveNanos = 0;
+        long restoreNanos = 0;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            game.saveTo(snapshot);
+            long saved = System.nanoTime();
+            game.apply(i % 2, EventType.HARD_DROP);
+            long restoreStart = System.nanoTime();
+            game.restoreFrom(snapshot);
+            long end = System.nanoTime();
+            saveNanos += saved - start;
+            restoreNanos += end - restoreStart;
+        }
+        System.out.printf("Snapshot of a versus match: save %.0f ns, restore %.0f ns%n",
+                (double) saveNanos / rounds, (double) restoreNanos / rounds);
+    }
+}
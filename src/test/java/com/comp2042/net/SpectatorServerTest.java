@@ -0,0 +1,164 @@
+package com.comp2042.net;
+
+import com.comp2042.EventType;
+import com.comp2042.HeadlessGame;
+import com.comp2042.SimpleBoard;
+import com.comp2042.ViewData;
+import com.comp2042.logic.bricks.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpectatorServerTest {
+
+    private static final EventType[] MOVES = {
+            EventType.LEFT, EventType.RIGHT, EventType.ROTATE, EventType.DOWN, EventType.DOWN, EventType.HARD_DROP,
+            EventType.HOLD};
+
+    private static boolean sees(SpectatorView view, HeadlessGame game) {
+        if (!view.hasGame() || !Arrays.deepEquals(view.getCells(), game.getBoard().getBoardMatrix())) {
+            return false;
+        }
+        ViewData data = game.getBoard().getViewData();
+        SpectatorProtocol.Piece piece = game.isGameOver() ? SpectatorProtocol.Piece.NONE
+                : SpectatorProtocol.Piece.of(data.getBrickData(), data.getxPosition(), data.getyPosition());
+        return view.getPiece().equals(piece) && view.getScore() == game.getScore();
+    }
+
+    /** A spectator reading on its own virtual thread. */
+    private static final class Watcher {
+        final SpectatorView view = new SpectatorView();
+        final SocketChannel channel;
+        volatile long updates;
+
+        Watcher(InetSocketAddress address) throws Exception {
+            channel = SocketChannel.open(address);
+            Thread.ofVirtual().start(this::read);
+        }
+
+        private void read() {
+            ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+            try {
+                while (channel.read(in) >= 0) {
+                    in.flip();
+                    ByteBuffer frame;
+                    while ((frame = SpectatorProtocol.nextFrame(in)) != null) {
+                        synchronized (view) {
+                            view.apply(frame);
+                        }
+                        updates++;
+                    }
+                    in.compact();
+                }
+            } catch (Exception e) {
+                // Disconnected
+            }
+        }
+
+        boolean sees(HeadlessGame game) {
+            synchronized (view) {
+                return SpectatorServerTest.sees(view, game);
+            }
+        }
+    }
+
+    @Test
+    void testFeedRebuildsGame() {
+        HeadlessGame game = new HeadlessGame(new SimpleBoard(10, 25, new RandomBrickGenerator(1, 21L)));
+        game.getBoard().addGarbage(3, 4);
+        SpectatorFeed feed = new SpectatorFeed();
+        SpectatorView view = new SpectatorView();
+        Random random = new Random(8);
+
+        long bytes = 0;
+        int frames = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (game.isGameOver()) {
+                game.createNewGame();
+            } else {
+                game.apply(MOVES[random.nextInt(MOVES.length)]);
+            }
+            if (i == 5_000) {
+                game.getBoard().addGarbage(2, 7);
+            }
+            byte[] frame = feed.update(game.getBoard(), game.isGameOver());
+            if (frame != null) {
+                view.apply(SpectatorProtocol.nextFrame(ByteBuffer.wrap(frame)));
+                bytes += frame.length;
+                frames++;
+            }
+            assertTrue(sees(view, game), "Update " + i);
+        }
+        assertTrue(bytes / frames < 16, "Average frame of " + (double) bytes / frames + " bytes");
+    }
+
+    @Test
+    void testFansOutToManySpectators() throws Exception {
+        try (SpectatorServer server = SpectatorServer.start(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 64)) {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+            List<Watcher> watchers = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                watchers.add(new Watcher(address));
+            }
+
+            // A spectator that never reads
+            SocketChannel stalled = SocketChannel.open();
+            stalled.setOption(StandardSocketOptions.SO_RCVBUF, 1024);
+            stalled.connect(address);
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (server.getSpectators() < 201 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(201, server.getSpectators());
+
+            HeadlessGame game = new HeadlessGame(new SimpleBoard(10, 25, new RandomBrickGenerator(1, 5L)));
+            Random random = new Random(3);
+            Watcher late = null;
+            int inputs = 20_000;
+            for (int i = 0; i < inputs; i++) {
+                if (game.isGameOver()) {
+                    game.createNewGame();
+                } else {
+                    game.apply(MOVES[random.nextInt(MOVES.length)]);
+                }
+                server.publish(game.getBoard(), game.isGameOver());
+
+                if (i == inputs / 2) {
+                    late = new Watcher(address);
+                }
+                if (i % 100 == 0) {
+                    Thread.sleep(1);
+                }
+            }
+
+            deadline = System.currentTimeMillis() + 10_000;
+            List<Watcher> all = new ArrayList<>(watchers);
+            all.add(late);
+            while (System.currentTimeMillis() < deadline && !all.stream().allMatch(w -> w.sees(game))) {
+                Thread.sleep(10);
+            }
+            for (Watcher watcher : all) {
+                assertTrue(watcher.sees(game), "Spectator out of date");
+            }
+            assertTrue(late.updates < server.getFramesPublished(), "Late spectator starts from a keyframe");
+            assertEquals(1, server.getDroppedSpectators(), "Only the stalled spectator is dropped");
+            assertEquals(201, server.getSpectators());
+            stalled.close();
+            for (Watcher watcher : all) {
+                watcher.channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.comp2042.net;
+
+import com.comp2042.EventSource;
+import com.comp2042.EventType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VersusProtocolTest {
+
+    @Test
+    void testMessagesRoundTripByteByByte() {
+        List<VersusMessage> messages = List.of(
+                new VersusMessage.Start(1, -42L),
+                new VersusMessage.Input(EventType.HARD_DROP, EventSource.USER),
+                new VersusMessage.Input(EventType.DOWN, EventSource.THREAD),
+                new VersusMessage.Attack(4),
+                new VersusMessage.Garbage(3, 9),
+                new VersusMessage.Checksum(1_000, 0x8000_0000_0000_0001L),
+                new VersusMessage.Bye());
+
+        ByteBuffer encoded = ByteBuffer.allocate(256);
+        for (VersusMessage message : messages) {
+            VersusProtocol.encode(message, encoded);
+        }
+        encoded.flip();
+
+        // Feed one byte at a time, as a slow network would
+        ByteBuffer in = ByteBuffer.allocate(256);
+        List<VersusMessage> decoded = new ArrayList<>();
+        while (encoded.hasRemaining()) {
+            in.put(encoded.get());
+            in.flip();
+            VersusMessage message;
+            while ((message = VersusProtocol.decode(in)) != null) {
+                decoded.add(message);
+            }
+            in.compact();
+        }
+        assertEquals(messages, decoded);
+    }
+
+    @Test
+    void testInputsTakeOneByte() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        VersusProtocol.encode(new VersusMessage.Input(EventType.ROTATE, EventSource.USER), buffer);
+        assertEquals(1, buffer.position());
+
+        buffer.clear().put((byte) 0x7F).flip();
+        assertThrows(IllegalArgumentException.class, () -> VersusProtocol.decode(buffer));
+    }
+}
@@ -0,0 +1,159 @@
+package com.comp2042.replay;
+
+import com.comp2042.DownData;
+import com.comp2042.EventSource;
+import com.comp2042.EventType;
+import com.comp2042.HeadlessGame;
+import com.comp2042.InputEventListener;
+import com.comp2042.MoveEvent;
+import com.comp2042.ViewData;
+import com.comp2042.ai.BeamSearchBot;
+import com.comp2042.ai.BotPlayer;
+import com.comp2042.ai.HeuristicEvaluator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayPlayerTest {
+
+    @TempDir
+    static Path dir;
+
+    private static final ReplayHeader HEADER = ReplayHeader.of("normal", 0x5EEDL, 10, 25, 1, 1_700_000_000_000L);
+
+    private static Replay replay;
+    private static int recordedScore;
+
+    /**
+     * Records a bot game, with a gravity step after every few moves, and reads it back.
+     */
+    @BeforeAll
+    static void recordGame() throws Exception {
+        Path file = dir.resolve("bot" + ReplayFormat.EXTENSION);
+        HeadlessGame game = ReplayPlayer.newGame(HEADER);
+        BotPlayer bot = new BotPlayer(new BeamSearchBot(new HeuristicEvaluator(), 8, 1, 0, ForkJoinPool.commonPool()));
+
+        try (ReplayRecorder recorder = new ReplayRecorder(file, HEADER)) {
+            RecordingListener listener = new RecordingListener(game, recorder);
+            for (int piece = 0; piece < 400 && !game.isGameOver(); piece++) {
+                listener.handle(new MoveEvent(EventType.DOWN, EventSource.THREAD));
+                bot.playMove(listener, game.getBoard());
+            }
+            recordedScore = game.getScore();
+            recorder.finish(recordedScore);
+        }
+        ReplayRecorder.drain();
+        replay = Replay.read(file);
+    }
+
+    @Test
+    void testPlaybackReproducesRecordedGame() {
+        ReplayPlayer player = new ReplayPlayer(replay);
+        assertTrue(recordedScore > 0);
+        assertTrue(player.matchesRecording());
+        assertEquals(recordedScore, player.getSimulatedScore());
+        assertEquals(recordedScore, player.seekToEvent(player.eventCount()).getScore());
+    }
+
+    @Test
+    void testRandomSeeksMatchSequentialPlayback() {
+        ReplayPlayer player = new ReplayPlayer(replay, 64);
+        int count = player.eventCount();
+
+        // Hash of the board after each prefix of events, played straight through
+        long[] expected = new long[count + 1];
+        HeadlessGame sequential = ReplayPlayer.newGame(HEADER);
+        expected[0] = sequential.getBoard().getZobristHash();
+        for (int i = 0; i < count; i++) {
+            sequential.apply(replay.events().get(i).type());
+            expected[i + 1] = sequential.getBoard().getZobristHash();
+        }
+
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            int index = random.nextInt(count + 1);
+            assertEquals(expected[index], player.seekToEvent(index).getBoard().getZobristHash(), "event " + index);
+            assertEquals(index, player.getPosition());
+        }
+    }
+
+    @Test
+    void testSeekByTick() {
+        ReplayPlayer player = new ReplayPlayer(replay);
+        long middle = replay.events().get(replay.events().size() / 2).tick();
+
+        player.seek(middle);
+        assertEquals(middle, replay.events().get(player.getPosition() - 1).tick());
+        assertTrue(player.getPosition() == player.eventCount()
+                || replay.events().get(player.getPosition()).tick() > middle);
+
+        assertEquals(0, player.indexAt(-1));
+        assertEquals(player.eventCount(), player.indexAt(Long.MAX_VALUE));
+    }
+
+    /**
+     * Forwards events to a game and records each one, ten milliseconds apart.
+     */
+    private static final class RecordingListener implements InputEventListener {
+        private final HeadlessGame game;
+        private final ReplayRecorder recorder;
+        private long tick;
+
+        RecordingListener(HeadlessGame game, ReplayRecorder recorder) {
+            this.game = game;
+            this.recorder = recorder;
+        }
+
+        private void record(EventType type, EventSource source) {
+            tick += 10;
+            recorder.record(tick, type, source);
+        }
+
+        @Override
+        public DownData onDownEvent(MoveEvent event) {
+            record(EventType.DOWN, event.getEventSource());
+            return game.onDownEvent(event);
+        }
+
+        @Override
+        public ViewData onLeftEvent(MoveEvent event) {
+            record(EventType.LEFT, event.getEventSource());
+            return game.onLeftEvent(event);
+        }
+
+        @Override
+        public ViewData onRightEvent(MoveEvent event) {
+            record(EventType.RIGHT, event.getEventSource());
+            return game.onRightEvent(event);
+        }
+
+        @Override
+        public ViewData onRotateEvent(MoveEvent event) {
+            record(EventType.ROTATE, event.getEventSource());
+            return game.onRotateEvent(event);
+        }
+
+        @Override
+        public ViewData onHardDropEvent() {
+            record(EventType.HARD_DROP, EventSource.BOT);
+            return game.onHardDropEvent();
+        }
+
+        @Override
+        public void onHoldEvent() {
+            record(EventType.HOLD, EventSource.BOT);
+            game.onHoldEvent();
+        }
+
+        @Override
+        public void createNewGame() {
+            game.createNewGame();
+        }
+    }
+}
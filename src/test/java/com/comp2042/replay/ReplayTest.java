@@ -0,0 +1,87 @@
+package com.comp2042.replay;
+
+import com.comp2042.EventSource;
+import com.comp2042.EventType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayTest {
+
+    @TempDir
+    Path dir;
+
+    private static final ReplayHeader HEADER = ReplayHeader.of("time_60", 0x2042L, 10, 25, 1, 1_700_000_000_000L);
+
+    @Test
+    void testVarintRoundTrip() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        long[] values = {0, 1, 127, 128, 300, 16_383, 16_384, Long.MAX_VALUE};
+        for (long value : values) {
+            ReplayFormat.putVarint(buffer, value);
+        }
+        buffer.flip();
+        for (long value : values) {
+            assertEquals(value, ReplayFormat.getVarint(buffer));
+        }
+    }
+
+    @Test
+    void testRecordAndRead() throws Exception {
+        Random random = new Random(1);
+        List<ReplayEvent> expected = new ArrayList<>();
+        Path file = dir.resolve("game" + ReplayFormat.EXTENSION);
+
+        // Spans several chunks, including a few long pauses
+        try (ReplayRecorder recorder = new ReplayRecorder(file, HEADER)) {
+            long tick = 0;
+            for (int i = 0; i < 10_000; i++) {
+                tick += (i % 1000 == 0) ? 5_000 : random.nextInt(120);
+                EventType type = EventType.values()[random.nextInt(EventType.values().length)];
+                EventSource source = EventSource.values()[random.nextInt(EventSource.values().length)];
+                recorder.record(tick, type, source);
+                expected.add(new ReplayEvent(tick, type, source));
+            }
+            recorder.finish(4_250);
+        }
+        ReplayRecorder.drain();
+
+        Replay replay = Replay.read(file);
+        assertEquals(HEADER, replay.header());
+        assertEquals(expected, replay.events());
+        assertTrue(replay.isFinished());
+        assertEquals(4_250, replay.finalScore());
+
+        long size = Files.size(file);
+        assertTrue(size < 2.1 * expected.size() + 100, "Typical event should take about two bytes, file was " + size);
+    }
+
+    @Test
+    void testAbandonedAndTornReplaysKeepCompleteEvents() throws Exception {
+        Path file = dir.resolve("abandoned" + ReplayFormat.EXTENSION);
+        ReplayRecorder recorder = new ReplayRecorder(file, HEADER);
+        recorder.record(10, EventType.LEFT, EventSource.USER);
+        recorder.record(400, EventType.DOWN, EventSource.THREAD);
+        recorder.record(100_000, EventType.HARD_DROP, EventSource.USER);
+        recorder.close();
+        ReplayRecorder.drain();
+
+        Replay replay = Replay.read(file);
+        assertFalse(replay.isFinished());
+        assertEquals(3, replay.events().size());
+        assertEquals(100_000, replay.durationMillis());
+
+        // Cut the last record in half, as a crash mid-write would
+        byte[] bytes = Files.readAllBytes(file);
+        Replay torn = Replay.decode(ByteBuffer.wrap(bytes, 0, bytes.length - 2));
+        assertEquals(2, torn.events().size());
+    }
+}
@@ -0,0 +1,114 @@
+package com.comp2042.save;
+
+import com.comp2042.EventType;
+import com.comp2042.HeadlessGame;
+import com.comp2042.SimpleBoard;
+import com.comp2042.ai.BeamSearchBot;
+import com.comp2042.ai.BotPlayer;
+import com.comp2042.ai.HeuristicEvaluator;
+import com.comp2042.logic.bricks.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SavedGameTest {
+
+    @TempDir
+    Path dir;
+
+    private static final int WIDTH = 10;
+    private static final int HEIGHT = 25;
+
+    /**
+     * Plays a seeded bot game for a while, then holds and nudges the active
+     * brick so that every part of the state is non-trivial.
+     */
+    private static SavedGame playAndCapture(SimpleBoard board, RandomBrickGenerator generator) {
+        HeadlessGame game = new HeadlessGame(board);
+        new BotPlayer(new BeamSearchBot(new HeuristicEvaluator(), 4, 1, 0, ForkJoinPool.commonPool()))
+                .playGame(game, 60);
+        game.apply(EventType.HOLD);
+        game.apply(EventType.ROTATE);
+        game.apply(EventType.LEFT);
+        game.apply(EventType.DOWN);
+        return SavedGame.capture("time_120", 73, board, generator);
+    }
+
+    @Test
+    void testResumedGameContinuesIdentically() {
+        RandomBrickGenerator generator = new RandomBrickGenerator(1, 0xC0FFEEL);
+        SimpleBoard board = new SimpleBoard(WIDTH, HEIGHT, generator);
+        SavedGame saved = playAndCapture(board, generator);
+
+        ByteBuffer encoded = saved.encode();
+        assertTrue(encoded.remaining() < 200, "Save took " + encoded.remaining() + " bytes");
+        SavedGame decoded = SavedGame.decode(encoded);
+        assertEquals("time_120", decoded.mode());
+        assertEquals(73, decoded.timeRemaining());
+        assertArrayEquals(saved.board().cells(), decoded.board().cells());
+
+        RandomBrickGenerator resumedGenerator = new RandomBrickGenerator(1, 1L);
+        SimpleBoard resumed = new SimpleBoard(WIDTH, HEIGHT, resumedGenerator);
+        decoded.restoreInto(resumed, resumedGenerator);
+        assertEquals(board.getZobristHash(), resumed.getZobristHash());
+        assertEquals(board.getScore().scoreProperty().get(), resumed.getScore().scoreProperty().get());
+
+        // Both games must keep evolving in lockstep, including new bricks from the queue
+        HeadlessGame original = new HeadlessGame(board);
+        HeadlessGame copy = new HeadlessGame(resumed);
+        for (int i = 0; i < 200; i++) {
+            EventType type = EventType.values()[i % EventType.values().length];
+            original.apply(type);
+            copy.apply(type);
+            assertEquals(board.getZobristHash(), resumed.getZobristHash(), "step " + i);
+        }
+    }
+
+    @Test
+    void testRejectsUnknownVersionAndTruncatedData() {
+        RandomBrickGenerator generator = new RandomBrickGenerator(1, 5L);
+        SimpleBoard board = new SimpleBoard(WIDTH, HEIGHT, generator);
+        board.createNewBrick();
+        ByteBuffer encoded = SavedGame.capture("normal", -1, board, generator).encode();
+
+        ByteBuffer newer = ByteBuffer.allocate(encoded.remaining()).put(encoded.duplicate()).flip();
+        newer.putShort(4, (short) (SavedGame.VERSION + 1));
+        assertThrows(IllegalArgumentException.class, () -> SavedGame.decode(newer));
+
+        ByteBuffer truncated = encoded.duplicate().limit(encoded.remaining() / 2);
+        assertThrows(IllegalArgumentException.class, () -> SavedGame.decode(truncated));
+    }
+
+    @Test
+    void testSaveFileWritesNewestAndDeletes() throws Exception {
+        SaveFile file = new SaveFile(dir.resolve("nested").resolve("autosave.sav"));
+        RandomBrickGenerator generator = new RandomBrickGenerator(1, 9L);
+        SimpleBoard board = new SimpleBoard(WIDTH, HEIGHT, generator);
+        board.createNewBrick();
+
+        for (int time = 60; time > 50; time--) {
+            file.save(SavedGame.capture("time_60", time, board, generator));
+        }
+        SaveFile.drain();
+        assertTrue(file.exists());
+        assertEquals(51, file.load().timeRemaining());
+        assertFalse(Files.exists(file.getPath().resolveSibling("autosave.sav.tmp")));
+
+        file.delete();
+        SaveFile.drain();
+        assertFalse(file.exists());
+
+        // A save queued after a delete must still be written
+        file.save(SavedGame.capture("time_60", 40, board, generator));
+        file.delete();
+        file.save(SavedGame.capture("time_60", 39, board, generator));
+        SaveFile.drain();
+        assertEquals(39, file.load().timeRemaining());
+    }
+}
@@ -0,0 +1,66 @@
+package com.comp2042.stats;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameMetricsTest {
+
+    @Test
+    void testLatencyWindowKeepsRecentSamples() {
+        LatencyWindow window = new LatencyWindow(100);
+        assertEquals(0, window.percentileMillis(50));
+        for (int i = 1; i <= 100; i++) {
+            window.record(i * 1_000_000L);
+        }
+        assertEquals(50, window.percentileMillis(50));
+        assertEquals(99, window.percentileMillis(99));
+        assertEquals(100, window.percentileMillis(100));
+
+        // Older samples fall out of the window
+        for (int i = 0; i < 100; i++) {
+            window.record(2_000_000L);
+        }
+        assertEquals(2, window.percentileMillis(99));
+        assertEquals(200, window.count());
+    }
+
+    @Test
+    void testMetricsArePublishedOverJmx() throws Exception {
+        GameMetrics metrics = GameMetrics.defaultMetrics();
+        metrics.register();
+        metrics.register();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(GameMetrics.OBJECT_NAME);
+        assertTrue(server.isRegistered(name));
+
+        long pieces = (Long) server.getAttribute(name, "PiecesPlaced");
+        long lines = (Long) server.getAttribute(name, "LinesCleared");
+        metrics.gameStarted(0);
+        for (int i = 0; i < 10; i++) {
+            metrics.input();
+            metrics.input();
+            metrics.piece(i % 2, 100 * i);
+            metrics.tick(50_000);
+            metrics.boardDrawn(2_000_000);
+            metrics.brickDrawn(1_000_000);
+        }
+        assertTrue((Boolean) server.getAttribute(name, "GameRunning"));
+        assertEquals(pieces + 10, server.getAttribute(name, "PiecesPlaced"));
+        assertEquals(lines + 5, server.getAttribute(name, "LinesCleared"));
+        assertEquals(5, server.getAttribute(name, "GameLinesCleared"));
+        assertEquals(900, server.getAttribute(name, "GameScore"));
+        assertTrue((Double) server.getAttribute(name, "PiecesPerSecond") > 0);
+        assertTrue((Double) server.getAttribute(name, "InputsPerMinute") > 0);
+        assertTrue((Double) server.getAttribute(name, "BoardDrawMillisP99") > 0);
+        assertTrue((Double) server.getAttribute(name, "BrickDrawMillisP99") > 0);
+
+        metrics.gameEnded();
+        assertFalse((Boolean) server.getAttribute(name, "GameRunning"));
+        assertEquals(0.0, server.getAttribute(name, "PiecesPerSecond"), "Rates are of the game in progress");
+    }
+}
@@ -0,0 +1,119 @@
+package com.comp2042.stats;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LongSummaryStatistics;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatsStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static GameStats game(Random random, int i) {
+        int pieces = 50 + random.nextInt(500);
+        return new GameStats(1_700_000_000_000L + i, 60_000 + random.nextInt(600_000), (i % 4) * 60,
+                random.nextLong(), random.nextInt(2_000) * 50, pieces, random.nextInt(200),
+                random.nextInt(50), random.nextInt(20), random.nextInt(10), random.nextInt(10), pieces * 3);
+    }
+
+    @Test
+    void testCounterTalliesClears() {
+        StatsCounter counter = new StatsCounter("time_120", 42L);
+        for (int lines : new int[] {0, 1, 0, 2, 4, 3, 4, 0}) {
+            counter.piece(lines);
+        }
+        for (int i = 0; i < 20; i++) {
+            counter.key();
+        }
+        GameStats stats = counter.finish(1_250);
+
+        assertEquals("time_120", stats.mode());
+        assertEquals(42L, stats.seed());
+        assertEquals(8, stats.pieces());
+        assertEquals(14, stats.lines());
+        assertEquals(1, stats.singles());
+        assertEquals(1, stats.doubles());
+        assertEquals(1, stats.triples());
+        assertEquals(2, stats.tetrises());
+        assertEquals(2.5, stats.keysPerPiece());
+    }
+
+    @Test
+    void testColumnsRoundTripAndAggregate() throws Exception {
+        StatsStore store = new StatsStore(dir);
+        Random random = new Random(4);
+        GameStats[] games = new GameStats[200_000];
+        for (int i = 0; i < games.length; i++) {
+            games[i] = game(random, i);
+            store.record(games[i]);
+        }
+        StatsStore.drain();
+
+        assertEquals(games.length, store.games());
+        assertEquals(games[12_345], store.read(12_345));
+        assertEquals(games[games.length - 1], store.read(games.length - 1));
+
+        LongSummaryStatistics score = store.summarize(StatsStore.Column.SCORE);
+        assertEquals(Arrays.stream(games).mapToLong(GameStats::score).sum(), score.getSum());
+        assertEquals(Arrays.stream(games).mapToLong(GameStats::score).max().orElseThrow(), score.getMax());
+
+        // Only the score column was needed: 4 bytes per game
+        assertEquals(StatsStore.HEADER_BYTES + 4L * games.length,
+                Files.size(store.file(StatsStore.Column.SCORE)));
+
+        long tetrises = store.summarize(StatsStore.Column.TETRISES).getSum();
+        assertEquals(Arrays.stream(games).mapToLong(GameStats::tetrises).sum(), tetrises);
+    }
+
+    @Test
+    void testFailedAppendKeepsGamesForTheNextOne() throws Exception {
+        StatsStore store = new StatsStore(dir);
+        Random random = new Random(6);
+        GameStats lost = game(random, 0);
+        GameStats next = game(random, 1);
+
+        // A directory in place of a column makes every append fail
+        Path column = store.file(StatsStore.Column.START_TIME);
+        Files.createDirectories(column);
+        store.record(lost);
+        StatsStore.drain();
+        assertEquals(0, store.games());
+
+        Files.delete(column);
+        store.record(next);
+        StatsStore.drain();
+        assertEquals(2, store.games(), "The failed game is written with the next");
+        assertEquals(lost, store.read(0));
+        assertEquals(next, store.read(1));
+    }
+
+    @Test
+    void testTornAppendIsOverwritten() throws Exception {
+        StatsStore store = new StatsStore(dir);
+        Random random = new Random(6);
+        GameStats first = game(random, 0);
+        store.record(first);
+        store.record(game(random, 1));
+        StatsStore.drain();
+
+        // Cut the second game out of one column, as a crash mid-append would
+        Path seeds = store.file(StatsStore.Column.SEED);
+        Files.write(seeds, Arrays.copyOf(Files.readAllBytes(seeds), StatsStore.HEADER_BYTES + 8 + 3));
+        assertEquals(1, store.games());
+
+        GameStats third = game(random, 2);
+        store.record(third);
+        StatsStore.drain();
+        assertEquals(2, store.games());
+        assertEquals(first, store.read(0));
+        assertEquals(third, store.read(1));
+        assertEquals(StatsStore.HEADER_BYTES + 8L * 2, Files.size(store.file(StatsStore.Column.START_TIME)));
+    }
+}
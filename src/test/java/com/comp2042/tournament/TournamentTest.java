@@ -0,0 +1,79 @@
+package com.comp2042.tournament;
+
+import com.comp2042.EventType;
+import com.comp2042.VersusGame;
+import com.comp2042.replay.VersusReplay;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TournamentTest {
+
+    /** Drops every brick where it spawns. */
+    public static class DropBot implements VersusBot {
+        @Override
+        public List<EventType> plan(VersusGame game, int player) {
+            return List.of();
+        }
+    }
+
+    @Test
+    void testRoundRobinRatesAndReplaysEveryMatch(@TempDir Path dir) throws IOException {
+        List<Tournament.Entrant> entrants = List.of(Bots.entrant("greedy"), Bots.entrant("random"),
+                Bots.entrant(DropBot.class.getName()));
+        Tournament.Settings settings = new Tournament.Settings(entrants, Tournament.Format.ROUND_ROBIN,
+                2, 1, 60, 7L, 2, true, dir);
+        Tournament.Result result = new Tournament(settings).run();
+
+        // Three pairings, two seeds, both sides of each
+        assertEquals(12, result.matches().size());
+        assertEquals(13, Files.readAllLines(dir.resolve("matches.csv")).size());
+        assertEquals(4, Files.readAllLines(dir.resolve("ratings.csv")).size());
+        assertEquals("greedy", result.standings().get(0).name(), "The search bot outplays random drops");
+        for (Tournament.Standing standing : result.standings()) {
+            assertEquals(8, standing.played());
+            assertTrue(standing.deviation() < Ratings.INITIAL_DEVIATION);
+        }
+
+        for (Tournament.MatchResult match : result.matches()) {
+            VersusReplay replay = VersusReplay.read(match.replay());
+            assertEquals(match.seed(), replay.header().seed());
+            assertEquals(match.winner(), replay.winner());
+            VersusGame game = replay.play();
+            assertEquals(match.winner(), game.getWinner(), "Replay reproduces the match");
+            assertEquals(match.linesSent()[0], game.getLinesSent(0));
+            assertEquals(match.linesSent()[1], game.getLinesSent(1));
+        }
+    }
+
+    @Test
+    void testSwissAvoidsRematches(@TempDir Path dir) throws IOException {
+        List<Tournament.Entrant> entrants = List.of(Bots.entrant("greedy"), Bots.entrant("random"),
+                new Tournament.Entrant("random-2", seed -> Bots.random(seed + 1)),
+                Bots.entrant(DropBot.class.getName()));
+        Tournament.Settings settings = new Tournament.Settings(entrants, Tournament.Format.SWISS,
+                1, 3, 40, 11L, 2, false, dir);
+        Tournament.Result result = new Tournament(settings).run();
+
+        // Two pairings a round, each played from both sides
+        assertEquals(12, result.matches().size());
+        Set<Long> pairings = new HashSet<>();
+        for (Tournament.MatchResult match : result.matches()) {
+            assertNull(match.replay());
+            if (match.index() % 2 == 0) {
+                long key = ((long) Math.min(match.first(), match.second()) << 32)
+                        | Math.max(match.first(), match.second());
+                assertTrue(pairings.add(key), "No pairing is played twice in three rounds of four");
+            }
+        }
+        assertFalse(Files.exists(dir.resolve("replays")));
+    }
+}